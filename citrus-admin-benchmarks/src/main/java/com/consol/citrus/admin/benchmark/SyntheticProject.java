@@ -0,0 +1,246 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.benchmark;
+
+import com.consol.citrus.admin.model.Project;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Generates a synthetic Citrus project with the given number of tests. Test classes hold five tests each and are
+ * grouped in packages of twenty classes. Each package mixes Citrus Java DSL tests, XML tests, plain TestNG tests and
+ * a Cucumber runner with feature files, so all test providers have work to do. Generated projects are reused by
+ * later benchmark runs.
+ *
+ * @author Christoph Deppisch
+ */
+public final class SyntheticProject {
+
+    /** Tests per class and classes per package */
+    public static final int TESTS_PER_CLASS = 5;
+    public static final int CLASSES_PER_PACKAGE = 20;
+
+    /** Marker file written when generation has finished */
+    private static final String MARKER_FILE = "benchmark-project.properties";
+    private static final String GENERATOR_VERSION = "1";
+
+    /** Projects base directory */
+    private static final String PROJECTS_DIRECTORY = System.getProperty("benchmark.projects.dir",
+            Paths.get("target", "benchmark-projects").toString());
+
+    private final Path projectHome;
+    private final int tests;
+    private final List<String> classes = new ArrayList<>();
+
+    private SyntheticProject(Path projectHome, int tests) {
+        this.projectHome = projectHome;
+        this.tests = tests;
+    }
+
+    /**
+     * Gets synthetic project with given number of tests. Project is generated when not present.
+     * @param tests
+     * @return
+     * @throws IOException
+     */
+    public static SyntheticProject create(int tests) throws IOException {
+        SyntheticProject project = new SyntheticProject(Paths.get(PROJECTS_DIRECTORY, "tests-" + tests).toAbsolutePath(), tests);
+        project.generate();
+        return project;
+    }
+
+    /**
+     * Gets the project model pointing to the generated project home.
+     * @return
+     */
+    public Project getProject() {
+        return new Project(projectHome.toString());
+    }
+
+    /**
+     * Gets fully qualified names of all generated test classes.
+     * @return
+     */
+    public List<String> getClasses() {
+        return classes;
+    }
+
+    /**
+     * Gets the number of tests.
+     * @return
+     */
+    public int getTests() {
+        return tests;
+    }
+
+    private void generate() throws IOException {
+        Path javaDirectory = projectHome.resolve(Paths.get("src", "test", "java"));
+        Path resourceDirectory = projectHome.resolve(Paths.get("src", "test", "resources"));
+        Path marker = projectHome.resolve(MARKER_FILE);
+        String expected = "tests=" + tests + "\nversion=" + GENERATOR_VERSION + "\n";
+        boolean exists = Files.exists(marker) && new String(Files.readAllBytes(marker), StandardCharsets.UTF_8).equals(expected);
+
+        long modified = System.currentTimeMillis() - tests * 1000L;
+        int classCount = (tests + TESTS_PER_CLASS - 1) / TESTS_PER_CLASS;
+        for (int index = 0; index < classCount; index++) {
+            int packageIndex = index / CLASSES_PER_PACKAGE;
+            String packageName = String.format("com.consol.citrus.benchmark.p%04d", packageIndex);
+            TestKind kind = TestKind.of(index % CLASSES_PER_PACKAGE);
+            String className = String.format("%s%05d%s", kind.prefix, index, kind.suffix);
+            int count = Math.min(TESTS_PER_CLASS, tests - index * TESTS_PER_CLASS);
+            classes.add(packageName + "." + className);
+
+            if (exists) {
+                continue;
+            }
+
+            Path packageDirectory = javaDirectory.resolve(packageName.replace('.', '/'));
+            Path sourceFile = packageDirectory.resolve(className + ".java");
+            Files.createDirectories(packageDirectory);
+            Files.write(sourceFile, kind.source(packageName, className, count).getBytes(StandardCharsets.UTF_8));
+            sourceFile.toFile().setLastModified(modified + index * 1000L);
+
+            Path resourcePackage = resourceDirectory.resolve(packageName.replace('.', '/'));
+            if (kind == TestKind.XML) {
+                Files.createDirectories(resourcePackage);
+                for (int i = 1; i <= count; i++) {
+                    Files.write(resourcePackage.resolve(className + "_" + i + ".xml"), xmlTest(className + "_" + i).getBytes(StandardCharsets.UTF_8));
+                }
+            } else if (kind == TestKind.CUCUMBER) {
+                Files.createDirectories(resourcePackage);
+                for (int i = 1; i <= count; i++) {
+                    Files.write(resourcePackage.resolve(String.format("feature%05d_%s.feature", index, i)), feature(index, i).getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+
+        if (!exists) {
+            Files.write(marker, expected.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String xmlTest(String name) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n" +
+                "<spring:beans xmlns=\"http://www.citrusframework.org/schema/testcase\"\n" +
+                "              xmlns:spring=\"http://www.springframework.org/schema/beans\">\n" +
+                "  <testcase name=\"" + name + "\">\n" +
+                "    <actions>\n" +
+                "      <echo>\n" +
+                "        <message>Hello from " + name + "</message>\n" +
+                "      </echo>\n" +
+                "    </actions>\n" +
+                "  </testcase>\n" +
+                "</spring:beans>\n";
+    }
+
+    private static String feature(int index, int scenario) {
+        return "Feature: Benchmark feature " + index + "_" + scenario + "\n\n" +
+                "  Scenario: Echo\n" +
+                "    Given variable greeting is \"Hello\"\n" +
+                "    Then echo \"${greeting}\"\n";
+    }
+
+    /**
+     * Kinds of generated test classes and their share per package.
+     */
+    private enum TestKind {
+        JAVA("Java", "Test"),
+        XML("Xml", "IT"),
+        TESTNG("TestNG", "Test"),
+        CUCUMBER("Cucumber", "IT");
+
+        private final String prefix;
+        private final String suffix;
+
+        TestKind(String prefix, String suffix) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+        }
+
+        /**
+         * Twelve Java DSL, five XML, two TestNG and one Cucumber class per package.
+         * @param classIndex index of class in package
+         * @return
+         */
+        static TestKind of(int classIndex) {
+            if (classIndex < 12) {
+                return JAVA;
+            } else if (classIndex < 17) {
+                return XML;
+            } else if (classIndex < 19) {
+                return TESTNG;
+            } else {
+                return CUCUMBER;
+            }
+        }
+
+        String source(String packageName, String className, int count) {
+            StringBuilder source = new StringBuilder();
+            source.append("package ").append(packageName).append(";\n\n");
+
+            switch (this) {
+                case JAVA:
+                    source.append("import com.consol.citrus.annotations.CitrusTest;\n");
+                    source.append("import com.consol.citrus.dsl.testng.TestNGCitrusTestDesigner;\n");
+                    source.append("import org.testng.annotations.Test;\n\n");
+                    source.append("public class ").append(className).append(" extends TestNGCitrusTestDesigner {\n");
+                    for (int i = 1; i <= count; i++) {
+                        source.append("\n    @Test\n");
+                        source.append(i % 2 == 0 ? "    @CitrusTest(name = \"" + className + "_" + i + "\")\n" : "    @CitrusTest\n");
+                        source.append("    public void test").append(i).append("() {\n");
+                        source.append("        echo(\"Hello ").append(i).append("\");\n");
+                        source.append("    }\n");
+                    }
+                    break;
+                case XML:
+                    source.append("import com.consol.citrus.annotations.CitrusXmlTest;\n");
+                    source.append("import com.consol.citrus.testng.AbstractTestNGCitrusTest;\n");
+                    source.append("import org.testng.annotations.Test;\n\n");
+                    source.append("public class ").append(className).append(" extends AbstractTestNGCitrusTest {\n");
+                    for (int i = 1; i <= count; i++) {
+                        source.append("\n    @Test\n");
+                        source.append("    @CitrusXmlTest(name = \"").append(className).append("_").append(i).append("\")\n");
+                        source.append("    public void test").append(i).append("() {}\n");
+                    }
+                    break;
+                case TESTNG:
+                    source.append("import org.testng.Assert;\n");
+                    source.append("import org.testng.annotations.Test;\n\n");
+                    source.append("public class ").append(className).append(" {\n");
+                    for (int i = 1; i <= count; i++) {
+                        source.append("\n    @Test\n");
+                        source.append("    public void test").append(i).append("() {\n");
+                        source.append("        Assert.assertTrue(true);\n");
+                        source.append("    }\n");
+                    }
+                    break;
+                case CUCUMBER:
+                    source.append("import cucumber.api.junit.Cucumber;\n");
+                    source.append("import org.junit.runner.RunWith;\n\n");
+                    source.append("@RunWith(Cucumber.class)\n");
+                    source.append("public class ").append(className).append(" {\n");
+                    break;
+            }
+
+            source.append("}\n");
+            return source.toString();
+        }
+    }
+}
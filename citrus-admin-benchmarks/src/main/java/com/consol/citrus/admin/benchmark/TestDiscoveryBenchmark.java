@@ -0,0 +1,93 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.benchmark;
+
+import com.consol.citrus.admin.converter.ConverterRegistry;
+import com.consol.citrus.admin.model.*;
+import com.consol.citrus.admin.service.TestCaseService;
+import com.consol.citrus.admin.service.test.*;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures test discovery operations of {@link TestCaseService} on synthetic projects of growing size. Run with
+ * "-prof gc" to also report allocation per operation.
+ *
+ * @author Christoph Deppisch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class TestDiscoveryBenchmark {
+
+    /** Latest tests limit as used by the project dashboard */
+    private static final int LATEST_LIMIT = 8;
+
+    @Param({ "1000", "10000", "50000" })
+    private int tests;
+
+    private AnnotationConfigApplicationContext applicationContext;
+    private TestCaseService testCaseService;
+    private Project project;
+    private List<String> classes;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        SyntheticProject syntheticProject = SyntheticProject.create(tests);
+        project = syntheticProject.getProject();
+        classes = syntheticProject.getClasses();
+
+        applicationContext = new AnnotationConfigApplicationContext(TestCaseService.class, ConverterRegistry.class,
+                CitrusAnnotationTestProvider.class, TestNGAnnotationTestProvider.class, CucumberJUnit4TestProvider.class);
+        testCaseService = applicationContext.getBean(TestCaseService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public List<TestGroup> getTestPackages() {
+        return testCaseService.getTestPackages(project);
+    }
+
+    @Benchmark
+    public List<TestGroup> getLatest() {
+        return testCaseService.getLatest(project, LATEST_LIMIT);
+    }
+
+    @Benchmark
+    public long getTestCount() {
+        return testCaseService.getTestCount(project);
+    }
+
+    @Benchmark
+    public Test findTest() {
+        String fullName = classes.get(next++ % classes.size());
+        int separator = fullName.lastIndexOf('.');
+        return testCaseService.findTest(project, fullName.substring(0, separator), fullName.substring(separator + 1));
+    }
+}
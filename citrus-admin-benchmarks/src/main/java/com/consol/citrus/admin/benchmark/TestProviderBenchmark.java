@@ -0,0 +1,79 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.benchmark;
+
+import com.consol.citrus.admin.model.Project;
+import com.consol.citrus.admin.model.Test;
+import com.consol.citrus.admin.service.test.*;
+import com.consol.citrus.util.FileUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures each {@link TestProvider} on its own with the project source files listed once up front, so results
+ * show the cost of parsing sources apart from the file system scan.
+ *
+ * @author Christoph Deppisch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx2g" })
+public class TestProviderBenchmark {
+
+    @Param({ "citrus", "testng", "cucumber" })
+    private String provider;
+
+    @Param({ "1000", "10000", "50000" })
+    private int tests;
+
+    private TestProvider testProvider;
+    private Project project;
+    private List<File> sourceFiles;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        project = SyntheticProject.create(tests).getProject();
+        sourceFiles = FileUtils.findFiles(project.getJavaDirectory(), StringUtils.commaDelimitedListToSet(project.getSettings().getJavaFilePattern()));
+
+        switch (provider) {
+            case "citrus":
+                testProvider = new CitrusAnnotationTestProvider();
+                break;
+            case "testng":
+                testProvider = new TestNGAnnotationTestProvider();
+                break;
+            case "cucumber":
+                testProvider = new CucumberJUnit4TestProvider();
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported test provider: " + provider);
+        }
+    }
+
+    @Benchmark
+    public List<Test> findTests() {
+        return testProvider.findTests(project, sourceFiles);
+    }
+}
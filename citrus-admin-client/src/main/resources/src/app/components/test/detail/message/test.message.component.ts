@@ -1,20 +1,35 @@
 import {Component,  Input} from '@angular/core';
 import {Message} from "../../../../model/message";
+import {TestService} from "../../../../service/test.service";
 
 @Component({
     selector: ".test-message",
     template: `<div (click)="toggleMessage()" [style.color]="message.type == 'OUTBOUND' ? '#000099' : '#026ebe'">
   <span *ngIf="message.type == 'OUTBOUND'"><i class="fa fa-envelope-o">&nbsp;</i> send</span>
   <span *ngIf="message.type == 'INBOUND'"><i class="fa fa-envelope-o">&nbsp;</i> receive</span><span *ngIf="!open"> ...</span>
+  <span *ngIf="message.truncated" class="badge badge-warning">truncated<span *ngIf="message.size > 0"> ({{message.size}} bytes)</span></span>
   <pre *ngIf="open" class="message">{{message.data}}</pre>
+  <a *ngIf="open && message.truncated && !loaded" class="clickable" (click)="loadPayload($event)"><i class="fa fa-download">&nbsp;</i> load full message</a>
 </div>`
 })
 export class TestMessageComponent {
     @Input() message: Message;
 
     open = false;
+    loaded = false;
+
+    constructor(private _testService: TestService) {}
 
     toggleMessage() {
         this.open = !this.open;
     }
+
+    loadPayload(event: Event) {
+        event.stopPropagation();
+        this._testService.getMessagePayload(this.message.id)
+            .subscribe(payload => {
+                this.message.data = payload;
+                this.loaded = true;
+            });
+    }
 }
\ No newline at end of file
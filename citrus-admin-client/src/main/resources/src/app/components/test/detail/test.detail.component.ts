@@ -1,4 +1,4 @@
-import {Component, OnInit, Input} from '@angular/core';
+import {Component, OnDestroy, Input} from '@angular/core';
 import {TestDetail, TestResult} from "../../../model/tests";
 import {Alert} from "../../../model/alert";
 import {AlertService} from "../../../service/alert.service";
@@ -6,12 +6,15 @@ import {Subscription} from "rxjs";
 import {LoggingService} from "../../../service/logging.service";
 import {TestService} from "../../../service/test.service";
 import {SocketEvent} from "../../../model/socket.event";
+import {Message} from "../../../model/message";
+import * as _ from 'lodash';
+import * as moment from 'moment';
 
 @Component({
     selector: "test-detail",
     templateUrl: 'test-detail.html'
 })
-export class TestDetailComponent implements OnInit {
+export class TestDetailComponent implements OnDestroy {
 
     @Input() detail: TestDetail;
 
@@ -21,6 +24,7 @@ export class TestDetailComponent implements OnInit {
 
     private loggingOutputSubscription: Subscription;
     private loggingEventSubscription: Subscription;
+    private messageSubscription: Subscription;
 
     completed = 0;
     failed = false;
@@ -30,8 +34,14 @@ export class TestDetailComponent implements OnInit {
     logs = "";
     loggingFrame = "";
 
-    ngOnInit() {
-        this.loggingOutputSubscription = this.loggingService.logOutput
+    ngOnDestroy(): void {
+        this.unsubscribe();
+    }
+
+    subscribe(processId: string) {
+        this.unsubscribe();
+
+        this.loggingOutputSubscription = this.loggingService.processLogOutput(processId)
             .subscribe((e: SocketEvent) => {
                 jQuery('pre.logger').scrollTop(jQuery('pre.logger')[0].scrollHeight);
                 this.logs += e.msg;
@@ -39,11 +49,14 @@ export class TestDetailComponent implements OnInit {
                 this.handle(e);
             });
 
-        this.loggingEventSubscription = this.loggingService.testEvents
-            .subscribe(this.handle);
+        this.loggingEventSubscription = this.loggingService.processTestEvents(processId)
+            .subscribe((e: SocketEvent) => this.handle(e));
+
+        this.messageSubscription = this.loggingService.processMessages(processId)
+            .subscribe(message => this.detail.messages.push(new Message(message.id || _.uniqueId(), message.type, message.msg, moment().toISOString(), !!message.truncated, message.size || 0)));
     }
 
-    ngOnDestroy(): void {
+    unsubscribe() {
         if(this.loggingOutputSubscription) {
             this.loggingOutputSubscription.unsubscribe();
         }
@@ -51,6 +64,10 @@ export class TestDetailComponent implements OnInit {
         if(this.loggingEventSubscription) {
             this.loggingEventSubscription.unsubscribe();
         }
+
+        if(this.messageSubscription) {
+            this.messageSubscription.unsubscribe();
+        }
     }
 
     execute() {
@@ -65,6 +82,7 @@ export class TestDetailComponent implements OnInit {
         this._testService.execute(this.detail)
             .subscribe(
                 processId => {
+                    this.subscribe(processId);
                     this.detail.result = new TestResult();
                     this.detail.result.test = this.detail;
                     this.detail.result.processId = processId;
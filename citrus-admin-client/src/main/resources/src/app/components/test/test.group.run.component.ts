@@ -2,7 +2,7 @@ import {Component, OnInit} from '@angular/core';
 import {TestGroup, TestResult, Test} from "../../model/tests";
 import {Alert} from "../../model/alert";
 import {AlertService} from "../../service/alert.service";
-import {Observable} from "rxjs";
+import {Observable, Subscription} from "rxjs";
 import {TestService} from "../../service/test.service";
 import {TestStateService} from "./test.state";
 import {SocketEvent} from "../../model/socket.event";
@@ -34,6 +34,9 @@ export class TestGroupRunComponent implements OnInit {
 
     selected: TestGroup;
 
+    private loggingOutputSubscription: Subscription;
+    private resultSubscription: Subscription;
+
     ngOnInit() {
         this.packages = this.testState.packages;
 
@@ -46,25 +49,44 @@ export class TestGroupRunComponent implements OnInit {
                 });
             });
         });
+    }
+
+    ngOnDestroy(): void {
+        this.unsubscribe();
+    }
+
+    subscribe(processId: string) {
+        this.unsubscribe();
 
-        this.loggingService.logOutput
+        this.loggingOutputSubscription = this.loggingService.processLogOutput(processId)
             .subscribe((event: SocketEvent) => {
                 this.processOutput += event.msg;
                 this.currentOutput = event.msg;
                 this.handle(event);
             });
-        this.loggingService.results
+        this.resultSubscription = this.loggingService.processResults(processId)
             .subscribe((result: TestResult) => {
                 this.handleResult(result);
             });
     }
 
+    unsubscribe() {
+        if (this.loggingOutputSubscription) {
+            this.loggingOutputSubscription.unsubscribe();
+        }
+
+        if (this.resultSubscription) {
+            this.resultSubscription.unsubscribe();
+        }
+    }
+
     execute() {
         this.results.forEach(r => r.status = undefined);
         if (this.selected) {
             this.testService.executeGroup(this.selected)
                 .subscribe(
                     processId => {
+                        this.subscribe(processId);
                         this.processOutput = "";
                         this.currentOutput = "";
                         this.running = true;
@@ -74,6 +96,7 @@ export class TestGroupRunComponent implements OnInit {
             this.testService.executeAll()
                 .subscribe(
                     processId => {
+                        this.subscribe(processId);
                         this.processOutput = "";
                         this.currentOutput = "";
                         this.running = true;
@@ -3,5 +3,7 @@ export class Message {
     constructor(public id: string,
                 public type: string,
                 public data: string,
-                public timestamp: string) {}
+                public timestamp: string,
+                public truncated: boolean = false,
+                public size: number = 0) {}
 }
\ No newline at end of file
@@ -39,5 +39,10 @@ export class BuildContext {
     public clean: boolean;
     public compile: boolean;
     public profiles: string;
+    public shards: number;
+    public maxParallelShards: number;
+    public warmRunner: boolean;
+    public buildAvoidance: boolean;
+    public offlineBuild: boolean;
     public properties: Property[];
 }
@@ -5,4 +5,17 @@ export class SocketEvent {
     public msg: string;
     public type: string;
     public processId: string;
-}
\ No newline at end of file
+}
+export class SequencedEvent {
+    public seq: number;
+    public topic: string;
+    public payload: any;
+}
+
+export class ProcessEventChunk {
+    public processId: string;
+    public after: number;
+    public seq: number;
+    public gap: boolean;
+    public events: SequencedEvent[];
+}
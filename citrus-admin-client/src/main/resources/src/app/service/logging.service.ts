@@ -33,6 +33,11 @@ export class LoggingService {
         return this.stomp.connect().switchMap(c => c.subscribeToTopic(topic))
     }
 
+    private getConnectedProcessTopicObservable(processId:string, topic:string) {
+        let destination = `/topic/process/${processId}/${topic}`;
+        return this.stomp.connect().switchMap(c => c.subscribeToTopic(destination).finally(() => c.releaseTopic(destination)))
+    }
+
     get testEvents() {
         return this.getConnectedTopicObservable('/topic/test-events').map((m: Message) => {
             return JSON.parse(m.body) as SocketEvent;
@@ -56,4 +61,28 @@ export class LoggingService {
             return JSON.parse(m.body) as TestResult;
         })
     }
+
+    processTestEvents(processId:string) {
+        return this.getConnectedProcessTopicObservable(processId, 'events').map((m: Message) => {
+            return JSON.parse(m.body) as SocketEvent;
+        })
+    }
+
+    processLogOutput(processId:string) {
+        return this.getConnectedProcessTopicObservable(processId, 'log').map((m: Message) => {
+            return JSON.parse(m.body) as SocketEvent;
+        })
+    }
+
+    processMessages(processId:string) {
+        return this.getConnectedProcessTopicObservable(processId, 'messages').map((m: Message) => {
+            return JSON.parse(m.body) as any;
+        })
+    }
+
+    processResults(processId:string) {
+        return this.getConnectedProcessTopicObservable(processId, 'results').map((m: Message) => {
+            return JSON.parse(m.body) as TestResult;
+        })
+    }
 }
\ No newline at end of file
@@ -1,9 +1,11 @@
 import {Injectable} from "@angular/core";
+import {Http} from "@angular/http";
 import * as Stomp from 'stompjs';
 import * as SockJS from "sockjs-client";
 import {Subject} from "rxjs/Subject";
 import {Observable} from "rxjs/Observable";
 import {Observer} from "rxjs/Observer";
+import {ProcessEventChunk, SequencedEvent} from "../model/socket.event";
 import * as _ from 'lodash'
 
 export enum ConnectionStatus {
@@ -12,13 +14,161 @@ export enum ConnectionStatus {
     CONNECTED
 }
 
+/** Fetches events of a process topic published after given sequence number */
+export type CatchUp = (processId: string, topic: string, after: number) => Observable<ProcessEventChunk>;
+
+const PROCESS_TOPIC = /^\/topic\/process\/(.+)\/([^/]+)$/;
+const INITIAL_RECONNECT_DELAY = 1000;
+const MAX_RECONNECT_DELAY = 30000;
+const REORDER_TIMEOUT = 500;
+
 export class Topic extends Subject<Stomp.Message> {
+    references = 0;
+    lastSeq = 0;
+    private subscription: Stomp.Subscription;
+    private pending: Stomp.Message[] = null;
+    /** Frames waiting for the previous event on this topic, keyed by the previous sequence number */
+    private held: Map<number, Stomp.Message> = new Map();
+    private reorderTimeout: any = null;
+
     constructor(
-        private connection:Stomp.Client,
+        connection:Stomp.Client,
         private topic:string
     ) {
         super();
-        connection.subscribe(topic, m => this.next(m))
+        this.attach(connection);
+    }
+
+    /**
+     * Subscribes again on new connection. Process topics fetch the events missed while disconnected and hold back
+     * live events until the missed events have been delivered.
+     */
+    reattach(connection:Stomp.Client, catchUp:CatchUp) {
+        let processTopic = PROCESS_TOPIC.exec(this.topic);
+        this.pending = processTopic && this.lastSeq > 0 ? [] : null;
+        if (this.pending) {
+            // held frames are fetched again with the missed events
+            this.clearHeld();
+        }
+        this.attach(connection);
+
+        if (this.pending) {
+            catchUp(processTopic[1], processTopic[2], this.lastSeq).subscribe(
+                chunk => {
+                    if (chunk.gap) {
+                        console.warn(`Missed events of ${this.topic} are no longer available`);
+                    }
+                    let prev = this.lastSeq;
+                    chunk.events.forEach(event => {
+                        this.receive(Topic.toMessage(event, prev));
+                        prev = event.seq;
+                    });
+                },
+                error => {
+                    console.warn(`Failed to fetch missed events of ${this.topic}`, error);
+                    this.release();
+                },
+                () => this.release());
+        }
+    }
+
+    close() {
+        this.clearHeld();
+        this.subscription.unsubscribe();
+        this.complete();
+    }
+
+    private attach(connection:Stomp.Client) {
+        this.subscription = connection.subscribe(this.topic, m => this.pending ? this.pending.push(m) : this.receive(m));
+    }
+
+    private release() {
+        let pending = this.pending || [];
+        this.pending = null;
+        pending.forEach(m => this.receive(m));
+    }
+
+    /**
+     * Delivers events of process topics in sequence order and skips events already received. The server sends frames
+     * from a thread pool so frames may arrive out of order. Frames are held back until the previous event on this
+     * topic has been delivered, or until a short timeout as log frames may have been dropped for slow clients.
+     * Sequence numbers are only tracked on process topics as aggregate topics mix the events of several processes.
+     */
+    private receive(m:Stomp.Message) {
+        let seq = Number(m.headers['seq']);
+        if (!seq || !PROCESS_TOPIC.test(this.topic)) {
+            this.next(m);
+            return;
+        }
+
+        let prev = Number(m.headers['prev']) || 0;
+        if (prev === 0 && seq <= this.lastSeq) {
+            // first event of a new process run, sequence numbers have been restarted
+            this.clearHeld();
+            this.lastSeq = 0;
+        }
+
+        if (seq <= this.lastSeq) {
+            return;
+        }
+
+        if (this.lastSeq > 0 && prev > this.lastSeq) {
+            this.held.set(prev, m);
+            this.scheduleSkip();
+        } else {
+            this.deliver(m);
+        }
+    }
+
+    /**
+     * Delivers frame followed by all held frames that have been waiting for it.
+     */
+    private deliver(m:Stomp.Message) {
+        while (m) {
+            let seq = Number(m.headers['seq']);
+            this.lastSeq = seq;
+            this.next(m);
+
+            m = this.held.get(seq);
+            this.held.delete(seq);
+        }
+
+        if (this.held.size) {
+            this.scheduleSkip();
+        } else {
+            this.clearHeld();
+        }
+    }
+
+    private scheduleSkip() {
+        if (!this.reorderTimeout) {
+            this.reorderTimeout = setTimeout(() => this.skip(), REORDER_TIMEOUT);
+        }
+    }
+
+    /**
+     * Stops waiting for missing events and delivers the held frame with lowest sequence number.
+     */
+    private skip() {
+        this.reorderTimeout = null;
+
+        let first = -1;
+        this.held.forEach((m, prev) => first = first < 0 || prev < first ? prev : first);
+        if (first >= 0) {
+            let m = this.held.get(first);
+            this.held.delete(first);
+            this.deliver(m);
+        }
+    }
+
+    private clearHeld() {
+        clearTimeout(this.reorderTimeout);
+        this.reorderTimeout = null;
+        this.held.clear();
+    }
+
+    private static toMessage(event:SequencedEvent, prev:number):Stomp.Message {
+        return { headers: { seq: String(event.seq), prev: String(prev) }, body: JSON.stringify(event.payload) } as any;
     }
 }
 
@@ -28,18 +178,10 @@ export class StompConnection {
     private topics: Map<string, Topic> = new Map();
     private connectionObserver: Observable<StompConnection>;
     private connectionStatus:ConnectionStatus = ConnectionStatus.NOT_CONNECTED;
+    private reconnectDelay = INITIAL_RECONNECT_DELAY;
 
-    constructor(private url: string) {
-        this.stompClient = Stomp.over(new SockJS(this.url) as any);
-
-        this.stompClient.debug = _.wrap(this.stompClient.debug, (fn: (...args: string[]) => any, ...args: string[]) => {
-            if (this.debug) {
-                return fn.apply(this.stompClient, args);
-            } else {
-                return null;
-            }
-        }) as (...args: string[]) => any;
-
+    constructor(private url: string, private catchUp: CatchUp) {
+        this.stompClient = this.createClient();
     }
 
     connect() {
@@ -57,7 +199,13 @@ export class StompConnection {
                                 this.stompClient.disconnect(() => {})
                             }
                         },
-                        (error: any) => observer.error(error)
+                        (error: any) => {
+                            if (this.connectionStatus === ConnectionStatus.CONNECTED) {
+                                this.reconnect();
+                            } else {
+                                observer.error(error);
+                            }
+                        }
                     );
                 }
                 if(this.connectionStatus === ConnectionStatus.CONNECTED) {
@@ -72,7 +220,53 @@ export class StompConnection {
         if (!this.topics.has(topic)) {
             this.topics.set(topic, new Topic(this.stompClient, topic))
         }
-        return this.topics.get(topic);
+        let subscription = this.topics.get(topic);
+        subscription.references++;
+        return subscription;
+    }
+
+    releaseTopic(topic: string) {
+        let subscription = this.topics.get(topic);
+        if (subscription && --subscription.references <= 0) {
+            subscription.close();
+            this.topics.delete(topic);
+        }
+    }
+
+    /**
+     * Opens new connection after lost connection with exponential backoff and subscribes all topics again.
+     */
+    private reconnect() {
+        this.connectionStatus = ConnectionStatus.WAITING;
+        setTimeout(() => {
+            this.stompClient = this.createClient();
+            this.stompClient.connect({} as any,
+                () => {
+                    this.connectionStatus = ConnectionStatus.CONNECTED;
+                    this.reconnectDelay = INITIAL_RECONNECT_DELAY;
+                    this.topics.forEach(topic => topic.reattach(this.stompClient, this.catchUp));
+                },
+                () => {
+                    if (this.connectionStatus === ConnectionStatus.WAITING) {
+                        this.reconnectDelay = Math.min(this.reconnectDelay * 2, MAX_RECONNECT_DELAY);
+                    }
+                    this.reconnect();
+                });
+        }, this.reconnectDelay);
+    }
+
+    private createClient():Stomp.Client {
+        let client = Stomp.over(new SockJS(this.url) as any);
+
+        client.debug = _.wrap(client.debug, (fn: (...args: string[]) => any, ...args: string[]) => {
+            if (this.debug) {
+                return fn.apply(client, args);
+            } else {
+                return null;
+            }
+        }) as (...args: string[]) => any;
+
+        return client;
     }
 }
 
@@ -81,13 +275,18 @@ export class StompConnectionService {
 
     connections: Map<string, StompConnection> = new Map();
 
-    constructor() {
+    constructor(private http: Http) {
     }
 
     getConnection(url: string) {
         if (!this.connections.has(url)) {
-            this.connections.set(url, new StompConnection(url))
+            this.connections.set(url, new StompConnection(url, (processId, topic, after) => this.getEvents(processId, topic, after)))
         }
         return this.connections.get(url);
     }
-}
\ No newline at end of file
+
+    getEvents(processId: string, topic: string, after: number):Observable<ProcessEventChunk> {
+        return this.http.get(`api/process/${encodeURIComponent(processId)}/events?topic=${encodeURIComponent(topic)}&after=${after}`)
+            .map(res => <ProcessEventChunk> res.json());
+    }
+}
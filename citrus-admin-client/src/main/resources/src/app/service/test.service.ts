@@ -17,6 +17,7 @@ export class TestService {
     private _testSourceUrl = this._serviceUrl + '/source';
     private _testExecuteUrl = this._serviceUrl + '/execute';
     private _testActionsUrl = 'api/test/actions';
+    private _connectorMessageUrl = 'api/connector/message';
 
     getTestPackages():Observable<TestGroup[]> {
         return this.http.get(this._serviceUrl)
@@ -104,6 +105,12 @@ export class TestService {
             .catch(this.handleError);
     }
 
+    getMessagePayload(id: string):Observable<string> {
+        return this.http.get(`${this._connectorMessageUrl}/${id}`)
+            .map(res => <string> res.text())
+            .catch(this.handleError);
+    }
+
     private handleError (error: Response) {
         return Observable.throw(error.json() || 'Server error');
     }
@@ -22,6 +22,7 @@
 //
 // History:
 //
+// 1.01-citrus - load next page of large directories when the "more" entry is clicked
 // 1.01 - updated to work with foreign characters in directory/file names (12 April 2008)
 // 1.00 - released (24 March 2008)
 //
@@ -59,9 +60,25 @@ if(jQuery) (function($){
 					});
 				}
 
+				function showMore(c) {
+					var link = $(c).find('A');
+					$(c).addClass('wait');
+					$.post(o.script, { dir: escape(link.attr('rel')), offset: link.attr('data-offset') }, function(data) {
+						var items = $('<div/>').html(data).find('UL').first().children('LI');
+						$(c).replaceWith(items);
+						bindLinks(items.find('A'));
+					});
+				}
+
 				function bindTree(t) {
-					$(t).find('LI A').bind(o.folderEvent, function() {
-						if( $(this).parent().hasClass('directory') ) {
+					bindLinks($(t).find('LI A'));
+				}
+
+				function bindLinks(links) {
+					links.bind(o.folderEvent, function() {
+						if( $(this).parent().hasClass('more') ) {
+							if( !$(this).parent().hasClass('wait') ) showMore( $(this).parent() );
+						} else if( $(this).parent().hasClass('directory') ) {
 							if( $(this).parent().hasClass('collapsed') ) {
 								// Expand
 								if( !o.multiFolder ) {
@@ -82,7 +99,7 @@ if(jQuery) (function($){
 						return false;
 					});
 					// Prevent A from triggering the # on non-click events
-					if( o.folderEvent.toLowerCase != 'click' ) $(t).find('LI A').bind('click', function() { return false; });
+					if( o.folderEvent.toLowerCase != 'click' ) links.bind('click', function() { return false; });
 				}
 				// Loading message
 				$(this).html('<ul class="jqueryFileTree start"><li class="wait">' + o.loadMessage + '<li></ul>');
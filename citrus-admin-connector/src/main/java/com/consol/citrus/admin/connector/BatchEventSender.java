@@ -0,0 +1,451 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.connector;
+
+import net.minidev.json.JSONValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Ships connector events asynchronously so test threads never wait for the HTTP round trip to citrus-admin. Events
+ * are added to a bounded queue and a background thread drains the queue in batches. A batch is sent when the flush
+ * interval has passed since its first event or when the maximum batch size is reached. Batches that fail with a
+ * retryable {@link DeliveryException} are sent again until the block timeout has passed when the overflow policy is
+ * blocking, otherwise failed batches are dropped right away. Dropped events are counted.
+ *
+ * @author Christoph Deppisch
+ */
+public class BatchEventSender {
+
+    /** Logger */
+    private static Logger log = LoggerFactory.getLogger(BatchEventSender.class);
+
+    /** Maximum time to wait for free queue capacity with blocking overflow policy */
+    private static final long BLOCK_TIMEOUT = 5000L;
+
+    /** First and maximum pause before a failed batch is sent again */
+    private static final long RETRY_INTERVAL = 100L;
+    private static final long MAX_RETRY_INTERVAL = 1000L;
+
+    /** Interval checking for flush requests while waiting for more events */
+    private static final long FLUSH_CHECK_INTERVAL = 10L;
+
+    /**
+     * Behavior when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /** Wait for free capacity */
+        BLOCK,
+        /** Drop the new event */
+        DROP,
+        /** Drop the oldest queued event */
+        DROP_OLDEST
+    }
+
+    private final BlockingQueue<Event> queue;
+    private final Consumer<List<Event>> handler;
+    private final long flushInterval;
+    private final int batchSize;
+    private final OverflowPolicy overflowPolicy;
+
+    /** Events queued or in flight, guarded by this */
+    private int pending = 0;
+    private long dropped = 0L;
+
+    private Thread sender;
+    private Thread shutdownHook;
+    private volatile boolean running = false;
+    private volatile boolean flushRequested = false;
+
+    /**
+     * Constructor using batch handler and settings.
+     * @param handler sends a batch of events
+     * @param capacity maximum number of queued events
+     * @param flushInterval maximum time in milliseconds an event is held back to fill a batch
+     * @param batchSize maximum number of events per batch
+     * @param overflowPolicy
+     */
+    public BatchEventSender(Consumer<List<Event>> handler, int capacity, long flushInterval, int batchSize, OverflowPolicy overflowPolicy) {
+        this.handler = handler;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Adds event to the queue and starts the sender thread if not running yet.
+     * @param event
+     * @return false when the event has been dropped
+     */
+    public boolean send(Event event) {
+        start();
+
+        synchronized (this) {
+            pending++;
+        }
+
+        boolean added;
+        try {
+            switch (overflowPolicy) {
+                case BLOCK:
+                    added = queue.offer(event, BLOCK_TIMEOUT, TimeUnit.MILLISECONDS);
+                    break;
+                case DROP_OLDEST:
+                    while (!(added = queue.offer(event))) {
+                        if (queue.poll() != null) {
+                            release(1, true);
+                        }
+                    }
+                    break;
+                default:
+                    added = queue.offer(event);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            added = false;
+        }
+
+        if (!added) {
+            release(1, true);
+        }
+
+        return added;
+    }
+
+    /**
+     * Sends all queued events and waits for their delivery.
+     * @param timeout in milliseconds
+     * @return true when all events have been delivered within timeout
+     */
+    public boolean flush(long timeout) {
+        long deadline = System.currentTimeMillis() + timeout;
+
+        synchronized (this) {
+            flushRequested = true;
+            try {
+                while (pending > 0 && running) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+
+                    wait(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            } finally {
+                flushRequested = false;
+            }
+
+            return pending == 0;
+        }
+    }
+
+    /**
+     * Sends remaining events and stops the sender thread.
+     * @param timeout in milliseconds
+     */
+    public void close(long timeout) {
+        if (!flush(timeout)) {
+            log.warn(String.format("Failed to send %s pending events to citrus-admin connector", getPending()));
+        }
+
+        synchronized (this) {
+            running = false;
+            if (sender != null) {
+                sender.interrupt();
+                sender = null;
+            }
+
+            if (shutdownHook != null && !Thread.currentThread().equals(shutdownHook)) {
+                try {
+                    Runtime.getRuntime().removeShutdownHook(shutdownHook);
+                } catch (IllegalStateException e) {
+                    // shutdown already in progress
+                }
+                shutdownHook = null;
+            }
+
+            notifyAll();
+        }
+    }
+
+    /**
+     * Starts sender thread and registers shutdown hook that sends remaining events when JVM exits.
+     */
+    private synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        sender = new Thread(this::drain, "citrus-admin-connector-sender");
+        sender.setDaemon(true);
+        sender.start();
+
+        shutdownHook = new Thread(() -> close(BLOCK_TIMEOUT), "citrus-admin-connector-shutdown");
+        Runtime.getRuntime().addShutdownHook(shutdownHook);
+    }
+
+    /**
+     * Drains queue in batches until sender is stopped.
+     */
+    private void drain() {
+        List<Event> batch = new ArrayList<>(batchSize);
+
+        while (running) {
+            try {
+                Event first = queue.poll(flushInterval, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                long deadline = System.currentTimeMillis() + flushInterval;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (batch.size() >= batchSize || flushRequested || remaining <= 0) {
+                        break;
+                    }
+
+                    // poll in short slices so flush requests do not wait for the whole interval
+                    Event next = queue.poll(Math.min(remaining, FLUSH_CHECK_INTERVAL), TimeUnit.MILLISECONDS);
+                    if (next != null) {
+                        batch.add(next);
+                    }
+                }
+
+                try {
+                    deliver(batch);
+                } finally {
+                    batch.clear();
+                }
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Sends batch with given handler. Failed batches are sent again with growing pause while the overflow policy is
+     * blocking and the block timeout has not passed, events of batches that could not be sent are dropped.
+     * @param batch
+     * @throws InterruptedException
+     */
+    private void deliver(List<Event> batch) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + (overflowPolicy == OverflowPolicy.BLOCK ? BLOCK_TIMEOUT : 0L);
+        long retryInterval = RETRY_INTERVAL;
+        boolean delivered = false;
+
+        try {
+            while (true) {
+                try {
+                    handler.accept(batch);
+                    delivered = true;
+                    return;
+                } catch (RuntimeException e) {
+                    boolean retryable = !(e instanceof DeliveryException) || ((DeliveryException) e).isRetryable();
+                    if (!retryable || !running || System.currentTimeMillis() + retryInterval > deadline) {
+                        log.error(String.format("Failed to send %s events to citrus-admin connector - dropping events", batch.size()), e);
+                        return;
+                    }
+
+                    log.warn(String.format("Failed to send %s events to citrus-admin connector - retrying in %s ms", batch.size(), retryInterval));
+                    Thread.sleep(retryInterval);
+                    retryInterval = Math.min(retryInterval * 2, MAX_RETRY_INTERVAL);
+                }
+            }
+        } finally {
+            release(batch.size(), !delivered);
+        }
+    }
+
+    /**
+     * Marks events as delivered or dropped and wakes up threads waiting for flush.
+     * @param events
+     * @param drop
+     */
+    private synchronized void release(int events, boolean drop) {
+        pending -= events;
+        if (drop) {
+            dropped += events;
+        }
+        notifyAll();
+    }
+
+    /**
+     * Gets number of queued and in flight events.
+     * @return
+     */
+    public synchronized int getPending() {
+        return pending;
+    }
+
+    /**
+     * Gets number of events dropped because of full queue or failed delivery.
+     * @return
+     */
+    public synchronized long getDropped() {
+        return dropped;
+    }
+
+    /**
+     * Thrown by batch handlers when events could not be delivered. Retryable failures such as unavailable connector
+     * are sent again with blocking overflow policy, rejected events are dropped right away.
+     */
+    public static class DeliveryException extends RuntimeException {
+        private final boolean retryable;
+
+        /**
+         * Constructor using message, cause and retry flag.
+         * @param message
+         * @param cause
+         * @param retryable
+         */
+        public DeliveryException(String message, Throwable cause, boolean retryable) {
+            super(message, cause);
+            this.retryable = retryable;
+        }
+
+        /**
+         * Gets the retryable.
+         *
+         * @return
+         */
+        public boolean isRetryable() {
+            return retryable;
+        }
+    }
+
+    /**
+     * Connector event with type specific JSON data.
+     */
+    public static final class Event {
+        private final String type;
+        private final String processId;
+        private final String direction;
+        private final String data;
+        private final boolean truncated;
+        private final long size;
+
+        private Event(String type, String processId, String direction, String data) {
+            this(type, processId, direction, data, false, 0L);
+        }
+
+        private Event(String type, String processId, String direction, String data, boolean truncated, long size) {
+            this.type = type;
+            this.processId = processId;
+            this.direction = direction;
+            this.data = data;
+            this.truncated = truncated;
+            this.size = size;
+        }
+
+        /**
+         * Creates test result event from JSON test result.
+         * @param result
+         * @return
+         */
+        public static Event result(String result) {
+            return new Event("result", null, null, result);
+        }
+
+        /**
+         * Creates test event from JSON socket event.
+         * @param event
+         * @return
+         */
+        public static Event testEvent(String event) {
+            return new Event("test-event", null, null, event);
+        }
+
+        /**
+         * Creates message event from message data.
+         * @param processId
+         * @param direction inbound or outbound
+         * @param message
+         * @return
+         */
+        public static Event message(String processId, String direction, String message) {
+            return new Event("message", processId, direction, message);
+        }
+
+        /**
+         * Creates message event with truncated message data.
+         * @param processId
+         * @param direction inbound or outbound
+         * @param message truncated message data
+         * @param size original message size in bytes, zero when unknown
+         * @return
+         */
+        public static Event truncatedMessage(String processId, String direction, String message, long size) {
+            return new Event("message", processId, direction, message, true, size);
+        }
+
+        /**
+         * Writes event as batch entry. Results and test events are JSON already, message data is written as string.
+         * @return
+         */
+        public String toJSONString() {
+            switch (type) {
+                case "result":
+                    return "{\"type\":\"result\",\"result\":" + data + "}";
+                case "test-event":
+                    return "{\"type\":\"test-event\",\"event\":" + data + "}";
+                default:
+                    return "{\"type\":\"message\",\"processId\":\"" + JSONValue.escape(processId) + "\",\"direction\":\"" + direction +
+                            "\",\"message\":\"" + JSONValue.escape(data) + "\"" +
+                            (truncated ? ",\"truncated\":true,\"size\":" + size : "") + "}";
+            }
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public String getProcessId() {
+            return processId;
+        }
+
+        public String getDirection() {
+            return direction;
+        }
+
+        public String getData() {
+            return data;
+        }
+
+        public boolean isTruncated() {
+            return truncated;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+}
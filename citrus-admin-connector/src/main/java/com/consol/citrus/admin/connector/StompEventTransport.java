@@ -0,0 +1,314 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.connector;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.stomp.*;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps one long-lived STOMP session to the citrus-admin server and sends event batches as STOMP messages. The
+ * session uses SockJS with native WebSocket transport when a JSR-356 WebSocket client implementation is available on
+ * the classpath and XHR streaming otherwise. Lost connections are reestablished with exponential backoff. When the
+ * socket can not be opened at all the transport reports to be unavailable so callers can fall back to HTTP.
+ *
+ * @author Christoph Deppisch
+ */
+public class StompEventTransport {
+
+    /** Logger */
+    private static Logger log = LoggerFactory.getLogger(StompEventTransport.class);
+
+    /** Destination of connector event batches on admin server */
+    public static final String BATCH_DESTINATION = "/api/socket/connector/batch";
+
+    /** Reconnect backoff limits in milliseconds */
+    private static final long MIN_BACKOFF = 500L;
+    private static final long MAX_BACKOFF = 30000L;
+
+    /** Heartbeat interval in milliseconds detecting broken connections */
+    private static final long HEARTBEAT = 10000L;
+
+    private enum State {
+        NEW,
+        CONNECTING,
+        CONNECTED,
+        RECONNECTING,
+        UNAVAILABLE,
+        CLOSED
+    }
+
+    private final String url;
+    private final RestTemplate restTemplate;
+
+    private WebSocketStompClient stompClient;
+    private ThreadPoolTaskScheduler scheduler;
+
+    /** Connection state and session guarded by this */
+    private State state = State.NEW;
+    private StompSession session;
+    private long backoff = MIN_BACKOFF;
+
+    /**
+     * Constructor using admin server socket endpoint url and rest template used for SockJS XHR transport.
+     * @param url
+     * @param restTemplate
+     */
+    public StompEventTransport(String url, RestTemplate restTemplate) {
+        this.url = url;
+        this.restTemplate = restTemplate;
+    }
+
+    /**
+     * Opens STOMP session asynchronously.
+     */
+    public synchronized void connect() {
+        if (state != State.NEW) {
+            return;
+        }
+
+        scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.setDaemon(true);
+        scheduler.setThreadNamePrefix("citrus-admin-connector-stomp-");
+        scheduler.initialize();
+
+        stompClient = createStompClient();
+        stompClient.setTaskScheduler(scheduler);
+        stompClient.setDefaultHeartbeat(new long[] { HEARTBEAT, HEARTBEAT });
+
+        state = State.CONNECTING;
+        doConnect();
+    }
+
+    /**
+     * Sends event batch as JSON message. Waits for the session while connecting or reconnecting.
+     * @param body JSON batch
+     * @param timeout time in milliseconds to wait for connection
+     * @return false when batch could not be sent and caller should use another transport
+     */
+    public boolean send(String body, long timeout) {
+        StompSession current = awaitSession(timeout);
+        if (current == null) {
+            return false;
+        }
+
+        try {
+            StompHeaders headers = new StompHeaders();
+            headers.setDestination(BATCH_DESTINATION);
+            headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+            current.send(headers, body.getBytes(StandardCharsets.UTF_8));
+            return true;
+        } catch (RuntimeException e) {
+            log.warn("Failed to send events via STOMP session - reconnecting", e);
+            connectionLost(current);
+            return false;
+        }
+    }
+
+    /**
+     * Checks if transport can be used. Returns false when socket could not be opened or transport has been closed.
+     * @return
+     */
+    public synchronized boolean isAvailable() {
+        return state != State.UNAVAILABLE && state != State.CLOSED;
+    }
+
+    /**
+     * Checks if STOMP session is connected.
+     * @return
+     */
+    public synchronized boolean isConnected() {
+        return state == State.CONNECTED;
+    }
+
+    /**
+     * Closes STOMP session and stops reconnecting.
+     */
+    public synchronized void close() {
+        state = State.CLOSED;
+
+        if (session != null && session.isConnected()) {
+            try {
+                session.disconnect();
+            } catch (RuntimeException e) {
+                log.debug("Failed to disconnect STOMP session", e);
+            }
+        }
+        session = null;
+
+        if (stompClient != null) {
+            stompClient.stop();
+        }
+
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+
+        notifyAll();
+    }
+
+    /**
+     * Waits for connected session.
+     * @param timeout
+     * @return session or null when not connected within timeout
+     */
+    private synchronized StompSession awaitSession(long timeout) {
+        long deadline = System.currentTimeMillis() + timeout;
+
+        try {
+            while (state == State.CONNECTING || state == State.RECONNECTING) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return null;
+                }
+
+                wait(remaining);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+
+        return state == State.CONNECTED ? session : null;
+    }
+
+    /**
+     * Opens new STOMP session.
+     */
+    private void doConnect() {
+        stompClient.connect(url, new SessionHandler()).addCallback(new ListenableFutureCallback<StompSession>() {
+            @Override
+            public void onSuccess(StompSession result) {
+                connected(result);
+            }
+
+            @Override
+            public void onFailure(Throwable ex) {
+                connectFailed(ex);
+            }
+        });
+    }
+
+    private synchronized void connected(StompSession newSession) {
+        if (state == State.CLOSED) {
+            newSession.disconnect();
+            return;
+        }
+
+        log.info(String.format("Connected to citrus-admin connector via STOMP session '%s'", newSession.getSessionId()));
+        session = newSession;
+        state = State.CONNECTED;
+        backoff = MIN_BACKOFF;
+        notifyAll();
+    }
+
+    private synchronized void connectFailed(Throwable ex) {
+        if (state == State.CONNECTING) {
+            log.warn(String.format("Failed to open STOMP session to '%s' - using HTTP transport", url), ex);
+            state = State.UNAVAILABLE;
+            notifyAll();
+        } else if (state == State.RECONNECTING) {
+            log.debug(String.format("Failed to reconnect STOMP session - retry in %s ms", backoff), ex);
+            scheduleReconnect();
+        }
+    }
+
+    private synchronized void connectionLost(StompSession lost) {
+        if (state != State.CONNECTED || session != lost) {
+            return;
+        }
+
+        log.warn("Lost STOMP session to citrus-admin connector - reconnecting");
+        session = null;
+        state = State.RECONNECTING;
+        scheduleReconnect();
+    }
+
+    private void scheduleReconnect() {
+        long delay = backoff;
+        backoff = Math.min(backoff * 2, MAX_BACKOFF);
+        scheduler.getScheduledExecutor().schedule(this::reconnect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private void reconnect() {
+        synchronized (this) {
+            if (state != State.RECONNECTING) {
+                return;
+            }
+        }
+
+        doConnect();
+    }
+
+    /**
+     * Creates STOMP client using SockJS transports.
+     * @return
+     */
+    protected WebSocketStompClient createStompClient() {
+        return new WebSocketStompClient(new SockJsClient(getTransports()));
+    }
+
+    /**
+     * Gets SockJS transports. Native WebSocket is used when a JSR-356 client implementation is present.
+     * @return
+     */
+    private List<Transport> getTransports() {
+        List<Transport> transports = new ArrayList<>();
+
+        if (ClassUtils.isPresent("javax.websocket.ContainerProvider", getClass().getClassLoader())) {
+            try {
+                transports.add(new WebSocketTransport(new StandardWebSocketClient()));
+            } catch (RuntimeException | LinkageError e) {
+                log.debug("No WebSocket client implementation available - using XHR streaming", e);
+            }
+        }
+
+        transports.add(new RestTemplateXhrTransport(restTemplate));
+        return transports;
+    }
+
+    /**
+     * Tracks transport errors of the session.
+     */
+    private class SessionHandler extends StompSessionHandlerAdapter {
+        @Override
+        public void handleTransportError(StompSession stompSession, Throwable exception) {
+            if (!stompSession.isConnected()) {
+                connectionLost(stompSession);
+            }
+        }
+
+        @Override
+        public void handleException(StompSession stompSession, StompCommand command, StompHeaders headers, byte[] payload, Throwable exception) {
+            log.warn("Error in STOMP session to citrus-admin connector", exception);
+        }
+    }
+}
@@ -23,18 +23,29 @@ import com.consol.citrus.report.*;
 import net.minidev.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.http.*;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.client.*;
 import org.springframework.xml.transform.StringResult;
 
-import java.io.PrintWriter;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
 /**
+ * Pushes test results, test events and messages to the citrus-admin connector. Events are shipped asynchronously
+ * in batches by a background sender so test threads do not wait for the connector. When the connector does not
+ * support batches events are sent one by one.
+ *
  * @author Christoph Deppisch
  */
-public class WebSocketPushEventsListener extends AbstractTestListener implements MessageListener, TestListener, TestActionListener, InitializingBean {
+public class WebSocketPushEventsListener extends AbstractTestListener implements MessageListener, TestListener, TestActionListener, InitializingBean, DisposableBean {
 
     /** Logger */
     private static Logger log = LoggerFactory.getLogger(WebSocketPushEventsListener.class);
@@ -47,7 +58,44 @@ public class WebSocketPushEventsListener extends AbstractTestListener implements
     private RestTemplate restTemplate;
 
     /** Disable web socket push feature when connection failure */
-    private boolean disabled = false;
+    private volatile boolean disabled = false;
+
+    /** Connector supports batch endpoint, older versions only accept single events */
+    private volatile boolean batchSupported = true;
+
+    /** Event queue capacity, batch settings and overflow policy (block, drop, drop_oldest) */
+    private int queueCapacity = 10000;
+    private int batchSize = 500;
+    private long flushInterval = 100L;
+    private long flushTimeout = 5000L;
+    private String overflowPolicy = BatchEventSender.OverflowPolicy.BLOCK.name();
+
+    /** Background sender shipping events in batches */
+    private BatchEventSender eventSender;
+
+    /** Event transport (http or websocket) */
+    private String transport = TRANSPORT_HTTP;
+
+    /** Long-lived STOMP session used with websocket transport */
+    private StompEventTransport stompTransport;
+
+    public static final String TRANSPORT_HTTP = "http";
+    public static final String TRANSPORT_WEBSOCKET = "websocket";
+
+    /** Maximum bytes of a batch sent as single STOMP message */
+    private static final int MAX_STOMP_BATCH_BYTES = 256 * 1024;
+
+    /** Minimum request body size in characters that gets compressed */
+    private static final int COMPRESSION_THRESHOLD = 1024;
+
+    /** Maximum message payload bytes pushed (zero for no limit), push message headers only and push every n-th message only */
+    private int maxPayloadSize = 0;
+    private boolean headersOnly = false;
+    private int messageSampleRate = 1;
+    private final AtomicLong messageCount = new AtomicLong();
+
+    /** Compress HTTP event batches with gzip content encoding */
+    private boolean compression = true;
 
     @Override
     public void onTestStart(TestCase test) {
@@ -91,10 +139,272 @@ public class WebSocketPushEventsListener extends AbstractTestListener implements
     }
 
     /**
-     * Push test result to citrus-admin connector via REST API.
+     * Push test result to citrus-admin connector.
      * @param testResult
      */
     protected void pushResult(String testResult) {
+        if (!disabled) {
+            getEventSender().send(BatchEventSender.Event.result(testResult));
+        }
+    }
+
+    /**
+     * Push test event to citrus-admin connector.
+     * @param event
+     */
+    protected void pushTestEvent(String event) {
+        if (!disabled) {
+            getEventSender().send(BatchEventSender.Event.testEvent(event));
+        }
+    }
+
+    /**
+     * Push message to citrus-admin connector.
+     * @param processId
+     * @param message
+     * @param direction
+     */
+    protected void pushMessage(String processId, Message message, String direction) {
+        if (disabled || !isSampled()) {
+            return;
+        }
+
+        if (headersOnly) {
+            getEventSender().send(BatchEventSender.Event.truncatedMessage(processId, direction, String.format("%s [headers: %s, header-data: %s]",
+                    message.getClass().getSimpleName(), message.getHeaders(), message.getHeaderData()), 0L));
+            return;
+        }
+
+        String messageData = message.toString();
+        if (maxPayloadSize > 0) {
+            long size = getByteLength(messageData);
+            if (size > maxPayloadSize) {
+                getEventSender().send(BatchEventSender.Event.truncatedMessage(processId, direction, truncate(messageData, maxPayloadSize), size));
+                return;
+            }
+        }
+
+        getEventSender().send(BatchEventSender.Event.message(processId, direction, messageData));
+    }
+
+    /**
+     * Checks if next message is pushed according to sample rate.
+     * @return
+     */
+    private boolean isSampled() {
+        return messageSampleRate <= 1 || messageCount.getAndIncrement() % messageSampleRate == 0;
+    }
+
+    /**
+     * Gets UTF-8 encoded length of given data without encoding it.
+     * @param data
+     * @return
+     */
+    static long getByteLength(String data) {
+        long length = 0L;
+        for (int i = 0; i < data.length(); i++) {
+            length += getByteLength(data, i);
+            if (Character.isHighSurrogate(data.charAt(i)) && i + 1 < data.length() && Character.isLowSurrogate(data.charAt(i + 1))) {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Cuts data to given number of UTF-8 encoded bytes. Surrogate pairs are never split.
+     * @param data
+     * @param maxBytes
+     * @return
+     */
+    static String truncate(String data, int maxBytes) {
+        long length = 0L;
+        int i = 0;
+        while (i < data.length()) {
+            boolean pair = Character.isHighSurrogate(data.charAt(i)) && i + 1 < data.length() && Character.isLowSurrogate(data.charAt(i + 1));
+            length += getByteLength(data, i);
+            if (length > maxBytes) {
+                break;
+            }
+            i += pair ? 2 : 1;
+        }
+        return data.substring(0, i);
+    }
+
+    /**
+     * Gets UTF-8 encoded length of the code point at given index.
+     * @param data
+     * @param index
+     * @return
+     */
+    private static int getByteLength(String data, int index) {
+        char c = data.charAt(index);
+        if (c < 0x80) {
+            return 1;
+        } else if (c < 0x800) {
+            return 2;
+        } else if (Character.isHighSurrogate(c) && index + 1 < data.length() && Character.isLowSurrogate(data.charAt(index + 1))) {
+            return 4;
+        } else {
+            return 3;
+        }
+    }
+
+    /**
+     * Sends batch of events to citrus-admin connector. Uses the STOMP session when websocket transport is active and
+     * falls back to HTTP when the session is not available.
+     * @param batch
+     */
+    protected void sendBatch(List<BatchEventSender.Event> batch) {
+        if (disabled) {
+            return;
+        }
+
+        if (stompTransport != null && stompTransport.isAvailable()) {
+            List<BatchEventSender.Event> remaining = sendStompBatch(batch);
+            if (remaining.isEmpty()) {
+                return;
+            }
+
+            batch = remaining;
+        }
+
+        sendHttpBatch(batch);
+    }
+
+    /**
+     * Sends events as STOMP messages limited in size. Events too large for a STOMP message and events following a
+     * failed send are returned to be sent via HTTP.
+     * @param batch
+     * @return events not sent via STOMP session
+     */
+    private List<BatchEventSender.Event> sendStompBatch(List<BatchEventSender.Event> batch) {
+        List<BatchEventSender.Event> remaining = new ArrayList<>();
+        List<BatchEventSender.Event> chunk = new ArrayList<>();
+        StringBuilder body = new StringBuilder("[");
+        int bytes = 1;
+
+        for (int i = 0; i < batch.size(); i++) {
+            BatchEventSender.Event event = batch.get(i);
+            String json = event.toJSONString();
+            int length = json.getBytes(StandardCharsets.UTF_8).length + 1;
+
+            if (length + 1 > MAX_STOMP_BATCH_BYTES) {
+                remaining.add(event);
+                continue;
+            }
+
+            if (bytes + length + 1 > MAX_STOMP_BATCH_BYTES && !chunk.isEmpty()) {
+                if (!sendStompChunk(body, chunk)) {
+                    remaining.addAll(chunk);
+                    remaining.addAll(batch.subList(i, batch.size()));
+                    return remaining;
+                }
+
+                chunk.clear();
+                body.setLength(1);
+                bytes = 1;
+            }
+
+            body.append(chunk.isEmpty() ? "" : ",").append(json);
+            bytes += length;
+            chunk.add(event);
+        }
+
+        if (!chunk.isEmpty() && !sendStompChunk(body, chunk)) {
+            remaining.addAll(chunk);
+        }
+
+        return remaining;
+    }
+
+    /**
+     * Sends JSON array of events via STOMP session.
+     * @param body JSON array without closing bracket
+     * @param chunk
+     * @return
+     */
+    private boolean sendStompChunk(StringBuilder body, List<BatchEventSender.Event> chunk) {
+        if (stompTransport.send(body.toString() + "]", flushTimeout)) {
+            return true;
+        }
+
+        log.warn(String.format("Failed to send %s events via STOMP session - using HTTP transport", chunk.size()));
+        return false;
+    }
+
+    /**
+     * Sends batch of events to citrus-admin connector via REST API. Falls back to single event requests when
+     * connector does not provide the batch endpoint.
+     * @param batch
+     * @throws BatchEventSender.DeliveryException when the batch request failed, retryable unless the connector rejected it
+     */
+    private void sendHttpBatch(List<BatchEventSender.Event> batch) {
+        if (batchSupported) {
+            try {
+                HttpHeaders headers = new HttpHeaders();
+                headers.setContentType(MediaType.APPLICATION_JSON);
+                String body = batch.stream().map(BatchEventSender.Event::toJSONString).collect(Collectors.joining(",", "[", "]"));
+
+                ResponseEntity<String> response = getRestTemplate().exchange(getConnectorBaseUrl() + "/batch", HttpMethod.POST, createEntity(body, headers), String.class);
+
+                if (!response.getStatusCode().equals(HttpStatus.NOT_FOUND)) {
+                    return;
+                }
+            } catch (HttpClientErrorException e) {
+                if (!e.getStatusCode().equals(HttpStatus.NOT_FOUND)) {
+                    throw new BatchEventSender.DeliveryException(String.format("Connector rejected events with status %s", e.getStatusCode()), e, false);
+                }
+            } catch (RestClientException e) {
+                throw new BatchEventSender.DeliveryException("Failed to push events to citrus-admin connector", e, true);
+            }
+
+            log.info("Connector does not support event batches - sending single events to citrus-admin connector");
+            batchSupported = false;
+        }
+
+        for (BatchEventSender.Event event : batch) {
+            switch (event.getType()) {
+                case "result":
+                    postResult(event.getData());
+                    break;
+                case "test-event":
+                    postTestEvent(event.getData());
+                    break;
+                default:
+                    postMessage(event.getProcessId(), event.getData(), event.getDirection());
+            }
+        }
+    }
+
+    /**
+     * Creates request entity. Large bodies are compressed with gzip when compression is enabled.
+     * @param body
+     * @param headers
+     * @return
+     */
+    private HttpEntity<?> createEntity(String body, HttpHeaders headers) {
+        if (!compression || body.length() < COMPRESSION_THRESHOLD) {
+            return new HttpEntity<>(body, headers);
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            log.warn("Failed to compress events - sending uncompressed request", e);
+            return new HttpEntity<>(body, headers);
+        }
+
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        return new HttpEntity<>(compressed.toByteArray(), headers);
+    }
+
+    /**
+     * Post test result to citrus-admin connector via REST API.
+     * @param testResult
+     */
+    protected void postResult(String testResult) {
         try {
             if (!disabled) {
                 HttpHeaders headers = new HttpHeaders();
@@ -113,10 +423,10 @@ public class WebSocketPushEventsListener extends AbstractTestListener implements
     }
 
     /**
-     * Push test event to citrus-admin connector via REST API.
+     * Post test event to citrus-admin connector via REST API.
      * @param event
      */
-    protected void pushTestEvent(String event) {
+    protected void postTestEvent(String event) {
         try {
             if (!disabled) {
                 HttpHeaders headers = new HttpHeaders();
@@ -135,15 +445,15 @@ public class WebSocketPushEventsListener extends AbstractTestListener implements
     }
 
     /**
-     * Push message to citrus-admin connector via REST API.
+     * Post message data to citrus-admin connector via REST API.
      * @param processId
-     * @param message
+     * @param messageData
      * @param direction
      */
-    protected void pushMessage(String processId, Message message, String direction) {
+    protected void postMessage(String processId, String messageData, String direction) {
         try {
             if (!disabled) {
-                ResponseEntity<String> response = getRestTemplate().exchange(getConnectorBaseUrl() + String.format("/message/%s?processId=%s", direction, processId), HttpMethod.POST, new HttpEntity<>(message.toString()), String.class);
+                ResponseEntity<String> response = getRestTemplate().exchange(getConnectorBaseUrl() + String.format("/message/%s?processId=%s", direction, processId), HttpMethod.POST, new HttpEntity<>(messageData), String.class);
 
                 if (response.getStatusCode().equals(HttpStatus.NOT_FOUND)) {
                     disabled = true;
@@ -154,6 +464,25 @@ public class WebSocketPushEventsListener extends AbstractTestListener implements
         }
     }
 
+    /**
+     * Sends all pending events and waits for their delivery.
+     * @return true when all events have been delivered
+     */
+    public boolean flush() {
+        return eventSender == null || eventSender.flush(flushTimeout);
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        if (eventSender != null) {
+            eventSender.close(flushTimeout);
+        }
+
+        if (stompTransport != null) {
+            stompTransport.close();
+        }
+    }
+
     @Override
     public void afterPropertiesSet() throws Exception {
         try {
@@ -163,6 +492,26 @@ public class WebSocketPushEventsListener extends AbstractTestListener implements
             log.warn(String.format("Failed to connect to citrus-admin connector: '%s' - disabling citrus-admin connector features", getConnectorBaseUrl() + "/status"));
             disabled = true;
         }
+
+        if (!disabled && stompTransport == null && TRANSPORT_WEBSOCKET.equalsIgnoreCase(transport)) {
+            if (isStompSupported()) {
+                stompTransport = new StompEventTransport(String.format("http://%s:%s/api/socket", host, port), getRestTemplate());
+                stompTransport.connect();
+            } else {
+                log.warn("Spring WebSocket, Spring Messaging or Jackson missing on classpath - using HTTP transport");
+            }
+        }
+    }
+
+    /**
+     * Checks optional dependencies of STOMP event transport.
+     * @return
+     */
+    private boolean isStompSupported() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        return ClassUtils.isPresent("org.springframework.web.socket.messaging.WebSocketStompClient", classLoader)
+                && ClassUtils.isPresent("org.springframework.messaging.simp.stomp.StompSession", classLoader)
+                && ClassUtils.isPresent("com.fasterxml.jackson.databind.ObjectMapper", classLoader);
     }
 
     /**
@@ -234,6 +583,18 @@ public class WebSocketPushEventsListener extends AbstractTestListener implements
         }
     }
 
+    /**
+     * Initializes background event sender if not set yet.
+     * @return
+     */
+    private synchronized BatchEventSender getEventSender() {
+        if (eventSender == null) {
+            eventSender = new BatchEventSender(this::sendBatch, queueCapacity, flushInterval, batchSize,
+                    BatchEventSender.OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase().replace('-', '_')));
+        }
+        return eventSender;
+    }
+
     /**
      * Initializes rest template if not set yet.
      * @return
@@ -271,4 +632,103 @@ public class WebSocketPushEventsListener extends AbstractTestListener implements
     public void setRestTemplate(RestTemplate restTemplate) {
         this.restTemplate = restTemplate;
     }
+
+    /**
+     * Sets the event queue capacity.
+     *
+     * @param queueCapacity
+     */
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * Sets the maximum number of events per batch.
+     *
+     * @param batchSize
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Sets the flush interval in milliseconds.
+     *
+     * @param flushInterval
+     */
+    public void setFlushInterval(long flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    /**
+     * Sets the time in milliseconds to wait for pending events on flush and shutdown.
+     *
+     * @param flushTimeout
+     */
+    public void setFlushTimeout(long flushTimeout) {
+        this.flushTimeout = flushTimeout;
+    }
+
+    /**
+     * Sets the queue overflow policy (block, drop or drop_oldest).
+     *
+     * @param overflowPolicy
+     */
+    public void setOverflowPolicy(String overflowPolicy) {
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * Sets the event transport (http or websocket).
+     *
+     * @param transport
+     */
+    public void setTransport(String transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Sets the STOMP event transport used instead of creating one with websocket transport.
+     *
+     * @param stompTransport
+     */
+    public void setStompTransport(StompEventTransport stompTransport) {
+        this.stompTransport = stompTransport;
+    }
+
+    /**
+     * Sets the maximum message payload bytes pushed to the connector. Zero disables the limit.
+     *
+     * @param maxPayloadSize
+     */
+    public void setMaxPayloadSize(int maxPayloadSize) {
+        this.maxPayloadSize = maxPayloadSize;
+    }
+
+    /**
+     * Sets the headers only mode pushing message headers without payload.
+     *
+     * @param headersOnly
+     */
+    public void setHeadersOnly(boolean headersOnly) {
+        this.headersOnly = headersOnly;
+    }
+
+    /**
+     * Sets the message sample rate so only every n-th message is pushed.
+     *
+     * @param messageSampleRate
+     */
+    public void setMessageSampleRate(int messageSampleRate) {
+        this.messageSampleRate = messageSampleRate;
+    }
+
+    /**
+     * Sets the gzip compression of HTTP requests.
+     *
+     * @param compression
+     */
+    public void setCompression(boolean compression) {
+        this.compression = compression;
+    }
 }
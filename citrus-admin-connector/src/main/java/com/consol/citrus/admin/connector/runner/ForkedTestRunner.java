@@ -0,0 +1,209 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.connector.runner;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Test runner main class started by citrus-admin as persistent forked JVM with the test project classpath. Runner
+ * receives run commands line by line on standard input and executes TestNG or JUnit4 tests programmatically. As the JVM
+ * is kept alive between runs test classes, Citrus and cached Spring application contexts are reused by subsequent runs.
+ *
+ * Runner events are written to standard output as lines starting with {@link #EVENT_PREFIX} in between the regular
+ * test output.
+ *
+ * @author Christoph Deppisch
+ */
+public class ForkedTestRunner {
+
+    /** Logger */
+    private static Logger log = LoggerFactory.getLogger(ForkedTestRunner.class);
+
+    /** Prefix marks runner event lines in output */
+    public static final String EVENT_PREFIX = "##citrus-admin-runner## ";
+
+    /** Runner events */
+    public static final String READY = "READY";
+    public static final String STARTED = "STARTED";
+    public static final String FINISHED = "FINISHED";
+
+    /** Runner commands */
+    public static final String RUN = "RUN";
+    public static final String EXIT = "EXIT";
+
+    /** Failure count reported when test could not be executed at all */
+    public static final int RUN_ERROR = -1;
+
+    private final PrintStream events;
+    private final File reportsDirectory;
+
+    private TestEngine testNGEngine;
+    private TestEngine junit4Engine;
+
+    /**
+     * Default constructor using event output stream and base directory for test reports.
+     * @param events
+     * @param reportsDirectory
+     */
+    public ForkedTestRunner(PrintStream events, File reportsDirectory) {
+        this.events = events;
+        this.reportsDirectory = reportsDirectory;
+    }
+
+    /**
+     * Starts runner reading commands from standard input until exit command is received or input is closed.
+     * @param args reports directory
+     */
+    public static void main(String[] args) {
+        ForkedTestRunner runner = new ForkedTestRunner(System.out, new File(args.length > 0 ? args[0] : "target/citrus-admin/runner"));
+
+        try {
+            runner.listen(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            log.error("Failed to read test runner commands", e);
+        }
+
+        System.exit(0);
+    }
+
+    /**
+     * Reads and executes commands from given reader. Run commands have the form "RUN runId className [methodName]".
+     * @param commands
+     * @throws IOException
+     */
+    public void listen(BufferedReader commands) throws IOException {
+        event(READY);
+
+        String line;
+        while ((line = commands.readLine()) != null) {
+            String[] tokens = line.trim().split("\\s+");
+
+            if (tokens[0].equals(EXIT)) {
+                return;
+            } else if (tokens[0].equals(RUN) && tokens.length > 2) {
+                run(tokens[1], tokens[2], tokens.length > 3 ? tokens[3] : null);
+            } else if (line.trim().length() > 0) {
+                log.warn(String.format("Ignoring unsupported test runner command '%s'", line));
+            }
+        }
+    }
+
+    /**
+     * Runs test class or single test method and returns number of failed tests.
+     * @param runId
+     * @param className
+     * @param methodName optional test method name
+     * @return
+     */
+    public int run(String runId, String className, String methodName) {
+        event(STARTED, runId);
+
+        int failures;
+        try {
+            Class<?> testClass = Class.forName(className, true, Thread.currentThread().getContextClassLoader());
+            File runReportsDirectory = new File(reportsDirectory, runId);
+            if (!runReportsDirectory.exists() && !runReportsDirectory.mkdirs()) {
+                throw new IOException("Failed to create test reports directory: " + runReportsDirectory.getAbsolutePath());
+            }
+
+            failures = getEngine(testClass).run(testClass, methodName, runReportsDirectory);
+        } catch (Exception | LinkageError e) {
+            log.error(String.format("Failed to run test '%s'", className), e);
+            failures = RUN_ERROR;
+        }
+
+        event(FINISHED, runId, String.valueOf(failures));
+        return failures;
+    }
+
+    /**
+     * Gets test engine for given test class. JUnit4 is chosen when class or methods use JUnit annotations,
+     * otherwise tests run with TestNG.
+     * @param testClass
+     * @return
+     */
+    private TestEngine getEngine(Class<?> testClass) {
+        if (isJUnit4(testClass)) {
+            if (junit4Engine == null) {
+                junit4Engine = new JUnit4TestEngine();
+            }
+            return junit4Engine;
+        }
+
+        if (testNGEngine == null) {
+            testNGEngine = new TestNGTestEngine();
+        }
+        return testNGEngine;
+    }
+
+    /**
+     * Checks for JUnit annotations on test class and methods without loading JUnit classes.
+     * @param testClass
+     * @return
+     */
+    private boolean isJUnit4(Class<?> testClass) {
+        if (hasAnnotation(testClass.getAnnotations(), "org.junit.runner.RunWith")) {
+            return true;
+        }
+
+        for (Method method : testClass.getMethods()) {
+            if (hasAnnotation(method.getAnnotations(), "org.junit.Test")) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks annotations for given annotation type name.
+     * @param annotations
+     * @param annotationType
+     * @return
+     */
+    private boolean hasAnnotation(Annotation[] annotations, String annotationType) {
+        for (Annotation annotation : annotations) {
+            if (annotation.annotationType().getName().equals(annotationType)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Writes runner event line.
+     * @param event
+     * @param arguments
+     */
+    private void event(String event, String ... arguments) {
+        StringBuilder line = new StringBuilder(EVENT_PREFIX).append(event);
+        for (String argument : arguments) {
+            line.append(' ').append(argument);
+        }
+
+        events.println(line.toString());
+        events.flush();
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.connector.runner;
+
+import org.junit.runner.*;
+import org.junit.runner.notification.Failure;
+import org.junit.runner.notification.RunListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Runs JUnit4 tests programmatically. Results are written in Surefire XML report format (TEST-className.xml)
+ * to the reports directory.
+ *
+ * @author Christoph Deppisch
+ */
+public class JUnit4TestEngine implements TestEngine {
+
+    /** Logger */
+    private static Logger log = LoggerFactory.getLogger(JUnit4TestEngine.class);
+
+    @Override
+    public int run(Class<?> testClass, String methodName, File reportsDirectory) {
+        ReportListener report = new ReportListener();
+
+        JUnitCore junit = new JUnitCore();
+        junit.addListener(report);
+        Result result = junit.run(methodName != null ? Request.method(testClass, methodName) : Request.aClass(testClass));
+
+        File reportFile = new File(reportsDirectory, "TEST-" + testClass.getName() + ".xml");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(reportFile), StandardCharsets.UTF_8)) {
+            writer.write(report.toXml(testClass.getName(), result));
+        } catch (IOException e) {
+            log.warn("Failed to write test report: " + reportFile.getAbsolutePath(), e);
+        }
+
+        return result.getFailureCount();
+    }
+
+    /**
+     * Collects test results for Surefire XML report.
+     */
+    private static class ReportListener extends RunListener {
+        private final Map<Description, Long> started = new HashMap<>();
+        private final Map<Description, Long> durations = new LinkedHashMap<>();
+        private final Map<Description, Failure> failures = new HashMap<>();
+        private final Set<Description> skipped = new HashSet<>();
+
+        @Override
+        public void testStarted(Description description) {
+            started.put(description, System.currentTimeMillis());
+        }
+
+        @Override
+        public void testFinished(Description description) {
+            Long start = started.remove(description);
+            durations.put(description, start != null ? System.currentTimeMillis() - start : 0L);
+        }
+
+        @Override
+        public void testFailure(Failure failure) {
+            failures.put(failure.getDescription(), failure);
+        }
+
+        @Override
+        public void testAssumptionFailure(Failure failure) {
+            skipped.add(failure.getDescription());
+        }
+
+        @Override
+        public void testIgnored(Description description) {
+            skipped.add(description);
+            durations.put(description, 0L);
+        }
+
+        /**
+         * Creates Surefire XML report content.
+         * @param suiteName
+         * @param result
+         * @return
+         */
+        String toXml(String suiteName, Result result) {
+            StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>").append(System.lineSeparator());
+            xml.append(String.format("<testsuite name=\"%s\" time=\"%s\" tests=\"%s\" failures=\"%s\" errors=\"0\" skipped=\"%s\">",
+                    escape(suiteName), seconds(result.getRunTime()), durations.size(), failures.size(), skipped.size()))
+               .append(System.lineSeparator());
+
+            for (Map.Entry<Description, Long> test : durations.entrySet()) {
+                Description description = test.getKey();
+                xml.append(String.format("  <testcase name=\"%s\" classname=\"%s\" time=\"%s\">",
+                        escape(Optional.ofNullable(description.getMethodName()).orElse(description.getDisplayName())),
+                        escape(Optional.ofNullable(description.getClassName()).orElse(suiteName)),
+                        seconds(test.getValue())));
+
+                Failure failure = failures.get(description);
+                if (failure != null) {
+                    xml.append(String.format("<failure message=\"%s\" type=\"%s\">%s</failure>",
+                            escape(Optional.ofNullable(failure.getMessage()).orElse("")),
+                            escape(failure.getException().getClass().getName()),
+                            escape(failure.getTrace())));
+                } else if (skipped.contains(description)) {
+                    xml.append("<skipped/>");
+                }
+
+                xml.append("</testcase>").append(System.lineSeparator());
+            }
+
+            return xml.append("</testsuite>").append(System.lineSeparator()).toString();
+        }
+
+        private static String seconds(long millis) {
+            return String.format(Locale.US, "%.3f", millis / 1000D);
+        }
+
+        private static String escape(String value) {
+            return value.replace("&", "&amp;")
+                        .replace("<", "&lt;")
+                        .replace(">", "&gt;")
+                        .replace("\"", "&quot;");
+        }
+    }
+}
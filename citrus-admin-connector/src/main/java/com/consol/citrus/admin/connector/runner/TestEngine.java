@@ -0,0 +1,38 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.connector.runner;
+
+import java.io.File;
+
+/**
+ * Test framework engine executing tests inside the forked test runner.
+ *
+ * @author Christoph Deppisch
+ */
+public interface TestEngine {
+
+    /**
+     * Runs all tests in given class or only the given test method. Test results are written to
+     * reports directory. Returns number of failed tests.
+     * @param testClass
+     * @param methodName optional test method name
+     * @param reportsDirectory
+     * @return
+     */
+    int run(Class<?> testClass, String methodName, File reportsDirectory);
+}
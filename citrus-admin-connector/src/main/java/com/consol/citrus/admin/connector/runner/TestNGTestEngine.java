@@ -0,0 +1,60 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.connector.runner;
+
+import org.testng.*;
+import org.testng.reporters.XMLReporter;
+import org.testng.xml.*;
+
+import java.io.File;
+import java.util.Collections;
+
+/**
+ * Runs TestNG tests programmatically. Results are written as testng-results.xml to the reports directory.
+ *
+ * @author Christoph Deppisch
+ */
+public class TestNGTestEngine implements TestEngine {
+
+    @Override
+    public int run(Class<?> testClass, String methodName, File reportsDirectory) {
+        XmlSuite suite = new XmlSuite();
+        suite.setName("citrus-admin");
+
+        XmlTest test = new XmlTest(suite);
+        test.setName(testClass.getSimpleName());
+
+        XmlClass xmlClass = new XmlClass(testClass.getName());
+        if (methodName != null) {
+            xmlClass.getIncludedMethods().add(new XmlInclude(methodName));
+        }
+        test.setXmlClasses(Collections.singletonList(xmlClass));
+
+        TestListenerAdapter results = new TestListenerAdapter();
+
+        TestNG testng = new TestNG();
+        testng.setUseDefaultListeners(false);
+        testng.setOutputDirectory(reportsDirectory.getAbsolutePath());
+        testng.setXmlSuites(Collections.singletonList(suite));
+        testng.addListener((ITestNGListener) results);
+        testng.addListener((ITestNGListener) new XMLReporter());
+        testng.run();
+
+        return results.getFailedTests().size() + results.getConfigurationFailures().size();
+    }
+}
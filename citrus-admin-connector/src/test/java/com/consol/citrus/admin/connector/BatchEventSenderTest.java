@@ -0,0 +1,177 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.connector;
+
+import com.consol.citrus.admin.connector.BatchEventSender.Event;
+import com.consol.citrus.admin.connector.BatchEventSender.OverflowPolicy;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class BatchEventSenderTest {
+
+    @Test
+    public void testBatchSize() {
+        List<List<Event>> batches = Collections.synchronizedList(new ArrayList<>());
+        BatchEventSender sender = new BatchEventSender(batch -> batches.add(new ArrayList<>(batch)), 100, 60000L, 10, OverflowPolicy.BLOCK);
+
+        for (int i = 0; i < 25; i++) {
+            Assert.assertTrue(sender.send(Event.testEvent("{\"msg\":\"" + i + "\"}")));
+        }
+
+        Assert.assertTrue(sender.flush(5000L));
+        Assert.assertEquals(batches.stream().mapToInt(List::size).sum(), 25);
+        batches.forEach(batch -> Assert.assertTrue(batch.size() <= 10));
+        Assert.assertEquals(batches.get(0).get(0).getData(), "{\"msg\":\"0\"}");
+
+        sender.close(1000L);
+    }
+
+    @Test
+    public void testOverflowDrop() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Event> delivered = Collections.synchronizedList(new ArrayList<>());
+        BatchEventSender sender = new BatchEventSender(batch -> {
+            await(release);
+            delivered.addAll(batch);
+        }, 2, 10L, 1, OverflowPolicy.DROP);
+
+        Assert.assertTrue(sender.send(Event.result("{\"id\":1}")));
+        awaitInFlight();
+        Assert.assertTrue(sender.send(Event.result("{\"id\":2}")));
+        Assert.assertTrue(sender.send(Event.result("{\"id\":3}")));
+        Assert.assertFalse(sender.send(Event.result("{\"id\":4}")));
+
+        release.countDown();
+        Assert.assertTrue(sender.flush(5000L));
+        Assert.assertEquals(sender.getDropped(), 1L);
+        Assert.assertEquals(delivered.get(delivered.size() - 1).getData(), "{\"id\":3}");
+
+        sender.close(1000L);
+    }
+
+    @Test
+    public void testOverflowDropOldest() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Event> delivered = Collections.synchronizedList(new ArrayList<>());
+        BatchEventSender sender = new BatchEventSender(batch -> {
+            await(release);
+            delivered.addAll(batch);
+        }, 2, 10L, 1, OverflowPolicy.DROP_OLDEST);
+
+        Assert.assertTrue(sender.send(Event.result("{\"id\":1}")));
+        awaitInFlight();
+        Assert.assertTrue(sender.send(Event.result("{\"id\":2}")));
+        Assert.assertTrue(sender.send(Event.result("{\"id\":3}")));
+        Assert.assertTrue(sender.send(Event.result("{\"id\":4}")));
+
+        release.countDown();
+        Assert.assertTrue(sender.flush(5000L));
+        Assert.assertEquals(sender.getDropped(), 1L);
+        Assert.assertEquals(delivered.size(), 3);
+        Assert.assertEquals(delivered.get(1).getData(), "{\"id\":3}");
+        Assert.assertEquals(delivered.get(2).getData(), "{\"id\":4}");
+
+        sender.close(1000L);
+    }
+
+    @Test
+    public void testRetryFailedBatch() {
+        AtomicInteger attempts = new AtomicInteger();
+        List<Event> delivered = Collections.synchronizedList(new ArrayList<>());
+        BatchEventSender sender = new BatchEventSender(batch -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new BatchEventSender.DeliveryException("Service unavailable", null, true);
+            }
+            delivered.addAll(batch);
+        }, 10, 10L, 10, OverflowPolicy.BLOCK);
+
+        Assert.assertTrue(sender.send(Event.result("{\"id\":1}")));
+
+        Assert.assertTrue(sender.flush(5000L));
+        Assert.assertEquals(attempts.get(), 3);
+        Assert.assertEquals(delivered.size(), 1);
+        Assert.assertEquals(sender.getDropped(), 0L);
+
+        sender.close(1000L);
+    }
+
+    @Test
+    public void testDropFailedBatch() {
+        AtomicInteger attempts = new AtomicInteger();
+        BatchEventSender sender = new BatchEventSender(batch -> {
+            attempts.incrementAndGet();
+            throw new BatchEventSender.DeliveryException("Service unavailable", null, true);
+        }, 10, 10L, 10, OverflowPolicy.DROP);
+
+        Assert.assertTrue(sender.send(Event.result("{\"id\":1}")));
+        Assert.assertTrue(sender.send(Event.result("{\"id\":2}")));
+
+        Assert.assertTrue(sender.flush(5000L));
+        Assert.assertEquals(attempts.get(), 1);
+        Assert.assertEquals(sender.getDropped(), 2L);
+
+        sender.close(1000L);
+    }
+
+    @Test
+    public void testDropRejectedBatch() {
+        AtomicInteger attempts = new AtomicInteger();
+        BatchEventSender sender = new BatchEventSender(batch -> {
+            attempts.incrementAndGet();
+            throw new BatchEventSender.DeliveryException("Bad request", null, false);
+        }, 10, 10L, 10, OverflowPolicy.BLOCK);
+
+        Assert.assertTrue(sender.send(Event.result("{\"id\":1}")));
+
+        Assert.assertTrue(sender.flush(5000L));
+        Assert.assertEquals(attempts.get(), 1);
+        Assert.assertEquals(sender.getDropped(), 1L);
+
+        sender.close(1000L);
+    }
+
+    @Test
+    public void testMessageJson() {
+        Assert.assertEquals(Event.message("MyTest", "inbound", "<a href=\"foo\">").toJSONString(),
+                "{\"type\":\"message\",\"processId\":\"MyTest\",\"direction\":\"inbound\",\"message\":\"<a href=\\\"foo\\\">\"}");
+        Assert.assertEquals(Event.testEvent("{\"type\":\"TEST_START\"}").toJSONString(),
+                "{\"type\":\"test-event\",\"event\":{\"type\":\"TEST_START\"}}");
+    }
+
+    /**
+     * Gives sender thread time to take first event from the queue.
+     */
+    private void awaitInFlight() throws InterruptedException {
+        Thread.sleep(100L);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5000L, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.connector;
+
+import org.mockito.Mockito;
+import org.springframework.messaging.simp.stomp.*;
+import org.springframework.util.concurrent.SettableListenableFuture;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.testng.Assert;
+import org.testng.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class StompEventTransportTest {
+
+    private static final String URL = "http://localhost:8080/api/socket";
+
+    private WebSocketStompClient stompClient = Mockito.mock(WebSocketStompClient.class);
+
+    private StompEventTransport transport;
+
+    @BeforeMethod
+    public void setup() {
+        reset(stompClient);
+        transport = new StompEventTransport(URL, new RestTemplate()) {
+            @Override
+            protected WebSocketStompClient createStompClient() {
+                return stompClient;
+            }
+        };
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void destroy() {
+        transport.close();
+    }
+
+    @Test
+    public void testConnectFailure() {
+        SettableListenableFuture<StompSession> connection = new SettableListenableFuture<>();
+        when(stompClient.connect(eq(URL), any(StompSessionHandler.class))).thenReturn(connection);
+
+        transport.connect();
+        Assert.assertTrue(transport.isAvailable());
+
+        connection.setException(new IOException("Connection refused"));
+
+        Assert.assertFalse(transport.isAvailable());
+        Assert.assertFalse(transport.isConnected());
+        Assert.assertFalse(transport.send("[]", 1000L));
+        verify(stompClient).connect(eq(URL), any(StompSessionHandler.class));
+    }
+
+    @Test
+    public void testSend() {
+        StompSession session = Mockito.mock(StompSession.class);
+        SettableListenableFuture<StompSession> connection = new SettableListenableFuture<>();
+        connection.set(session);
+        when(stompClient.connect(eq(URL), any(StompSessionHandler.class))).thenReturn(connection);
+
+        transport.connect();
+
+        Assert.assertTrue(transport.isConnected());
+        Assert.assertTrue(transport.send("[{\"type\":\"result\"}]", 1000L));
+        verify(session).send(argThat((StompHeaders headers) -> headers.getDestination().equals(StompEventTransport.BATCH_DESTINATION)),
+                eq("[{\"type\":\"result\"}]".getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testReconnectAfterLoss() {
+        StompSession lost = Mockito.mock(StompSession.class);
+        when(lost.send(any(StompHeaders.class), any())).thenThrow(new IllegalStateException("Connection closed"));
+        StompSession reconnected = Mockito.mock(StompSession.class);
+
+        SettableListenableFuture<StompSession> connection = new SettableListenableFuture<>();
+        connection.set(lost);
+        SettableListenableFuture<StompSession> reconnection = new SettableListenableFuture<>();
+        reconnection.set(reconnected);
+        when(stompClient.connect(eq(URL), any(StompSessionHandler.class))).thenReturn(connection, reconnection);
+
+        transport.connect();
+        Assert.assertTrue(transport.isConnected());
+
+        Assert.assertFalse(transport.send("[]", 1000L));
+        Assert.assertTrue(transport.isAvailable());
+        Assert.assertFalse(transport.isConnected());
+
+        // waits for the scheduled reconnect
+        Assert.assertTrue(transport.send("[]", 5000L));
+        Assert.assertTrue(transport.isConnected());
+        verify(reconnected).send(any(StompHeaders.class), any());
+        verify(stompClient, times(2)).connect(eq(URL), any(StompSessionHandler.class));
+    }
+}
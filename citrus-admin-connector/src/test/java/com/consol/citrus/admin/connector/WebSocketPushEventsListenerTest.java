@@ -21,16 +21,26 @@ import com.consol.citrus.TestCase;
 import com.consol.citrus.context.TestContext;
 import com.consol.citrus.message.DefaultMessage;
 import com.consol.citrus.message.Message;
+import net.minidev.json.*;
 import org.mockito.Mockito;
 import org.springframework.http.*;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
 import org.testng.Assert;
-import org.testng.annotations.BeforeClass;
-import org.testng.annotations.Test;
+import org.testng.annotations.*;
 
-import java.util.Collections;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
 
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -39,14 +49,135 @@ import static org.mockito.Mockito.*;
  */
 public class WebSocketPushEventsListenerTest {
 
-    private WebSocketPushEventsListener pushMessageListener = new WebSocketPushEventsListener();
+    private WebSocketPushEventsListener pushMessageListener;
 
     private TestContext context = Mockito.mock(TestContext.class);
     private RestTemplate restTemplate = Mockito.mock(RestTemplate.class);
 
-    @BeforeClass
+    @BeforeMethod
     public void setup() {
+        pushMessageListener = new WebSocketPushEventsListener();
         pushMessageListener.setRestTemplate(restTemplate);
+        pushMessageListener.setFlushInterval(10L);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void destroy() throws Exception {
+        pushMessageListener.destroy();
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        TestCase test = new TestCase();
+        test.setName("MyTestIT");
+
+        Message outbound = new DefaultMessage("Hello \"Citrus\"!");
+
+        reset(restTemplate, context);
+        when(restTemplate.exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class))).thenAnswer(invocation -> {
+            HttpEntity request = (HttpEntity) invocation.getArguments()[2];
+            Assert.assertEquals(request.getHeaders().getContentType(), MediaType.APPLICATION_JSON);
+
+            JSONArray batch = (JSONArray) JSONValue.parse(request.getBody().toString());
+            Assert.assertEquals(batch.size(), 2);
+
+            JSONObject testEvent = (JSONObject) batch.get(0);
+            Assert.assertEquals(testEvent.get("type"), "test-event");
+            Assert.assertEquals(((JSONObject) testEvent.get("event")).toJSONString(), "{\"msg\":\"MyTestIT\",\"processId\":\"MyTestIT\",\"type\":\"TEST_START\"}");
+
+            JSONObject message = (JSONObject) batch.get(1);
+            Assert.assertEquals(message.get("type"), "message");
+            Assert.assertEquals(message.get("processId"), "MySampleTest");
+            Assert.assertEquals(message.get("direction"), "outbound");
+            Assert.assertEquals(message.get("message"), outbound.toString());
+
+            return ResponseEntity.ok().build();
+        });
+
+        when(context.getVariables()).thenReturn(Collections.singletonMap(Citrus.TEST_NAME_VARIABLE, "MySampleTest"));
+        when(context.getVariable(Citrus.TEST_NAME_VARIABLE)).thenReturn("MySampleTest");
+
+        pushMessageListener.setFlushInterval(60000L);
+        pushMessageListener.onTestStart(test);
+        pushMessageListener.onOutboundMessage(outbound, context);
+
+        Assert.assertTrue(pushMessageListener.flush());
+        verify(restTemplate).exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
+        verifyNoMoreInteractions(restTemplate);
+    }
+
+    @Test
+    public void testTruncatedMessage() throws Exception {
+        Message outbound = new DefaultMessage("Hello Citrus!");
+
+        reset(restTemplate, context);
+        when(restTemplate.exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class))).thenAnswer(invocation -> {
+            HttpEntity request = (HttpEntity) invocation.getArguments()[2];
+
+            JSONArray batch = (JSONArray) JSONValue.parse(request.getBody().toString());
+            Assert.assertEquals(batch.size(), 1);
+
+            JSONObject message = (JSONObject) batch.get(0);
+            Assert.assertEquals(message.get("message"), outbound.toString().substring(0, 10));
+            Assert.assertEquals(message.get("truncated"), true);
+            Assert.assertEquals(((Number) message.get("size")).longValue(), (long) outbound.toString().length());
+
+            return ResponseEntity.ok().build();
+        });
+
+        pushMessageListener.setMaxPayloadSize(10);
+        pushMessageListener.onOutboundMessage(outbound, null);
+
+        Assert.assertTrue(pushMessageListener.flush());
+        verify(restTemplate).exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
+    }
+
+    @Test
+    public void testMessageSampling() throws Exception {
+        Message inbound = new DefaultMessage("Hello Citrus!");
+        AtomicInteger messages = new AtomicInteger();
+
+        reset(restTemplate, context);
+        when(restTemplate.exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class))).thenAnswer(invocation -> {
+            HttpEntity request = (HttpEntity) invocation.getArguments()[2];
+            messages.addAndGet(((JSONArray) JSONValue.parse(request.getBody().toString())).size());
+            return ResponseEntity.ok().build();
+        });
+
+        pushMessageListener.setMessageSampleRate(3);
+        for (int i = 0; i < 7; i++) {
+            pushMessageListener.onInboundMessage(inbound, null);
+        }
+
+        Assert.assertTrue(pushMessageListener.flush());
+        Assert.assertEquals(messages.get(), 3);
+    }
+
+    @Test
+    public void testCompression() throws Exception {
+        StringBuilder payload = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            payload.append("Hello Citrus!");
+        }
+        Message inbound = new DefaultMessage(payload.toString());
+
+        reset(restTemplate, context);
+        when(restTemplate.exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class))).thenAnswer(invocation -> {
+            HttpEntity request = (HttpEntity) invocation.getArguments()[2];
+            Assert.assertEquals(request.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING), "gzip");
+
+            try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream((byte[]) request.getBody()))) {
+                JSONArray batch = (JSONArray) JSONValue.parse(new String(FileCopyUtils.copyToByteArray(gzip), StandardCharsets.UTF_8));
+                Assert.assertEquals(((JSONObject) batch.get(0)).get("message"), inbound.toString());
+            }
+
+            return ResponseEntity.ok().build();
+        });
+
+        pushMessageListener.onInboundMessage(inbound, null);
+
+        Assert.assertTrue(pushMessageListener.flush());
+        verify(restTemplate).exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
     }
 
     @Test
@@ -55,6 +186,7 @@ public class WebSocketPushEventsListenerTest {
         test.setName("MyTestIT");
 
         reset(restTemplate);
+        disableBatch();
         when(restTemplate.exchange(eq("http://localhost:8080/api/connector/result"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class))).thenAnswer(invocation -> {
             HttpEntity request = (HttpEntity) invocation.getArguments()[2];
 
@@ -72,6 +204,7 @@ public class WebSocketPushEventsListenerTest {
         });
 
         pushMessageListener.onTestSuccess(test);
+        Assert.assertTrue(pushMessageListener.flush());
         verify(restTemplate).exchange(eq("http://localhost:8080/api/connector/result"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
         verify(restTemplate).exchange(eq("http://localhost:8080/api/connector/test-event"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
     }
@@ -84,6 +217,7 @@ public class WebSocketPushEventsListenerTest {
         Throwable cause = Mockito.mock(Throwable.class);
 
         reset(restTemplate);
+        disableBatch();
 
         when(cause.getMessage()).thenReturn("Something went wrong!");
         when(cause.getCause()).thenReturn(new NullPointerException());
@@ -105,6 +239,7 @@ public class WebSocketPushEventsListenerTest {
         });
 
         pushMessageListener.onTestFailure(test, cause);
+        Assert.assertTrue(pushMessageListener.flush());
         verify(restTemplate).exchange(eq("http://localhost:8080/api/connector/result"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
         verify(restTemplate).exchange(eq("http://localhost:8080/api/connector/test-event"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
     }
@@ -114,6 +249,7 @@ public class WebSocketPushEventsListenerTest {
         Message inbound = new DefaultMessage("Hello Citrus!");
 
         reset(restTemplate, context);
+        disableBatch();
         when(restTemplate.exchange(eq("http://localhost:8080/api/connector/message/inbound?processId=MySampleTest"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class))).thenAnswer(invocation -> {
             HttpEntity request = (HttpEntity) invocation.getArguments()[2];
 
@@ -126,6 +262,7 @@ public class WebSocketPushEventsListenerTest {
         when(context.getVariable(Citrus.TEST_NAME_VARIABLE)).thenReturn("MySampleTest");
 
         pushMessageListener.onInboundMessage(inbound, context);
+        Assert.assertTrue(pushMessageListener.flush());
         verify(restTemplate).exchange(eq("http://localhost:8080/api/connector/message/inbound?processId=MySampleTest"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
     }
 
@@ -134,6 +271,7 @@ public class WebSocketPushEventsListenerTest {
         Message outbound = new DefaultMessage("Hello Citrus!");
 
         reset(restTemplate, context);
+        disableBatch();
         when(restTemplate.exchange(eq("http://localhost:8080/api/connector/message/outbound?processId=MySampleTest"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class))).thenAnswer(invocation -> {
             HttpEntity request = (HttpEntity) invocation.getArguments()[2];
 
@@ -146,6 +284,7 @@ public class WebSocketPushEventsListenerTest {
         when(context.getVariable(Citrus.TEST_NAME_VARIABLE)).thenReturn("MySampleTest");
 
         pushMessageListener.onOutboundMessage(outbound, context);
+        Assert.assertTrue(pushMessageListener.flush());
         verify(restTemplate).exchange(eq("http://localhost:8080/api/connector/message/outbound?processId=MySampleTest"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
     }
 
@@ -154,6 +293,7 @@ public class WebSocketPushEventsListenerTest {
         Message inbound = new DefaultMessage("Hello Citrus!");
 
         reset(restTemplate, context);
+        disableBatch();
         when(restTemplate.exchange(eq("http://localhost:8080/api/connector/message/inbound?processId="), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class))).thenAnswer(invocation -> {
             HttpEntity request = (HttpEntity) invocation.getArguments()[2];
 
@@ -164,7 +304,122 @@ public class WebSocketPushEventsListenerTest {
 
         pushMessageListener.onInboundMessage(inbound, null);
         pushMessageListener.onInboundMessage(inbound, context);
+        Assert.assertTrue(pushMessageListener.flush());
 
         verify(restTemplate, times(2)).exchange(eq("http://localhost:8080/api/connector/message/inbound?processId="), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testStompBatchSplit() throws Exception {
+        Message small = new DefaultMessage(createPayload(100 * 1024));
+        Message large = new DefaultMessage(createPayload(300 * 1024));
+
+        List<String> bodies = new CopyOnWriteArrayList<>();
+        StompEventTransport stompTransport = Mockito.mock(StompEventTransport.class);
+        when(stompTransport.isAvailable()).thenReturn(true);
+        when(stompTransport.send(anyString(), anyLong())).thenAnswer(invocation -> bodies.add((String) invocation.getArguments()[0]));
+
+        reset(restTemplate);
+        when(restTemplate.exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class))).thenAnswer(invocation -> {
+            HttpEntity request = (HttpEntity) invocation.getArguments()[2];
+            JSONArray batch = (JSONArray) JSONValue.parse(request.getBody().toString());
+            Assert.assertEquals(batch.size(), 1);
+            Assert.assertEquals(((JSONObject) batch.get(0)).get("message"), large.toString());
+            return ResponseEntity.ok().build();
+        });
+
+        pushMessageListener.setCompression(false);
+        pushMessageListener.setFlushInterval(60000L);
+        pushMessageListener.setStompTransport(stompTransport);
+        pushMessageListener.onInboundMessage(small, null);
+        pushMessageListener.onInboundMessage(small, null);
+        pushMessageListener.onInboundMessage(small, null);
+        pushMessageListener.onInboundMessage(large, null);
+
+        Assert.assertTrue(pushMessageListener.flush());
+
+        // events exceeding the STOMP message limit are split into chunks, too large events are sent via HTTP
+        Assert.assertEquals(bodies.size(), 2);
+        Assert.assertEquals(((JSONArray) JSONValue.parse(bodies.get(0))).size(), 2);
+        Assert.assertEquals(((JSONArray) JSONValue.parse(bodies.get(1))).size(), 1);
+        bodies.forEach(body -> Assert.assertTrue(body.getBytes(StandardCharsets.UTF_8).length <= 256 * 1024));
+        verify(restTemplate).exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
+    }
+
+    @Test
+    public void testStompBatchFallback() throws Exception {
+        Message small = new DefaultMessage(createPayload(100 * 1024));
+
+        StompEventTransport stompTransport = Mockito.mock(StompEventTransport.class);
+        when(stompTransport.isAvailable()).thenReturn(true);
+        when(stompTransport.send(anyString(), anyLong())).thenReturn(false);
+
+        reset(restTemplate);
+        when(restTemplate.exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class))).thenAnswer(invocation -> {
+            HttpEntity request = (HttpEntity) invocation.getArguments()[2];
+            JSONArray batch = (JSONArray) JSONValue.parse(request.getBody().toString());
+            Assert.assertEquals(batch.size(), 3);
+            return ResponseEntity.ok().build();
+        });
+
+        pushMessageListener.setCompression(false);
+        pushMessageListener.setFlushInterval(60000L);
+        pushMessageListener.setStompTransport(stompTransport);
+        pushMessageListener.onInboundMessage(small, null);
+        pushMessageListener.onInboundMessage(small, null);
+        pushMessageListener.onInboundMessage(small, null);
+
+        Assert.assertTrue(pushMessageListener.flush());
+
+        // failed chunk and all following events are sent via HTTP
+        verify(stompTransport).send(anyString(), anyLong());
+        verify(restTemplate).exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
+    }
+
+    @Test
+    public void testRetryUnavailableConnector() throws Exception {
+        TestCase test = new TestCase();
+        test.setName("MyTestIT");
+
+        reset(restTemplate);
+        when(restTemplate.exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))
+                .thenReturn(ResponseEntity.ok().build());
+
+        pushMessageListener.onTestStart(test);
+
+        Assert.assertTrue(pushMessageListener.flush());
+        verify(restTemplate, times(2)).exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
+        verifyNoMoreInteractions(restTemplate);
+    }
+
+    @Test
+    public void testRejectedBatchNotRetried() throws Exception {
+        TestCase test = new TestCase();
+        test.setName("MyTestIT");
+
+        reset(restTemplate);
+        when(restTemplate.exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.PAYLOAD_TOO_LARGE));
+
+        pushMessageListener.onTestStart(test);
+
+        Assert.assertTrue(pushMessageListener.flush());
+        verify(restTemplate).exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class));
+        verifyNoMoreInteractions(restTemplate);
+    }
+
+    private String createPayload(int length) {
+        char[] payload = new char[length];
+        Arrays.fill(payload, 'x');
+        return new String(payload);
+    }
+
+    /**
+     * Simulates connector without batch endpoint so events are sent one by one.
+     */
+    private void disableBatch() {
+        when(restTemplate.exchange(eq("http://localhost:8080/api/connector/batch"), eq(HttpMethod.POST), any(HttpEntity.class), eq(String.class)))
+                .thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.connector.runner;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class ForkedTestRunnerTest {
+
+    @Test
+    public void testRunTestNG() throws Exception {
+        File reportsDirectory = Files.createTempDirectory("runner-reports").toFile();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ForkedTestRunner runner = new ForkedTestRunner(new PrintStream(output, true, "UTF-8"), reportsDirectory);
+
+        runner.listen(new BufferedReader(new StringReader(
+                "RUN run-1 " + SampleTestNGTest.class.getName() + " success" + System.lineSeparator() +
+                "RUN run-2 " + SampleTestNGTest.class.getName() + System.lineSeparator() +
+                "EXIT" + System.lineSeparator() +
+                "RUN run-3 " + SampleTestNGTest.class.getName() + System.lineSeparator())));
+
+        String events = output.toString("UTF-8");
+        Assert.assertTrue(events.contains(ForkedTestRunner.EVENT_PREFIX + "READY"));
+        Assert.assertTrue(events.contains(ForkedTestRunner.EVENT_PREFIX + "STARTED run-1"));
+        Assert.assertTrue(events.contains(ForkedTestRunner.EVENT_PREFIX + "FINISHED run-1 0"));
+        Assert.assertTrue(events.contains(ForkedTestRunner.EVENT_PREFIX + "FINISHED run-2 1"));
+        Assert.assertFalse(events.contains("run-3"));
+
+        Assert.assertTrue(new File(reportsDirectory, "run-1/testng-results.xml").exists());
+    }
+
+    @Test
+    public void testRunJUnit4() throws Exception {
+        File reportsDirectory = Files.createTempDirectory("runner-reports").toFile();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ForkedTestRunner runner = new ForkedTestRunner(new PrintStream(output, true, "UTF-8"), reportsDirectory);
+
+        Assert.assertEquals(runner.run("run-1", SampleJUnit4Test.class.getName(), null), 1);
+        Assert.assertEquals(runner.run("run-2", SampleJUnit4Test.class.getName(), "success"), 0);
+
+        File report = new File(reportsDirectory, "run-1/TEST-" + SampleJUnit4Test.class.getName() + ".xml");
+        Assert.assertTrue(report.exists());
+
+        String content = new String(Files.readAllBytes(report.toPath()), StandardCharsets.UTF_8);
+        Assert.assertTrue(content.contains("tests=\"2\" failures=\"1\""));
+        Assert.assertTrue(content.contains("<failure message=\"expected failure\""));
+    }
+
+    @Test
+    public void testRunUnknownClass() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ForkedTestRunner runner = new ForkedTestRunner(new PrintStream(output, true, "UTF-8"), Files.createTempDirectory("runner-reports").toFile());
+
+        Assert.assertEquals(runner.run("run-1", "com.consol.citrus.UnknownIT", null), ForkedTestRunner.RUN_ERROR);
+        Assert.assertTrue(output.toString("UTF-8").contains(ForkedTestRunner.EVENT_PREFIX + "FINISHED run-1 -1"));
+    }
+
+    public static class SampleTestNGTest {
+        @Test
+        public void success() {
+        }
+
+        @Test
+        public void failure() {
+            Assert.fail("expected failure");
+        }
+    }
+
+    public static class SampleJUnit4Test {
+        @org.junit.Test
+        public void success() {
+        }
+
+        @org.junit.Test
+        public void failure() {
+            org.junit.Assert.fail("expected failure");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.loadtest;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock free latency histogram with 100 microsecond buckets up to one minute. Latencies above are counted in the
+ * last bucket.
+ *
+ * @author Christoph Deppisch
+ */
+public class LatencyHistogram {
+
+    private static final long BUCKET_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final int BUCKETS = (int) (TimeUnit.MINUTES.toNanos(1) / BUCKET_NANOS) + 1;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+
+    /**
+     * Records latency in nanoseconds.
+     * @param nanos
+     */
+    public void record(long nanos) {
+        buckets.incrementAndGet((int) Math.min(Math.max(nanos, 0L) / BUCKET_NANOS, BUCKETS - 1));
+        count.increment();
+    }
+
+    /**
+     * Gets number of recorded latencies.
+     * @return
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets latency percentile in milliseconds.
+     * @param percentile between 0 and 100
+     * @return
+     */
+    public double getPercentile(double percentile) {
+        long total = getCount();
+        if (total == 0) {
+            return 0.0D;
+        }
+
+        long rank = Math.max(1L, (long) Math.ceil(total * percentile / 100.0D));
+        long seen = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                return (i + 1) * BUCKET_NANOS / 1000000.0D;
+            }
+        }
+
+        return BUCKETS * BUCKET_NANOS / 1000000.0D;
+    }
+
+    /**
+     * Removes all recorded latencies.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0L);
+        }
+        count.reset();
+    }
+}
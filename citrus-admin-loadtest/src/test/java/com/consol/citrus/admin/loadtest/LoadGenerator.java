@@ -0,0 +1,186 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.loadtest;
+
+import com.consol.citrus.admin.model.ConnectorEvent;
+import com.consol.citrus.admin.model.MessageEvent;
+import com.consol.citrus.admin.process.listener.ProcessListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Drives synthetic process output and test events through the process listener and posts connector message events
+ * via REST API at the configured rates. All generated events carry a timestamp marker for latency measurement.
+ *
+ * @author Christoph Deppisch
+ */
+public class LoadGenerator {
+
+    /** Logger */
+    private static final Logger LOG = LoggerFactory.getLogger(LoadGenerator.class);
+
+    /** Closing tag of generated connector messages */
+    private static final String END_TAG = "</LoadTest>";
+
+    /** Generator tick interval in milliseconds */
+    private static final int TICK = 10;
+
+    private final LoadTestSettings settings;
+    private final ProcessListener processListener;
+    private final RestTemplate restTemplate;
+    private final String connectorUrl;
+
+    private final ScheduledExecutorService scheduler;
+    private final List<ScheduledFuture<?>> tasks = new ArrayList<>();
+
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructor using settings, process listener under test and connector base url.
+     * @param settings
+     * @param processListener
+     * @param restTemplate
+     * @param baseUrl
+     */
+    public LoadGenerator(LoadTestSettings settings, ProcessListener processListener, RestTemplate restTemplate, String baseUrl) {
+        this.settings = settings;
+        this.processListener = processListener;
+        this.restTemplate = restTemplate;
+        this.connectorUrl = baseUrl + "/api/connector/batch";
+        this.scheduler = Executors.newScheduledThreadPool(Math.max(2, settings.getProcesses() * 2), runnable -> {
+            Thread thread = new Thread(runnable, "load-generator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts generating events for given processes.
+     * @param processIds
+     */
+    public void start(List<String> processIds) {
+        for (String processId : processIds) {
+            processListener.onProcessStart(processId);
+
+            Rate output = new Rate(settings.getOutputRate());
+            Rate events = new Rate(settings.getEventRate());
+            tasks.add(scheduler.scheduleAtFixedRate(() -> generateOutput(processId, output, events), 0, TICK, TimeUnit.MILLISECONDS));
+
+            Rate messages = new Rate(settings.getConnectorRate());
+            tasks.add(scheduler.scheduleAtFixedRate(() -> postMessages(processId, messages), 0, TICK, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    /**
+     * Stops generating events and completes the processes.
+     * @param processIds
+     * @throws InterruptedException
+     */
+    public void stop(List<String> processIds) throws InterruptedException {
+        tasks.forEach(task -> task.cancel(false));
+        scheduler.shutdown();
+        scheduler.awaitTermination(10, TimeUnit.SECONDS);
+
+        processIds.forEach(processListener::onProcessSuccess);
+    }
+
+    private void generateOutput(String processId, Rate output, Rate events) {
+        for (int i = output.next(); i > 0; i--) {
+            processListener.onProcessOutput(processId, pad(StompLoadClient.MARKER + LoadTestMetrics.now() + " ", settings.getLineSize()) + System.lineSeparator());
+            generated.increment();
+        }
+
+        for (int i = events.next(); i > 0; i--) {
+            String testName = StompLoadClient.MARKER + LoadTestMetrics.now();
+            processListener.onProcessActivity(processId, "STARTING TEST " + testName + " <loadtest>");
+            processListener.onProcessActivity(processId, "TEST SUCCESS " + testName + " (loadtest)");
+            generated.add(2);
+        }
+    }
+
+    private void postMessages(String processId, Rate messages) {
+        int count = messages.next();
+        if (count == 0) {
+            return;
+        }
+
+        List<ConnectorEvent> batch = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String payload = "<LoadTest id=\"" + StompLoadClient.MARKER + LoadTestMetrics.now() + "\">";
+            batch.add(ConnectorEvent.message(processId, i % 2 == 0 ? MessageEvent.OUTBOUND : MessageEvent.INBOUND,
+                    pad(payload, settings.getMessageSize() - END_TAG.length()) + END_TAG));
+        }
+
+        try {
+            restTemplate.postForEntity(connectorUrl, batch, Void.class);
+            generated.add(count);
+        } catch (RestClientException e) {
+            rejected.add(count);
+            LOG.debug("Connector batch rejected", e);
+        }
+    }
+
+    private static String pad(String value, int length) {
+        StringBuilder builder = new StringBuilder(value);
+        while (builder.length() < length) {
+            builder.append('x');
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Gets number of generated events.
+     * @return
+     */
+    public long getGenerated() {
+        return generated.sum();
+    }
+
+    /**
+     * Gets number of connector events rejected by the server.
+     * @return
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * Converts per second rate to number of events per tick carrying over fractions.
+     */
+    private static class Rate {
+        private final double perTick;
+        private double credit = 0.0D;
+
+        Rate(int perSecond) {
+            this.perTick = perSecond * TICK / 1000.0D;
+        }
+
+        int next() {
+            credit += perTick;
+            int count = (int) credit;
+            credit -= count;
+            return count;
+        }
+    }
+}
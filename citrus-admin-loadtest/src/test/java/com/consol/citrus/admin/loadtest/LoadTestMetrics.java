@@ -0,0 +1,149 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.loadtest;
+
+import com.consol.citrus.admin.process.listener.SocketEventPublisher.Topic;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Delivery metrics collected by all simulated clients. Latencies are measured from the time the load generator
+ * created the event to the time a client has received the frame holding the event.
+ *
+ * @author Christoph Deppisch
+ */
+public class LoadTestMetrics {
+
+    /** Time origin shared by generator and clients so timestamps are never negative */
+    private static final long EPOCH = System.nanoTime();
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final Map<Topic, LatencyHistogram> topicLatency = new EnumMap<>(Topic.class);
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    /** Start of measurement in nanoseconds */
+    private volatile long started = System.nanoTime();
+
+    /**
+     * Gets current timestamp in nanoseconds relative to the load test time origin.
+     * @return
+     */
+    public static long now() {
+        return System.nanoTime() - EPOCH;
+    }
+
+    /**
+     * Default constructor.
+     */
+    public LoadTestMetrics() {
+        for (Topic topic : Topic.values()) {
+            topicLatency.put(topic, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Records received frame.
+     * @param length
+     */
+    public void frame(int length) {
+        frames.increment();
+        bytes.add(length);
+    }
+
+    /**
+     * Records delivery latency of event on topic.
+     * @param topic
+     * @param nanos
+     */
+    public void latency(Topic topic, long nanos) {
+        latency.record(nanos);
+        topicLatency.get(topic).record(nanos);
+    }
+
+    /**
+     * Records frames missing in the sequence of a process.
+     * @param count
+     */
+    public void dropped(long count) {
+        dropped.add(count);
+    }
+
+    /**
+     * Removes measurements recorded during warmup.
+     */
+    public void reset() {
+        latency.reset();
+        topicLatency.values().forEach(LatencyHistogram::reset);
+        frames.reset();
+        bytes.reset();
+        dropped.reset();
+        started = System.nanoTime();
+    }
+
+    /**
+     * Gets overall latency histogram.
+     * @return
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    /**
+     * Gets latency histogram of topic.
+     * @param topic
+     * @return
+     */
+    public LatencyHistogram getLatency(Topic topic) {
+        return topicLatency.get(topic);
+    }
+
+    /**
+     * Gets number of received frames.
+     * @return
+     */
+    public long getFrames() {
+        return frames.sum();
+    }
+
+    /**
+     * Gets number of received bytes.
+     * @return
+     */
+    public long getBytes() {
+        return bytes.sum();
+    }
+
+    /**
+     * Gets number of frames missing in process sequences.
+     * @return
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Gets start of measurement in nanoseconds.
+     * @return
+     */
+    public long getStarted() {
+        return started;
+    }
+}
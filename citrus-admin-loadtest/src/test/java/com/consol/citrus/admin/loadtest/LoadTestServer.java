@@ -0,0 +1,97 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.loadtest;
+
+import com.consol.citrus.admin.WebSocketConfig;
+import com.consol.citrus.admin.model.Project;
+import com.consol.citrus.admin.process.listener.*;
+import com.consol.citrus.admin.process.message.MessageStore;
+import com.consol.citrus.admin.process.stats.ProcessStatsRegistry;
+import com.consol.citrus.admin.service.ConnectorIngestService;
+import com.consol.citrus.admin.service.ProjectService;
+import com.consol.citrus.admin.web.ConnectorController;
+import org.mockito.Mockito;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.*;
+import org.springframework.boot.autoconfigure.websocket.WebSocketAutoConfiguration;
+import org.springframework.context.annotation.*;
+
+import java.nio.file.Paths;
+
+/**
+ * Minimal administration server for load tests. Runs the real WebSocket broker configuration, socket event
+ * publishing, log broadcasting and connector ingest. Project and process services are mocked.
+ *
+ * @author Christoph Deppisch
+ */
+@Configuration
+@Import({ PropertyPlaceholderAutoConfiguration.class,
+        EmbeddedServletContainerAutoConfiguration.class,
+        DispatcherServletAutoConfiguration.class,
+        HttpMessageConvertersAutoConfiguration.class,
+        JacksonAutoConfiguration.class,
+        WebMvcAutoConfiguration.class,
+        WebSocketAutoConfiguration.class,
+        WebSocketConfig.class })
+public class LoadTestServer {
+
+    /** Project home holding the message archive written during load tests */
+    public static final String PROJECT_HOME = Paths.get("target", "loadtest-project").toAbsolutePath().toString();
+
+    @Bean
+    public ProjectService projectService() {
+        ProjectService projectService = Mockito.mock(ProjectService.class);
+        Mockito.when(projectService.getActiveProject()).thenReturn(new Project(PROJECT_HOME));
+        return projectService;
+    }
+
+    @Bean
+    public ProcessStatsRegistry processStatsRegistry() {
+        return new ProcessStatsRegistry();
+    }
+
+    @Bean
+    public SocketEventPublisher socketEventPublisher() {
+        return new SocketEventPublisher();
+    }
+
+    @Bean
+    public LogBroadcaster logBroadcaster() {
+        return new LogBroadcaster();
+    }
+
+    @Bean
+    public WebSocketProcessListener webSocketProcessListener() {
+        return new WebSocketProcessListener();
+    }
+
+    @Bean
+    public MessageStore messageStore() {
+        return new MessageStore();
+    }
+
+    @Bean
+    public ConnectorIngestService connectorIngestService() {
+        return new ConnectorIngestService();
+    }
+
+    @Bean
+    public ConnectorController connectorController() {
+        return new ConnectorController();
+    }
+}
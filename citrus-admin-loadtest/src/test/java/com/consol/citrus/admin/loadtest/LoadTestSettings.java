@@ -0,0 +1,163 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.loadtest;
+
+/**
+ * Load test scenario settings read from system properties, e.g.
+ * <code>mvn verify -Ploadtest -Dloadtest.clients=200 -Dloadtest.output.rate=5000</code>.
+ *
+ * @author Christoph Deppisch
+ */
+public class LoadTestSettings {
+
+    private static final String PREFIX = "loadtest.";
+
+    /** Number of simulated browser clients subscribed to all process topics */
+    private final int clients = getSetting("clients", 50);
+
+    /** Number of concurrently running simulated processes */
+    private final int processes = getSetting("processes", 4);
+
+    /** Warmup and measurement duration in seconds */
+    private final int warmup = getSetting("warmup", 5);
+    private final int duration = getSetting("duration", 30);
+
+    /** Process output lines, test events and connector message events per second and process */
+    private final int outputRate = getSetting("output.rate", 1000);
+    private final int eventRate = getSetting("event.rate", 10);
+    private final int connectorRate = getSetting("connector.rate", 50);
+
+    /** Size of connector message payloads and process output lines in bytes */
+    private final int messageSize = getSetting("message.size", 1024);
+    private final int lineSize = getSetting("line.size", 120);
+
+    /** Client transport: websocket, sockjs or xhr */
+    private final String transport = System.getProperty(PREFIX + "transport", "websocket");
+
+    /** Fails the load test when the 99th latency percentile exceeds this number of milliseconds, 0 disables the check */
+    private final int maxP99 = getSetting("max.p99", 0);
+
+    private static int getSetting(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty(PREFIX + name, String.valueOf(defaultValue)).trim());
+    }
+
+    /**
+     * Gets the clients.
+     *
+     * @return
+     */
+    public int getClients() {
+        return clients;
+    }
+
+    /**
+     * Gets the processes.
+     *
+     * @return
+     */
+    public int getProcesses() {
+        return processes;
+    }
+
+    /**
+     * Gets the warmup.
+     *
+     * @return
+     */
+    public int getWarmup() {
+        return warmup;
+    }
+
+    /**
+     * Gets the duration.
+     *
+     * @return
+     */
+    public int getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gets the outputRate.
+     *
+     * @return
+     */
+    public int getOutputRate() {
+        return outputRate;
+    }
+
+    /**
+     * Gets the eventRate.
+     *
+     * @return
+     */
+    public int getEventRate() {
+        return eventRate;
+    }
+
+    /**
+     * Gets the connectorRate.
+     *
+     * @return
+     */
+    public int getConnectorRate() {
+        return connectorRate;
+    }
+
+    /**
+     * Gets the messageSize.
+     *
+     * @return
+     */
+    public int getMessageSize() {
+        return messageSize;
+    }
+
+    /**
+     * Gets the lineSize.
+     *
+     * @return
+     */
+    public int getLineSize() {
+        return lineSize;
+    }
+
+    /**
+     * Gets the transport.
+     *
+     * @return
+     */
+    public String getTransport() {
+        return transport;
+    }
+
+    /**
+     * Gets the maxP99.
+     *
+     * @return
+     */
+    public int getMaxP99() {
+        return maxP99;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("clients=%s, processes=%s, warmup=%ss, duration=%ss, output.rate=%s/s, event.rate=%s/s, " +
+                "connector.rate=%s/s, message.size=%s, line.size=%s, transport=%s",
+                clients, processes, warmup, duration, outputRate, eventRate, connectorRate, messageSize, lineSize, transport);
+    }
+}
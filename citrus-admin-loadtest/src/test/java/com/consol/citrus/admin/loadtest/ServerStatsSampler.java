@@ -0,0 +1,121 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.concurrent.*;
+
+/**
+ * Samples process CPU load and heap usage once per second. Server and simulated clients share the JVM, so CPU load
+ * includes the client side work.
+ *
+ * @author Christoph Deppisch
+ */
+public class ServerStatsSampler {
+
+    private final OperatingSystemMXBean operatingSystem = ManagementFactory.getOperatingSystemMXBean();
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "load-stats");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /** Samples guarded by this */
+    private double cpuTotal = 0.0D;
+    private double cpuMax = 0.0D;
+    private long heapMax = 0L;
+    private int samples = 0;
+
+    /**
+     * Starts sampling.
+     */
+    public void start() {
+        scheduler.scheduleAtFixedRate(this::sample, 1, 1, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Stops sampling.
+     */
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Removes samples recorded during warmup.
+     */
+    public synchronized void reset() {
+        cpuTotal = 0.0D;
+        cpuMax = 0.0D;
+        heapMax = 0L;
+        samples = 0;
+    }
+
+    private synchronized void sample() {
+        double cpu = getProcessCpuLoad();
+        if (cpu >= 0) {
+            cpuTotal += cpu;
+            cpuMax = Math.max(cpuMax, cpu);
+            samples++;
+        }
+
+        heapMax = Math.max(heapMax, memory.getHeapMemoryUsage().getUsed());
+    }
+
+    private double getProcessCpuLoad() {
+        if (operatingSystem instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) operatingSystem).getProcessCpuLoad();
+        }
+
+        return -1.0D;
+    }
+
+    /**
+     * Gets average process CPU load in percent of all available processors.
+     * @return
+     */
+    public synchronized double getCpuAverage() {
+        return samples > 0 ? cpuTotal / samples * 100.0D : 0.0D;
+    }
+
+    /**
+     * Gets maximum process CPU load in percent of all available processors.
+     * @return
+     */
+    public synchronized double getCpuMax() {
+        return cpuMax * 100.0D;
+    }
+
+    /**
+     * Gets maximum used heap in bytes.
+     * @return
+     */
+    public synchronized long getHeapMax() {
+        return heapMax;
+    }
+
+    /**
+     * Gets maximum available heap in bytes.
+     * @return
+     */
+    public long getHeapLimit() {
+        return memory.getHeapMemoryUsage().getMax();
+    }
+}
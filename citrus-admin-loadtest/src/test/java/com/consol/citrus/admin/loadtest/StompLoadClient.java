@@ -0,0 +1,155 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.loadtest;
+
+import com.consol.citrus.admin.process.listener.SocketEventPublisher;
+import com.consol.citrus.admin.process.listener.SocketEventPublisher.Topic;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.simp.stomp.*;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Simulated browser client subscribed to all topics of the load test processes. Extracts the generator timestamps
+ * from received events and tracks the process sequence numbers to detect frames that never arrived.
+ *
+ * @author Christoph Deppisch
+ */
+public class StompLoadClient extends StompSessionHandlerAdapter {
+
+    /** Logger */
+    private static final Logger LOG = LoggerFactory.getLogger(StompLoadClient.class);
+
+    /** Generator timestamp marker in event data */
+    static final String MARKER = "LOADTEST-";
+    private static final Pattern TIMESTAMP = Pattern.compile(MARKER + "(\\d+)");
+
+    private final LoadTestMetrics metrics;
+
+    /** Received sequence numbers per process, guarded by this */
+    private final Map<String, BitSet> sequences = new HashMap<>();
+
+    private StompSession session;
+
+    /**
+     * Constructor using shared metrics.
+     * @param metrics
+     */
+    public StompLoadClient(LoadTestMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Connects client and subscribes to all topics of given processes.
+     * @param stompClient
+     * @param url
+     * @param processIds
+     * @throws Exception
+     */
+    public void connect(WebSocketStompClient stompClient, String url, List<String> processIds) throws Exception {
+        session = stompClient.connect(url, this).get(30, TimeUnit.SECONDS);
+
+        for (String processId : processIds) {
+            for (Topic topic : Topic.values()) {
+                session.subscribe(topic.getDestination(processId), new EventHandler(processId, topic));
+            }
+        }
+    }
+
+    /**
+     * Counts frames missing in the sequences received so far and clears the sequences.
+     */
+    public synchronized void countDropped() {
+        for (BitSet received : sequences.values()) {
+            metrics.dropped(Math.max(0, received.length() - 1 - received.cardinality()));
+        }
+        sequences.clear();
+    }
+
+    /**
+     * Disconnects client.
+     */
+    public void disconnect() {
+        if (session != null && session.isConnected()) {
+            session.disconnect();
+        }
+    }
+
+    @Override
+    public void handleException(StompSession session, StompCommand command, StompHeaders headers, byte[] payload, Throwable exception) {
+        LOG.warn("Failed to handle load test frame", exception);
+    }
+
+    @Override
+    public void handleTransportError(StompSession session, Throwable exception) {
+        LOG.warn("Load test client transport error", exception);
+    }
+
+    private synchronized void sequence(String processId, String seq) {
+        // sequence numbers start at 1 so bit 0 is always set to count gaps at the start, too
+        BitSet received = sequences.computeIfAbsent(processId, id -> {
+            BitSet bits = new BitSet();
+            bits.set(0);
+            return bits;
+        });
+        received.set(Integer.parseInt(seq));
+    }
+
+    /**
+     * Handles frames of a single process topic.
+     */
+    private class EventHandler implements StompFrameHandler {
+        private final String processId;
+        private final Topic topic;
+
+        EventHandler(String processId, Topic topic) {
+            this.processId = processId;
+            this.topic = topic;
+        }
+
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+            return JsonNode.class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object payload) {
+            long received = LoadTestMetrics.now();
+
+            String seq = headers.getFirst(SocketEventPublisher.SEQUENCE_HEADER);
+            if (seq != null) {
+                sequence(processId, seq);
+            }
+
+            JsonNode event = (JsonNode) payload;
+            String data = event.has("msg") ? event.get("msg").asText() : event.toString();
+            metrics.frame(data.length());
+
+            Matcher matcher = TIMESTAMP.matcher(data);
+            while (matcher.find()) {
+                metrics.latency(topic, received - Long.parseLong(matcher.group(1)));
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.loadtest;
+
+import com.consol.citrus.admin.SessionBackPressureInterceptor;
+import com.consol.citrus.admin.process.listener.SocketEventPublisher.Topic;
+import com.consol.citrus.admin.process.listener.WebSocketProcessListener;
+import com.consol.citrus.admin.service.ConnectorIngestService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.embedded.EmbeddedWebApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.socket.client.WebSocketClient;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.*;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the administration server with its WebSocket broker, attaches simulated STOMP clients to all process
+ * topics and drives process output and connector events at the configured rates. Reports delivery latency
+ * percentiles, dropped frames, CPU load and heap usage to the console and to
+ * <code>target/loadtest-report.txt</code>.
+ *
+ * @author Christoph Deppisch
+ */
+public class WebSocketFanOutLoadTest {
+
+    @Test
+    public void testFanOut() throws Exception {
+        LoadTestSettings settings = new LoadTestSettings();
+        Files.createDirectories(Paths.get(LoadTestServer.PROJECT_HOME));
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LoadTestServer.class)
+                .properties("server.port=0")
+                .web(true)
+                .run();
+
+        WebSocketStompClient stompClient = createStompClient(settings.getTransport());
+        List<StompLoadClient> clients = new ArrayList<>();
+        LoadTestMetrics metrics = new LoadTestMetrics();
+        ServerStatsSampler stats = new ServerStatsSampler();
+
+        try {
+            int port = ((EmbeddedWebApplicationContext) context).getEmbeddedServletContainer().getPort();
+            String url = settings.getTransport().equals("websocket") ?
+                    String.format("ws://localhost:%s/api/socket/websocket", port) : String.format("http://localhost:%s/api/socket", port);
+
+            List<String> processIds = new ArrayList<>();
+            for (int i = 1; i <= settings.getProcesses(); i++) {
+                processIds.add("loadtest-" + i);
+            }
+
+            for (int i = 0; i < settings.getClients(); i++) {
+                StompLoadClient client = new StompLoadClient(metrics);
+                client.connect(stompClient, url, processIds);
+                clients.add(client);
+            }
+
+            LoadGenerator generator = new LoadGenerator(settings, context.getBean(WebSocketProcessListener.class),
+                    new RestTemplate(), String.format("http://localhost:%s", port));
+
+            stats.start();
+            generator.start(processIds);
+
+            TimeUnit.SECONDS.sleep(settings.getWarmup());
+            metrics.reset();
+            stats.reset();
+            long generatedAtStart = generator.getGenerated();
+
+            TimeUnit.SECONDS.sleep(settings.getDuration());
+            long elapsed = System.nanoTime() - metrics.getStarted();
+            long generated = generator.getGenerated() - generatedAtStart;
+
+            generator.stop(processIds);
+            context.getBean(ConnectorIngestService.class).awaitIdle(10000L);
+            TimeUnit.SECONDS.sleep(2);
+            clients.forEach(StompLoadClient::countDropped);
+            stats.stop();
+
+            String report = createReport(settings, metrics, stats, generated, generator.getRejected(), elapsed,
+                    context.getBean(SessionBackPressureInterceptor.class).getMetrics(),
+                    context.getBean(ConnectorIngestService.class).getMetrics());
+            System.out.println(report);
+            writeReport(report);
+
+            Assert.assertTrue(metrics.getLatency().getCount() > 0, "Clients did not receive any load test events");
+            if (settings.getMaxP99() > 0) {
+                Assert.assertTrue(metrics.getLatency().getPercentile(99) <= settings.getMaxP99(),
+                        String.format("Latency p99 %.1f ms exceeds limit of %s ms", metrics.getLatency().getPercentile(99), settings.getMaxP99()));
+            }
+        } finally {
+            clients.forEach(StompLoadClient::disconnect);
+            stompClient.stop();
+            context.close();
+        }
+    }
+
+    private WebSocketStompClient createStompClient(String transport) {
+        WebSocketClient webSocketClient;
+        switch (transport) {
+            case "websocket":
+                webSocketClient = new StandardWebSocketClient();
+                break;
+            case "sockjs":
+                webSocketClient = new SockJsClient(Arrays.asList(new WebSocketTransport(new StandardWebSocketClient()), new RestTemplateXhrTransport()));
+                break;
+            case "xhr":
+                webSocketClient = new SockJsClient(Collections.singletonList(new RestTemplateXhrTransport()));
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported load test transport: " + transport);
+        }
+
+        ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
+        taskScheduler.afterPropertiesSet();
+
+        WebSocketStompClient stompClient = new WebSocketStompClient(webSocketClient);
+        stompClient.setMessageConverter(new MappingJackson2MessageConverter());
+        stompClient.setInboundMessageSizeLimit(1024 * 1024);
+        stompClient.setTaskScheduler(taskScheduler);
+        stompClient.start();
+        return stompClient;
+    }
+
+    private String createReport(LoadTestSettings settings, LoadTestMetrics metrics, ServerStatsSampler stats, long generated,
+                                long rejected, long elapsed, Map<String, Object> sessionMetrics, Map<String, Object> ingestMetrics) {
+        double seconds = elapsed / 1000000000.0D;
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("WebSocket fan-out load test (%s)%n", settings));
+        report.append(String.format("  generated events    : %s (%.0f/s), connector events rejected: %s%n", generated, generated / seconds, rejected));
+        report.append(String.format("  delivered events    : %s (%.0f/s) in %s frames, %.1f MB%n", metrics.getLatency().getCount(),
+                metrics.getLatency().getCount() / seconds, metrics.getFrames(), metrics.getBytes() / 1024.0D / 1024.0D));
+        report.append(String.format("  latency all         : %s%n", formatLatency(metrics.getLatency())));
+        for (Topic topic : Topic.values()) {
+            report.append(String.format("  latency %-12s: %s%n", topic.name().toLowerCase(), formatLatency(metrics.getLatency(topic))));
+        }
+        report.append(String.format("  dropped frames      : %s (whole run), server back-pressure %s%n", metrics.getDropped(), sessionMetrics));
+        report.append(String.format("  connector ingest    : %s%n", ingestMetrics));
+        report.append(String.format("  cpu                 : avg %.1f%%, max %.1f%% (server and clients)%n", stats.getCpuAverage(), stats.getCpuMax()));
+        report.append(String.format("  heap                : max used %.1f MB of %.1f MB%n", stats.getHeapMax() / 1024.0D / 1024.0D, stats.getHeapLimit() / 1024.0D / 1024.0D));
+        return report.toString();
+    }
+
+    private String formatLatency(LatencyHistogram histogram) {
+        return String.format("count=%s p50=%.1fms p90=%.1fms p99=%.1fms p99.9=%.1fms max=%.1fms", histogram.getCount(),
+                histogram.getPercentile(50), histogram.getPercentile(90), histogram.getPercentile(99),
+                histogram.getPercentile(99.9), histogram.getPercentile(100));
+    }
+
+    private void writeReport(String report) throws IOException {
+        Files.write(Paths.get("target", "loadtest-report.txt"), report.getBytes(StandardCharsets.UTF_8));
+    }
+}
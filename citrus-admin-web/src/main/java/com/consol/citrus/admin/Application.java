@@ -86,6 +86,92 @@ public class Application extends SpringBootServletInitializer {
     public static final String XML_SRC_DIRECTORY = CITRUS_ADMIN_PREFIX + "xml.source.directory";
     public static final String XML_SRC_DIRECTORY_ENV = CITRUS_ADMIN_ENV_PREFIX + "XML_SOURCE_DIRECTORY";
 
+    /** Directory names skipped when indexing project files */
+    public static final String PROJECT_INDEX_IGNORE = CITRUS_ADMIN_PREFIX + "project.index.ignore";
+    public static final String PROJECT_INDEX_IGNORE_ENV = CITRUS_ADMIN_ENV_PREFIX + "PROJECT_INDEX_IGNORE";
+
+    /** Shared process execution engine limits */
+    public static final String PROCESS_MAX_THREADS = CITRUS_ADMIN_PREFIX + "process.max.threads";
+    public static final String PROCESS_MAX_THREADS_ENV = CITRUS_ADMIN_ENV_PREFIX + "PROCESS_MAX_THREADS";
+    public static final String PROCESS_QUEUE_CAPACITY = CITRUS_ADMIN_PREFIX + "process.queue.capacity";
+    public static final String PROCESS_QUEUE_CAPACITY_ENV = CITRUS_ADMIN_ENV_PREFIX + "PROCESS_QUEUE_CAPACITY";
+
+    /** Process event dispatching capacity per listener and overflow policy (block, drop, coalesce) */
+    public static final String PROCESS_EVENT_CAPACITY = CITRUS_ADMIN_PREFIX + "process.event.capacity";
+    public static final String PROCESS_EVENT_CAPACITY_ENV = CITRUS_ADMIN_ENV_PREFIX + "PROCESS_EVENT_CAPACITY";
+    public static final String PROCESS_EVENT_OVERFLOW = CITRUS_ADMIN_PREFIX + "process.event.overflow";
+    public static final String PROCESS_EVENT_OVERFLOW_ENV = CITRUS_ADMIN_ENV_PREFIX + "PROCESS_EVENT_OVERFLOW";
+
+    /** Process output batching byte budget and flush interval in milliseconds */
+    public static final String PROCESS_OUTPUT_MAX_BYTES = CITRUS_ADMIN_PREFIX + "process.output.max.bytes";
+    public static final String PROCESS_OUTPUT_MAX_BYTES_ENV = CITRUS_ADMIN_ENV_PREFIX + "PROCESS_OUTPUT_MAX_BYTES";
+    public static final String PROCESS_OUTPUT_FLUSH_INTERVAL = CITRUS_ADMIN_PREFIX + "process.output.flush.interval";
+    public static final String PROCESS_OUTPUT_FLUSH_INTERVAL_ENV = CITRUS_ADMIN_ENV_PREFIX + "PROCESS_OUTPUT_FLUSH_INTERVAL";
+
+    /** Warm test runner JVM options, idle timeout and test run timeout in seconds */
+    public static final String TEST_RUNNER_JVM_ARGS = CITRUS_ADMIN_PREFIX + "test.runner.jvm.args";
+    public static final String TEST_RUNNER_JVM_ARGS_ENV = CITRUS_ADMIN_ENV_PREFIX + "TEST_RUNNER_JVM_ARGS";
+    public static final String TEST_RUNNER_IDLE_TIMEOUT = CITRUS_ADMIN_PREFIX + "test.runner.idle.timeout";
+    public static final String TEST_RUNNER_IDLE_TIMEOUT_ENV = CITRUS_ADMIN_ENV_PREFIX + "TEST_RUNNER_IDLE_TIMEOUT";
+    public static final String TEST_RUNNER_RUN_TIMEOUT = CITRUS_ADMIN_PREFIX + "test.runner.run.timeout";
+    public static final String TEST_RUNNER_RUN_TIMEOUT_ENV = CITRUS_ADMIN_ENV_PREFIX + "TEST_RUNNER_RUN_TIMEOUT";
+
+    /** Process resource sampling interval in milliseconds and number of process stats to keep */
+    public static final String PROCESS_STATS_INTERVAL = CITRUS_ADMIN_PREFIX + "process.stats.interval";
+    public static final String PROCESS_STATS_INTERVAL_ENV = CITRUS_ADMIN_ENV_PREFIX + "PROCESS_STATS_INTERVAL";
+    public static final String PROCESS_STATS_RETENTION = CITRUS_ADMIN_PREFIX + "process.stats.retention";
+    public static final String PROCESS_STATS_RETENTION_ENV = CITRUS_ADMIN_ENV_PREFIX + "PROCESS_STATS_RETENTION";
+
+    /** Time in milliseconds stopped processes get to terminate gracefully before they are killed */
+    public static final String PROCESS_STOP_TIMEOUT = CITRUS_ADMIN_PREFIX + "process.stop.timeout";
+    public static final String PROCESS_STOP_TIMEOUT_ENV = CITRUS_ADMIN_ENV_PREFIX + "PROCESS_STOP_TIMEOUT";
+
+    /** Process log ring buffer size in megabytes, spool directory and number of completed logs to keep */
+    public static final String PROCESS_LOG_BUFFER_SIZE = CITRUS_ADMIN_PREFIX + "process.log.buffer.size";
+    public static final String PROCESS_LOG_BUFFER_SIZE_ENV = CITRUS_ADMIN_ENV_PREFIX + "PROCESS_LOG_BUFFER_SIZE";
+    public static final String PROCESS_LOG_DIRECTORY = CITRUS_ADMIN_PREFIX + "process.log.directory";
+    public static final String PROCESS_LOG_DIRECTORY_ENV = CITRUS_ADMIN_ENV_PREFIX + "PROCESS_LOG_DIRECTORY";
+    public static final String PROCESS_LOG_RETENTION = CITRUS_ADMIN_PREFIX + "process.log.retention";
+    public static final String PROCESS_LOG_RETENTION_ENV = CITRUS_ADMIN_ENV_PREFIX + "PROCESS_LOG_RETENTION";
+
+    /** Log output coalescing window in milliseconds, bytes per frame and pending bytes per client session */
+    public static final String LOG_BROADCAST_WINDOW = CITRUS_ADMIN_PREFIX + "log.broadcast.window";
+    public static final String LOG_BROADCAST_WINDOW_ENV = CITRUS_ADMIN_ENV_PREFIX + "LOG_BROADCAST_WINDOW";
+    public static final String LOG_BROADCAST_FRAME_SIZE = CITRUS_ADMIN_PREFIX + "log.broadcast.frame.size";
+    public static final String LOG_BROADCAST_FRAME_SIZE_ENV = CITRUS_ADMIN_ENV_PREFIX + "LOG_BROADCAST_FRAME_SIZE";
+    public static final String LOG_BROADCAST_SESSION_LIMIT = CITRUS_ADMIN_PREFIX + "log.broadcast.session.limit";
+    public static final String LOG_BROADCAST_SESSION_LIMIT_ENV = CITRUS_ADMIN_ENV_PREFIX + "LOG_BROADCAST_SESSION_LIMIT";
+
+    /** Publish process socket events to global aggregate topics in addition to per process destinations */
+    public static final String SOCKET_AGGREGATE_TOPICS = CITRUS_ADMIN_PREFIX + "socket.aggregate.topics";
+    public static final String SOCKET_AGGREGATE_TOPICS_ENV = CITRUS_ADMIN_ENV_PREFIX + "SOCKET_AGGREGATE_TOPICS";
+
+    /** Number of sequenced socket events per process kept for replay to reconnecting clients */
+    public static final String SOCKET_REPLAY_SIZE = CITRUS_ADMIN_PREFIX + "socket.replay.size";
+    public static final String SOCKET_REPLAY_SIZE_ENV = CITRUS_ADMIN_ENV_PREFIX + "SOCKET_REPLAY_SIZE";
+
+    /** Connector message preview size in characters sent to clients and message store size in megabytes */
+    public static final String CONNECTOR_MESSAGE_PREVIEW_SIZE = CITRUS_ADMIN_PREFIX + "connector.message.preview.size";
+    public static final String CONNECTOR_MESSAGE_PREVIEW_SIZE_ENV = CITRUS_ADMIN_ENV_PREFIX + "CONNECTOR_MESSAGE_PREVIEW_SIZE";
+    public static final String CONNECTOR_MESSAGE_STORE_SIZE = CITRUS_ADMIN_PREFIX + "connector.message.store.size";
+    public static final String CONNECTOR_MESSAGE_STORE_SIZE_ENV = CITRUS_ADMIN_ENV_PREFIX + "CONNECTOR_MESSAGE_STORE_SIZE";
+
+    /** Maximum number of connector events waiting for dispatch to socket clients */
+    public static final String CONNECTOR_INGEST_CAPACITY = CITRUS_ADMIN_PREFIX + "connector.ingest.capacity";
+    public static final String CONNECTOR_INGEST_CAPACITY_ENV = CITRUS_ADMIN_ENV_PREFIX + "CONNECTOR_INGEST_CAPACITY";
+
+    /** Maximum decompressed size in bytes of gzip encoded connector requests */
+    public static final String CONNECTOR_REQUEST_SIZE_LIMIT = CITRUS_ADMIN_PREFIX + "connector.request.size.limit";
+    public static final String CONNECTOR_REQUEST_SIZE_LIMIT_ENV = CITRUS_ADMIN_ENV_PREFIX + "CONNECTOR_REQUEST_SIZE_LIMIT";
+
+    /** Message archive root directory, archive size and segment size in megabytes */
+    public static final String MESSAGE_ARCHIVE_DIRECTORY = CITRUS_ADMIN_PREFIX + "message.archive.directory";
+    public static final String MESSAGE_ARCHIVE_DIRECTORY_ENV = CITRUS_ADMIN_ENV_PREFIX + "MESSAGE_ARCHIVE_DIRECTORY";
+    public static final String MESSAGE_ARCHIVE_SIZE = CITRUS_ADMIN_PREFIX + "message.archive.size";
+    public static final String MESSAGE_ARCHIVE_SIZE_ENV = CITRUS_ADMIN_ENV_PREFIX + "MESSAGE_ARCHIVE_SIZE";
+    public static final String MESSAGE_ARCHIVE_SEGMENT_SIZE = CITRUS_ADMIN_PREFIX + "message.archive.segment.size";
+    public static final String MESSAGE_ARCHIVE_SEGMENT_SIZE_ENV = CITRUS_ADMIN_ENV_PREFIX + "MESSAGE_ARCHIVE_SEGMENT_SIZE";
+
     public static final String MVN_HOME_DIRECTORY = "maven.home.directory";
 
     /* Load application version */
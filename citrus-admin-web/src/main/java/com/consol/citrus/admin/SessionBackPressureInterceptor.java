@@ -0,0 +1,198 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin;
+
+import com.consol.citrus.admin.configuration.SystemSettings;
+import com.consol.citrus.admin.model.SocketEvent;
+import com.consol.citrus.admin.process.listener.SocketEventPublisher;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptorAdapter;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.*;
+import org.springframework.web.socket.handler.*;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies back-pressure on log output sent to slow WebSocket clients. Bytes queued on the client outbound channel
+ * are counted per session until they have been written to the session. When a client falls behind the pending
+ * limit log output frames for this client are replaced by a single truncation marker and dropped afterwards, so the
+ * client can fetch the full output via REST API. Log output is sent again as soon as the client has caught up.
+ * Other events are never dropped.
+ *
+ * @author Christoph Deppisch
+ */
+public class SessionBackPressureInterceptor extends ChannelInterceptorAdapter implements WebSocketHandlerDecoratorFactory {
+
+    /** Logger */
+    private static final Logger LOG = LoggerFactory.getLogger(SessionBackPressureInterceptor.class);
+
+    /** Default pending bytes per session */
+    private static final int DEFAULT_SESSION_LIMIT = 256 * 1024;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Map<String, SessionState> sessions = new ConcurrentHashMap<>();
+
+    private final AtomicLong truncated = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private long sessionLimit = SystemSettings.getLong(Application.LOG_BROADCAST_SESSION_LIMIT, Application.LOG_BROADCAST_SESSION_LIMIT_ENV, DEFAULT_SESSION_LIMIT);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        SessionState state = accessor.getSessionId() != null ? sessions.get(accessor.getSessionId()) : null;
+        if (state == null || !(message.getPayload() instanceof byte[])) {
+            return message;
+        }
+
+        if (SimpMessageType.MESSAGE.equals(accessor.getMessageType())
+                && SocketEventPublisher.Topic.LOG.matches(accessor.getDestination())) {
+            long pending = state.pending.get();
+
+            if (state.truncated && pending < sessionLimit / 2) {
+                LOG.debug(String.format("Resume log output for session '%s'", accessor.getSessionId()));
+                state.truncated = false;
+            }
+
+            if (pending >= sessionLimit) {
+                if (state.truncated) {
+                    dropped.incrementAndGet();
+                    return null;
+                }
+
+                state.truncated = true;
+                truncated.incrementAndGet();
+                LOG.debug(String.format("Truncate log output for session '%s' with %s pending bytes", accessor.getSessionId(), pending));
+                message = createMarker((Message<byte[]>) message);
+            } else if (state.truncated) {
+                dropped.incrementAndGet();
+                return null;
+            }
+        }
+
+        state.pending.addAndGet(((byte[]) message.getPayload()).length);
+        return message;
+    }
+
+    /**
+     * Replaces log output payload with truncation marker pointing to the process log API.
+     * @param message
+     * @return
+     */
+    private Message<byte[]> createMarker(Message<byte[]> message) {
+        String processId = null;
+        try {
+            JsonNode processIdNode = objectMapper.readTree(message.getPayload()).get("processId");
+            processId = processIdNode != null ? processIdNode.asText() : null;
+        } catch (IOException e) {
+            LOG.warn("Failed to read process id from log output", e);
+        }
+
+        SocketEvent marker = SocketEvent.createEvent(processId, SocketEvent.EventType.LOG_MESSAGE,
+                String.format("%n... log truncated - fetch full output via api/process/%s/log ...%n", processId));
+
+        try {
+            return MessageBuilder.createMessage(objectMapper.writeValueAsBytes(marker), message.getHeaders());
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to write log truncation marker", e);
+        }
+    }
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                SessionState state = new SessionState();
+                sessions.put(session.getId(), state);
+                super.afterConnectionEstablished(new PendingBytesSession(session, state));
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    /**
+     * Gets back-pressure counters.
+     * @return
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("sessions", sessions.size());
+        metrics.put("truncated", truncated.get());
+        metrics.put("dropped", dropped.get());
+        return metrics;
+    }
+
+    /**
+     * Sets the maximum number of pending bytes per session.
+     *
+     * @param sessionLimit
+     */
+    public void setSessionLimit(long sessionLimit) {
+        this.sessionLimit = sessionLimit;
+    }
+
+    /**
+     * Pending bytes and truncation state of a client session.
+     */
+    private static class SessionState {
+        private final AtomicLong pending = new AtomicLong();
+        private volatile boolean truncated;
+    }
+
+    /**
+     * Session decorator releasing pending bytes once a frame has been written to the client.
+     */
+    private static class PendingBytesSession extends WebSocketSessionDecorator {
+        private final SessionState state;
+
+        PendingBytesSession(WebSocketSession session, SessionState state) {
+            super(session);
+            this.state = state;
+        }
+
+        @Override
+        public void sendMessage(WebSocketMessage<?> message) throws IOException {
+            try {
+                super.sendMessage(message);
+            } finally {
+                // encoded frames include STOMP headers so never release more than is pending
+                long length = message.getPayloadLength();
+                state.pending.updateAndGet(pending -> Math.max(0L, pending - length));
+            }
+        }
+    }
+}
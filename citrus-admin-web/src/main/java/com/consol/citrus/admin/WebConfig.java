@@ -16,8 +16,10 @@
 
 package com.consol.citrus.admin;
 
+import com.consol.citrus.admin.web.GzipRequestFilter;
 import com.consol.citrus.admin.web.ProjectSetupInterceptor;
 import org.springframework.boot.autoconfigure.web.ErrorViewResolver;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.*;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.servlet.ModelAndView;
@@ -53,6 +55,13 @@ public class WebConfig extends WebMvcConfigurerAdapter {
         return interceptor;
     }
 
+    @Bean
+    public FilterRegistrationBean gzipRequestFilter() {
+        FilterRegistrationBean registration = new FilterRegistrationBean(new GzipRequestFilter());
+        registration.addUrlPatterns("/api/connector/*");
+        return registration;
+    }
+
     @Override
     public void addViewControllers(ViewControllerRegistry registry) {
         registry.addViewController("/setup").setViewName("forward:/index.html");
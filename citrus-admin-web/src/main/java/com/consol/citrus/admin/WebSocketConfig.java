@@ -16,9 +16,12 @@
 
 package com.consol.citrus.admin;
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.*;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
 
 /**
  * @author Christoph Deppisch
@@ -27,6 +30,9 @@ import org.springframework.web.socket.config.annotation.*;
 @EnableWebSocketMessageBroker
 public class WebSocketConfig extends AbstractWebSocketMessageBrokerConfigurer {
 
+    /** Maximum inbound message size, large enough for connector event batches */
+    private static final int MESSAGE_SIZE_LIMIT = 512 * 1024;
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         config.enableSimpleBroker("/topic");
@@ -38,4 +44,28 @@ public class WebSocketConfig extends AbstractWebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/api/socket").withSockJS();
     }
 
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.interceptors(sessionBackPressureInterceptor());
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.addDecoratorFactory(sessionBackPressureInterceptor());
+        registration.setMessageSizeLimit(MESSAGE_SIZE_LIMIT);
+    }
+
+    @Bean
+    public ServletServerContainerFactoryBean webSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxTextMessageBufferSize(MESSAGE_SIZE_LIMIT);
+        container.setMaxBinaryMessageBufferSize(MESSAGE_SIZE_LIMIT);
+        return container;
+    }
+
+    @Bean
+    public SessionBackPressureInterceptor sessionBackPressureInterceptor() {
+        return new SessionBackPressureInterceptor();
+    }
+
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Function;
+
+/**
+ * Reads single settings from system property or environment variable. System properties take precedence over
+ * environment variables. Invalid values are logged and replaced with the default value.
+ *
+ * @author Christoph Deppisch
+ */
+public final class SystemSettings {
+
+    /** Logger */
+    private static final Logger LOG = LoggerFactory.getLogger(SystemSettings.class);
+
+    /**
+     * Prevent instantiation.
+     */
+    private SystemSettings() {
+        super();
+    }
+
+    /**
+     * Reads setting value. Returns null when neither system property nor environment variable is set.
+     * @param property
+     * @param environment
+     * @return
+     */
+    public static String getString(String property, String environment) {
+        return System.getProperty(property, System.getenv(environment));
+    }
+
+    /**
+     * Reads setting value with default.
+     * @param property
+     * @param environment
+     * @param defaultValue
+     * @return
+     */
+    public static String getString(String property, String environment, String defaultValue) {
+        String value = getString(property, environment);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Reads boolean setting.
+     * @param property
+     * @param environment
+     * @param defaultValue
+     * @return
+     */
+    public static boolean getBoolean(String property, String environment, boolean defaultValue) {
+        return get(property, environment, defaultValue, Boolean::valueOf);
+    }
+
+    /**
+     * Reads integer setting.
+     * @param property
+     * @param environment
+     * @param defaultValue
+     * @return
+     */
+    public static int getInt(String property, String environment, int defaultValue) {
+        return get(property, environment, defaultValue, Integer::parseInt);
+    }
+
+    /**
+     * Reads long setting.
+     * @param property
+     * @param environment
+     * @param defaultValue
+     * @return
+     */
+    public static long getLong(String property, String environment, long defaultValue) {
+        return get(property, environment, defaultValue, Long::parseLong);
+    }
+
+    /**
+     * Reads enum setting. Values are matched case insensitive.
+     * @param property
+     * @param environment
+     * @param defaultValue
+     * @param <E>
+     * @return
+     */
+    public static <E extends Enum<E>> E getEnum(String property, String environment, E defaultValue) {
+        return get(property, environment, defaultValue, value -> Enum.valueOf(defaultValue.getDeclaringClass(), value.toUpperCase()));
+    }
+
+    /**
+     * Reads and converts setting value.
+     * @param property
+     * @param environment
+     * @param defaultValue
+     * @param converter
+     * @param <T>
+     * @return
+     */
+    private static <T> T get(String property, String environment, T defaultValue, Function<String, T> converter) {
+        String value = getString(property, environment);
+        if (value == null) {
+            return defaultValue;
+        }
+
+        try {
+            return converter.apply(value.trim());
+        } catch (IllegalArgumentException e) {
+            LOG.warn(String.format("Invalid setting '%s=%s' - using default value %s", property, value, defaultValue));
+            return defaultValue;
+        }
+    }
+}
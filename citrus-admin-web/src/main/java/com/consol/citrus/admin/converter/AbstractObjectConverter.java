@@ -16,20 +16,24 @@
 
 package com.consol.citrus.admin.converter;
 
+import com.consol.citrus.admin.converter.metadata.ModelMetadata;
+import com.consol.citrus.admin.converter.metadata.PropertyDescriptor;
+import com.consol.citrus.admin.exception.ApplicationRuntimeException;
 import com.consol.citrus.admin.model.Property;
 import com.consol.citrus.admin.service.ProjectService;
 import com.consol.citrus.variable.VariableUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.ConversionNotSupportedException;
+import org.springframework.beans.SimpleTypeConverter;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.util.ReflectionUtils;
 import org.springframework.util.StringUtils;
 
 import javax.xml.bind.annotation.XmlAttribute;
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -46,6 +50,55 @@ public abstract class AbstractObjectConverter<T, S> implements ObjectConverter<T
     protected static final String TRUE = "true";
     protected static final String FALSE = "false";
 
+    /** Property descriptors of source model class, initialized on first conversion */
+    private volatile List<PropertyDescriptor> propertyDescriptors;
+
+    /**
+     * Gets property descriptors for all fields on source model class. Descriptors are evaluated only once
+     * and reused for all subsequent conversions.
+     * @return
+     */
+    protected List<PropertyDescriptor> getPropertyDescriptors() {
+        List<PropertyDescriptor> descriptors = propertyDescriptors;
+        if (descriptors == null) {
+            descriptors = Collections.unmodifiableList(ModelMetadata.of(getSourceModelClass()).getFields()
+                    .stream()
+                    .map(this::describe)
+                    .collect(Collectors.toList()));
+            propertyDescriptors = descriptors;
+        }
+
+        return descriptors;
+    }
+
+    /**
+     * Creates property descriptor for given model field.
+     * @param field
+     * @return
+     */
+    protected PropertyDescriptor describe(Field field) {
+        String fieldName = field.getName();
+        String name = getFieldName(fieldName);
+        String attributeName = field.isAnnotationPresent(XmlAttribute.class) ? getFieldName(field.getAnnotation(XmlAttribute.class).name()) : name;
+
+        return new PropertyDescriptor(field, name, attributeName, getDisplayName(name), getDefaultValue(field),
+                isRequiredField(field), getFieldOptions(field), getOptionType(field), getterMethodName(field, fieldName));
+    }
+
+    /**
+     * Adds new property using the property descriptor.
+     * @param descriptor
+     * @param definition
+     */
+    protected <V> Property<V> property(PropertyDescriptor descriptor, S definition) {
+        Property<V> property = property(descriptor.getName(), descriptor.getAttributeName(), descriptor.getFieldName(), descriptor.getDisplayName(),
+                definition, descriptor.getGetterName(), (V) descriptor.getDefaultValue(), descriptor.isRequired());
+
+        property.options((V[]) descriptor.getOptions());
+        property.optionType(descriptor.getOptionType());
+        return property;
+    }
+
     /**
      * Adds new endpoint property.
      * @param fieldName
@@ -116,34 +169,93 @@ public abstract class AbstractObjectConverter<T, S> implements ObjectConverter<T
      * @param required
      */
     protected <V> Property<V> property(String fieldName, String displayName, S definition, V defaultValue, boolean required) {
-        Field field = ReflectionUtils.findField(definition.getClass(), fieldName);
+        Field field = ModelMetadata.of(definition.getClass()).getField(fieldName);
 
         if (field != null) {
-            Method getter = ReflectionUtils.findMethod(definition.getClass(), getterMethodName(field, fieldName));
-
-            V value = defaultValue;
-            if (getter != null) {
-                Object getterResult = ReflectionUtils.invokeMethod(getter, definition);
-                if (getterResult != null) {
-                    value = (V) getterResult;
-                }
-            }
-
-            if (value != null) {
-                if (field.isAnnotationPresent(XmlAttribute.class)) {
-                    return new Property<>(getFieldName(field.getAnnotation(XmlAttribute.class).name()), fieldName, displayName, resolvePropertyExpression(value), required);
-                } else {
-                    return new Property<>(getFieldName(fieldName), fieldName, displayName, resolvePropertyExpression(value), required);
-                }
-            } else {
-                return new Property<>(getFieldName(fieldName), fieldName, displayName, null, required);
-            }
+            String name = getFieldName(fieldName);
+            String attributeName = field.isAnnotationPresent(XmlAttribute.class) ? getFieldName(field.getAnnotation(XmlAttribute.class).name()) : name;
+            return property(name, attributeName, fieldName, displayName, definition, getterMethodName(field, fieldName), defaultValue, required);
         } else {
             log.warn(String.format("Unknown field '%s' on source type '%s'", fieldName, definition.getClass()));
             return null;
         }
     }
 
+    /**
+     * Adds new property reading the value with the generated getter of the model class.
+     * @param name
+     * @param attributeName
+     * @param fieldName
+     * @param displayName
+     * @param definition
+     * @param getterName
+     * @param defaultValue
+     * @param required
+     */
+    private <V> Property<V> property(String name, String attributeName, String fieldName, String displayName, S definition,
+                                     String getterName, V defaultValue, boolean required) {
+        V value = defaultValue;
+        Function<Object, Object> getter = ModelMetadata.of(definition.getClass()).getGetter(getterName);
+        if (getter != null) {
+            Object getterResult = getter.apply(definition);
+            if (getterResult != null) {
+                value = (V) getterResult;
+            }
+        }
+
+        if (value != null) {
+            return new Property<>(attributeName, fieldName, displayName, resolvePropertyExpression(value), required);
+        } else {
+            return new Property<>(name, fieldName, displayName, null, required);
+        }
+    }
+
+    /**
+     * Creates new instance of source model class.
+     * @return
+     */
+    protected S newSourceModelInstance() {
+        return getSourceModelClass().cast(ModelMetadata.of(getSourceModelClass()).newInstance());
+    }
+
+    /**
+     * Sets property value on source model instance using the generated setter for given field name.
+     * @param instance
+     * @param fieldName
+     * @param value
+     */
+    protected void setPropertyValue(S instance, String fieldName, Object value) {
+        ModelMetadata.Setter setter = ModelMetadata.of(getSourceModelClass()).getSetter("set" + StringUtils.capitalize(fieldName));
+
+        if (setter == null) {
+            throw new ApplicationRuntimeException(String.format("Unable to find proper setter for field '%s' on model class '%s'", fieldName, getSourceModelClass()));
+        }
+
+        setter.set(instance, getMethodArgument(setter.getParameterType(), value));
+    }
+
+    /**
+     * Gets properly typed method argument.
+     * @param parameterType
+     * @param value
+     * @return
+     */
+    private <T> T getMethodArgument(Class<T> parameterType, Object value) {
+        if (parameterType.isInstance(value)) {
+            return parameterType.cast(value);
+        }
+
+        try {
+            return new SimpleTypeConverter().convertIfNecessary(value, parameterType);
+        } catch (ConversionNotSupportedException e) {
+            if (String.class.equals(parameterType)) {
+                return (T) String.valueOf(value);
+            }
+
+            throw new ApplicationRuntimeException("Unable to convert method argument type", e);
+        }
+    }
+
     /**
      * Resolves property value with project properties in case value is a property expression.
      * @param value
@@ -151,7 +263,7 @@ public abstract class AbstractObjectConverter<T, S> implements ObjectConverter<T
      */
     protected <V> V resolvePropertyExpression(V value) {
         if (value instanceof String && VariableUtils.isVariableName(String.valueOf(value))) {
-            return (V) projectService.getProjectProperties().getProperty(VariableUtils.cutOffVariablesPrefix(String.valueOf(value)));
+            return (V) projectService.getProjectProperty(VariableUtils.cutOffVariablesPrefix(String.valueOf(value)));
         } else {
             return value;
         }
@@ -0,0 +1,190 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.converter;
+
+import com.consol.citrus.admin.converter.action.TestActionConverter;
+import com.consol.citrus.admin.converter.endpoint.EndpointConverter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Central registry for test action and endpoint converters. Converters are resolved by runtime class of the model object
+ * through a {@link ClassValue} cache so the list of converters is only scanned once per model class. Exact type matches
+ * take precedence, otherwise the first converter in order that accepts a super type of the model class is used.
+ * Lookups by action type and endpoint type names are served from hash maps.
+ *
+ * @author Christoph Deppisch
+ */
+@Component
+public class ConverterRegistry {
+
+    @Autowired(required = false)
+    private List<TestActionConverter> actionConverter = new ArrayList<>();
+
+    @Autowired(required = false)
+    private List<EndpointConverter> endpointConverter = new ArrayList<>();
+
+    /** Converters by model class */
+    private final ClassValue<Optional<TestActionConverter>> actionConverterBySourceModel = classValue(() -> actionConverter, TestActionConverter::getSourceModelClass);
+    private final ClassValue<Optional<TestActionConverter>> actionConverterByActionModel = classValue(() -> actionConverter, TestActionConverter::getActionModelClass);
+    private final ClassValue<Optional<EndpointConverter>> endpointConverterBySourceModel = classValue(() -> endpointConverter, EndpointConverter::getSourceModelClass);
+
+    /** Converters by type name */
+    private Map<String, TestActionConverter> actionConverterByType = Collections.emptyMap();
+    private Map<String, EndpointConverter> endpointConverterByType = Collections.emptyMap();
+
+    /**
+     * Default constructor.
+     */
+    public ConverterRegistry() {
+        super();
+    }
+
+    /**
+     * Constructor initializing registry with given converters.
+     * @param actionConverter
+     * @param endpointConverter
+     */
+    public ConverterRegistry(List<TestActionConverter> actionConverter, List<EndpointConverter> endpointConverter) {
+        this.actionConverter = actionConverter;
+        this.endpointConverter = endpointConverter;
+        init();
+    }
+
+    @PostConstruct
+    protected void init() {
+        actionConverterByType = Collections.unmodifiableMap(actionConverter.stream()
+                .collect(Collectors.toMap(TestActionConverter::getActionType, Function.identity(), (first, second) -> first, LinkedHashMap::new)));
+        endpointConverterByType = Collections.unmodifiableMap(endpointConverter.stream()
+                .collect(Collectors.toMap(EndpointConverter::getEndpointType, Function.identity(), (first, second) -> first, LinkedHashMap::new)));
+    }
+
+    /**
+     * Finds test action converter for given source model type such as Xml test action model class.
+     * @param sourceModelType
+     * @return
+     */
+    public Optional<TestActionConverter> findActionConverter(Class<?> sourceModelType) {
+        return actionConverterBySourceModel.get(sourceModelType);
+    }
+
+    /**
+     * Finds test action converter for given Java test action type.
+     * @param actionModelType
+     * @return
+     */
+    public Optional<TestActionConverter> findActionConverterForAction(Class<?> actionModelType) {
+        return actionConverterByActionModel.get(actionModelType);
+    }
+
+    /**
+     * Finds test action converter by its action type name.
+     * @param actionType
+     * @return
+     */
+    public Optional<TestActionConverter> findActionConverter(String actionType) {
+        return Optional.ofNullable(actionConverterByType.get(actionType));
+    }
+
+    /**
+     * Finds endpoint converter for given source model type.
+     * @param sourceModelType
+     * @return
+     */
+    public Optional<EndpointConverter> findEndpointConverter(Class<?> sourceModelType) {
+        return endpointConverterBySourceModel.get(sourceModelType);
+    }
+
+    /**
+     * Finds endpoint converter by its endpoint type name.
+     * @param endpointType
+     * @return
+     */
+    public Optional<EndpointConverter> findEndpointConverter(String endpointType) {
+        return Optional.ofNullable(endpointConverterByType.get(endpointType));
+    }
+
+    /**
+     * Gets all test action type names.
+     * @return
+     */
+    public List<String> getActionTypes() {
+        return new ArrayList<>(actionConverterByType.keySet());
+    }
+
+    /**
+     * Gets all endpoint type names.
+     * @return
+     */
+    public List<String> getEndpointTypes() {
+        return new ArrayList<>(endpointConverterByType.keySet());
+    }
+
+    /**
+     * Gets the test action converters.
+     *
+     * @return
+     */
+    public List<TestActionConverter> getActionConverters() {
+        return Collections.unmodifiableList(actionConverter);
+    }
+
+    /**
+     * Gets the endpoint converters.
+     *
+     * @return
+     */
+    public List<EndpointConverter> getEndpointConverters() {
+        return Collections.unmodifiableList(endpointConverter);
+    }
+
+    /**
+     * Creates class value resolving converter for a runtime class. Exact matches on the converter type win over
+     * super type matches.
+     * @param converters
+     * @param typeFunction
+     * @param <C>
+     * @return
+     */
+    private static <C> ClassValue<Optional<C>> classValue(Supplier<List<C>> converters, Function<C, Class<?>> typeFunction) {
+        return new ClassValue<Optional<C>>() {
+            @Override
+            protected Optional<C> computeValue(Class<?> type) {
+                List<C> candidates = converters.get();
+
+                Optional<C> exact = candidates.stream()
+                        .filter(converter -> type.equals(typeFunction.apply(converter)))
+                        .findFirst();
+
+                if (exact.isPresent()) {
+                    return exact;
+                }
+
+                return candidates.stream()
+                        .filter(converter -> typeFunction.apply(converter).isAssignableFrom(type))
+                        .findFirst();
+            }
+        };
+    }
+}
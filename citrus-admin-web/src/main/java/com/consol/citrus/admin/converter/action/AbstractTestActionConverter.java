@@ -18,16 +18,11 @@ package com.consol.citrus.admin.converter.action;
 
 import com.consol.citrus.TestAction;
 import com.consol.citrus.admin.converter.AbstractObjectConverter;
-import com.consol.citrus.admin.exception.ApplicationRuntimeException;
+import com.consol.citrus.admin.converter.metadata.PropertyDescriptor;
 import com.consol.citrus.admin.model.Property;
 import com.consol.citrus.admin.model.TestActionModel;
-import org.springframework.beans.ConversionNotSupportedException;
-import org.springframework.beans.SimpleTypeConverter;
-import org.springframework.util.ReflectionUtils;
-import org.springframework.util.StringUtils;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -50,33 +45,26 @@ public abstract class AbstractTestActionConverter<S, R extends TestAction> exten
     public TestActionModel convert(S model) {
         TestActionModel actionModel = new TestActionModel(getActionType(), getSourceModelClass());
 
-        ReflectionUtils.doWithFields(getSourceModelClass(), field -> {
-            Property property = property(field.getName(), getDisplayName(getFieldName(field.getName())), model, getDefaultValue(field), isRequiredField(field))
-                    .options(getFieldOptions(field))
-                    .optionType(getOptionType(field));
-
-            actionModel.add(property);
-        }, field -> include(model, field));
+        for (PropertyDescriptor descriptor : getPropertyDescriptors()) {
+            if (include(model, descriptor.getField())) {
+                actionModel.add(property(descriptor, model));
+            }
+        }
 
         return actionModel;
     }
 
     @Override
     public S convertBack(TestActionModel definition) {
-        try {
-            S instance = getSourceModelClass().newInstance();
-
-            for (Property property : definition.getProperties()) {
-                if (property.getValue() != null) {
-                    Method setter = findSetter(getSourceModelClass(), property.getFieldName());
-                    ReflectionUtils.invokeMethod(setter, instance, getMethodArgument(setter.getParameterTypes()[0], property.getValue()));
-                }
-            }
+        S instance = newSourceModelInstance();
 
-            return instance;
-        } catch (InstantiationException | IllegalAccessException e) {
-            throw new ApplicationRuntimeException("Failed to instantiate model class", e);
+        for (Property property : definition.getProperties()) {
+            if (property.getValue() != null) {
+                setPropertyValue(instance, property.getFieldName(), property.getValue());
+            }
         }
+
+        return instance;
     }
 
     /**
@@ -96,50 +84,6 @@ public abstract class AbstractTestActionConverter<S, R extends TestAction> exten
         return mappings;
     }
 
-    /**
-     * Finds setter method on class for given field name.
-     * @param modelClass
-     * @param fieldName
-     * @return
-     */
-    private Method findSetter(Class<S> modelClass, String fieldName) {
-        final Method[] setter = {null};
-
-        ReflectionUtils.doWithMethods(modelClass, method -> {
-            if (method.getName().equals("set" + StringUtils.capitalize(fieldName))) {
-                setter[0] = method;
-            }
-        }, method -> method.getName().startsWith("set"));
-
-        if (setter[0] == null) {
-            throw new ApplicationRuntimeException(String.format("Unable to find proper setter for field '%s' on model class '%s'", fieldName, modelClass));
-        }
-
-        return setter[0];
-    }
-
-    /**
-     * Gets properly typed method argument.
-     * @param parameterType
-     * @param value
-     * @return
-     */
-    private <T> T getMethodArgument(Class<T> parameterType, Object value) {
-        if (parameterType.isInstance(value)) {
-            return parameterType.cast(value);
-        }
-
-        try {
-            return new SimpleTypeConverter().convertIfNecessary(value, parameterType);
-        } catch (ConversionNotSupportedException e) {
-            if (String.class.equals(parameterType)) {
-                return (T) String.valueOf(value);
-            }
-
-            throw new ApplicationRuntimeException("Unable to convert method argument type", e);
-        }
-    }
-
     @Override
     public String getActionType() {
         return actionType;
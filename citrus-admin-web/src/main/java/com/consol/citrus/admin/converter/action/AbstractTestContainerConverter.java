@@ -16,6 +16,7 @@
 
 package com.consol.citrus.admin.converter.action;
 
+import com.consol.citrus.admin.converter.ConverterRegistry;
 import com.consol.citrus.admin.model.TestActionModel;
 import com.consol.citrus.container.TestActionContainer;
 import org.slf4j.Logger;
@@ -24,6 +25,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import javax.xml.bind.annotation.XmlRootElement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -36,7 +38,7 @@ public abstract class AbstractTestContainerConverter<S, R extends com.consol.cit
     private static Logger log = LoggerFactory.getLogger(SequentialContainerConverter.class);
 
     @Autowired
-    private List<TestActionConverter> actionConverter;
+    private ConverterRegistry converterRegistry;
 
     /**
      * Default constructor using action type reference.
@@ -68,13 +70,9 @@ public abstract class AbstractTestContainerConverter<S, R extends com.consol.cit
     protected List<TestActionModel> convertNestedActions(List<Object> objectList) {
         List<TestActionModel> actions = new ArrayList<>();
         for (Object actionType : objectList) {
-            TestActionModel nested = null;
-            for (TestActionConverter converter : actionConverter) {
-                if (converter.getSourceModelClass().isInstance(actionType)) {
-                    nested = converter.convert(actionType);
-                    break;
-                }
-            }
+            TestActionModel nested = converterRegistry.findActionConverter(actionType.getClass())
+                                                        .map(converter -> converter.convert(actionType))
+                                                        .orElse(null);
 
             if (nested == null) {
                 if (actionType.getClass().getAnnotation(XmlRootElement.class) == null) {
@@ -99,13 +97,9 @@ public abstract class AbstractTestContainerConverter<S, R extends com.consol.cit
      */
     protected void convertActions(TestActionContainer model, List<Object> objectList) {
         for (com.consol.citrus.TestAction actionType : model.getActions()) {
-            Object nested = null;
-            for (TestActionConverter converter : actionConverter) {
-                if (converter.getActionModelClass().isInstance(actionType)) {
-                    nested = converter.convertModel(actionType);
-                    break;
-                }
-            }
+            Object nested = converterRegistry.findActionConverterForAction(actionType.getClass())
+                                                .map(converter -> converter.convertModel(actionType))
+                                                .orElse(null);
 
             if (nested == null) {
                 nested = new ActionConverter(actionType.getName()).convertModel(actionType);
@@ -123,7 +117,17 @@ public abstract class AbstractTestContainerConverter<S, R extends com.consol.cit
      * @param actionConverter
      */
     public AbstractTestContainerConverter setActionConverter(List<TestActionConverter> actionConverter) {
-        this.actionConverter = actionConverter;
+        this.converterRegistry = new ConverterRegistry(actionConverter, Collections.emptyList());
+        return this;
+    }
+
+    /**
+     * Sets the converterRegistry.
+     *
+     * @param converterRegistry
+     */
+    public AbstractTestContainerConverter setConverterRegistry(ConverterRegistry converterRegistry) {
+        this.converterRegistry = converterRegistry;
         return this;
     }
 }
@@ -17,23 +17,19 @@
 package com.consol.citrus.admin.converter.endpoint;
 
 import com.consol.citrus.admin.converter.AbstractObjectConverter;
-import com.consol.citrus.admin.exception.ApplicationRuntimeException;
+import com.consol.citrus.admin.converter.metadata.PropertyDescriptor;
 import com.consol.citrus.admin.model.EndpointModel;
 import com.consol.citrus.admin.model.Property;
 import com.consol.citrus.message.MessageConverter;
 import com.consol.citrus.message.MessageCorrelator;
-import org.springframework.beans.ConversionNotSupportedException;
-import org.springframework.beans.SimpleTypeConverter;
-import org.springframework.util.ReflectionUtils;
-import org.springframework.util.StringUtils;
 
 import javax.xml.bind.annotation.XmlSchema;
-import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
 
 /**
- * Abstract endpoint converter provides basic endpoint property handling by Java reflection on JAXb objects.
+ * Abstract endpoint converter provides basic endpoint property handling on JAXb objects. Properties are read and written
+ * with the cached property descriptors and generated accessors of the model class.
  *
  * @author Christoph Deppisch
  */
@@ -43,13 +39,11 @@ public abstract class AbstractEndpointConverter<S> extends AbstractObjectConvert
     public EndpointModel convert(S model) {
         EndpointModel endpointModel = new EndpointModel(getEndpointType(), getId(model), getSourceModelClass());
 
-        ReflectionUtils.doWithFields(getSourceModelClass(), field -> {
-            Property property = property(field.getName(), getDisplayName(getFieldName(field.getName())), model, getDefaultValue(field), isRequiredField(field))
-                    .options(getFieldOptions(field))
-                    .optionType(getOptionType(field));
-
-            endpointModel.add(property);
-        }, method -> !method.getName().equals("id"));
+        for (PropertyDescriptor descriptor : getPropertyDescriptors()) {
+            if (!descriptor.getFieldName().equals("id")) {
+                endpointModel.add(property(descriptor, model));
+            }
+        }
 
         return endpointModel;
     }
@@ -69,22 +63,17 @@ public abstract class AbstractEndpointConverter<S> extends AbstractObjectConvert
 
     @Override
     public S convertBack(EndpointModel definition) {
-        try {
-            S instance = getSourceModelClass().newInstance();
+        S instance = newSourceModelInstance();
 
-            ReflectionUtils.invokeMethod(findSetter(getSourceModelClass(), "id"), instance, definition.getId());
+        setPropertyValue(instance, "id", definition.getId());
 
-            for (Property property : definition.getProperties()) {
-                if (property.getValue() != null) {
-                    Method setter = findSetter(getSourceModelClass(), property.getFieldName());
-                    ReflectionUtils.invokeMethod(setter, instance, getMethodArgument(setter.getParameterTypes()[0], property.getValue()));
-                }
+        for (Property property : definition.getProperties()) {
+            if (property.getValue() != null) {
+                setPropertyValue(instance, property.getFieldName(), property.getValue());
             }
-
-            return instance;
-        } catch (InstantiationException | IllegalAccessException e) {
-            throw new ApplicationRuntimeException("Failed to instantiate model class", e);
         }
+
+        return instance;
     }
 
     @Override
@@ -115,48 +104,4 @@ public abstract class AbstractEndpointConverter<S> extends AbstractObjectConvert
         mappings.put("messageConverter", MessageConverter.class);
         return mappings;
     }
-
-    /**
-     * Finds setter method on class for given field name.
-     * @param modelClass
-     * @param fieldName
-     * @return
-     */
-    private Method findSetter(Class<S> modelClass, String fieldName) {
-        final Method[] setter = {null};
-
-        ReflectionUtils.doWithMethods(modelClass, method -> {
-            if (method.getName().equals("set" + StringUtils.capitalize(fieldName))) {
-                setter[0] = method;
-            }
-        }, method -> method.getName().startsWith("set"));
-
-        if (setter[0] == null) {
-            throw new ApplicationRuntimeException(String.format("Unable to find proper setter for field '%s' on model class '%s'", fieldName, modelClass));
-        }
-
-        return setter[0];
-    }
-
-    /**
-     * Gets properly typed method argument.
-     * @param parameterType
-     * @param value
-     * @return
-     */
-    private <T> T getMethodArgument(Class<T> parameterType, Object value) {
-        if (parameterType.isInstance(value)) {
-            return parameterType.cast(value);
-        }
-
-        try {
-            return new SimpleTypeConverter().convertIfNecessary(value, parameterType);
-        } catch (ConversionNotSupportedException e) {
-            if (String.class.equals(parameterType)) {
-                return (T) String.valueOf(value);
-            }
-
-            throw new ApplicationRuntimeException("Unable to convert method argument type", e);
-        }
-    }
 }
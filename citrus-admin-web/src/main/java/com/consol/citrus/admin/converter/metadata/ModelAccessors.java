@@ -0,0 +1,154 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.converter.metadata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.*;
+import java.lang.reflect.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Generates accessor functions for model getters, setters and default constructors. Accessors are generated with
+ * {@link LambdaMetafactory} so invoking them costs the same as a direct method call. Members that are not publicly
+ * accessible fall back to plain reflective invocation.
+ *
+ * @author Christoph Deppisch
+ */
+final class ModelAccessors {
+
+    /** Logger */
+    private static Logger log = LoggerFactory.getLogger(ModelAccessors.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * Prevent instantiation of utility class.
+     */
+    private ModelAccessors() {
+        super();
+    }
+
+    /**
+     * Creates getter function for given no argument method.
+     * @param method
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> getter(Method method) {
+        if (isAccessible(method)) {
+            try {
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        LOOKUP.unreflect(method),
+                        MethodType.methodType(ClassUtils.resolvePrimitiveIfNecessary(method.getReturnType()), method.getDeclaringClass()));
+
+                return (Function<Object, Object>) callSite.getTarget().invoke();
+            } catch (Throwable e) {
+                log.debug(String.format("Failed to generate getter for method '%s' - using reflection instead", method), e);
+            }
+        }
+
+        ReflectionUtils.makeAccessible(method);
+        return target -> ReflectionUtils.invokeMethod(method, target);
+    }
+
+    /**
+     * Creates setter function for given single argument method.
+     * @param method
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    static BiConsumer<Object, Object> setter(Method method) {
+        if (isAccessible(method)) {
+            try {
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class, Object.class),
+                        LOOKUP.unreflect(method),
+                        MethodType.methodType(void.class, method.getDeclaringClass(), ClassUtils.resolvePrimitiveIfNecessary(method.getParameterTypes()[0])));
+
+                return (BiConsumer<Object, Object>) callSite.getTarget().invoke();
+            } catch (Throwable e) {
+                log.debug(String.format("Failed to generate setter for method '%s' - using reflection instead", method), e);
+            }
+        }
+
+        ReflectionUtils.makeAccessible(method);
+        return (target, value) -> ReflectionUtils.invokeMethod(method, target, value);
+    }
+
+    /**
+     * Creates instance supplier for given default constructor.
+     * @param constructor
+     * @return
+     */
+    @SuppressWarnings("unchecked")
+    static Supplier<Object> constructor(Constructor<?> constructor) {
+        if (isAccessible(constructor) && !Modifier.isAbstract(constructor.getDeclaringClass().getModifiers())) {
+            try {
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "get",
+                        MethodType.methodType(Supplier.class),
+                        MethodType.methodType(Object.class),
+                        LOOKUP.unreflectConstructor(constructor),
+                        MethodType.methodType(constructor.getDeclaringClass()));
+
+                return (Supplier<Object>) callSite.getTarget().invoke();
+            } catch (Throwable e) {
+                log.debug(String.format("Failed to generate instance supplier for constructor '%s' - using reflection instead", constructor), e);
+            }
+        }
+
+        ReflectionUtils.makeAccessible(constructor);
+        return () -> {
+            try {
+                return constructor.newInstance();
+            } catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException(String.format("Failed to invoke constructor '%s'", constructor), e);
+            }
+        };
+    }
+
+    /**
+     * Generated accessors require public members on public types.
+     * @param member
+     * @return
+     */
+    private static boolean isAccessible(Member member) {
+        if (!Modifier.isPublic(member.getModifiers())) {
+            return false;
+        }
+
+        Class<?> type = member.getDeclaringClass();
+        while (type != null) {
+            if (!Modifier.isPublic(type.getModifiers())) {
+                return false;
+            }
+
+            type = type.getEnclosingClass();
+        }
+
+        return true;
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.converter.metadata;
+
+import com.consol.citrus.admin.exception.ApplicationRuntimeException;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.*;
+import java.util.*;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Immutable metadata of a model class holding its fields and generated accessors for getters, setters and the
+ * default constructor. Metadata is built once per model class and cached for the lifetime of the class so
+ * converters do not have to use reflection on each conversion.
+ *
+ * @author Christoph Deppisch
+ */
+public final class ModelMetadata {
+
+    /** Metadata cache per model class */
+    private static final ClassValue<ModelMetadata> CACHE = new ClassValue<ModelMetadata>() {
+        @Override
+        protected ModelMetadata computeValue(Class<?> type) {
+            return new ModelMetadata(type);
+        }
+    };
+
+    private final Class<?> modelClass;
+
+    private final List<Field> fields;
+    private final Map<String, Field> fieldsByName;
+
+    private final Map<String, Function<Object, Object>> getters;
+    private final Map<String, Setter> setters;
+
+    private final Supplier<Object> constructor;
+
+    /**
+     * Constructor initializing metadata from given model class.
+     * @param modelClass
+     */
+    private ModelMetadata(Class<?> modelClass) {
+        this.modelClass = modelClass;
+
+        List<Field> fieldList = new ArrayList<>();
+        Map<String, Field> fieldMap = new HashMap<>();
+        ReflectionUtils.doWithFields(modelClass, field -> {
+            fieldList.add(field);
+            fieldMap.putIfAbsent(field.getName(), field);
+        });
+        this.fields = Collections.unmodifiableList(fieldList);
+        this.fieldsByName = Collections.unmodifiableMap(fieldMap);
+
+        Map<String, Function<Object, Object>> getterMap = new HashMap<>();
+        Map<String, Setter> setterMap = new HashMap<>();
+        for (Method method : ReflectionUtils.getUniqueDeclaredMethods(modelClass)) {
+            if (Modifier.isStatic(method.getModifiers()) || method.getDeclaringClass().equals(Object.class)) {
+                continue;
+            }
+
+            if (method.getParameterCount() == 0 && !method.getReturnType().equals(void.class)) {
+                getterMap.putIfAbsent(method.getName(), ModelAccessors.getter(method));
+            } else if (method.getParameterCount() == 1 && method.getName().startsWith("set")) {
+                setterMap.putIfAbsent(method.getName(), new Setter(method.getParameterTypes()[0], ModelAccessors.setter(method)));
+            }
+        }
+        this.getters = Collections.unmodifiableMap(getterMap);
+        this.setters = Collections.unmodifiableMap(setterMap);
+
+        Constructor<?> defaultConstructor = ClassUtils.getConstructorIfAvailable(modelClass);
+        this.constructor = defaultConstructor != null ? ModelAccessors.constructor(defaultConstructor) : null;
+    }
+
+    /**
+     * Gets cached metadata for given model class.
+     * @param modelClass
+     * @return
+     */
+    public static ModelMetadata of(Class<?> modelClass) {
+        return CACHE.get(modelClass);
+    }
+
+    /**
+     * Creates new instance of model class using its default constructor.
+     * @return
+     */
+    public Object newInstance() {
+        if (constructor == null) {
+            throw new ApplicationRuntimeException("Failed to instantiate model class", new NoSuchMethodException(modelClass.getName() + ".<init>()"));
+        }
+
+        try {
+            return constructor.get();
+        } catch (RuntimeException e) {
+            throw new ApplicationRuntimeException("Failed to instantiate model class", e);
+        }
+    }
+
+    /**
+     * Gets all fields of model class including fields of super classes.
+     * @return
+     */
+    public List<Field> getFields() {
+        return fields;
+    }
+
+    /**
+     * Gets field by its name or null if not present on model class.
+     * @param fieldName
+     * @return
+     */
+    public Field getField(String fieldName) {
+        return fieldsByName.get(fieldName);
+    }
+
+    /**
+     * Gets getter function for given method name or null if no such no argument method exists.
+     * @param methodName
+     * @return
+     */
+    public Function<Object, Object> getGetter(String methodName) {
+        return getters.get(methodName);
+    }
+
+    /**
+     * Gets setter for given method name or null if no such single argument method exists.
+     * @param methodName
+     * @return
+     */
+    public Setter getSetter(String methodName) {
+        return setters.get(methodName);
+    }
+
+    /**
+     * Gets the modelClass.
+     *
+     * @return
+     */
+    public Class<?> getModelClass() {
+        return modelClass;
+    }
+
+    /**
+     * Setter accessor holding the expected parameter type.
+     */
+    public static final class Setter {
+        private final Class<?> parameterType;
+        private final BiConsumer<Object, Object> accessor;
+
+        Setter(Class<?> parameterType, BiConsumer<Object, Object> accessor) {
+            this.parameterType = parameterType;
+            this.accessor = accessor;
+        }
+
+        /**
+         * Sets value on target model object.
+         * @param target
+         * @param value
+         */
+        public void set(Object target, Object value) {
+            accessor.accept(target, value);
+        }
+
+        /**
+         * Gets the parameterType.
+         *
+         * @return
+         */
+        public Class<?> getParameterType() {
+            return parameterType;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.converter.metadata;
+
+import java.lang.reflect.Field;
+
+/**
+ * Immutable description of a single model property as seen by a converter. Holds all converter specific
+ * settings such as names, default value, options and the getter method name so these do not have to be
+ * evaluated again on each conversion.
+ *
+ * @author Christoph Deppisch
+ */
+public final class PropertyDescriptor {
+
+    private final Field field;
+    private final String name;
+    private final String attributeName;
+    private final String displayName;
+    private final Object defaultValue;
+    private final boolean required;
+    private final String[] options;
+    private final Class<?> optionType;
+    private final String getterName;
+
+    /**
+     * Constructor using fields.
+     * @param field
+     * @param name
+     * @param attributeName
+     * @param displayName
+     * @param defaultValue
+     * @param required
+     * @param options
+     * @param optionType
+     * @param getterName
+     */
+    public PropertyDescriptor(Field field, String name, String attributeName, String displayName, Object defaultValue,
+                              boolean required, String[] options, Class<?> optionType, String getterName) {
+        this.field = field;
+        this.name = name;
+        this.attributeName = attributeName;
+        this.displayName = displayName;
+        this.defaultValue = defaultValue;
+        this.required = required;
+        this.options = options != null ? options.clone() : new String[] {};
+        this.optionType = optionType;
+        this.getterName = getterName;
+    }
+
+    /**
+     * Gets the model field.
+     *
+     * @return
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * Gets the field name on model object.
+     *
+     * @return
+     */
+    public String getFieldName() {
+        return field.getName();
+    }
+
+    /**
+     * Gets the property name.
+     *
+     * @return
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the property name as Xml attribute. Falls back to property name if field is not a Xml attribute.
+     *
+     * @return
+     */
+    public String getAttributeName() {
+        return attributeName;
+    }
+
+    /**
+     * Gets the displayName.
+     *
+     * @return
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * Gets the defaultValue.
+     *
+     * @return
+     */
+    public Object getDefaultValue() {
+        return defaultValue;
+    }
+
+    /**
+     * Gets the required.
+     *
+     * @return
+     */
+    public boolean isRequired() {
+        return required;
+    }
+
+    /**
+     * Gets copy of the field options.
+     *
+     * @return
+     */
+    public String[] getOptions() {
+        return options.clone();
+    }
+
+    /**
+     * Gets the optionType.
+     *
+     * @return
+     */
+    public Class<?> getOptionType() {
+        return optionType;
+    }
+
+    /**
+     * Gets the getter method name.
+     *
+     * @return
+     */
+    public String getGetterName() {
+        return getterName;
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.model;
+
+/**
+ * Single entry of a connector event batch. Depending on the type the entry holds a test result, a test event or
+ * inbound/outbound message data of a process.
+ *
+ * @author Christoph Deppisch
+ */
+public class ConnectorEvent {
+
+    public static final String RESULT = "result";
+    public static final String TEST_EVENT = "test-event";
+    public static final String MESSAGE = "message";
+
+    private String type;
+    private String processId;
+    private String direction;
+
+    private TestResult result;
+    private SocketEvent event;
+    private String message;
+    private boolean truncated;
+    private long size;
+
+    /**
+     * Creates test result event.
+     * @param result
+     * @return
+     */
+    public static ConnectorEvent result(TestResult result) {
+        ConnectorEvent event = new ConnectorEvent();
+        event.setType(RESULT);
+        event.setResult(result);
+        return event;
+    }
+
+    /**
+     * Creates test event.
+     * @param socketEvent
+     * @return
+     */
+    public static ConnectorEvent testEvent(SocketEvent socketEvent) {
+        ConnectorEvent event = new ConnectorEvent();
+        event.setType(TEST_EVENT);
+        event.setEvent(socketEvent);
+        return event;
+    }
+
+    /**
+     * Creates message event.
+     * @param processId
+     * @param direction
+     * @param message
+     * @return
+     */
+    public static ConnectorEvent message(String processId, MessageEvent direction, String message) {
+        ConnectorEvent event = new ConnectorEvent();
+        event.setType(MESSAGE);
+        event.setProcessId(processId);
+        event.setDirection(direction.name());
+        event.setMessage(message);
+        return event;
+    }
+
+    /**
+     * Gets the type.
+     *
+     * @return
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Sets the type.
+     *
+     * @param type
+     */
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    /**
+     * Gets the processId.
+     *
+     * @return
+     */
+    public String getProcessId() {
+        return processId;
+    }
+
+    /**
+     * Sets the processId.
+     *
+     * @param processId
+     */
+    public void setProcessId(String processId) {
+        this.processId = processId;
+    }
+
+    /**
+     * Gets the message direction (inbound or outbound).
+     *
+     * @return
+     */
+    public String getDirection() {
+        return direction;
+    }
+
+    /**
+     * Sets the message direction (inbound or outbound).
+     *
+     * @param direction
+     */
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    /**
+     * Gets the result.
+     *
+     * @return
+     */
+    public TestResult getResult() {
+        return result;
+    }
+
+    /**
+     * Sets the result.
+     *
+     * @param result
+     */
+    public void setResult(TestResult result) {
+        this.result = result;
+    }
+
+    /**
+     * Gets the event.
+     *
+     * @return
+     */
+    public SocketEvent getEvent() {
+        return event;
+    }
+
+    /**
+     * Sets the event.
+     *
+     * @param event
+     */
+    public void setEvent(SocketEvent event) {
+        this.event = event;
+    }
+
+    /**
+     * Gets the message data.
+     *
+     * @return
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Sets the message data.
+     *
+     * @param message
+     */
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    /**
+     * Gets the truncated.
+     *
+     * @return
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Sets the truncated.
+     *
+     * @param truncated
+     */
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    /**
+     * Gets the original message size in bytes.
+     *
+     * @return
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Sets the original message size in bytes.
+     *
+     * @param size
+     */
+    public void setSize(long size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page of sub-folder names in a directory.
+ *
+ * @author Christoph Deppisch
+ */
+public class DirectoryListing {
+
+    private String directory;
+    private List<String> folders = new ArrayList<>();
+    private int offset;
+    private int limit;
+    private int total;
+
+    /**
+     * Checks if there are more folders after this page.
+     * @return
+     */
+    public boolean isMore() {
+        return offset + folders.size() < total;
+    }
+
+    /**
+     * Gets the value of the directory property.
+     *
+     * @return the directory
+     */
+    public String getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Sets the directory property.
+     *
+     * @param directory
+     */
+    public void setDirectory(String directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Gets the value of the folders property.
+     *
+     * @return the folders
+     */
+    public List<String> getFolders() {
+        return folders;
+    }
+
+    /**
+     * Sets the folders property.
+     *
+     * @param folders
+     */
+    public void setFolders(List<String> folders) {
+        this.folders = folders;
+    }
+
+    /**
+     * Gets the value of the offset property.
+     *
+     * @return the offset
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * Sets the offset property.
+     *
+     * @param offset
+     */
+    public void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * Gets the value of the limit property.
+     *
+     * @return the limit
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the limit property.
+     *
+     * @param limit
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Gets the value of the total property.
+     *
+     * @return the total
+     */
+    public int getTotal() {
+        return total;
+    }
+
+    /**
+     * Sets the total property.
+     *
+     * @param total
+     */
+    public void setTotal(int total) {
+        this.total = total;
+    }
+}
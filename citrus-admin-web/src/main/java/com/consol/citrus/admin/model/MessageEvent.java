@@ -41,4 +41,24 @@ public enum MessageEvent {
         jsonObject.put("msg", messageData);
         return jsonObject;
     }
+
+    /**
+     * Creates JSON object for message event with payload preview. Truncated events provide the message id so
+     * clients are able to fetch the full payload.
+     * @param id the message id
+     * @param processId the process id
+     * @param pushEvent the type of event
+     * @param messageData the payload preview
+     * @param truncated preview does not contain the full message
+     * @param size original payload size in bytes
+     * @return a json representation of the message
+     */
+    @SuppressWarnings("unchecked")
+    public static JSONObject createEvent(String id, String processId, MessageEvent pushEvent, String messageData, boolean truncated, long size) {
+        JSONObject jsonObject = createEvent(processId, pushEvent, messageData);
+        jsonObject.put("id", id);
+        jsonObject.put("truncated", truncated);
+        jsonObject.put("size", size);
+        return jsonObject;
+    }
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Socket events of a process published after a given sequence number. Reconnecting clients fetch the events they
+ * have missed instead of reloading the whole process state.
+ *
+ * @author Christoph Deppisch
+ */
+public class ProcessEventChunk {
+
+    private String processId;
+    private long after;
+    private long seq;
+    private boolean gap;
+    private List<SequencedEvent> events = new ArrayList<>();
+
+    /**
+     * Default constructor.
+     */
+    public ProcessEventChunk() {
+        super();
+    }
+
+    /**
+     * Constructor using process id and sequence number of last received event.
+     * @param processId
+     * @param after
+     */
+    public ProcessEventChunk(String processId, long after) {
+        this.processId = processId;
+        this.after = after;
+    }
+
+    /**
+     * Gets the processId.
+     *
+     * @return
+     */
+    public String getProcessId() {
+        return processId;
+    }
+
+    /**
+     * Sets the processId.
+     *
+     * @param processId
+     */
+    public void setProcessId(String processId) {
+        this.processId = processId;
+    }
+
+    /**
+     * Gets the sequence number of last received event.
+     *
+     * @return
+     */
+    public long getAfter() {
+        return after;
+    }
+
+    /**
+     * Sets the sequence number of last received event.
+     *
+     * @param after
+     */
+    public void setAfter(long after) {
+        this.after = after;
+    }
+
+    /**
+     * Gets the latest sequence number of the process.
+     *
+     * @return
+     */
+    public long getSeq() {
+        return seq;
+    }
+
+    /**
+     * Sets the latest sequence number of the process.
+     *
+     * @param seq
+     */
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    /**
+     * Gets the gap flag. Gap is set when missed events have already been removed from the replay buffer.
+     *
+     * @return
+     */
+    public boolean isGap() {
+        return gap;
+    }
+
+    /**
+     * Sets the gap flag.
+     *
+     * @param gap
+     */
+    public void setGap(boolean gap) {
+        this.gap = gap;
+    }
+
+    /**
+     * Gets the events.
+     *
+     * @return
+     */
+    public List<SequencedEvent> getEvents() {
+        return events;
+    }
+
+    /**
+     * Sets the events.
+     *
+     * @param events
+     */
+    public void setEvents(List<SequencedEvent> events) {
+        this.events = events;
+    }
+}
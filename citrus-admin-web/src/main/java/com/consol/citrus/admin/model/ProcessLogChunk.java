@@ -0,0 +1,177 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.model;
+
+/**
+ * Part of process output read from process log at given byte offset.
+ *
+ * @author Christoph Deppisch
+ */
+public class ProcessLogChunk {
+
+    private String processId;
+    private long offset;
+    private long nextOffset;
+    private long skipped;
+    private long total;
+    private boolean complete;
+    private String data;
+
+    /**
+     * Default constructor.
+     */
+    public ProcessLogChunk() {
+        super();
+    }
+
+    /**
+     * Constructor using process id and offset.
+     * @param processId
+     * @param offset
+     */
+    public ProcessLogChunk(String processId, long offset) {
+        this.processId = processId;
+        this.offset = offset;
+    }
+
+    /**
+     * Gets the processId.
+     *
+     * @return
+     */
+    public String getProcessId() {
+        return processId;
+    }
+
+    /**
+     * Sets the processId.
+     *
+     * @param processId
+     */
+    public void setProcessId(String processId) {
+        this.processId = processId;
+    }
+
+    /**
+     * Gets the offset.
+     *
+     * @return
+     */
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Sets the offset.
+     *
+     * @param offset
+     */
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * Gets the offset to continue reading from.
+     *
+     * @return
+     */
+    public long getNextOffset() {
+        return nextOffset;
+    }
+
+    /**
+     * Sets the offset to continue reading from.
+     *
+     * @param nextOffset
+     */
+    public void setNextOffset(long nextOffset) {
+        this.nextOffset = nextOffset;
+    }
+
+    /**
+     * Gets the number of bytes lost at the requested offset that were skipped before data.
+     *
+     * @return
+     */
+    public long getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Sets the number of bytes lost at the requested offset that were skipped before data.
+     *
+     * @param skipped
+     */
+    public void setSkipped(long skipped) {
+        this.skipped = skipped;
+    }
+
+    /**
+     * Gets the total number of bytes written to the log.
+     *
+     * @return
+     */
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * Sets the total number of bytes written to the log.
+     *
+     * @param total
+     */
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    /**
+     * Gets the complete state.
+     *
+     * @return
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Sets the complete state.
+     *
+     * @param complete
+     */
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    /**
+     * Gets the data.
+     *
+     * @return
+     */
+    public String getData() {
+        return data;
+    }
+
+    /**
+     * Sets the data.
+     *
+     * @param data
+     */
+    public void setData(String data) {
+        this.data = data;
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.model;
+
+/**
+ * Resource usage of a launched process and its child processes. Values are collected by sampling the process tree
+ * so their accuracy is bound to the sampling interval.
+ *
+ * @author Christoph Deppisch
+ */
+public class ProcessStats {
+
+    private String processId;
+    private String command;
+    private long startTime;
+    private long endTime;
+    private long wallTime;
+    private long cpuTime;
+    private long peakRss;
+    private int childProcesses;
+    private int peakChildProcesses;
+    private long samples;
+    private Integer exitCode;
+    private boolean complete;
+    private boolean supported;
+
+    /**
+     * Default constructor.
+     */
+    public ProcessStats() {
+        super();
+    }
+
+    /**
+     * Constructor using process id and command.
+     * @param processId
+     * @param command
+     */
+    public ProcessStats(String processId, String command) {
+        this.processId = processId;
+        this.command = command;
+    }
+
+    /**
+     * Creates copy of this stats.
+     * @return
+     */
+    public ProcessStats copy() {
+        ProcessStats copy = new ProcessStats(processId, command);
+        copy.startTime = startTime;
+        copy.endTime = endTime;
+        copy.wallTime = wallTime;
+        copy.cpuTime = cpuTime;
+        copy.peakRss = peakRss;
+        copy.childProcesses = childProcesses;
+        copy.peakChildProcesses = peakChildProcesses;
+        copy.samples = samples;
+        copy.exitCode = exitCode;
+        copy.complete = complete;
+        copy.supported = supported;
+        return copy;
+    }
+
+    /**
+     * Gets human readable summary.
+     * @return
+     */
+    public String getSummary() {
+        return String.format("process resources: wall time %s ms, cpu time %s ms, peak rss %s KB, %s child processes",
+                wallTime, cpuTime, peakRss / 1024, childProcesses);
+    }
+
+    /**
+     * Gets the processId.
+     *
+     * @return
+     */
+    public String getProcessId() {
+        return processId;
+    }
+
+    /**
+     * Sets the processId.
+     *
+     * @param processId
+     */
+    public void setProcessId(String processId) {
+        this.processId = processId;
+    }
+
+    /**
+     * Gets the command.
+     *
+     * @return
+     */
+    public String getCommand() {
+        return command;
+    }
+
+    /**
+     * Sets the command.
+     *
+     * @param command
+     */
+    public void setCommand(String command) {
+        this.command = command;
+    }
+
+    /**
+     * Gets the startTime.
+     *
+     * @return
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * Sets the startTime.
+     *
+     * @param startTime
+     */
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    /**
+     * Gets the endTime.
+     *
+     * @return
+     */
+    public long getEndTime() {
+        return endTime;
+    }
+
+    /**
+     * Sets the endTime.
+     *
+     * @param endTime
+     */
+    public void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
+
+    /**
+     * Gets the wallTime.
+     *
+     * @return
+     */
+    public long getWallTime() {
+        return wallTime;
+    }
+
+    /**
+     * Sets the wallTime.
+     *
+     * @param wallTime
+     */
+    public void setWallTime(long wallTime) {
+        this.wallTime = wallTime;
+    }
+
+    /**
+     * Gets the cpuTime.
+     *
+     * @return
+     */
+    public long getCpuTime() {
+        return cpuTime;
+    }
+
+    /**
+     * Sets the cpuTime.
+     *
+     * @param cpuTime
+     */
+    public void setCpuTime(long cpuTime) {
+        this.cpuTime = cpuTime;
+    }
+
+    /**
+     * Gets the peakRss.
+     *
+     * @return
+     */
+    public long getPeakRss() {
+        return peakRss;
+    }
+
+    /**
+     * Sets the peakRss.
+     *
+     * @param peakRss
+     */
+    public void setPeakRss(long peakRss) {
+        this.peakRss = peakRss;
+    }
+
+    /**
+     * Gets the childProcesses.
+     *
+     * @return
+     */
+    public int getChildProcesses() {
+        return childProcesses;
+    }
+
+    /**
+     * Sets the childProcesses.
+     *
+     * @param childProcesses
+     */
+    public void setChildProcesses(int childProcesses) {
+        this.childProcesses = childProcesses;
+    }
+
+    /**
+     * Gets the peakChildProcesses.
+     *
+     * @return
+     */
+    public int getPeakChildProcesses() {
+        return peakChildProcesses;
+    }
+
+    /**
+     * Sets the peakChildProcesses.
+     *
+     * @param peakChildProcesses
+     */
+    public void setPeakChildProcesses(int peakChildProcesses) {
+        this.peakChildProcesses = peakChildProcesses;
+    }
+
+    /**
+     * Gets the samples.
+     *
+     * @return
+     */
+    public long getSamples() {
+        return samples;
+    }
+
+    /**
+     * Sets the samples.
+     *
+     * @param samples
+     */
+    public void setSamples(long samples) {
+        this.samples = samples;
+    }
+
+    /**
+     * Gets the exitCode.
+     *
+     * @return
+     */
+    public Integer getExitCode() {
+        return exitCode;
+    }
+
+    /**
+     * Sets the exitCode.
+     *
+     * @param exitCode
+     */
+    public void setExitCode(Integer exitCode) {
+        this.exitCode = exitCode;
+    }
+
+    /**
+     * Gets the complete.
+     *
+     * @return
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Sets the complete.
+     *
+     * @param complete
+     */
+    public void setComplete(boolean complete) {
+        this.complete = complete;
+    }
+
+    /**
+     * Gets the supported.
+     *
+     * @return
+     */
+    public boolean isSupported() {
+        return supported;
+    }
+
+    /**
+     * Sets the supported.
+     *
+     * @param supported
+     */
+    public void setSupported(boolean supported) {
+        this.supported = supported;
+    }
+}
@@ -311,40 +311,7 @@ public class Project {
     @JsonIgnore
     public ClassLoader getClassLoader() throws IOException {
         if (classLoader == null) {
-            List<URL> classpathUrls = new ArrayList<>();
-
-            classpathUrls.add(new FileSystemResource(projectHome + File.separator + "target" + File.separator + "classes").getURL());
-            classpathUrls.add(new FileSystemResource(projectHome + File.separator + "target" + File.separator + "test-classes").getURL());
-
-            if (isMavenProject()) {
-                List<String> citrusDependencies = Stream.of(Maven.configureResolver()
-                            .workOffline()
-                            .resolve(getCitrusArtifacts())
-                            .withTransitivity()
-                            .asFile())
-                        .parallel()
-                        .map(File::getPath)
-                        .collect(Collectors.toList());
-
-                Stream.of(Maven.configureResolver()
-                            .workOffline()
-                            .loadPomFromFile(getMavenPomFile())
-                            .importRuntimeAndTestDependencies()
-                            .resolve()
-                            .withTransitivity()
-                            .asFile())
-                        .parallel()
-                        .map(File::getPath)
-                        .filter(dependency -> !dependency.contains("com/consol/citrus/"))
-                        .filter(dependency -> citrusDependencies.parallelStream().noneMatch(citrusDependency -> citrusDependency.equals(dependency)))
-                        .forEach(dependency -> {
-                            try {
-                                classpathUrls.add(new FileSystemResource(dependency).getURL());
-                            } catch (IOException e) {
-                                log.warn(String.format("Failed to access project dependency: %s", dependency));
-                            }
-                        });
-            }
+            List<URL> classpathUrls = getClasspath(false);
 
             if (log.isDebugEnabled()) {
                 log.debug("Loading test project classes ...");
@@ -358,6 +325,52 @@ public class Project {
         return classLoader;
     }
 
+    /**
+     * Provide project classpath with compiled classes and runtime and test dependencies. Citrus artifacts are only
+     * included on demand as project class loader uses the Citrus version shipped with this application.
+     * @param includeCitrus
+     * @return
+     * @throws IOException
+     */
+    @JsonIgnore
+    public List<URL> getClasspath(boolean includeCitrus) throws IOException {
+        List<URL> classpathUrls = new ArrayList<>();
+
+        classpathUrls.add(new FileSystemResource(projectHome + File.separator + "target" + File.separator + "classes").getURL());
+        classpathUrls.add(new FileSystemResource(projectHome + File.separator + "target" + File.separator + "test-classes").getURL());
+
+        if (isMavenProject()) {
+            List<String> citrusDependencies = includeCitrus ? Collections.emptyList() : Stream.of(Maven.configureResolver()
+                        .workOffline()
+                        .resolve(getCitrusArtifacts())
+                        .withTransitivity()
+                        .asFile())
+                    .parallel()
+                    .map(File::getPath)
+                    .collect(Collectors.toList());
+
+            Stream.of(Maven.configureResolver()
+                        .workOffline()
+                        .loadPomFromFile(getMavenPomFile())
+                        .importRuntimeAndTestDependencies()
+                        .resolve()
+                        .withTransitivity()
+                        .asFile())
+                    .map(File::getPath)
+                    .filter(dependency -> includeCitrus || !dependency.contains("com/consol/citrus/"))
+                    .filter(dependency -> citrusDependencies.parallelStream().noneMatch(citrusDependency -> citrusDependency.equals(dependency)))
+                    .forEach(dependency -> {
+                        try {
+                            classpathUrls.add(new FileSystemResource(dependency).getURL());
+                        } catch (IOException e) {
+                            log.warn(String.format("Failed to access project dependency: %s", dependency));
+                        }
+                    });
+        }
+
+        return classpathUrls;
+    }
+
     /**
      * Provides all Citrus artifact coordinates in Maven canonical format.
      * @return
@@ -0,0 +1,102 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.model;
+
+/**
+ * Socket event published on a process topic with its process wide sequence number.
+ *
+ * @author Christoph Deppisch
+ */
+public class SequencedEvent {
+
+    private long seq;
+    private String topic;
+    private Object payload;
+
+    /**
+     * Default constructor.
+     */
+    public SequencedEvent() {
+        super();
+    }
+
+    /**
+     * Constructor using sequence number, topic name and event payload.
+     * @param seq
+     * @param topic
+     * @param payload
+     */
+    public SequencedEvent(long seq, String topic, Object payload) {
+        this.seq = seq;
+        this.topic = topic;
+        this.payload = payload;
+    }
+
+    /**
+     * Gets the sequence number.
+     *
+     * @return
+     */
+    public long getSeq() {
+        return seq;
+    }
+
+    /**
+     * Sets the sequence number.
+     *
+     * @param seq
+     */
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+
+    /**
+     * Gets the topic name.
+     *
+     * @return
+     */
+    public String getTopic() {
+        return topic;
+    }
+
+    /**
+     * Sets the topic name.
+     *
+     * @param topic
+     */
+    public void setTopic(String topic) {
+        this.topic = topic;
+    }
+
+    /**
+     * Gets the event payload.
+     *
+     * @return
+     */
+    public Object getPayload() {
+        return payload;
+    }
+
+    /**
+     * Sets the event payload.
+     *
+     * @param payload
+     */
+    public void setPayload(Object payload) {
+        this.payload = payload;
+    }
+}
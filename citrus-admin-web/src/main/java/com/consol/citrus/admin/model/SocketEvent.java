@@ -57,7 +57,8 @@ public class SocketEvent {
         TEST_ACTION_SKIP,
         PROCESS_START,
         PROCESS_SUCCESS,
-        PROCESS_FAILED;
+        PROCESS_FAILED,
+        PROCESS_STATS;
     }
 
     /**
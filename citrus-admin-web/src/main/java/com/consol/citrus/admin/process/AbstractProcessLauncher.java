@@ -16,10 +16,15 @@
 
 package com.consol.citrus.admin.process;
 
+import com.consol.citrus.admin.process.event.ProcessEvent;
+import com.consol.citrus.admin.process.event.ProcessEventDispatcher;
+import com.consol.citrus.admin.process.event.ProcessEventExecutor;
 import com.consol.citrus.admin.process.listener.ProcessListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 /**
@@ -27,13 +32,27 @@ import java.util.stream.Stream;
  */
 public abstract class AbstractProcessLauncher implements ProcessLauncher {
 
+    /** Logger */
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractProcessLauncher.class);
+
     /** Process id and monitor */
     private String processId;
     protected ProcessMonitor processMonitor;
 
-    /** Listeners get informed on process or test events */
-    private List<ProcessListener> shellListeners = new ArrayList<>();
-    private List<ProcessListener> processListeners = new ArrayList<>();
+    /** Shared execution engine running process related tasks */
+    protected ProcessExecutor processExecutor;
+
+    /** Listeners get informed on process or test events, events are delivered asynchronously */
+    private ProcessListener[] shellListeners = new ProcessListener[0];
+    private ProcessListener[] processListeners = new ProcessListener[0];
+    private final ProcessEventDispatcher eventDispatcher;
+
+    /** Each listener has its own event buffer and consumer so a slow listener never makes others lose events */
+    private final Map<ProcessListener, ListenerQueue> queues = new IdentityHashMap<>();
+    private ListenerQueue[] targets = new ListenerQueue[0];
+
+    /** Keeps events of concurrent publishers in the same order for all listener groups */
+    private final Object publishLock = new Object();
 
     /**
      * Marks running sub process.
@@ -43,11 +62,16 @@ public abstract class AbstractProcessLauncher implements ProcessLauncher {
     /**
      * Default constructor using fields.
      * @param processMonitor
+     * @param processExecutor
+     * @param eventExecutor
      * @param processId
      */
-    public AbstractProcessLauncher(ProcessMonitor processMonitor, String processId) {
+    public AbstractProcessLauncher(ProcessMonitor processMonitor, ProcessExecutor processExecutor, ProcessEventExecutor eventExecutor, String processId) {
         this.processId = processId;
         this.processMonitor = processMonitor;
+        this.processExecutor = processExecutor;
+
+        this.eventDispatcher = eventExecutor.createEventDispatcher();
     }
 
     @Override
@@ -65,6 +89,7 @@ public abstract class AbstractProcessLauncher implements ProcessLauncher {
      */
     protected void startProcessMonitoring() {
         this.processMonitor.add(this);
+        this.processExecutor.started(processId);
     }
 
     /**
@@ -72,78 +97,97 @@ public abstract class AbstractProcessLauncher implements ProcessLauncher {
      */
     protected void stopProcessMonitoring() {
         this.processMonitor.remove(this);
+        this.processExecutor.finished(processId);
     }
 
-    protected synchronized void notifyStart(boolean subprocess) {
+    protected void notifyStart(boolean subprocess) {
         if (subprocess) {
-            subProcess = true;
-        }
-
-        for (ProcessListener processListener : shellListeners) {
-            processListener.onProcessStart(processId);
+            synchronized (this) {
+                subProcess = true;
+            }
         }
 
-        for (ProcessListener processListener : processListeners) {
-            processListener.onProcessStart(processId);
-        }
+        publish(ProcessEvent.start(processId), false);
     }
 
-    protected synchronized void notifySuccess() {
-        subProcess = false;
-
-        for (ProcessListener processListener : shellListeners) {
-            processListener.onProcessSuccess(processId);
-        }
+    protected void notifySuccess() {
+        publish(ProcessEvent.success(processId), true);
+    }
 
-        for (ProcessListener processListener : processListeners) {
-            processListener.onProcessSuccess(processId);
-        }
-        processListeners.clear();
+    protected void notifyFail(int exitCode) {
+        publish(ProcessEvent.fail(processId, exitCode), true);
     }
 
-    protected synchronized void notifyFail(int exitCode) {
-        subProcess = false;
+    protected void notifyFail(Exception e) {
+        publish(ProcessEvent.fail(processId, e), true);
+    }
 
-        for (ProcessListener processListener : shellListeners) {
-            processListener.onProcessFail(processId, exitCode);
-        }
+    protected void notifyOutput(String output) {
+        publish(ProcessEvent.output(processId, output), false);
+    }
 
-        for (ProcessListener processListener : processListeners) {
-            processListener.onProcessFail(processId, exitCode);
-        }
-        processListeners.clear();
+    protected void notifyActivity(String output) {
+        publish(ProcessEvent.activity(processId, output), false);
     }
 
-    protected synchronized void notifyFail(Exception e) {
-        subProcess = false;
+    /**
+     * Queues event for asynchronous delivery to shell and process listeners. Publishing may wait for free buffer
+     * space, so it is ordered by its own lock instead of the launcher monitor. Listeners calling back into the
+     * launcher are never blocked by a waiting publisher this way.
+     * @param event
+     * @param completed marks final event of the sub process, process listeners are removed afterwards
+     */
+    private void publish(ProcessEvent event, boolean completed) {
+        synchronized (publishLock) {
+            ListenerQueue[] receivers;
+            List<ListenerQueue> released = Collections.emptyList();
+            synchronized (this) {
+                receivers = targets;
 
-        for (ProcessListener processListener : shellListeners) {
-            processListener.onProcessFail(processId, e);
-        }
+                if (completed) {
+                    subProcess = false;
+                    released = removeProcessListeners();
+                }
+            }
 
-        for (ProcessListener processListener : processListeners) {
-            processListener.onProcessFail(processId, e);
+            for (ListenerQueue receiver : receivers) {
+                receiver.publish(event);
+            }
+
+            released.forEach(ListenerQueue::release);
         }
-        processListeners.clear();
     }
 
-    protected synchronized void notifyOutput(String output) {
-        for (ProcessListener processListener : shellListeners) {
-            processListener.onProcessOutput(processId, output);
+    /**
+     * Removes process listeners and the event queues no longer used by shell listeners. Must be called with launcher
+     * lock held.
+     * @return queues to release once the final event has been published
+     */
+    private List<ListenerQueue> removeProcessListeners() {
+        List<ListenerQueue> released = new ArrayList<>();
+        for (ProcessListener listener : processListeners) {
+            if (Stream.of(shellListeners).noneMatch(shellListener -> shellListener == listener)) {
+                Optional.ofNullable(queues.remove(listener)).ifPresent(released::add);
+            }
         }
 
-        for (ProcessListener processListener : processListeners) {
-            processListener.onProcessOutput(processId, output);
-        }
+        processListeners = new ProcessListener[0];
+        updateTargets();
+        return released;
     }
 
-    protected synchronized void notifyActivity(String output) {
-        for (ProcessListener processListener : shellListeners) {
-            processListener.onProcessActivity(processId, output);
-        }
-
-        for (ProcessListener processListener : processListeners) {
-            processListener.onProcessActivity(processId, output);
+    /**
+     * Waits for listeners to handle all events published so far.
+     * @param timeout
+     * @param unit
+     */
+    protected void awaitEventDelivery(long timeout, TimeUnit unit) {
+        try {
+            if (!eventDispatcher.awaitIdle(timeout, unit)) {
+                LOG.warn(String.format("Process listeners did not handle all events of process '%s' in time", processId));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
     }
 
@@ -151,16 +195,67 @@ public abstract class AbstractProcessLauncher implements ProcessLauncher {
      * Adds shell listeners.
      * @param processListeners
      */
-    protected void addShellListeners(ProcessListener... processListeners) {
-        Stream.of(processListeners).forEach(listener -> this.shellListeners.add(listener));
+    protected synchronized void addShellListeners(ProcessListener... processListeners) {
+        this.shellListeners = concat(this.shellListeners, processListeners);
+        updateTargets();
     }
 
     /**
      * Adds process listeners.
      * @param processListeners
      */
-    protected void addProcessListeners(ProcessListener... processListeners) {
-        Stream.of(processListeners).forEach(listener -> this.processListeners.add(listener));
+    protected synchronized void addProcessListeners(ProcessListener... processListeners) {
+        this.processListeners = concat(this.processListeners, processListeners);
+        updateTargets();
+    }
+
+    /**
+     * Creates event queues for new listeners and updates the queues receiving published events. Must be called with
+     * launcher lock held.
+     */
+    private void updateTargets() {
+        targets = Stream.concat(Stream.of(shellListeners), Stream.of(processListeners))
+                .map(listener -> queues.computeIfAbsent(listener, this::createQueue))
+                .toArray(ListenerQueue[]::new);
+    }
+
+    private ListenerQueue createQueue(ProcessListener listener) {
+        return new ListenerQueue(eventDispatcher.createGroup(processId + "-" + listener.getClass().getSimpleName()), listener);
+    }
+
+    /**
+     * Creates new listener array so events already queued keep their listener snapshot.
+     * @param listeners
+     * @param added
+     * @return
+     */
+    private static ProcessListener[] concat(ProcessListener[] listeners, ProcessListener[] added) {
+        if (added == null || added.length == 0) {
+            return listeners;
+        }
+
+        return Stream.concat(Stream.of(listeners), Stream.of(added)).toArray(ProcessListener[]::new);
+    }
+
+    /**
+     * Event buffer and consumer of a single listener.
+     */
+    private static final class ListenerQueue {
+        private final ProcessEventDispatcher.ListenerGroup group;
+        private final ProcessListener[] listener;
+
+        ListenerQueue(ProcessEventDispatcher.ListenerGroup group, ProcessListener listener) {
+            this.group = group;
+            this.listener = new ProcessListener[] { listener };
+        }
+
+        void publish(ProcessEvent event) {
+            group.publish(event, listener);
+        }
+
+        void release() {
+            group.release();
+        }
     }
 
     /**
@@ -14,31 +14,60 @@
  * limitations under the License.
  */
 
+
 package com.consol.citrus.admin.process;
 
+import com.consol.citrus.admin.Application;
+import com.consol.citrus.admin.configuration.SystemSettings;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.*;
 
 /**
+ * Reads process output with reusable byte and char buffers and explicit UTF-8 decoding. Output is published in batches
+ * on whichever comes first: byte budget exceeded or flush interval elapsed since the first pending byte. Activity
+ * callbacks are invoked for each line immediately.
+ *
  * @author Christoph Deppisch
  */
 public class InputStreamPumper implements Runnable, Closeable {
 
-    /** Default line cache size */
-    private static final int DEFAULT_LINE_CHACHE_SIZE = 30;
+    /** Default output batch limits */
+    public static final int DEFAULT_MAX_BYTES = 16 * 1024;
+    public static final long DEFAULT_FLUSH_INTERVAL = 100L;
+
+    /** Read buffer size */
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    /** Milliseconds to wait for more data while output is pending */
+    private static final long POLL_INTERVAL = 5L;
 
     /** Logger */
-    private static final Logger LOG = LoggerFactory.getLogger(InputStreamReader.class);
+    private static final Logger LOG = LoggerFactory.getLogger(InputStreamPumper.class);
 
-    private final BufferedReader reader;
+    private final InputStream in;
     private volatile boolean keepReading;
     private Thread thread;
 
-    private final int lineCacheSize;
-    private int lineCache;
-    private StringBuilder outputCache = new StringBuilder();
+    private final int maxBytes;
+    private final long flushInterval;
+
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private final ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+
+    /** Pending output and current line, reused for all batches */
+    private final StringBuilder outputCache = new StringBuilder(BUFFER_SIZE);
+    private final StringBuilder line = new StringBuilder(256);
+
+    private int pendingBytes;
+    private long flushDeadline;
 
     /**
      * Subclasses may add activity callback logic here.
@@ -55,22 +84,26 @@ public class InputStreamPumper implements Runnable, Closeable {
     }
 
     /**
-     * Constructor using input stream. Uses default line cache size.
+     * Constructor using input stream. Uses default byte budget and flush interval that may be overwritten
+     * with system properties or environment variables.
      * @param in
      */
     public InputStreamPumper(InputStream in) {
-        this(in, DEFAULT_LINE_CHACHE_SIZE);
+        this(in, SystemSettings.getInt(Application.PROCESS_OUTPUT_MAX_BYTES, Application.PROCESS_OUTPUT_MAX_BYTES_ENV, DEFAULT_MAX_BYTES),
+                SystemSettings.getLong(Application.PROCESS_OUTPUT_FLUSH_INTERVAL, Application.PROCESS_OUTPUT_FLUSH_INTERVAL_ENV, DEFAULT_FLUSH_INTERVAL));
     }
 
     /**
-     * Constructor using input stream.
+     * Constructor using input stream, byte budget and flush interval in milliseconds.
      * @param in
-     * @param lineCacheSize
+     * @param maxBytes
+     * @param flushInterval
      */
-    public InputStreamPumper(InputStream in, int lineCacheSize) {
-        this.lineCacheSize = lineCacheSize;
+    public InputStreamPumper(InputStream in, int maxBytes, long flushInterval) {
+        this.in = in;
+        this.maxBytes = Math.max(1, maxBytes);
+        this.flushInterval = Math.max(0L, flushInterval);
         this.keepReading = true;
-        this.reader = new BufferedReader(new InputStreamReader(in));
     }
 
     /**
@@ -80,29 +113,47 @@ public class InputStreamPumper implements Runnable, Closeable {
         this.thread = Thread.currentThread();
 
         try {
-            lineCache = lineCacheSize;
-            String line;
+            while (this.keepReading && !Thread.currentThread().isInterrupted()) {
+                if (outputCache.length() > 0 && in.available() == 0) {
+                    long remaining = flushDeadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        flush();
+                    } else {
+                        Thread.sleep(Math.min(remaining, POLL_INTERVAL));
+                    }
+                    continue;
+                }
+
+                int read = in.read(bytes.array(), bytes.arrayOffset() + bytes.position(), bytes.remaining());
+                if (read < 0) {
+                    break;
+                }
 
-            while (this.keepReading && !Thread.currentThread().isInterrupted() && (line = reader.readLine()) != null) {
-                onActivity(line);
+                if (outputCache.length() == 0) {
+                    flushDeadline = System.currentTimeMillis() + flushInterval;
+                }
 
-                outputCache.append(line);
-                outputCache.append(System.lineSeparator());
+                bytes.position(bytes.position() + read);
+                pendingBytes += read;
+                decode(false);
 
-                if (lineCache > 0) {
-                    lineCache--;
-                } else {
-                    onOutput(outputCache.toString());
-                    lineCache = lineCacheSize;
-                    outputCache = new StringBuilder();
+                if (pendingBytes >= maxBytes || System.currentTimeMillis() >= flushDeadline) {
+                    flush();
                 }
             }
 
-            if (lineCache < lineCacheSize) {
-                onOutput(outputCache.toString());
-                lineCache = lineCacheSize;
-                outputCache = new StringBuilder();
+            if (!this.keepReading) {
+                return;
             }
+
+            decode(true);
+            if (line.length() > 0) {
+                activity();
+            }
+            flush();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOG.debug("Interrupted while pumping stream.", e);
         } catch (IOException e) {
             if (!this.keepReading) {
                 return;
@@ -116,6 +167,95 @@ public class InputStreamPumper implements Runnable, Closeable {
         }
     }
 
+    /**
+     * Decodes bytes read so far. Incomplete multi byte sequences remain in the byte buffer until next read.
+     * @param endOfInput
+     */
+    private void decode(boolean endOfInput) {
+        bytes.flip();
+
+        CoderResult result;
+        do {
+            result = decoder.decode(bytes, chars, endOfInput);
+            drain();
+        } while (result.isOverflow());
+
+        if (endOfInput) {
+            while (decoder.flush(chars).isOverflow()) {
+                drain();
+            }
+            drain();
+        }
+
+        bytes.compact();
+    }
+
+    /**
+     * Moves decoded chars to output cache and invokes activity callback for each completed line.
+     */
+    private void drain() {
+        chars.flip();
+
+        char[] data = chars.array();
+        int start = chars.arrayOffset() + chars.position();
+        int end = chars.arrayOffset() + chars.limit();
+
+        int segment = start;
+        for (int i = start; i < end; i++) {
+            if (data[i] == '\n') {
+                appendLine(data, segment, i);
+                activity();
+                outputCache.append(data, segment, i + 1 - segment);
+                segment = i + 1;
+            }
+        }
+
+        if (segment < end) {
+            appendLine(data, segment, end);
+            outputCache.append(data, segment, end - segment);
+
+            if (line.length() >= maxBytes) {
+                activity();
+            }
+        }
+
+        chars.clear();
+    }
+
+    /**
+     * Adds chars to current line skipping carriage returns.
+     * @param data
+     * @param start
+     * @param end
+     */
+    private void appendLine(char[] data, int start, int end) {
+        int length = end - start;
+        if (length > 0 && data[end - 1] == '\r') {
+            length--;
+        }
+        line.append(data, start, length);
+    }
+
+    /**
+     * Publish current line to activity callback and reset line buffer.
+     */
+    private void activity() {
+        onActivity(line.toString());
+        line.setLength(0);
+    }
+
+    /**
+     * Publish cached output immediately. Must be called from within the pumping thread e.g. in activity callbacks.
+     */
+    protected void flush() {
+        if (outputCache.length() > 0) {
+            onOutput(outputCache.toString());
+            outputCache.setLength(0);
+        }
+
+        pendingBytes = 0;
+    }
+
     /**
      * Close reading and input stream.
      */
@@ -123,7 +263,7 @@ public class InputStreamPumper implements Runnable, Closeable {
         this.keepReading = false;
 
         try {
-            reader.close();
+            in.close();
         } catch (IOException e) {
             // ignore
             LOG.warn("Failed to close input stream", e);
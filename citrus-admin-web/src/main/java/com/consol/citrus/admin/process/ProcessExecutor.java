@@ -0,0 +1,236 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process;
+
+import com.consol.citrus.admin.Application;
+import com.consol.citrus.admin.configuration.SystemSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared execution engine for all process launchers. Runs input stream pumpers and process completion tasks on a
+ * single bounded thread pool. Idle threads time out so no threads are left behind when processes have finished.
+ * Process timeouts are scheduled on a single timer thread.
+ *
+ * @author Christoph Deppisch
+ */
+@Component
+public class ProcessExecutor {
+
+    /** Logger */
+    private static final Logger LOG = LoggerFactory.getLogger(ProcessExecutor.class);
+
+    /** Default pool limits */
+    private static final int DEFAULT_MAX_THREADS = 100;
+    private static final int DEFAULT_QUEUE_CAPACITY = 1000;
+
+    /** Time idle pool threads are kept alive */
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /** Processes currently running */
+    private final Set<String> activeProcesses = ConcurrentHashMap.newKeySet();
+
+    /** Input stream pumpers currently reading process output */
+    private final AtomicInteger activePumpers = new AtomicInteger();
+
+    /**
+     * Default constructor using system property or environment settings for pool limits.
+     */
+    public ProcessExecutor() {
+        this(SystemSettings.getInt(Application.PROCESS_MAX_THREADS, Application.PROCESS_MAX_THREADS_ENV, DEFAULT_MAX_THREADS),
+                SystemSettings.getInt(Application.PROCESS_QUEUE_CAPACITY, Application.PROCESS_QUEUE_CAPACITY_ENV, DEFAULT_QUEUE_CAPACITY));
+    }
+
+    /**
+     * Constructor using pool limits.
+     * @param maxThreads
+     * @param queueCapacity
+     */
+    public ProcessExecutor(int maxThreads, int queueCapacity) {
+        this.executor = new ThreadPoolExecutor(maxThreads, maxThreads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueCapacity), new NamedThreadFactory("process-executor"));
+        this.executor.allowCoreThreadTimeOut(true);
+
+        this.scheduler = new ScheduledThreadPoolExecutor(1, new NamedThreadFactory("process-timeout"));
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Runs input stream pumper reading process output.
+     * @param pumper
+     * @return
+     */
+    public Future<?> pump(InputStreamPumper pumper) {
+        return pump(pumper, null);
+    }
+
+    /**
+     * Runs input stream pumper reading process output. When output stream has been consumed the given completion
+     * task runs on the same thread. This way a single thread is used for reading output and waiting for process exit.
+     * @param pumper
+     * @param completion
+     * @return
+     */
+    public Future<?> pump(InputStreamPumper pumper, Runnable completion) {
+        return execute(() -> {
+            activePumpers.incrementAndGet();
+            try {
+                pumper.run();
+            } finally {
+                activePumpers.decrementAndGet();
+
+                if (completion != null) {
+                    completion.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Runs task on shared process thread pool.
+     * @param task
+     * @return
+     */
+    public Future<?> execute(Runnable task) {
+        try {
+            return executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new ProcessLauncherException(String.format("Process execution rejected - %s tasks waiting for execution", executor.getQueue().size()), e);
+        }
+    }
+
+    /**
+     * Schedules task after given delay, usually used for process timeouts.
+     * @param task
+     * @param delay
+     * @param unit
+     * @return
+     */
+    public ScheduledFuture<?> schedule(Runnable task, long delay, TimeUnit unit) {
+        return scheduler.schedule(task, delay, unit);
+    }
+
+    /**
+     * Marks process as running.
+     * @param processId
+     */
+    public void started(String processId) {
+        activeProcesses.add(processId);
+    }
+
+    /**
+     * Marks process as finished.
+     * @param processId
+     */
+    public void finished(String processId) {
+        activeProcesses.remove(processId);
+    }
+
+    /**
+     * Stops all threads of this execution engine.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        executor.shutdownNow();
+
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                LOG.warn("Process executor threads did not terminate in time");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Gets current execution metrics.
+     * @return
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("activeProcesses", getActiveProcesses());
+        metrics.put("activePumpers", getActivePumpers());
+        metrics.put("activeThreads", executor.getActiveCount());
+        metrics.put("poolSize", executor.getPoolSize());
+        metrics.put("maxPoolSize", executor.getMaximumPoolSize());
+        metrics.put("queueDepth", getQueueDepth());
+        metrics.put("scheduledTimeouts", scheduler.getQueue().size());
+        metrics.put("completedTasks", executor.getCompletedTaskCount());
+        return metrics;
+    }
+
+    /**
+     * Gets number of tasks waiting for a free thread.
+     * @return
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Gets number of running processes.
+     * @return
+     */
+    public int getActiveProcesses() {
+        return activeProcesses.size();
+    }
+
+    /**
+     * Gets number of input stream pumpers currently reading process output.
+     * @return
+     */
+    public int getActivePumpers() {
+        return activePumpers.get();
+    }
+
+    /**
+     * Gets number of threads currently in pool.
+     * @return
+     */
+    public int getPoolSize() {
+        return executor.getPoolSize();
+    }
+
+    /**
+     * Creates named daemon threads.
+     */
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process;
+
+import com.consol.citrus.admin.Application;
+import com.consol.citrus.admin.configuration.SystemSettings;
+import com.consol.citrus.admin.process.stats.ProcessTreeSampler;
+import com.consol.citrus.admin.process.stats.ProcessTreeSampler.ProcessSample;
+import org.apache.commons.lang.SystemUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Terminates a launched process together with all of its descendants, e.g. the Maven JVM and forked surefire JVMs
+ * started by a shell wrapper. Processes are asked to terminate gracefully first and are killed when they are still
+ * running after the stop timeout. The process tree is read before the root process is signalled because orphaned
+ * children are reparented and can not be found afterwards. On Windows the root process is destroyed last as taskkill
+ * walks the tree starting from the root.
+ *
+ * @author Christoph Deppisch
+ */
+@Component
+public class ProcessTreeTerminator {
+
+    /** Logger */
+    private static final Logger LOG = LoggerFactory.getLogger(ProcessTreeTerminator.class);
+
+    /** Default time in milliseconds stopped processes get to terminate gracefully */
+    private static final int DEFAULT_STOP_TIMEOUT = 5000;
+
+    /** Interval checking for terminated processes */
+    private static final long POLL_INTERVAL = 50L;
+
+    /** Time to wait for killed processes to disappear */
+    private static final long KILL_TIMEOUT = 2000L;
+
+    private final ProcessTreeSampler sampler;
+    private final long stopTimeout;
+
+    private final AtomicLong terminated = new AtomicLong();
+    private final AtomicLong killed = new AtomicLong();
+    private final AtomicLong survivors = new AtomicLong();
+
+    /**
+     * Default constructor using system property or environment settings for the stop timeout.
+     */
+    public ProcessTreeTerminator() {
+        this(new ProcessTreeSampler(), SystemSettings.getInt(Application.PROCESS_STOP_TIMEOUT, Application.PROCESS_STOP_TIMEOUT_ENV, DEFAULT_STOP_TIMEOUT));
+    }
+
+    /**
+     * Constructor using fields.
+     * @param sampler
+     * @param stopTimeout graceful termination timeout in milliseconds
+     */
+    public ProcessTreeTerminator(ProcessTreeSampler sampler, long stopTimeout) {
+        this.sampler = sampler;
+        this.stopTimeout = stopTimeout;
+    }
+
+    /**
+     * Terminates process and its descendants and waits for their termination. Nothing is signalled when the process has
+     * already exited, descendants left behind are reparented and can not be identified by the pid of the root anymore.
+     * @param process
+     * @return true when all processes have terminated
+     */
+    public boolean terminate(Process process) {
+        // exited root process has been reaped, its pid may already belong to another process
+        if (!process.isAlive()) {
+            return true;
+        }
+
+        long pid = ProcessTreeSampler.getPid(process);
+        List<ProcessSample> descendants = getDescendants(pid);
+
+        if (!process.isAlive()) {
+            // root exited while reading the tree, so the tree read may belong to a reused pid
+            return true;
+        }
+
+        LOG.info(String.format("Stopping process %s with %s child processes", pid, descendants.size()));
+
+        if (SystemUtils.IS_OS_WINDOWS) {
+            // root must stay alive for taskkill to find its children, destroying it would terminate it forcibly
+            signal(pid, descendants, false);
+        } else {
+            // signal root first so shell wrappers do not continue with their script when children terminate
+            process.destroy();
+            signal(pid, descendants, false);
+        }
+
+        if (awaitTermination(process, descendants, stopTimeout)) {
+            terminated.incrementAndGet();
+            return true;
+        }
+
+        // children may have started new processes while shutting down
+        List<ProcessSample> alive = new ArrayList<>();
+        for (ProcessSample descendant : descendants) {
+            if (sampler.isAlive(descendant)) {
+                alive.addAll(sampler.sample(descendant.getPid()));
+            }
+        }
+
+        LOG.warn(String.format("Process %s did not stop within %s ms - killing %s remaining processes", pid, stopTimeout, alive.size() + (process.isAlive() ? 1 : 0)));
+        killed.incrementAndGet();
+
+        if (SystemUtils.IS_OS_WINDOWS) {
+            signal(pid, alive, true);
+            process.destroyForcibly();
+        } else {
+            process.destroyForcibly();
+            signal(pid, alive, true);
+        }
+
+        if (awaitTermination(process, alive, KILL_TIMEOUT)) {
+            return true;
+        }
+
+        List<Long> pids = alive.stream().filter(sampler::isAlive).map(ProcessSample::getPid).collect(Collectors.toList());
+        survivors.addAndGet(pids.size());
+        LOG.error(String.format("Failed to terminate process %s - processes still running: %s", pid, pids));
+        return false;
+    }
+
+    /**
+     * Reads all descendants of process.
+     * @param pid
+     * @return
+     */
+    private List<ProcessSample> getDescendants(long pid) {
+        if (pid <= 0 || !sampler.isSupported()) {
+            return Collections.emptyList();
+        }
+
+        return sampler.sample(pid).stream()
+                .filter(sample -> sample.getPid() != pid)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Sends terminate or kill signal to processes. On Windows the whole tree of the root process is terminated
+     * with taskkill as proc file system is not available.
+     * @param pid
+     * @param processes
+     * @param force
+     */
+    private void signal(long pid, List<ProcessSample> processes, boolean force) {
+        List<String> command = new ArrayList<>();
+        if (SystemUtils.IS_OS_WINDOWS) {
+            if (pid <= 0) {
+                return;
+            }
+
+            command.addAll(Arrays.asList("taskkill", "/T", "/PID", String.valueOf(pid)));
+            if (force) {
+                command.add("/F");
+            }
+        } else {
+            if (processes.isEmpty()) {
+                return;
+            }
+
+            command.addAll(Arrays.asList("kill", force ? "-KILL" : "-TERM"));
+            processes.forEach(sample -> command.add(String.valueOf(sample.getPid())));
+        }
+
+        try {
+            Process signal = new ProcessBuilder(command).redirectErrorStream(true).start();
+            signal.getInputStream().close();
+            if (!signal.waitFor(KILL_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                signal.destroyForcibly();
+            }
+        } catch (IOException e) {
+            LOG.warn(String.format("Failed to signal processes: %s", command), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits until root process and all given processes have terminated.
+     * @param process
+     * @param processes
+     * @param timeout
+     * @return
+     */
+    private boolean awaitTermination(Process process, List<ProcessSample> processes, long timeout) {
+        long deadline = System.currentTimeMillis() + timeout;
+
+        try {
+            while (true) {
+                if (!process.isAlive() && processes.stream().noneMatch(sampler::isAlive)) {
+                    return true;
+                }
+
+                if (System.currentTimeMillis() >= deadline) {
+                    return false;
+                }
+
+                Thread.sleep(POLL_INTERVAL);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Gets termination counters.
+     * @return
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("terminated", terminated.get());
+        metrics.put("killed", killed.get());
+        metrics.put("survivors", survivors.get());
+        return metrics;
+    }
+}
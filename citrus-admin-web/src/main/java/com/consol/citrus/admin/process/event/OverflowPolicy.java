@@ -0,0 +1,35 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.event;
+
+/**
+ * Decides what happens with output and activity events when listeners can not keep up and the event buffer is full.
+ * Lifecycle events (start, success, fail) always wait for free buffer space.
+ *
+ * @author Christoph Deppisch
+ */
+public enum OverflowPolicy {
+
+    /** Publisher waits for free buffer space */
+    BLOCK,
+
+    /** New output and activity events are discarded */
+    DROP,
+
+    /** New output or activity is appended to the latest pending event of the same type, discarded otherwise */
+    COALESCE
+}
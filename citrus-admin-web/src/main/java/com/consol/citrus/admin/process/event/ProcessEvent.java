@@ -0,0 +1,213 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.event;
+
+import com.consol.citrus.admin.process.listener.ProcessListener;
+
+/**
+ * Immutable process event queued by the {@link ProcessEventDispatcher} and delivered to process listeners.
+ *
+ * @author Christoph Deppisch
+ */
+public final class ProcessEvent {
+
+    /** Event types matching the process listener callbacks */
+    public enum Type {
+        START,
+        SUCCESS,
+        FAIL_EXIT_CODE,
+        FAIL_EXCEPTION,
+        OUTPUT,
+        ACTIVITY
+    }
+
+    private final Type type;
+    private final String processId;
+    private final String output;
+    private final int exitCode;
+    private final Throwable error;
+
+    /** Number of activity lines held by coalesced activity events */
+    private final int lines;
+
+    /**
+     * Constructor using fields.
+     * @param type
+     * @param processId
+     * @param output
+     * @param exitCode
+     * @param error
+     */
+    private ProcessEvent(Type type, String processId, String output, int exitCode, Throwable error) {
+        this(type, processId, output, exitCode, error, 1);
+    }
+
+    /**
+     * Constructor using fields and number of activity lines.
+     * @param type
+     * @param processId
+     * @param output
+     * @param exitCode
+     * @param error
+     * @param lines
+     */
+    private ProcessEvent(Type type, String processId, String output, int exitCode, Throwable error, int lines) {
+        this.type = type;
+        this.processId = processId;
+        this.output = output;
+        this.exitCode = exitCode;
+        this.error = error;
+        this.lines = lines;
+    }
+
+    public static ProcessEvent start(String processId) {
+        return new ProcessEvent(Type.START, processId, null, 0, null);
+    }
+
+    public static ProcessEvent success(String processId) {
+        return new ProcessEvent(Type.SUCCESS, processId, null, 0, null);
+    }
+
+    public static ProcessEvent fail(String processId, int exitCode) {
+        return new ProcessEvent(Type.FAIL_EXIT_CODE, processId, null, exitCode, null);
+    }
+
+    public static ProcessEvent fail(String processId, Throwable error) {
+        return new ProcessEvent(Type.FAIL_EXCEPTION, processId, null, 0, error);
+    }
+
+    public static ProcessEvent output(String processId, String output) {
+        return new ProcessEvent(Type.OUTPUT, processId, output, 0, null);
+    }
+
+    public static ProcessEvent activity(String processId, String output) {
+        return new ProcessEvent(Type.ACTIVITY, processId, output, 0, null);
+    }
+
+    /**
+     * Invokes the listener callback for this event.
+     * @param listener
+     */
+    public void dispatch(ProcessListener listener) {
+        switch (type) {
+            case START:
+                listener.onProcessStart(processId);
+                break;
+            case SUCCESS:
+                listener.onProcessSuccess(processId);
+                break;
+            case FAIL_EXIT_CODE:
+                listener.onProcessFail(processId, exitCode);
+                break;
+            case FAIL_EXCEPTION:
+                listener.onProcessFail(processId, error);
+                break;
+            case OUTPUT:
+                listener.onProcessOutput(processId, output);
+                break;
+            case ACTIVITY:
+                dispatchActivity(listener);
+                break;
+        }
+    }
+
+    /**
+     * Delivers activity lines one by one as listeners parse activity line by line.
+     * @param listener
+     */
+    private void dispatchActivity(ProcessListener listener) {
+        if (lines == 1) {
+            listener.onProcessActivity(processId, output);
+            return;
+        }
+
+        int start = 0;
+        for (int end = output.indexOf('\n'); end >= 0; end = output.indexOf('\n', start)) {
+            listener.onProcessActivity(processId, output.substring(start, end));
+            start = end + 1;
+        }
+        listener.onProcessActivity(processId, output.substring(start));
+    }
+
+    /**
+     * Output and activity events may be dropped or coalesced. Lifecycle events are always delivered.
+     * @return
+     */
+    public boolean isDiscardable() {
+        return type == Type.OUTPUT || type == Type.ACTIVITY;
+    }
+
+    /**
+     * Checks if given event can be appended to this event.
+     * @param next
+     * @param maxLines maximum number of activity lines held by one event
+     * @return
+     */
+    public boolean canCoalesce(ProcessEvent next, int maxLines) {
+        return type == next.type && (type == Type.OUTPUT || (type == Type.ACTIVITY && lines + next.lines <= maxLines));
+    }
+
+    /**
+     * Creates new event holding output of this event followed by the output of the given event. Activity lines
+     * are kept apart so they are delivered one by one.
+     * @param next
+     * @return
+     */
+    public ProcessEvent coalesce(ProcessEvent next) {
+        if (type == Type.ACTIVITY) {
+            return new ProcessEvent(Type.ACTIVITY, processId, output + "\n" + next.output, 0, null, lines + next.lines);
+        }
+
+        return output(processId, output + next.output);
+    }
+
+    /**
+     * Gets the type.
+     *
+     * @return
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * Gets the processId.
+     *
+     * @return
+     */
+    public String getProcessId() {
+        return processId;
+    }
+
+    /**
+     * Gets the output.
+     *
+     * @return
+     */
+    public String getOutput() {
+        return output;
+    }
+
+    /**
+     * Gets the number of activity lines.
+     *
+     * @return
+     */
+    public int getLines() {
+        return lines;
+    }
+}
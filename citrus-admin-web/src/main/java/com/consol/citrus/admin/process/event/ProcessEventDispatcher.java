@@ -0,0 +1,281 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.event;
+
+import com.consol.citrus.admin.process.listener.ProcessListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * Asynchronous process event dispatcher. Each listener group owns a bounded ring buffer that is filled by the
+ * process launcher and drained by a single consumer task running on the given executor. This way reading
+ * process output never waits for slow listeners. When a ring buffer is full the overflow policy decides whether the
+ * publisher waits, drops the event or coalesces output and activity with pending events of the same type. Coalesced
+ * activity lines are still delivered one by one. Only lifecycle events always wait for free buffer space.
+ *
+ * @author Christoph Deppisch
+ */
+public class ProcessEventDispatcher {
+
+    /** Logger */
+    private static final Logger LOG = LoggerFactory.getLogger(ProcessEventDispatcher.class);
+
+    /** Maximum number of activity lines coalesced into one event */
+    private static final int MAX_COALESCED_LINES = 1000;
+
+    private final Executor executor;
+    private final int capacity;
+    private final OverflowPolicy overflowPolicy;
+    private final ProcessEventMetrics metrics;
+
+    private final List<ListenerGroup> groups = new CopyOnWriteArrayList<>();
+
+    /**
+     * Constructor using fields.
+     * @param executor runs the consumer tasks
+     * @param capacity
+     * @param overflowPolicy
+     * @param metrics
+     */
+    public ProcessEventDispatcher(Executor executor, int capacity, OverflowPolicy overflowPolicy, ProcessEventMetrics metrics) {
+        this.executor = executor;
+        this.capacity = Math.max(1, capacity);
+        this.overflowPolicy = overflowPolicy;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Creates new listener group with its own ring buffer and consumer.
+     * @param name
+     * @return
+     */
+    public ListenerGroup createGroup(String name) {
+        ListenerGroup group = new ListenerGroup(name);
+        groups.add(group);
+        return group;
+    }
+
+    /**
+     * Waits until all listener groups have delivered their pending events.
+     * @param timeout
+     * @param unit
+     * @return false when pending events are left after timeout
+     * @throws InterruptedException
+     */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (ListenerGroup group : groups) {
+            if (!group.awaitIdle(deadline)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets number of events waiting for delivery in all listener groups.
+     * @return
+     */
+    public int getPending() {
+        return groups.stream().mapToInt(ListenerGroup::getPending).sum();
+    }
+
+    /**
+     * Group of listeners sharing one ring buffer and one consumer. Events are delivered in publishing order to the
+     * listeners that were registered when the event was published.
+     */
+    public final class ListenerGroup {
+        private final String name;
+
+        private final ProcessEvent[] events = new ProcessEvent[capacity];
+        private final ProcessListener[][] targets = new ProcessListener[capacity][];
+        private int head = 0;
+        private int size = 0;
+
+        /** Marks consumer task scheduled or running */
+        private boolean draining = false;
+
+        /** Marks group to be removed once pending events have been delivered */
+        private boolean released = false;
+
+        ListenerGroup(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Queues event for delivery to given listeners.
+         * @param event
+         * @param listeners
+         */
+        public void publish(ProcessEvent event, ProcessListener[] listeners) {
+            if (listeners.length == 0) {
+                return;
+            }
+
+            metrics.published();
+
+            boolean schedule;
+            synchronized (this) {
+                if (size == capacity && !handleOverflow(event, listeners)) {
+                    return;
+                }
+
+                int tail = (head + size) % capacity;
+                events[tail] = event;
+                targets[tail] = listeners;
+                size++;
+                metrics.queued();
+
+                schedule = !draining;
+                draining = true;
+            }
+
+            if (schedule) {
+                try {
+                    executor.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    LOG.warn(String.format("Process event consumer '%s' rejected - delivering events on publishing thread", name));
+                    drain();
+                }
+            }
+        }
+
+        /**
+         * Removes this group from the dispatcher once all pending events have been delivered.
+         */
+        public void release() {
+            synchronized (this) {
+                released = true;
+                if (draining) {
+                    return;
+                }
+            }
+
+            groups.remove(this);
+        }
+
+        /**
+         * Handles full ring buffer according to overflow policy. Must be called with group lock held.
+         * @param event
+         * @param listeners
+         * @return true when event should be added to the buffer
+         */
+        private boolean handleOverflow(ProcessEvent event, ProcessListener[] listeners) {
+            if (!event.isDiscardable() || overflowPolicy == OverflowPolicy.BLOCK) {
+                long start = System.nanoTime();
+                try {
+                    while (size == capacity) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    metrics.dropped(event);
+                    return false;
+                } finally {
+                    metrics.blocked(System.nanoTime() - start);
+                }
+
+                return true;
+            }
+
+            if (overflowPolicy == OverflowPolicy.COALESCE) {
+                for (int i = size - 1; i >= 0; i--) {
+                    int index = (head + i) % capacity;
+                    if (targets[index] == listeners && events[index].canCoalesce(event, MAX_COALESCED_LINES)) {
+                        events[index] = events[index].coalesce(event);
+                        metrics.coalesced();
+                        return false;
+                    }
+                }
+            }
+
+            metrics.dropped(event);
+            return false;
+        }
+
+        /**
+         * Delivers pending events until ring buffer is empty.
+         */
+        private void drain() {
+            while (true) {
+                ProcessEvent event;
+                ProcessListener[] listeners;
+                synchronized (this) {
+                    if (size == 0) {
+                        draining = false;
+                        notifyAll();
+
+                        if (released) {
+                            groups.remove(this);
+                        }
+                        return;
+                    }
+
+                    event = events[head];
+                    listeners = targets[head];
+                    events[head] = null;
+                    targets[head] = null;
+                    head = (head + 1) % capacity;
+                    size--;
+                    notifyAll();
+                }
+
+                for (ProcessListener listener : listeners) {
+                    try {
+                        event.dispatch(listener);
+                    } catch (RuntimeException e) {
+                        metrics.listenerError();
+                        LOG.warn(String.format("Process listener failed to handle %s event of process '%s'", event.getType(), event.getProcessId()), e);
+                    }
+                }
+
+                metrics.delivered();
+            }
+        }
+
+        /**
+         * Waits until all pending events are delivered or deadline is reached.
+         * @param deadline
+         * @return
+         * @throws InterruptedException
+         */
+        private synchronized boolean awaitIdle(long deadline) throws InterruptedException {
+            while (draining) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+
+            return true;
+        }
+
+        /**
+         * Gets number of events waiting for delivery.
+         * @return
+         */
+        public synchronized int getPending() {
+            return size;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.event;
+
+import com.consol.citrus.admin.Application;
+import com.consol.citrus.admin.configuration.SystemSettings;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates asynchronous process event dispatchers for process launchers. Holds the event buffer settings and the
+ * event counters shared by all dispatchers. Event consumers run on their own unbounded pool of daemon threads, so
+ * draining never queues up behind process tasks on the bounded process executor - a publisher waiting for free
+ * buffer space is always released once the listeners have handled pending events.
+ *
+ * @author Christoph Deppisch
+ */
+@Component
+public class ProcessEventExecutor {
+
+    /** Default event buffer capacity per listener group */
+    private static final int DEFAULT_EVENT_CAPACITY = 1024;
+
+    /** Time idle consumer threads are kept alive */
+    private static final long KEEP_ALIVE_SECONDS = 60L;
+
+    private int eventCapacity = SystemSettings.getInt(Application.PROCESS_EVENT_CAPACITY, Application.PROCESS_EVENT_CAPACITY_ENV, DEFAULT_EVENT_CAPACITY);
+    private OverflowPolicy eventOverflowPolicy = SystemSettings.getEnum(Application.PROCESS_EVENT_OVERFLOW, Application.PROCESS_EVENT_OVERFLOW_ENV, OverflowPolicy.COALESCE);
+    private final ProcessEventMetrics eventMetrics = new ProcessEventMetrics();
+
+    private final ThreadPoolExecutor consumers;
+
+    /**
+     * Default constructor.
+     */
+    public ProcessEventExecutor() {
+        AtomicInteger count = new AtomicInteger();
+        this.consumers = new ThreadPoolExecutor(0, Integer.MAX_VALUE, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "process-events-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Creates new asynchronous event dispatcher for a process using the configured capacity and overflow policy.
+     * @return
+     */
+    public ProcessEventDispatcher createEventDispatcher() {
+        return new ProcessEventDispatcher(consumers, eventCapacity, eventOverflowPolicy, eventMetrics);
+    }
+
+    /**
+     * Stops event consumer threads. Dispatchers deliver remaining events on the publishing thread afterwards.
+     */
+    @PreDestroy
+    public void shutdown() {
+        consumers.shutdown();
+    }
+
+    /**
+     * Gets the process event dispatching counters.
+     * @return
+     */
+    public ProcessEventMetrics getEventMetrics() {
+        return eventMetrics;
+    }
+
+    /**
+     * Sets the event buffer capacity per listener group.
+     *
+     * @param eventCapacity
+     */
+    public void setEventCapacity(int eventCapacity) {
+        this.eventCapacity = eventCapacity;
+    }
+
+    /**
+     * Sets the event overflow policy.
+     *
+     * @param eventOverflowPolicy
+     */
+    public void setEventOverflowPolicy(OverflowPolicy eventOverflowPolicy) {
+        this.eventOverflowPolicy = eventOverflowPolicy;
+    }
+}
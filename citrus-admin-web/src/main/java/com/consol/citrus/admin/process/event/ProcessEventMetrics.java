@@ -0,0 +1,115 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.event;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Event dispatching counters shared by all process event dispatchers.
+ *
+ * @author Christoph Deppisch
+ */
+public class ProcessEventMetrics {
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder pending = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder droppedActivity = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder blocked = new LongAdder();
+    private final LongAdder blockedNanos = new LongAdder();
+    private final LongAdder listenerErrors = new LongAdder();
+
+    void published() {
+        published.increment();
+    }
+
+    void queued() {
+        pending.increment();
+    }
+
+    void delivered() {
+        delivered.increment();
+        pending.decrement();
+    }
+
+    void dropped(ProcessEvent event) {
+        dropped.increment();
+        if (event.getType() == ProcessEvent.Type.ACTIVITY) {
+            droppedActivity.add(event.getLines());
+        }
+    }
+
+    void coalesced() {
+        coalesced.increment();
+    }
+
+    void blocked(long nanos) {
+        blocked.increment();
+        blockedNanos.add(nanos);
+    }
+
+    void listenerError() {
+        listenerErrors.increment();
+    }
+
+    /**
+     * Gets current counter values.
+     * @return
+     */
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("published", getPublished());
+        metrics.put("delivered", getDelivered());
+        metrics.put("pending", getPending());
+        metrics.put("dropped", getDropped());
+        metrics.put("droppedActivityLines", getDroppedActivity());
+        metrics.put("coalesced", getCoalesced());
+        metrics.put("blocked", blocked.sum());
+        metrics.put("blockedMillis", TimeUnit.NANOSECONDS.toMillis(blockedNanos.sum()));
+        metrics.put("listenerErrors", listenerErrors.sum());
+        return metrics;
+    }
+
+    public long getPublished() {
+        return published.sum();
+    }
+
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    public long getPending() {
+        return pending.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getDroppedActivity() {
+        return droppedActivity.sum();
+    }
+
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+}
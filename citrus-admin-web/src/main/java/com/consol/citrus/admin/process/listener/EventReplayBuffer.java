@@ -0,0 +1,116 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.listener;
+
+import com.consol.citrus.admin.model.*;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+
+/**
+ * Keeps latest socket events of a single process together with their sequence numbers for replay. Sequence numbers
+ * are assigned by the publisher so they survive eviction of the buffer. Oldest events are removed once either the number of events or the approximate payload size is exceeded.
+ *
+ * @author Christoph Deppisch
+ */
+public class EventReplayBuffer {
+
+    /** Approximate weight of events without text payload */
+    private static final int DEFAULT_WEIGHT = 256;
+
+    private final String processId;
+    private final int maxEvents;
+    private final long maxBytes;
+
+    private final ArrayDeque<SequencedEvent> events = new ArrayDeque<>();
+    private long bytes = 0L;
+    private long seq = 0L;
+
+    /**
+     * Constructor using process id and replay limits.
+     * @param processId
+     * @param maxEvents
+     * @param maxBytes
+     */
+    public EventReplayBuffer(String processId, int maxEvents, long maxBytes) {
+        this.processId = processId;
+        this.maxEvents = maxEvents;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Adds event with given sequence number. Sequence numbers are expected to increase.
+     * @param seq
+     * @param topic
+     * @param payload
+     */
+    public synchronized void add(long seq, String topic, Object payload) {
+        this.seq = seq;
+        SequencedEvent event = new SequencedEvent(seq, topic, payload);
+        events.addLast(event);
+        bytes += getWeight(payload);
+
+        while (events.size() > 1 && (events.size() > maxEvents || bytes > maxBytes)) {
+            bytes -= getWeight(events.removeFirst().getPayload());
+        }
+    }
+
+    /**
+     * Gets events of given topic with sequence number greater than the given one. Topic name may be null for events
+     * of all topics.
+     * @param topic
+     * @param after
+     * @return
+     */
+    public synchronized ProcessEventChunk getEvents(String topic, long after) {
+        ProcessEventChunk chunk = new ProcessEventChunk(processId, after);
+        chunk.setSeq(seq);
+        chunk.setGap(after < seq && (events.isEmpty() || events.getFirst().getSeq() > after + 1));
+
+        for (SequencedEvent event : events) {
+            if (event.getSeq() > after && (topic == null || topic.equals(event.getTopic()))) {
+                chunk.getEvents().add(event);
+            }
+        }
+
+        return chunk;
+    }
+
+    /**
+     * Gets latest sequence number.
+     * @return
+     */
+    public synchronized long getSeq() {
+        return seq;
+    }
+
+    /**
+     * Approximate memory used by event payload.
+     * @param payload
+     * @return
+     */
+    private static long getWeight(Object payload) {
+        Object text = null;
+        if (payload instanceof SocketEvent) {
+            text = ((SocketEvent) payload).getMsg();
+        } else if (payload instanceof Map) {
+            text = ((Map) payload).get("msg");
+        }
+
+        return text instanceof String ? DEFAULT_WEIGHT + ((String) text).length() * 2L : DEFAULT_WEIGHT;
+    }
+}
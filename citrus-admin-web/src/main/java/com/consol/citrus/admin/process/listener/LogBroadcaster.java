@@ -0,0 +1,221 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.listener;
+
+import com.consol.citrus.admin.Application;
+import com.consol.citrus.admin.configuration.SystemSettings;
+import com.consol.citrus.admin.model.SocketEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Broadcast stage for process log output on the log topics. Output chunks of a process are coalesced within
+ * a short window and published in frames with a limited number of bytes. Lifecycle events of a process flush pending
+ * output first so clients always see output and events in order.
+ *
+ * @author Christoph Deppisch
+ */
+@Component
+public class LogBroadcaster {
+
+    /** Default coalescing window in milliseconds and frame size in bytes */
+    private static final int DEFAULT_WINDOW = 100;
+    private static final int DEFAULT_FRAME_SIZE = 32 * 1024;
+
+    @Autowired
+    private SocketEventPublisher eventPublisher;
+
+    private int window = SystemSettings.getInt(Application.LOG_BROADCAST_WINDOW, Application.LOG_BROADCAST_WINDOW_ENV, DEFAULT_WINDOW);
+    private int frameSize = SystemSettings.getInt(Application.LOG_BROADCAST_FRAME_SIZE, Application.LOG_BROADCAST_FRAME_SIZE_ENV, DEFAULT_FRAME_SIZE);
+
+    /** Pending output per process */
+    private final Map<String, OutputBuffer> buffers = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "log-broadcast");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Adds process output. Output is published when the coalescing window has passed or a full frame is available.
+     * @param processId
+     * @param output
+     */
+    public void output(String processId, String output) {
+        OutputBuffer buffer = buffers.computeIfAbsent(processId, OutputBuffer::new);
+
+        synchronized (buffer) {
+            buffer.append(output);
+
+            if (buffer.bytes >= frameSize) {
+                buffer.flush();
+            } else if (buffer.flushTask == null) {
+                buffer.flushTask = scheduler.schedule(() -> flush(processId), window, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /**
+     * Publishes pending output of process followed by given event.
+     * @param processId
+     * @param event
+     */
+    public void send(String processId, SocketEvent event) {
+        OutputBuffer buffer = buffers.get(processId);
+        if (buffer == null) {
+            eventPublisher.publish(SocketEventPublisher.Topic.LOG, processId, event);
+            return;
+        }
+
+        synchronized (buffer) {
+            buffer.flush();
+            eventPublisher.publish(SocketEventPublisher.Topic.LOG, processId, event);
+        }
+    }
+
+    /**
+     * Publishes pending output of process.
+     * @param processId
+     */
+    public void flush(String processId) {
+        OutputBuffer buffer = buffers.get(processId);
+        if (buffer != null) {
+            synchronized (buffer) {
+                buffer.flush();
+            }
+        }
+    }
+
+    /**
+     * Publishes pending output and releases the output buffer of a finished process.
+     * @param processId
+     */
+    public void complete(String processId) {
+        OutputBuffer buffer = buffers.remove(processId);
+        if (buffer != null) {
+            synchronized (buffer) {
+                buffer.flush();
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Gets UTF-8 encoded length of char.
+     * @param c
+     * @return
+     */
+    private static int utf8Length(char c) {
+        if (c < 0x80) {
+            return 1;
+        } else if (c < 0x800) {
+            return 2;
+        } else if (Character.isSurrogate(c)) {
+            return 2; // four bytes per surrogate pair
+        } else {
+            return 3;
+        }
+    }
+
+    /**
+     * Sets the coalescing window in milliseconds.
+     *
+     * @param window
+     */
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    /**
+     * Sets the maximum number of bytes per frame.
+     *
+     * @param frameSize
+     */
+    public void setFrameSize(int frameSize) {
+        this.frameSize = frameSize;
+    }
+
+    /**
+     * Sets the eventPublisher.
+     *
+     * @param eventPublisher
+     */
+    public void setEventPublisher(SocketEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Pending output of a process. Must be used with buffer lock held.
+     */
+    private class OutputBuffer {
+        private final String processId;
+        private final StringBuilder data = new StringBuilder();
+        private int bytes = 0;
+        private ScheduledFuture<?> flushTask;
+
+        OutputBuffer(String processId) {
+            this.processId = processId;
+        }
+
+        void append(String output) {
+            data.append(output);
+            for (int i = 0; i < output.length(); i++) {
+                bytes += utf8Length(output.charAt(i));
+            }
+        }
+
+        /**
+         * Publishes pending output in frames not exceeding the frame size.
+         */
+        void flush() {
+            if (flushTask != null) {
+                flushTask.cancel(false);
+                flushTask = null;
+            }
+
+            int start = 0;
+            while (start < data.length()) {
+                int end = start;
+                int frameBytes = 0;
+                while (end < data.length() && (frameBytes + utf8Length(data.charAt(end)) <= frameSize || end == start)) {
+                    frameBytes += utf8Length(data.charAt(end));
+                    end++;
+                }
+
+                // never split surrogate pairs
+                if (end < data.length() && Character.isLowSurrogate(data.charAt(end)) && end - start > 1) {
+                    end--;
+                }
+
+                eventPublisher.publish(SocketEventPublisher.Topic.LOG, processId, SocketEvent.createEvent(processId, SocketEvent.EventType.LOG_MESSAGE, data.substring(start, end)));
+                start = end;
+            }
+
+            data.setLength(0);
+            bytes = 0;
+        }
+    }
+}
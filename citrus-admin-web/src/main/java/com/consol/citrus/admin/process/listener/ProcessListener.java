@@ -73,4 +73,26 @@ public interface ProcessListener {
      * @param output
      */
     void onProcessActivity(String processId, String output);
+
+    /**
+     * Invoked on process activity of a sub process whose events are published under the id of a parent process,
+     * e.g. a parallel test shard. Listeners keeping state per process use the sub process id to keep the output of
+     * concurrent sub processes apart. Delegates to {@link #onProcessActivity(String, String)} by default.
+     *
+     * @param processId the id of the parent process
+     * @param subProcessId the id of the sub process producing the output
+     * @param output
+     */
+    default void onSubProcessActivity(String processId, String subProcessId, String output) {
+        onProcessActivity(processId, output);
+    }
+
+    /**
+     * Invoked when a sub process of given parent process has completed.
+     *
+     * @param processId the id of the parent process
+     * @param subProcessId the id of the completed sub process
+     */
+    default void onSubProcessComplete(String processId, String subProcessId) {
+    }
 }
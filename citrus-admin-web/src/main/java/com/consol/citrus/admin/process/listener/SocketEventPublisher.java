@@ -0,0 +1,272 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.listener;
+
+import com.consol.citrus.admin.Application;
+import com.consol.citrus.admin.configuration.SystemSettings;
+import com.consol.citrus.admin.model.ProcessEventChunk;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes process related socket events to per process destinations such as
+ * <code>/topic/process/{id}/log</code> so clients only receive events of the processes they display. Global topics
+ * such as <code>/topic/log-output</code> receive all events as aggregate unless disabled.
+ *
+ * Process events carry a process wide sequence number in the <code>seq</code> header and the sequence number of the
+ * previous event on the same topic in the <code>prev</code> header, so clients are able to restore the event order
+ * per destination. Sequence numbers restart with the next run once a process has completed. Late events published
+ * shortly after completion, e.g. buffered log output or connector messages, continue the sequence of the completed
+ * run. Latest events of recent processes are kept in replay buffers so reconnecting clients are able to fetch the
+ * events they have missed.
+ *
+ * @author Christoph Deppisch
+ */
+@Component
+public class SocketEventPublisher {
+
+    public static final String TOPIC_PROCESS_PREFIX = "/topic/process/";
+
+    /** Message header holding the event sequence number */
+    public static final String SEQUENCE_HEADER = "seq";
+
+    /** Message header holding the sequence number of the previous event on the same topic, zero for the first event */
+    public static final String PREVIOUS_HEADER = "prev";
+
+    /** Default number of replay events per process */
+    private static final int DEFAULT_REPLAY_SIZE = 1000;
+
+    /** Maximum approximate payload size of replay events per process and number of processes with replay buffer */
+    private static final long MAX_REPLAY_BYTES = 4 * 1024 * 1024;
+    private static final int MAX_REPLAY_PROCESSES = 16;
+
+    /** Time in milliseconds late events continue the sequence of a completed process */
+    private static final long DEFAULT_COMPLETED_RETENTION = 60000L;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    private int replaySize = SystemSettings.getInt(Application.SOCKET_REPLAY_SIZE, Application.SOCKET_REPLAY_SIZE_ENV, DEFAULT_REPLAY_SIZE);
+
+    /** Replay buffers of most recently active processes, guarded by itself */
+    private final Map<String, EventReplayBuffer> replayBuffers = new LinkedHashMap<String, EventReplayBuffer>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, EventReplayBuffer> eldest) {
+            return size() > MAX_REPLAY_PROCESSES;
+        }
+    };
+
+    /** Sequence counters of running and recently completed processes, kept apart from the evictable replay buffers */
+    private final Map<String, EventSequence> sequences = new ConcurrentHashMap<>();
+    private long completedRetention = DEFAULT_COMPLETED_RETENTION;
+
+    /** Publish events to global aggregate topics, too */
+    private boolean aggregate = SystemSettings.getBoolean(Application.SOCKET_AGGREGATE_TOPICS, Application.SOCKET_AGGREGATE_TOPICS_ENV, true);
+
+    /**
+     * Publishes event to destination of given process and to the aggregate topic. Events without process id are
+     * published to the aggregate topic only and are not sequenced.
+     * @param topic
+     * @param processId
+     * @param payload
+     */
+    public void publish(Topic topic, String processId, Object payload) {
+        if (!StringUtils.hasText(processId)) {
+            messagingTemplate.convertAndSend(topic.getAggregate(), payload);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        EventSequence sequence = sequences.compute(processId, (id, current) ->
+                current == null || current.isExpired(now, completedRetention) ? new EventSequence() : current);
+
+        // hold sequence lock while sending so events are handed to the broker in sequence order, the client outbound
+        // channel may still deliver frames out of order so clients reorder events using the previous sequence number
+        synchronized (sequence) {
+            long seq = ++sequence.seq;
+            Long previous = sequence.previous.put(topic, seq);
+            getReplayBuffer(processId, seq == 1L).add(seq, topic.getName(), payload);
+
+            Map<String, Object> headers = new HashMap<>();
+            headers.put(SEQUENCE_HEADER, String.valueOf(seq));
+            headers.put(PREVIOUS_HEADER, String.valueOf(previous != null ? previous : 0L));
+
+            messagingTemplate.convertAndSend(topic.getDestination(processId), payload, headers);
+            if (aggregate) {
+                messagingTemplate.convertAndSend(topic.getAggregate(), payload, headers);
+            }
+        }
+    }
+
+    /**
+     * Marks process as completed. Events published within the completed retention time continue the sequence, later
+     * events start a new run of the process with a new sequence. Replay events are kept until the next run starts.
+     * @param processId
+     */
+    public void complete(String processId) {
+        long now = System.currentTimeMillis();
+        Optional.ofNullable(sequences.get(processId)).ifPresent(sequence -> sequence.completed = now);
+        sequences.values().removeIf(sequence -> sequence.isExpired(now, completedRetention));
+    }
+
+    /**
+     * Gets events of process published after given sequence number.
+     * @param processId
+     * @param topic topic name or null for all topics
+     * @param after
+     * @return
+     */
+    public Optional<ProcessEventChunk> getEvents(String processId, String topic, long after) {
+        EventReplayBuffer replayBuffer;
+        synchronized (replayBuffers) {
+            replayBuffer = replayBuffers.get(processId);
+        }
+
+        return Optional.ofNullable(replayBuffer).map(buffer -> buffer.getEvents(topic, after));
+    }
+
+    /**
+     * Gets replay buffer of process. Creates new buffer when missing or when a new run of the process starts.
+     * @param processId
+     * @param newRun
+     * @return
+     */
+    private EventReplayBuffer getReplayBuffer(String processId, boolean newRun) {
+        synchronized (replayBuffers) {
+            if (newRun) {
+                replayBuffers.remove(processId);
+            }
+
+            return replayBuffers.computeIfAbsent(processId, id -> new EventReplayBuffer(id, replaySize, MAX_REPLAY_BYTES));
+        }
+    }
+
+    /**
+     * Sets the number of replay events per process.
+     *
+     * @param replaySize
+     */
+    public void setReplaySize(int replaySize) {
+        this.replaySize = replaySize;
+    }
+
+    /**
+     * Sets the time in milliseconds late events continue the sequence of a completed process.
+     *
+     * @param completedRetention
+     */
+    public void setCompletedRetention(long completedRetention) {
+        this.completedRetention = completedRetention;
+    }
+
+    /**
+     * Sets the aggregate.
+     *
+     * @param aggregate
+     */
+    public void setAggregate(boolean aggregate) {
+        this.aggregate = aggregate;
+    }
+
+    /**
+     * Sets the messagingTemplate.
+     *
+     * @param messagingTemplate
+     */
+    public void setMessagingTemplate(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    /**
+     * Latest sequence number of a process overall and per topic.
+     */
+    private static class EventSequence {
+        private long seq = 0L;
+        private final Map<Topic, Long> previous = new EnumMap<>(Topic.class);
+
+        /** Completion time of the process, zero while running */
+        private volatile long completed = 0L;
+
+        /**
+         * Checks if process has completed longer than given retention time ago.
+         * @param now
+         * @param retention
+         * @return
+         */
+        boolean isExpired(long now, long retention) {
+            return completed > 0L && now - completed >= retention;
+        }
+    }
+
+    /**
+     * Socket event topics with per process destination name and global aggregate topic.
+     */
+    public enum Topic {
+        LOG("log", "/topic/log-output"),
+        EVENTS("events", "/topic/test-events"),
+        MESSAGES("messages", "/topic/messages"),
+        RESULTS("results", "/topic/results");
+
+        private final String name;
+        private final String aggregate;
+
+        Topic(String name, String aggregate) {
+            this.name = name;
+            this.aggregate = aggregate;
+        }
+
+        /**
+         * Gets the topic name used in per process destinations.
+         * @return
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets destination of this topic for given process.
+         * @param processId
+         * @return
+         */
+        public String getDestination(String processId) {
+            return TOPIC_PROCESS_PREFIX + processId + "/" + name;
+        }
+
+        /**
+         * Checks if destination is the aggregate topic or a process destination of this topic.
+         * @param destination
+         * @return
+         */
+        public boolean matches(String destination) {
+            return destination != null && (destination.equals(aggregate) ||
+                    (destination.startsWith(TOPIC_PROCESS_PREFIX) && destination.endsWith("/" + name)));
+        }
+
+        /**
+         * Gets the global aggregate topic.
+         * @return
+         */
+        public String getAggregate() {
+            return aggregate;
+        }
+    }
+}
@@ -18,86 +18,114 @@ package com.consol.citrus.admin.process.listener;
 
 import com.consol.citrus.admin.exception.ApplicationRuntimeException;
 import com.consol.citrus.admin.model.*;
+import com.consol.citrus.admin.process.log.LogLineClassifier;
+import com.consol.citrus.admin.process.log.LogLineClassifier.LogLine;
+import com.consol.citrus.admin.process.log.LogLineClassifier.Pattern;
+import com.consol.citrus.admin.process.message.MessageStore;
+import com.consol.citrus.admin.process.stats.ProcessStatsRegistry;
 import com.consol.citrus.admin.service.ProjectService;
 import net.minidev.json.JSONObject;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * @author Christoph Deppisch
  */
 @Component
 public class WebSocketProcessListener extends AbstractProcessListener {
 
-    private static final String TOPIC_LOG_OUTPUT = "/topic/log-output";
-    private static final String TOPIC_TEST_EVENTS = "/topic/test-events";
-    private static final String TOPIC_MESSAGES = "/topic/messages";
-    private static final String TOPIC_TEST_RESULTS = "/topic/results";
-
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private SocketEventPublisher eventPublisher;
 
     @Autowired
     private ProjectService projectService;
 
-    /** Last message data collected by multiple lines of process output */
-    private JSONObject messageEvent;
+    @Autowired
+    private ProcessStatsRegistry statsRegistry;
+
+    @Autowired
+    private LogBroadcaster logBroadcaster;
+
+    @Autowired
+    private MessageStore messageStore;
+
+    /** Output parser state per running process or sub process */
+    private final Map<String, OutputParser> parsers = new ConcurrentHashMap<>();
 
     @Override
     public void onProcessActivity(String processId, String output) {
-        // first check if we have a pending message data event to handle
-        if (messageEvent != null) {
-            if (isProcessOutputLine(output)) {
-                // message data collecting is obviously finished so push event now
-                messagingTemplate.convertAndSend(TOPIC_MESSAGES, messageEvent);
-                messageEvent = null; // reset data event storage
-            } else {
-                // collect another line of message data
-                messageEvent.put("msg", messageEvent.get("msg") + System.getProperty("line.separator") + output);
-            }
+        handleActivity(parsers.computeIfAbsent(processId, OutputParser::new), output);
+    }
+
+    @Override
+    public void onSubProcessActivity(String processId, String subProcessId, String output) {
+        handleActivity(parsers.computeIfAbsent(subProcessId, id -> new OutputParser(processId)), output);
+    }
+
+    @Override
+    public void onSubProcessComplete(String processId, String subProcessId) {
+        OutputParser parser = parsers.remove(subProcessId);
+        if (parser != null) {
+            parser.flush();
         }
+    }
+
+    /**
+     * Parses activity line with given parser state and publishes test and message events.
+     * @param parser
+     * @param output
+     */
+    private void handleActivity(OutputParser parser, String output) {
+        LogLine line = LogLineClassifier.classify(output);
 
-        if (!projectService.getActiveProject().getSettings().isUseConnector() ||
-                (projectService.getActiveProject().getSettings().isUseConnector() &&
-                !projectService.getActiveProject().getSettings().isConnectorActive())) {
-            handleTestEvent(processId, output);
-            handleMessageEvent(processId, output);
+        // first check if we have a pending message data event to handle
+        parser.collect(line);
+
+        ProjectSettings settings = projectService.getActiveProject().getSettings();
+        if (!settings.isUseConnector() || !settings.isConnectorActive()) {
+            handleTestEvent(parser.processId, line);
+            parser.handleMessageEvent(line);
         }
     }
 
-    private void handleTestEvent(String processId, String output) {
-        if (output.contains("STARTING TEST")) {
-            messagingTemplate.convertAndSend(TOPIC_TEST_EVENTS, SocketEvent.createEvent(processId, SocketEvent.EventType.TEST_START, output));
-        } else if (output.contains("TEST SUCCESS")) {
-            messagingTemplate.convertAndSend(TOPIC_TEST_EVENTS, SocketEvent.createEvent(processId, SocketEvent.EventType.TEST_SUCCESS, output));
-            messagingTemplate.convertAndSend(TOPIC_TEST_RESULTS, getTestResult(processId, output, TestStatus.PASS));
-        } else if (output.contains("TEST FAILED")) {
-            messagingTemplate.convertAndSend(TOPIC_TEST_EVENTS, SocketEvent.createEvent(processId, SocketEvent.EventType.TEST_FAILED, output));
-            messagingTemplate.convertAndSend(TOPIC_TEST_RESULTS, getTestResult(processId, output, TestStatus.FAIL));
-        }  else if (output.contains("SKIPPING TEST")) {
-            messagingTemplate.convertAndSend(TOPIC_TEST_EVENTS, SocketEvent.createEvent(processId, SocketEvent.EventType.TEST_SKIP, output));
-            messagingTemplate.convertAndSend(TOPIC_TEST_RESULTS, getTestResult(processId, output, TestStatus.SKIP));
-        } else if (output.contains("TEST STEP") && output.contains("SUCCESS")) {
-            String actionIndex = output.substring(output.indexOf("TEST STEP") + 9, (output.indexOf("SUCCESS") - 1));
+    private void handleTestEvent(String processId, LogLine line) {
+        String output = line.getLine();
+        if (line.contains(Pattern.STARTING_TEST)) {
+            eventPublisher.publish(SocketEventPublisher.Topic.EVENTS, processId, SocketEvent.createEvent(processId, SocketEvent.EventType.TEST_START, output));
+        } else if (line.contains(Pattern.TEST_SUCCESS)) {
+            eventPublisher.publish(SocketEventPublisher.Topic.EVENTS, processId, SocketEvent.createEvent(processId, SocketEvent.EventType.TEST_SUCCESS, output));
+            eventPublisher.publish(SocketEventPublisher.Topic.RESULTS, processId, getTestResult(processId, line, TestStatus.PASS));
+        } else if (line.contains(Pattern.TEST_FAILED)) {
+            eventPublisher.publish(SocketEventPublisher.Topic.EVENTS, processId, SocketEvent.createEvent(processId, SocketEvent.EventType.TEST_FAILED, output));
+            eventPublisher.publish(SocketEventPublisher.Topic.RESULTS, processId, getTestResult(processId, line, TestStatus.FAIL));
+        }  else if (line.contains(Pattern.SKIPPING_TEST)) {
+            eventPublisher.publish(SocketEventPublisher.Topic.EVENTS, processId, SocketEvent.createEvent(processId, SocketEvent.EventType.TEST_SKIP, output));
+            eventPublisher.publish(SocketEventPublisher.Topic.RESULTS, processId, getTestResult(processId, line, TestStatus.SKIP));
+        } else if (line.contains(Pattern.TEST_STEP) && line.contains(Pattern.SUCCESS)) {
+            String actionIndex = output.substring(line.endOf(Pattern.TEST_STEP), line.indexOf(Pattern.SUCCESS) - 1);
             SocketEvent event = SocketEvent.createEvent(processId, SocketEvent.EventType.TEST_ACTION_FINISH,
                     "TEST ACTION " + actionIndex.trim());
-            messagingTemplate.convertAndSend(TOPIC_TEST_EVENTS, event);
+            eventPublisher.publish(SocketEventPublisher.Topic.EVENTS, processId, event);
         }
     }
 
-    private TestResult getTestResult(String processId, String output, TestStatus status) {
-        String lineMarker;
+    private TestResult getTestResult(String processId, LogLine line, TestStatus status) {
+        String output = line.getLine();
+        Pattern lineMarker;
         String packageMarker;
         if (status.equals(TestStatus.PASS)) {
-            lineMarker =  "TEST SUCCESS";
+            lineMarker =  Pattern.TEST_SUCCESS;
             packageMarker =  "()";
         } else if (status.equals(TestStatus.FAIL)) {
-            lineMarker =  "TEST FAILED";
+            lineMarker =  Pattern.TEST_FAILED;
             packageMarker =  "<>";
         } else if (status.equals(TestStatus.SKIP)) {
-            lineMarker =  "SKIPPING TEST";
+            lineMarker =  Pattern.SKIPPING_TEST;
             packageMarker =  null;
         } else {
             throw new ApplicationRuntimeException("Unsupported test status: " + status);
@@ -106,10 +134,10 @@ public class WebSocketProcessListener extends AbstractProcessListener {
         String testName;
         String testPackage;
         if (StringUtils.hasText(packageMarker)) {
-            testName = output.substring(output.indexOf(lineMarker) + lineMarker.length(), output.indexOf(packageMarker.charAt(0))).trim();
+            testName = output.substring(line.endOf(lineMarker), output.indexOf(packageMarker.charAt(0))).trim();
             testPackage = output.substring(output.indexOf(packageMarker.charAt(0)) + 1, output.indexOf(packageMarker.charAt(1))).trim();
         } else {
-            testName = output.substring(output.indexOf(lineMarker) + lineMarker.length()).trim();
+            testName = output.substring(line.endOf(lineMarker)).trim();
             testPackage = "";
         }
 
@@ -125,45 +153,136 @@ public class WebSocketProcessListener extends AbstractProcessListener {
         return result;
     }
 
-    private void handleMessageEvent(String processId, String output) {
-        if (output.contains("Logger.Message_OUT")) {
-            messageEvent = MessageEvent.createEvent(processId, MessageEvent.OUTBOUND, output.substring(output.indexOf("Logger.Message_OUT") + 20));
-        } else if (output.contains("Logger.Message_IN")) {
-            messageEvent = MessageEvent.createEvent(processId, MessageEvent.INBOUND, output.substring(output.indexOf("Logger.Message_IN") + 19));
-        }
-    }
-
     @Override
     public void onProcessOutput(String processId, String output) {
-        messagingTemplate.convertAndSend(TOPIC_LOG_OUTPUT, SocketEvent.createEvent(processId, SocketEvent.EventType.LOG_MESSAGE, output));
+        logBroadcaster.output(processId, output);
     }
 
     @Override
     public void onProcessStart(String processId) {
-        messagingTemplate.convertAndSend(TOPIC_LOG_OUTPUT, SocketEvent.createEvent(processId, SocketEvent.EventType.PROCESS_START, "process started" + System.lineSeparator()));
+        logBroadcaster.send(processId, SocketEvent.createEvent(processId, SocketEvent.EventType.PROCESS_START, "process started" + System.lineSeparator()));
     }
 
     @Override
     public void onProcessSuccess(String processId) {
-        messagingTemplate.convertAndSend(TOPIC_LOG_OUTPUT, SocketEvent.createEvent(processId, SocketEvent.EventType.PROCESS_SUCCESS, "process completed successfully" + System.lineSeparator()));
+        complete(processId);
+        logBroadcaster.send(processId, SocketEvent.createEvent(processId, SocketEvent.EventType.PROCESS_SUCCESS, "process completed successfully" + System.lineSeparator()));
+        sendStats(processId);
     }
 
     @Override
     public void onProcessFail(String processId, int exitCode) {
-        messagingTemplate.convertAndSend(TOPIC_LOG_OUTPUT, SocketEvent.createEvent(processId, SocketEvent.EventType.PROCESS_FAILED, "process failed with exit code " + exitCode + System.lineSeparator()));
+        complete(processId);
+        logBroadcaster.send(processId, SocketEvent.createEvent(processId, SocketEvent.EventType.PROCESS_FAILED, "process failed with exit code " + exitCode + System.lineSeparator()));
+        sendStats(processId);
     }
 
     @Override
     public void onProcessFail(String processId, Throwable e) {
-        messagingTemplate.convertAndSend(TOPIC_LOG_OUTPUT, SocketEvent.createEvent(processId, SocketEvent.EventType.PROCESS_FAILED, "process failed with exception " + e.getLocalizedMessage() + System.lineSeparator()));
+        complete(processId);
+        logBroadcaster.send(processId, SocketEvent.createEvent(processId, SocketEvent.EventType.PROCESS_FAILED, "process failed with exception " + e.getLocalizedMessage() + System.lineSeparator()));
+        sendStats(processId);
     }
 
     /**
-     * Checks if output line is normal log output in log4j format.
-     * @param output the output to check
-     * @return true if normal log4j output
+     * Sends resource usage summary when process has finished and releases the log output buffer and event sequence
+     * of the process.
+     * @param processId
      */
-    private boolean isProcessOutputLine(String output) {
-        return output.contains("INFO") || output.contains("DEBUG") || output.contains("ERROR") || output.contains("WARN") || output.contains("TRACE");
+    private void sendStats(String processId) {
+        statsRegistry.getProcessStats(processId)
+                .filter(ProcessStats::isComplete)
+                .ifPresent(stats -> logBroadcaster.send(processId, SocketEvent.createEvent(processId, SocketEvent.EventType.PROCESS_STATS, stats.getSummary() + System.lineSeparator())));
+        logBroadcaster.complete(processId);
+        eventPublisher.complete(processId);
+    }
+
+    /**
+     * Removes parser state of completed process and its sub processes and pushes pending message data events.
+     * @param processId
+     */
+    private void complete(String processId) {
+        for (Iterator<OutputParser> it = parsers.values().iterator(); it.hasNext(); ) {
+            OutputParser parser = it.next();
+            if (parser.processId.equals(processId)) {
+                it.remove();
+                parser.flush();
+            }
+        }
+    }
+
+    /**
+     * Parser state machine for the output of a single process or sub process. Collects multi line message data events
+     * until normal log output follows. Events are published using the given process id.
+     */
+    private class OutputParser {
+        private final String processId;
+
+        private State state = State.IDLE;
+
+        /** Name of the currently running test */
+        private String testName;
+
+        /** Last message data collected by multiple lines of process output */
+        private JSONObject messageEvent;
+
+        OutputParser(String processId) {
+            this.processId = processId;
+        }
+
+        /**
+         * Adds line to pending message data event or pushes the event when message data collecting is finished.
+         * @param line
+         */
+        void collect(LogLine line) {
+            if (state != State.COLLECTING_MESSAGE) {
+                return;
+            }
+
+            if (line.isLogOutput()) {
+                // message data collecting is obviously finished so push event now
+                flush();
+            } else {
+                // collect another line of message data
+                messageEvent.put("msg", messageEvent.get("msg") + System.getProperty("line.separator") + line.getLine());
+            }
+        }
+
+        /**
+         * Pushes pending message data event.
+         */
+        void flush() {
+            if (state == State.COLLECTING_MESSAGE) {
+                eventPublisher.publish(SocketEventPublisher.Topic.MESSAGES, processId, messageStore.createEvent(processId,
+                        testName != null ? testName : processId, MessageEvent.valueOf((String) messageEvent.get("type")),
+                        (String) messageEvent.get("msg"), false, 0L));
+                messageEvent = null;
+                state = State.IDLE;
+            }
+        }
+
+        /**
+         * Starts collecting new message data event when line marks inbound or outbound message. Remembers the name
+         * of the running test so collected messages can be archived per test.
+         * @param line
+         */
+        void handleMessageEvent(LogLine line) {
+            if (line.contains(Pattern.STARTING_TEST)) {
+                String name = line.getLine().substring(line.endOf(Pattern.STARTING_TEST));
+                testName = (name.indexOf('<') > 0 ? name.substring(0, name.indexOf('<')) : name).trim();
+            } else if (line.contains(Pattern.MESSAGE_OUT)) {
+                messageEvent = MessageEvent.createEvent(processId, MessageEvent.OUTBOUND, line.getLine().substring(line.endOf(Pattern.MESSAGE_OUT) + 2));
+                state = State.COLLECTING_MESSAGE;
+            } else if (line.contains(Pattern.MESSAGE_IN)) {
+                messageEvent = MessageEvent.createEvent(processId, MessageEvent.INBOUND, line.getLine().substring(line.endOf(Pattern.MESSAGE_IN) + 2));
+                state = State.COLLECTING_MESSAGE;
+            }
+        }
+    }
+
+    /** Output parser states */
+    private enum State {
+        IDLE,
+        COLLECTING_MESSAGE
     }
 }
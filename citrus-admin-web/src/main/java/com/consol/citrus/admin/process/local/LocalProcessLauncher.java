@@ -18,13 +18,17 @@ package com.consol.citrus.admin.process.local;
 
 import com.consol.citrus.admin.exception.ApplicationRuntimeException;
 import com.consol.citrus.admin.process.*;
+import com.consol.citrus.admin.process.event.ProcessEventExecutor;
 import com.consol.citrus.admin.process.listener.ProcessListener;
+import com.consol.citrus.admin.process.stats.ProcessResourceMonitor;
+import com.consol.citrus.admin.process.stats.ProcessStatsRegistry;
 import com.consol.citrus.admin.service.command.TerminalCommand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * @author Martin.Maher@consol.de
@@ -34,18 +38,34 @@ public class LocalProcessLauncher extends AbstractProcessLauncher {
     /** Logger */
     private static final Logger LOG = LoggerFactory.getLogger(LocalProcessLauncher.class);
 
-    private ExecutorService executorService = Executors.newFixedThreadPool(5);
+    /** Time in seconds synchronous launches wait for listeners to handle pending process events */
+    private static final long EVENT_DELIVERY_TIMEOUT = 30L;
+
+    /** Time in seconds synchronous launches wait for remaining process output after the process has exited */
+    private static final long OUTPUT_DRAIN_TIMEOUT = 5L;
 
     private Process process;
     private InputStreamPumper pumper;
+    private ProcessResourceMonitor resourceMonitor;
+
+    /** Resource accounting and process tree termination */
+    private final ProcessStatsRegistry statsRegistry;
+    private final ProcessTreeTerminator treeTerminator;
 
     /**
      * Default constructor.
      * @param processMonitor
+     * @param processExecutor
+     * @param eventExecutor
+     * @param statsRegistry
+     * @param treeTerminator
      * @param processId
      */
-    public LocalProcessLauncher(ProcessMonitor processMonitor, String processId) {
-        super(processMonitor, processId);
+    public LocalProcessLauncher(ProcessMonitor processMonitor, ProcessExecutor processExecutor, ProcessEventExecutor eventExecutor,
+                                ProcessStatsRegistry statsRegistry, ProcessTreeTerminator treeTerminator, String processId) {
+        super(processMonitor, processExecutor, eventExecutor, processId);
+        this.statsRegistry = statsRegistry;
+        this.treeTerminator = treeTerminator;
     }
 
     @Override
@@ -89,23 +109,16 @@ public class LocalProcessLauncher extends AbstractProcessLauncher {
 
             startProcessMonitoring();
             process = processBuilder.start();
+            resourceMonitor = statsRegistry.monitorResources(getProcessId(), process, String.join(" ", processBuilder.command()));
 
-            pumper = new InputStreamPumper(process.getInputStream()) {
-                @Override
-                public void onActivity(String line) {
-                    notifyActivity(line);
-                }
-
-                @Override
-                public void onOutput(String data) {
-                    notifyOutput(data);
-                }
-            };
-            executorService.submit(pumper);
+            pumper = createPumper();
+            Future<?> pumping = processExecutor.pump(pumper);
 
             if (timeout > 0 && process.waitFor(timeout, TimeUnit.SECONDS)) {
                 int result = process.exitValue();
                 LOG.info("Process completed: " + result);
+                resourceMonitor.complete(result);
+                awaitOutput(pumping);
 
                 if (result == 0) {
                     notifySuccess();
@@ -115,6 +128,8 @@ public class LocalProcessLauncher extends AbstractProcessLauncher {
             } else if (timeout <= 0) {
                 int result = process.waitFor();
                 LOG.info("Process completed: " + result);
+                resourceMonitor.complete(result);
+                awaitOutput(pumping);
 
                 if (result == 0) {
                     notifySuccess();
@@ -123,12 +138,14 @@ public class LocalProcessLauncher extends AbstractProcessLauncher {
                 }
             } else {
                 LOG.info("Process timeout!");
+                resourceMonitor.complete(null);
                 throw new TimeoutException(String.format("Process did not return after %s seconds", timeout));
             }
         } catch (Exception e) {
             notifyFail(e);
         } finally {
             stop();
+            awaitEventDelivery(EVENT_DELIVERY_TIMEOUT, TimeUnit.SECONDS);
         }
     }
 
@@ -145,72 +162,112 @@ public class LocalProcessLauncher extends AbstractProcessLauncher {
 
             startProcessMonitoring();
             process = processBuilder.start();
+            resourceMonitor = statsRegistry.monitorResources(getProcessId(), process, String.join(" ", processBuilder.command()));
 
-            pumper = new InputStreamPumper(process.getInputStream()) {
-                @Override
-                public void onActivity(String line) {
-                    notifyActivity(line);
-                }
+            pumper = createPumper();
 
-                @Override
-                public void onOutput(String data) {
-                    notifyOutput(data);
+            AtomicBoolean completed = new AtomicBoolean(false);
+            ScheduledFuture<?> timeoutTask = timeout > 0 ? processExecutor.schedule(() -> {
+                if (completed.compareAndSet(false, true)) {
+                    LOG.info("Process timeout!");
+                    resourceMonitor.complete(null);
+                    notifyFail(new TimeoutException(String.format("Process did not return after %s seconds", timeout)));
                 }
-            };
-            executorService.submit(pumper);
+            }, timeout, TimeUnit.SECONDS) : null;
 
-            executorService.submit(() -> {
+            processExecutor.pump(pumper, () -> {
                 try {
-                    if (timeout > 0 && process.waitFor(timeout, TimeUnit.SECONDS)) {
-                        int result = process.exitValue();
-                        LOG.info("Process completed: " + result);
+                    int result = process.waitFor();
 
-                        if (result == 0) {
-                            notifySuccess();
-                        } else {
-                            notifyFail(process.exitValue());
-                        }
-                    } else if (timeout <= 0) {
-                        int result = process.waitFor();
+                    if (completed.compareAndSet(false, true)) {
                         LOG.info("Process completed: " + result);
+                        resourceMonitor.complete(result);
 
                         if (result == 0) {
                             notifySuccess();
                         } else {
-                            notifyFail(process.exitValue());
+                            notifyFail(result);
                         }
-                    } else {
-                        LOG.info("Process timeout!");
-                        notifyFail(new TimeoutException(String.format("Process did not return after %s seconds", timeout)));
                     }
                 } catch (InterruptedException e) {
-                    notifyFail(e);
+                    if (completed.compareAndSet(false, true)) {
+                        resourceMonitor.complete(null);
+                        notifyFail(e);
+                    }
+                } finally {
+                    // also reached for processes exceeding the timeout once they have terminated
+                    processExecutor.finished(getProcessId());
+
+                    if (timeoutTask != null) {
+                        timeoutTask.cancel(false);
+                    }
                 }
             });
         } catch (Exception e) {
+            processExecutor.finished(getProcessId());
             notifyFail(e);
         }
     }
 
+    /**
+     * Waits for input stream pumper to read and publish remaining output of the exited process before completion
+     * is notified and the pumper gets closed. Child processes still holding the output pipe limit the wait to the
+     * output drain timeout.
+     * @param pumping
+     * @throws InterruptedException
+     */
+    private void awaitOutput(Future<?> pumping) throws InterruptedException {
+        try {
+            pumping.get(OUTPUT_DRAIN_TIMEOUT, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            LOG.warn(String.format("Process output not consumed within %s seconds after process exit", OUTPUT_DRAIN_TIMEOUT));
+        } catch (ExecutionException e) {
+            LOG.warn("Failed to consume process output", e);
+        }
+    }
+
+    /**
+     * Creates input stream pumper forwarding process output to listeners.
+     * @return
+     */
+    private InputStreamPumper createPumper() {
+        return new InputStreamPumper(process.getInputStream()) {
+            @Override
+            public void onActivity(String line) {
+                notifyActivity(line);
+            }
+
+            @Override
+            public void onOutput(String data) {
+                notifyOutput(data);
+            }
+        };
+    }
+
     @Override
     public void stop() {
         super.stop();
 
-        if (pumper != null) {
+        if (process != null) {
             try {
-                pumper.close();
+                // terminate whole process tree first so no child process is left holding the output pipe
+                treeTerminator.terminate(process);
             } catch (Exception e) {
                 // ignore
-                LOG.warn("Error destroying input stream pumper", e);
+                LOG.warn("Error destroying process", e);
             }
         }
 
-        if (process != null) {
+        if (resourceMonitor != null) {
+            resourceMonitor.complete(null);
+        }
+
+        if (pumper != null) {
             try {
-                process.destroy();
+                pumper.close();
             } catch (Exception e) {
                 // ignore
-                LOG.warn("Error destroying process", e);
+                LOG.warn("Error destroying input stream pumper", e);
             }
         }
     }
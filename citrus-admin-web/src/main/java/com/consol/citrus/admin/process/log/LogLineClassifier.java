@@ -0,0 +1,243 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.log;
+
+import java.util.*;
+
+/**
+ * Classifies process output lines by searching all known test, message and log level markers in a single scan. The
+ * markers are compiled once into an Aho-Corasick automaton with a dense transition table, so classifying a line costs
+ * one table lookup per character regardless of the number of markers.
+ *
+ * @author Christoph Deppisch
+ */
+public final class LogLineClassifier {
+
+    /** Markers searched in process output lines */
+    public enum Pattern {
+        STARTING_TEST("STARTING TEST"),
+        TEST_SUCCESS("TEST SUCCESS"),
+        TEST_FAILED("TEST FAILED"),
+        SKIPPING_TEST("SKIPPING TEST"),
+        TEST_STEP("TEST STEP"),
+        SUCCESS("SUCCESS"),
+        MESSAGE_OUT("Logger.Message_OUT"),
+        MESSAGE_IN("Logger.Message_IN"),
+        INFO("INFO"),
+        DEBUG("DEBUG"),
+        ERROR("ERROR"),
+        WARN("WARN"),
+        TRACE("TRACE");
+
+        private final String marker;
+
+        Pattern(String marker) {
+            this.marker = marker;
+        }
+
+        /**
+         * Gets the marker.
+         *
+         * @return
+         */
+        public String getMarker() {
+            return marker;
+        }
+    }
+
+    private static final Pattern[] PATTERNS = Pattern.values();
+
+    /** Log level markers identifying normal log output */
+    private static final long LOG_LEVELS = mask(Pattern.INFO, Pattern.DEBUG, Pattern.ERROR, Pattern.WARN, Pattern.TRACE);
+
+    /** Markers are ASCII only so other characters always lead back to the root state */
+    private static final int ALPHABET = 128;
+
+    private static final LogLineClassifier INSTANCE = new LogLineClassifier();
+
+    /** Automaton transitions and patterns matched in each state */
+    private final int[][] transitions;
+    private final long[] matches;
+
+    /**
+     * Compiles all patterns into automaton.
+     */
+    private LogLineClassifier() {
+        List<int[]> gotos = new ArrayList<>();
+        List<Long> outputs = new ArrayList<>();
+        gotos.add(newState());
+        outputs.add(0L);
+
+        for (Pattern pattern : PATTERNS) {
+            int state = 0;
+            for (char c : pattern.getMarker().toCharArray()) {
+                if (gotos.get(state)[c] < 0) {
+                    gotos.get(state)[c] = gotos.size();
+                    gotos.add(newState());
+                    outputs.add(0L);
+                }
+                state = gotos.get(state)[c];
+            }
+            outputs.set(state, outputs.get(state) | mask(pattern));
+        }
+
+        transitions = new int[gotos.size()][];
+        matches = new long[gotos.size()];
+        int[] failure = new int[gotos.size()];
+
+        Deque<Integer> queue = new ArrayDeque<>();
+        transitions[0] = gotos.get(0);
+        for (int c = 0; c < ALPHABET; c++) {
+            if (transitions[0][c] < 0) {
+                transitions[0][c] = 0;
+            } else {
+                queue.add(transitions[0][c]);
+            }
+        }
+
+        // breadth first so failure states are complete before they are used
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            transitions[state] = gotos.get(state);
+            matches[state] = outputs.get(state) | matches[failure[state]];
+
+            for (int c = 0; c < ALPHABET; c++) {
+                int next = transitions[state][c];
+                if (next < 0) {
+                    transitions[state][c] = transitions[failure[state]][c];
+                } else {
+                    failure[next] = transitions[failure[state]][c];
+                    queue.add(next);
+                }
+            }
+        }
+    }
+
+    /**
+     * Classifies given output line.
+     * @param line
+     * @return
+     */
+    public static LogLine classify(String line) {
+        return INSTANCE.scan(line);
+    }
+
+    /**
+     * Runs automaton on line and records first position of each pattern.
+     * @param line
+     * @return
+     */
+    private LogLine scan(String line) {
+        int[] positions = null;
+        long found = 0L;
+        int state = 0;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            state = c < ALPHABET ? transitions[state][c] : 0;
+
+            long matched = matches[state] & ~found;
+            if (matched != 0L) {
+                if (positions == null) {
+                    positions = new int[PATTERNS.length];
+                }
+
+                for (Pattern pattern : PATTERNS) {
+                    if ((matched & mask(pattern)) != 0L) {
+                        positions[pattern.ordinal()] = i - pattern.getMarker().length() + 1;
+                    }
+                }
+                found |= matched;
+            }
+        }
+
+        return new LogLine(line, found, positions);
+    }
+
+    private static int[] newState() {
+        int[] state = new int[ALPHABET];
+        Arrays.fill(state, -1);
+        return state;
+    }
+
+    private static long mask(Pattern ... patterns) {
+        long mask = 0L;
+        for (Pattern pattern : patterns) {
+            mask |= 1L << pattern.ordinal();
+        }
+        return mask;
+    }
+
+    /**
+     * Classified output line holding the first position of each matched pattern.
+     */
+    public static final class LogLine {
+        private final String line;
+        private final long found;
+        private final int[] positions;
+
+        LogLine(String line, long found, int[] positions) {
+            this.line = line;
+            this.found = found;
+            this.positions = positions;
+        }
+
+        /**
+         * Checks if line contains pattern.
+         * @param pattern
+         * @return
+         */
+        public boolean contains(Pattern pattern) {
+            return (found & mask(pattern)) != 0L;
+        }
+
+        /**
+         * Gets first position of pattern in line or -1 if pattern is not present.
+         * @param pattern
+         * @return
+         */
+        public int indexOf(Pattern pattern) {
+            return contains(pattern) ? positions[pattern.ordinal()] : -1;
+        }
+
+        /**
+         * Gets position right after first occurrence of pattern or -1 if pattern is not present.
+         * @param pattern
+         * @return
+         */
+        public int endOf(Pattern pattern) {
+            return contains(pattern) ? positions[pattern.ordinal()] + pattern.getMarker().length() : -1;
+        }
+
+        /**
+         * Checks if line is normal log output in log4j format.
+         * @return
+         */
+        public boolean isLogOutput() {
+            return (found & LOG_LEVELS) != 0L;
+        }
+
+        /**
+         * Gets the line.
+         *
+         * @return
+         */
+        public String getLine() {
+            return line;
+        }
+    }
+}
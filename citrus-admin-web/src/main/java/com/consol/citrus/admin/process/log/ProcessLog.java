@@ -0,0 +1,361 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.process.log;
+
+import com.consol.citrus.admin.model.ProcessLogChunk;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * Output log of a single process addressed by byte offsets. Latest output is held in a bounded in-memory ring buffer,
+ * older output is spilled to a spool file. Log content from offset zero to the total number of bytes written
+ * stays readable until the log is closed. When the spool file can not be written the oldest output is discarded
+ * instead and reads skip the lost range.
+ *
+ * @author Christoph Deppisch
+ */
+public class ProcessLog implements Closeable {
+
+    /** Logger */
+    private static Logger log = LoggerFactory.getLogger(ProcessLog.class);
+
+    private final String processId;
+    private final Path spoolDirectory;
+
+    /** Ring buffer holding output between spilled and total offset */
+    private byte[] ring;
+
+    /** Total number of bytes written */
+    private long total;
+
+    /** Number of bytes spilled out of the ring buffer */
+    private long spilled;
+
+    /** Number of bytes actually written to spool file, output between spooled and spilled offset is lost */
+    private long spooled;
+    private boolean spoolFailed;
+
+    private Path spoolFile;
+    private FileChannel spool;
+
+    private volatile boolean complete;
+
+    /**
+     * Default constructor using process id, ring buffer capacity and spool directory.
+     * @param processId
+     * @param capacity
+     * @param spoolDirectory
+     */
+    public ProcessLog(String processId, int capacity, Path spoolDirectory) {
+        this.processId = processId;
+        this.ring = new byte[Math.max(1, capacity)];
+        this.spoolDirectory = spoolDirectory;
+    }
+
+    /**
+     * Appends output data. Oldest ring buffer content is spilled to spool file when capacity is exceeded.
+     * @param data
+     */
+    public synchronized void append(byte[] data) {
+        if (ring == null || data.length == 0) {
+            return;
+        }
+
+        int capacity = ring.length;
+        if (!spoolFailed) {
+            try {
+                long overflow = (total - spilled) + data.length - capacity;
+                if (overflow > 0) {
+                    long fromRing = Math.min(overflow, total - spilled);
+                    spillRing(fromRing);
+
+                    // data larger than the ring buffer is written to spool file directly
+                    int direct = (int) (overflow - fromRing);
+                    if (direct > 0) {
+                        ByteBuffer buffer = ByteBuffer.wrap(data, 0, direct);
+                        while (buffer.hasRemaining()) {
+                            getSpool().write(buffer, spilled + buffer.position());
+                        }
+                        spilled += direct;
+                        spooled = spilled;
+                        total += direct;
+                    }
+
+                    copyToRing(data, direct, data.length - direct);
+                } else {
+                    copyToRing(data, 0, data.length);
+                }
+                return;
+            } catch (IOException e) {
+                log.warn(String.format("Failed to spool output of process '%s' - discarding oldest output from now on", processId), e);
+                spoolFailed = true;
+            }
+        }
+
+        // keep the latest output in memory at least, older output is lost
+        int keep = Math.min(data.length, capacity);
+        total += data.length - keep;
+        spilled = Math.max(spilled, total + keep - capacity);
+        copyToRing(data, data.length - keep, keep);
+    }
+
+    /**
+     * Reads chunk of at most limit bytes starting at given offset. Lost output at the offset is skipped and
+     * reported in the chunk.
+     * @param offset
+     * @param limit
+     * @return
+     */
+    public synchronized ProcessLogChunk getChunk(long offset, int limit) {
+        long requested = Math.max(0L, Math.min(offset, total));
+        long start = getReadableOffset(requested);
+        byte[] data = read(start, limit);
+
+        ProcessLogChunk chunk = new ProcessLogChunk(processId, offset);
+        chunk.setTotal(total);
+        chunk.setComplete(complete);
+        chunk.setSkipped(start - requested);
+        chunk.setNextOffset(start + data.length);
+        chunk.setData(new String(data, StandardCharsets.UTF_8));
+        return chunk;
+    }
+
+    /**
+     * Reads at most limit bytes starting at given offset. Result is shortened so it does not end with
+     * an incomplete UTF-8 character sequence. Reads starting in lost output start at the first readable
+     * offset after the lost range, reads running into lost output end in front of it.
+     * @param offset
+     * @param limit
+     * @return
+     */
+    public synchronized byte[] read(long offset, int limit) {
+        long start = getReadableOffset(Math.max(0L, Math.min(offset, total)));
+        long end = Math.min(total, start + Math.max(0, limit));
+        if (start < spooled && spooled < spilled) {
+            end = Math.min(end, spooled);
+        }
+        byte[] data = new byte[(int) (end - start)];
+
+        int position = 0;
+        try {
+            if (start < spooled && spool != null) {
+                ByteBuffer buffer = ByteBuffer.wrap(data, 0, (int) (Math.min(end, spooled) - start));
+                while (buffer.hasRemaining()) {
+                    if (spool.read(buffer, start + buffer.position()) < 0) {
+                        break;
+                    }
+                }
+                position = buffer.position();
+            }
+        } catch (IOException e) {
+            log.warn(String.format("Failed to read spooled output of process '%s'", processId), e);
+        }
+
+        if (ring != null) {
+            for (long index = Math.max(start + position, spilled); index < end; ) {
+                int ringIndex = (int) (index % ring.length);
+                int length = (int) Math.min(end - index, ring.length - ringIndex);
+                System.arraycopy(ring, ringIndex, data, (int) (index - start), length);
+                index += length;
+            }
+        }
+
+        int length = completeCharacters(data, data.length);
+        if (length < data.length) {
+            byte[] trimmed = new byte[length];
+            System.arraycopy(data, 0, trimmed, 0, length);
+            return trimmed;
+        }
+
+        return data;
+    }
+
+    /**
+     * Gets first readable offset at or after given offset skipping lost output.
+     * @param offset
+     * @return
+     */
+    private long getReadableOffset(long offset) {
+        return offset >= spooled && offset < spilled ? spilled : offset;
+    }
+
+    /**
+     * Marks log as complete. Remaining ring buffer content is spilled so the memory can be released. Content stays
+     * in memory when the spool file can not be written.
+     */
+    public synchronized void complete() {
+        complete = true;
+
+        if (spoolFailed) {
+            return;
+        }
+
+        if (ring != null && total > spilled) {
+            try {
+                spillRing(total - spilled);
+                ring = null;
+            } catch (IOException e) {
+                log.warn(String.format("Failed to spool output of process '%s'", processId), e);
+            }
+        } else {
+            ring = null;
+        }
+    }
+
+    /**
+     * Writes oldest bytes of ring buffer to spool file.
+     * @param length
+     * @throws IOException
+     */
+    private void spillRing(long length) throws IOException {
+        long index = spilled;
+        long end = spilled + length;
+        while (index < end) {
+            int ringIndex = (int) (index % ring.length);
+            int chunk = (int) Math.min(end - index, ring.length - ringIndex);
+            ByteBuffer buffer = ByteBuffer.wrap(ring, ringIndex, chunk);
+            while (buffer.hasRemaining()) {
+                getSpool().write(buffer, index + (buffer.position() - ringIndex));
+            }
+            index += chunk;
+        }
+
+        spilled = end;
+        spooled = end;
+    }
+
+    /**
+     * Copies data to ring buffer at the current end of log.
+     * @param data
+     * @param offset
+     * @param length
+     */
+    private void copyToRing(byte[] data, int offset, int length) {
+        int written = 0;
+        while (written < length) {
+            int ringIndex = (int) ((total + written) % ring.length);
+            int chunk = Math.min(length - written, ring.length - ringIndex);
+            System.arraycopy(data, offset + written, ring, ringIndex, chunk);
+            written += chunk;
+        }
+
+        total += length;
+    }
+
+    /**
+     * Opens spool file on first use.
+     * @return
+     * @throws IOException
+     */
+    private FileChannel getSpool() throws IOException {
+        if (spool == null) {
+            Files.createDirectories(spoolDirectory);
+            spoolFile = Files.createTempFile(spoolDirectory, processId.replaceAll("[^a-zA-Z0-9_-]", "_") + "-", ".log");
+            spool = FileChannel.open(spoolFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        }
+
+        return spool;
+    }
+
+    /**
+     * Gets length of data without trailing incomplete UTF-8 character sequence.
+     * @param data
+     * @param length
+     * @return
+     */
+    static int completeCharacters(byte[] data, int length) {
+        for (int i = length - 1; i >= 0 && i >= length - 4; i--) {
+            int b = data[i] & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                int sequence = b >= 0xF0 ? 4 : b >= 0xE0 ? 3 : b >= 0xC0 ? 2 : 1;
+                return length - i >= sequence ? length : i;
+            }
+        }
+
+        return length;
+    }
+
+    @Override
+    public synchronized void close() {
+        ring = null;
+
+        try {
+            if (spool != null) {
+                spool.close();
+            }
+
+            if (spoolFile != null) {
+                Files.deleteIfExists(spoolFile);
+            }
+        } catch (IOException e) {
+            log.warn(String.format("Failed to delete spooled output of process '%s'", processId), e);
+        }
+    }
+
+    /**
+     * Gets the total number of bytes written.
+     *
+     * @return
+     */
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    /**
+     * Gets the number of bytes held in memory.
+     *
+     * @return
+     */
+    public synchronized long getBuffered() {
+        return ring != null ? total - spilled : 0L;
+    }
+
+    /**
+     * Gets the number of bytes lost because the spool file could not be written.
+     *
+     * @return
+     */
+    public synchronized long getLost() {
+        return spilled - spooled;
+    }
+
+    /**
+     * Gets the complete state.
+     *
+     * @return
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Gets the processId.
+     *
+     * @return
+     */
+    public String getProcessId() {
+        return processId;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.process.log;
+
+import com.consol.citrus.admin.Application;
+import com.consol.citrus.admin.configuration.SystemSettings;
+import com.consol.citrus.admin.process.listener.AbstractProcessListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Process listener keeping the output of each process in a {@link ProcessLog} so clients are able to replay
+ * output from any offset. Only the latest completed process logs are kept.
+ *
+ * @author Christoph Deppisch
+ */
+@Component
+public class ProcessLogStore extends AbstractProcessListener {
+
+    /** Default ring buffer size in megabytes */
+    private static final int DEFAULT_BUFFER_SIZE = 1;
+
+    /** Default number of completed process logs to keep */
+    private static final int DEFAULT_RETENTION = 100;
+
+    /** Process logs in order of creation */
+    private final Map<String, ProcessLog> logs = new LinkedHashMap<>();
+
+    private int bufferSize = SystemSettings.getInt(Application.PROCESS_LOG_BUFFER_SIZE, Application.PROCESS_LOG_BUFFER_SIZE_ENV, DEFAULT_BUFFER_SIZE) * 1024 * 1024;
+    private int retention = SystemSettings.getInt(Application.PROCESS_LOG_RETENTION, Application.PROCESS_LOG_RETENTION_ENV, DEFAULT_RETENTION);
+    private Path logDirectory = Paths.get(SystemSettings.getString(Application.PROCESS_LOG_DIRECTORY, Application.PROCESS_LOG_DIRECTORY_ENV,
+            Paths.get(System.getProperty("java.io.tmpdir"), "citrus-admin-logs").toString()));
+
+    @Override
+    public void onProcessStart(String processId) {
+        ProcessLog previous;
+        synchronized (logs) {
+            previous = logs.remove(processId);
+            logs.put(processId, new ProcessLog(processId, bufferSize, logDirectory));
+        }
+
+        if (previous != null) {
+            previous.close();
+        }
+    }
+
+    @Override
+    public void onProcessOutput(String processId, String output) {
+        getOrCreate(processId).append(output.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void onProcessSuccess(String processId) {
+        complete(processId);
+    }
+
+    @Override
+    public void onProcessFail(String processId, int exitCode) {
+        complete(processId);
+    }
+
+    @Override
+    public void onProcessFail(String processId, Throwable e) {
+        complete(processId);
+    }
+
+    /**
+     * Gets process log for given process id.
+     * @param processId
+     * @return
+     */
+    public Optional<ProcessLog> getLog(String processId) {
+        synchronized (logs) {
+            return Optional.ofNullable(logs.get(processId));
+        }
+    }
+
+    /**
+     * Marks process log as complete and removes oldest completed logs exceeding the retention limit.
+     * @param processId
+     */
+    private void complete(String processId) {
+        getLog(processId).ifPresent(ProcessLog::complete);
+
+        List<ProcessLog> expired = new ArrayList<>();
+        synchronized (logs) {
+            long completed = logs.values().stream().filter(ProcessLog::isComplete).count();
+            Iterator<ProcessLog> it = logs.values().iterator();
+            while (completed > retention && it.hasNext()) {
+                ProcessLog processLog = it.next();
+                if (processLog.isComplete()) {
+                    it.remove();
+                    expired.add(processLog);
+                    completed--;
+                }
+            }
+        }
+
+        expired.forEach(ProcessLog::close);
+    }
+
+    /**
+     * Gets process log or creates new one for processes that did not signal start.
+     * @param processId
+     * @return
+     */
+    private ProcessLog getOrCreate(String processId) {
+        synchronized (logs) {
+            return logs.computeIfAbsent(processId, id -> new ProcessLog(id, bufferSize, logDirectory));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        synchronized (logs) {
+            logs.values().forEach(ProcessLog::close);
+            logs.clear();
+        }
+    }
+
+    /**
+     * Sets the ring buffer size in bytes.
+     *
+     * @param bufferSize
+     */
+    public void setBufferSize(int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Sets the number of completed process logs to keep.
+     *
+     * @param retention
+     */
+    public void setRetention(int retention) {
+        this.retention = retention;
+    }
+
+    /**
+     * Sets the spool file directory.
+     *
+     * @param logDirectory
+     */
+    public void setLogDirectory(Path logDirectory) {
+        this.logDirectory = logDirectory;
+    }
+}
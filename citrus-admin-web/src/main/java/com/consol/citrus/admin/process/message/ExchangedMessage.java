@@ -0,0 +1,115 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.message;
+
+/**
+ * Message exchanged during a test run as reported by the admin connector.
+ *
+ * @author Christoph Deppisch
+ */
+public class ExchangedMessage {
+
+    private final String id;
+    private final String processId;
+    private final String direction;
+    private final String payload;
+    private final boolean truncated;
+    private final long size;
+    private final long timestamp;
+
+    /**
+     * Constructor using message data.
+     * @param id
+     * @param processId
+     * @param direction
+     * @param payload
+     * @param truncated payload has been truncated by the connector
+     * @param size original payload size in bytes
+     */
+    public ExchangedMessage(String id, String processId, String direction, String payload, boolean truncated, long size) {
+        this.id = id;
+        this.processId = processId;
+        this.direction = direction;
+        this.payload = payload;
+        this.truncated = truncated;
+        this.size = size;
+        this.timestamp = System.currentTimeMillis();
+    }
+
+    /**
+     * Gets the id.
+     *
+     * @return
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Gets the processId.
+     *
+     * @return
+     */
+    public String getProcessId() {
+        return processId;
+    }
+
+    /**
+     * Gets the message direction (inbound or outbound).
+     *
+     * @return
+     */
+    public String getDirection() {
+        return direction;
+    }
+
+    /**
+     * Gets the payload.
+     *
+     * @return
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    /**
+     * Gets the truncated.
+     *
+     * @return
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Gets the original payload size in bytes.
+     *
+     * @return
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the timestamp.
+     *
+     * @return
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.message;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Append-only message archive in a directory. Messages are written to segments of a data file holding the raw
+ * payloads and an index file holding one JSON line per message with the searchable keys and the payload location.
+ * A new segment is started once the segment size is reached and oldest segments are deleted when the archive
+ * exceeds its maximum size. Queries stream the index files from newest to oldest segment and never keep more than
+ * one page of results in memory.
+ *
+ * @author Christoph Deppisch
+ */
+public class MessageArchive implements Closeable {
+
+    /** Logger */
+    private static Logger log = LoggerFactory.getLogger(MessageArchive.class);
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String DATA_SUFFIX = ".dat";
+    private static final String INDEX_SUFFIX = ".idx";
+
+    /** Number of payload characters searched for message keys */
+    private static final int KEY_SEARCH_LIMIT = 64 * 1024;
+
+    private static final Pattern ROOT_ELEMENT = Pattern.compile("<(?:[A-Za-z_][\\w.\\-]*:)?([A-Za-z_][\\w.\\-]*)[\\s/>]");
+    private static final Pattern MESSAGE_ID = Pattern.compile("(?:citrus_message_id=|\\[id: )([^,\\]}\\s]+)");
+    private static final Pattern CORRELATION_ID = Pattern.compile("(?i)[\\w.\\-]*correlat[\\w.\\-]*=([^,\\]}\\s]+)");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final Path directory;
+    private final long segmentSize;
+    private final long maxSize;
+
+    /** First message ids of all segments in ascending order */
+    private final TreeSet<Long> segments = new TreeSet<>();
+
+    private long nextId = 1L;
+
+    /** Active segment writers */
+    private FileChannel data;
+    private Writer index;
+
+    /**
+     * Opens archive in given directory and continues with the message ids of existing segments.
+     * @param directory
+     * @param segmentSize maximum data bytes per segment
+     * @param maxSize maximum data bytes of all segments
+     * @throws IOException
+     */
+    public MessageArchive(Path directory, long segmentSize, long maxSize) throws IOException {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSize = maxSize;
+
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(file -> file.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(INDEX_SUFFIX))
+                    .forEach(name -> {
+                        try {
+                            segments.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - INDEX_SUFFIX.length())));
+                        } catch (NumberFormatException e) {
+                            log.warn(String.format("Ignoring unknown message archive file '%s'", name));
+                        }
+                    });
+        }
+
+        if (!segments.isEmpty()) {
+            nextId = segments.last();
+            try (BufferedReader reader = Files.newBufferedReader(getIndexFile(segments.last()), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    MessageRecord record = readRecord(line);
+                    if (record != null) {
+                        nextId = record.getId() + 1;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Appends message to the active segment.
+     * @param processId
+     * @param testName
+     * @param direction
+     * @param payload
+     * @param truncated
+     * @param size original payload size in bytes
+     * @return archived message record
+     * @throws IOException
+     */
+    public synchronized MessageRecord append(String processId, String testName, String direction, String payload, boolean truncated, long size) throws IOException {
+        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
+
+        if (data == null || data.size() >= segmentSize) {
+            rotate();
+        }
+
+        MessageRecord record = new MessageRecord();
+        record.setId(nextId++);
+        record.setTimestamp(System.currentTimeMillis());
+        record.setProcessId(processId);
+        record.setTestName(testName);
+        record.setDirection(direction);
+        record.setTruncated(truncated);
+        record.setSize(size);
+        record.setOffset(data.size());
+        record.setLength(bytes.length);
+        extractKeys(record, payload);
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            data.write(buffer, data.size());
+        }
+
+        index.write(writeRecord(record));
+        index.write('\n');
+
+        return record;
+    }
+
+    /**
+     * Finds messages matching the query, newest first. Index files are read without blocking writers, messages
+     * appended while the query is running are ignored.
+     * @param query
+     * @return
+     * @throws IOException
+     */
+    public MessagePage query(MessageQuery query) throws IOException {
+        List<Long> snapshot;
+        long last;
+        synchronized (this) {
+            flush();
+            snapshot = new ArrayList<>(segments.descendingSet());
+            last = nextId;
+        }
+
+        List<MessageRecord> results = new ArrayList<>();
+        int limit = query.getLimit();
+
+        for (Long segment : snapshot) {
+            if (query.getBefore() != null && segment >= query.getBefore()) {
+                continue;
+            }
+
+            // keep the newest matches of this segment only
+            ArrayDeque<MessageRecord> matches = new ArrayDeque<>();
+            try (BufferedReader reader = Files.newBufferedReader(getIndexFile(segment), StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    MessageRecord record = readRecord(line);
+                    if (record != null && record.getId() < last && query.matches(record)) {
+                        matches.addLast(record);
+                        if (matches.size() > limit + 1 - results.size()) {
+                            matches.removeFirst();
+                        }
+                    }
+                }
+            } catch (NoSuchFileException e) {
+                // segment removed by rotation in the meantime
+                continue;
+            }
+
+            matches.descendingIterator().forEachRemaining(results::add);
+            if (results.size() > limit) {
+                break;
+            }
+        }
+
+        MessagePage page = new MessagePage();
+        if (results.size() > limit) {
+            page.setMessages(new ArrayList<>(results.subList(0, limit)));
+            page.setNext(results.get(limit - 1).getId());
+        } else {
+            page.setMessages(results);
+        }
+
+        return page;
+    }
+
+    /**
+     * Gets message record by id.
+     * @param id
+     * @return
+     * @throws IOException
+     */
+    public Optional<MessageRecord> getRecord(long id) throws IOException {
+        Long segment;
+        synchronized (this) {
+            segment = segments.floor(id);
+            if (segment == null || id >= nextId) {
+                return Optional.empty();
+            }
+
+            flush();
+        }
+
+        try (BufferedReader reader = Files.newBufferedReader(getIndexFile(segment), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                MessageRecord record = readRecord(line);
+                if (record != null && record.getId() == id) {
+                    return Optional.of(record);
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Reads message payload by id.
+     * @param id
+     * @return
+     * @throws IOException
+     */
+    public Optional<String> getPayload(long id) throws IOException {
+        Optional<MessageRecord> record = getRecord(id);
+        if (!record.isPresent()) {
+            return Optional.empty();
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(record.get().getLength());
+        try (FileChannel channel = FileChannel.open(getDataFile(getSegment(id)), StandardOpenOption.READ)) {
+            long position = record.get().getOffset();
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+            }
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        }
+
+        return Optional.of(new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+    }
+
+    private synchronized long getSegment(long id) {
+        Long segment = segments.floor(id);
+        return segment != null ? segment : -1L;
+    }
+
+    /**
+     * Closes active segment and starts new segment with next message id. Removes oldest segments exceeding the
+     * maximum archive size.
+     * @throws IOException
+     */
+    private void rotate() throws IOException {
+        closeSegment();
+
+        long segment = nextId;
+        segments.add(segment);
+        data = FileChannel.open(getDataFile(segment), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        index = Files.newBufferedWriter(getIndexFile(segment), StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+
+        long total = 0L;
+        for (Long existing : segments) {
+            total += Files.exists(getDataFile(existing)) ? Files.size(getDataFile(existing)) : 0L;
+        }
+
+        while (total > maxSize && segments.size() > 1) {
+            Long oldest = segments.pollFirst();
+            total -= Files.exists(getDataFile(oldest)) ? Files.size(getDataFile(oldest)) : 0L;
+            Files.deleteIfExists(getDataFile(oldest));
+            Files.deleteIfExists(getIndexFile(oldest));
+            log.debug(String.format("Removed message archive segment %s in '%s'", oldest, directory));
+        }
+    }
+
+    /**
+     * Writes buffered index entries.
+     * @throws IOException
+     */
+    public synchronized void flush() throws IOException {
+        if (index != null) {
+            index.flush();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeSegment();
+    }
+
+    private void closeSegment() throws IOException {
+        if (index != null) {
+            index.close();
+            index = null;
+        }
+
+        if (data != null) {
+            data.close();
+            data = null;
+        }
+    }
+
+    /**
+     * Extracts XML root element, message id and correlation header from message data.
+     * @param record
+     * @param payload
+     */
+    static void extractKeys(MessageRecord record, String payload) {
+        String content = payload.length() > KEY_SEARCH_LIMIT ? payload.substring(0, KEY_SEARCH_LIMIT) : payload;
+
+        Matcher rootElement = ROOT_ELEMENT.matcher(content);
+        if (rootElement.find()) {
+            record.setRootElement(rootElement.group(1));
+        }
+
+        Matcher messageId = MESSAGE_ID.matcher(content);
+        if (messageId.find()) {
+            record.setMessageId(messageId.group(1));
+        }
+
+        Matcher correlationId = CORRELATION_ID.matcher(content);
+        if (correlationId.find()) {
+            record.setCorrelationId(correlationId.group(1));
+        }
+    }
+
+    private String writeRecord(MessageRecord record) throws IOException {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("id", record.getId());
+        entry.put("timestamp", record.getTimestamp());
+        entry.put("processId", record.getProcessId());
+        entry.put("testName", record.getTestName());
+        entry.put("direction", record.getDirection());
+        entry.put("rootElement", record.getRootElement());
+        entry.put("messageId", record.getMessageId());
+        entry.put("correlationId", record.getCorrelationId());
+        entry.put("truncated", record.isTruncated());
+        entry.put("size", record.getSize());
+        entry.put("offset", record.getOffset());
+        entry.put("length", record.getLength());
+        return objectMapper.writeValueAsString(entry);
+    }
+
+    private MessageRecord readRecord(String line) {
+        if (line.isEmpty()) {
+            return null;
+        }
+
+        try {
+            JsonNode entry = objectMapper.readTree(line);
+            MessageRecord record = new MessageRecord();
+            record.setId(entry.path("id").asLong());
+            record.setTimestamp(entry.path("timestamp").asLong());
+            record.setProcessId(getText(entry, "processId"));
+            record.setTestName(getText(entry, "testName"));
+            record.setDirection(getText(entry, "direction"));
+            record.setRootElement(getText(entry, "rootElement"));
+            record.setMessageId(getText(entry, "messageId"));
+            record.setCorrelationId(getText(entry, "correlationId"));
+            record.setTruncated(entry.path("truncated").asBoolean());
+            record.setSize(entry.path("size").asLong());
+            record.setOffset(entry.path("offset").asLong());
+            record.setLength(entry.path("length").asInt());
+            return record;
+        } catch (IOException e) {
+            log.debug(String.format("Skipping invalid message archive entry in '%s'", directory));
+            return null;
+        }
+    }
+
+    private static String getText(JsonNode entry, String field) {
+        JsonNode value = entry.get(field);
+        return value != null && !value.isNull() ? value.asText() : null;
+    }
+
+    private Path getDataFile(long segment) {
+        return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, segment, DATA_SUFFIX));
+    }
+
+    private Path getIndexFile(long segment) {
+        return directory.resolve(String.format("%s%019d%s", SEGMENT_PREFIX, segment, INDEX_SUFFIX));
+    }
+
+    /**
+     * Gets ids of archived segments.
+     * @return
+     */
+    public synchronized List<Long> getSegments() {
+        return new ArrayList<>(segments);
+    }
+}
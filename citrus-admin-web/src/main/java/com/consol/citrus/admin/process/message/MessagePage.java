@@ -0,0 +1,67 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.message;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page of archived messages, newest first. Next page is fetched with the given cursor as before criteria.
+ *
+ * @author Christoph Deppisch
+ */
+public class MessagePage {
+
+    private List<MessageRecord> messages = new ArrayList<>();
+    private Long next;
+
+    /**
+     * Gets the messages.
+     *
+     * @return
+     */
+    public List<MessageRecord> getMessages() {
+        return messages;
+    }
+
+    /**
+     * Sets the messages.
+     *
+     * @param messages
+     */
+    public void setMessages(List<MessageRecord> messages) {
+        this.messages = messages;
+    }
+
+    /**
+     * Gets the cursor of the next page or null on last page.
+     *
+     * @return
+     */
+    public Long getNext() {
+        return next;
+    }
+
+    /**
+     * Sets the cursor of the next page.
+     *
+     * @param next
+     */
+    public void setNext(Long next) {
+        this.next = next;
+    }
+}
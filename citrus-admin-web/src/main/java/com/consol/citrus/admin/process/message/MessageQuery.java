@@ -0,0 +1,223 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.message;
+
+import org.springframework.util.StringUtils;
+
+/**
+ * Filter and paging criteria for archived messages. Pages are addressed by the id of the last message of the
+ * previous page so paging never has to count skipped messages.
+ *
+ * @author Christoph Deppisch
+ */
+public class MessageQuery {
+
+    /** Maximum page size */
+    public static final int MAX_LIMIT = 500;
+
+    private String processId;
+    private String testName;
+    private String direction;
+    private String rootElement;
+    private String key;
+    private Long from;
+    private Long to;
+    private Long before;
+    private int limit = 50;
+
+    /**
+     * Checks if record matches all criteria set on this query.
+     * @param record
+     * @return
+     */
+    public boolean matches(MessageRecord record) {
+        return (before == null || record.getId() < before)
+                && (from == null || record.getTimestamp() >= from)
+                && (to == null || record.getTimestamp() <= to)
+                && matches(processId, record.getProcessId())
+                && matches(testName, record.getTestName())
+                && (!StringUtils.hasText(direction) || direction.equalsIgnoreCase(record.getDirection()))
+                && matches(rootElement, record.getRootElement())
+                && (!StringUtils.hasText(key) || key.equals(record.getMessageId()) || key.equals(record.getCorrelationId()));
+    }
+
+    private static boolean matches(String expected, String value) {
+        return !StringUtils.hasText(expected) || expected.equals(value);
+    }
+
+    /**
+     * Gets the processId.
+     *
+     * @return
+     */
+    public String getProcessId() {
+        return processId;
+    }
+
+    /**
+     * Sets the processId.
+     *
+     * @param processId
+     */
+    public void setProcessId(String processId) {
+        this.processId = processId;
+    }
+
+    /**
+     * Gets the testName.
+     *
+     * @return
+     */
+    public String getTestName() {
+        return testName;
+    }
+
+    /**
+     * Sets the testName.
+     *
+     * @param testName
+     */
+    public void setTestName(String testName) {
+        this.testName = testName;
+    }
+
+    /**
+     * Gets the direction.
+     *
+     * @return
+     */
+    public String getDirection() {
+        return direction;
+    }
+
+    /**
+     * Sets the direction.
+     *
+     * @param direction
+     */
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    /**
+     * Gets the rootElement.
+     *
+     * @return
+     */
+    public String getRootElement() {
+        return rootElement;
+    }
+
+    /**
+     * Sets the rootElement.
+     *
+     * @param rootElement
+     */
+    public void setRootElement(String rootElement) {
+        this.rootElement = rootElement;
+    }
+
+    /**
+     * Gets the key matching message id or correlation id.
+     *
+     * @return
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Sets the key matching message id or correlation id.
+     *
+     * @param key
+     */
+    public void setKey(String key) {
+        this.key = key;
+    }
+
+    /**
+     * Gets the earliest timestamp.
+     *
+     * @return
+     */
+    public Long getFrom() {
+        return from;
+    }
+
+    /**
+     * Sets the earliest timestamp.
+     *
+     * @param from
+     */
+    public void setFrom(Long from) {
+        this.from = from;
+    }
+
+    /**
+     * Gets the latest timestamp.
+     *
+     * @return
+     */
+    public Long getTo() {
+        return to;
+    }
+
+    /**
+     * Sets the latest timestamp.
+     *
+     * @param to
+     */
+    public void setTo(Long to) {
+        this.to = to;
+    }
+
+    /**
+     * Gets the id all returned messages are older than.
+     *
+     * @return
+     */
+    public Long getBefore() {
+        return before;
+    }
+
+    /**
+     * Sets the id all returned messages are older than.
+     *
+     * @param before
+     */
+    public void setBefore(Long before) {
+        this.before = before;
+    }
+
+    /**
+     * Gets the page size.
+     *
+     * @return
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Sets the page size.
+     *
+     * @param limit
+     */
+    public void setLimit(int limit) {
+        this.limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,261 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.message;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * Index entry of an archived message holding the searchable keys and the location of the payload in the segment
+ * data file. The payload itself is read on demand.
+ *
+ * @author Christoph Deppisch
+ */
+public class MessageRecord {
+
+    private long id;
+    private long timestamp;
+    private String processId;
+    private String testName;
+    private String direction;
+    private String rootElement;
+    private String messageId;
+    private String correlationId;
+    private boolean truncated;
+    private long size;
+
+    /** Payload location in segment data file */
+    private long offset;
+    private int length;
+
+    /**
+     * Gets the id.
+     *
+     * @return
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Sets the id.
+     *
+     * @param id
+     */
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the timestamp.
+     *
+     * @return
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Sets the timestamp.
+     *
+     * @param timestamp
+     */
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * Gets the processId.
+     *
+     * @return
+     */
+    public String getProcessId() {
+        return processId;
+    }
+
+    /**
+     * Sets the processId.
+     *
+     * @param processId
+     */
+    public void setProcessId(String processId) {
+        this.processId = processId;
+    }
+
+    /**
+     * Gets the testName.
+     *
+     * @return
+     */
+    public String getTestName() {
+        return testName;
+    }
+
+    /**
+     * Sets the testName.
+     *
+     * @param testName
+     */
+    public void setTestName(String testName) {
+        this.testName = testName;
+    }
+
+    /**
+     * Gets the message direction (inbound or outbound).
+     *
+     * @return
+     */
+    public String getDirection() {
+        return direction;
+    }
+
+    /**
+     * Sets the message direction (inbound or outbound).
+     *
+     * @param direction
+     */
+    public void setDirection(String direction) {
+        this.direction = direction;
+    }
+
+    /**
+     * Gets the XML root element name of the payload.
+     *
+     * @return
+     */
+    public String getRootElement() {
+        return rootElement;
+    }
+
+    /**
+     * Sets the XML root element name of the payload.
+     *
+     * @param rootElement
+     */
+    public void setRootElement(String rootElement) {
+        this.rootElement = rootElement;
+    }
+
+    /**
+     * Gets the Citrus message id header.
+     *
+     * @return
+     */
+    public String getMessageId() {
+        return messageId;
+    }
+
+    /**
+     * Sets the Citrus message id header.
+     *
+     * @param messageId
+     */
+    public void setMessageId(String messageId) {
+        this.messageId = messageId;
+    }
+
+    /**
+     * Gets the correlation header value.
+     *
+     * @return
+     */
+    public String getCorrelationId() {
+        return correlationId;
+    }
+
+    /**
+     * Sets the correlation header value.
+     *
+     * @param correlationId
+     */
+    public void setCorrelationId(String correlationId) {
+        this.correlationId = correlationId;
+    }
+
+    /**
+     * Gets the truncated.
+     *
+     * @return
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Sets the truncated.
+     *
+     * @param truncated
+     */
+    public void setTruncated(boolean truncated) {
+        this.truncated = truncated;
+    }
+
+    /**
+     * Gets the original payload size in bytes.
+     *
+     * @return
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Sets the original payload size in bytes.
+     *
+     * @param size
+     */
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    /**
+     * Gets the payload offset in segment data file.
+     *
+     * @return
+     */
+    @JsonIgnore
+    public long getOffset() {
+        return offset;
+    }
+
+    /**
+     * Sets the payload offset in segment data file.
+     *
+     * @param offset
+     */
+    public void setOffset(long offset) {
+        this.offset = offset;
+    }
+
+    /**
+     * Gets the number of payload bytes in segment data file.
+     *
+     * @return
+     */
+    @JsonIgnore
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Sets the number of payload bytes in segment data file.
+     *
+     * @param length
+     */
+    public void setLength(int length) {
+        this.length = length;
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.message;
+
+import com.consol.citrus.admin.Application;
+import com.consol.citrus.admin.configuration.SystemSettings;
+import com.consol.citrus.admin.model.MessageEvent;
+import com.consol.citrus.admin.model.Project;
+import com.consol.citrus.admin.service.ProjectService;
+import net.minidev.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Keeps full payloads of messages exchanged during test runs so clients only receive a payload preview via
+ * socket events and fetch the full payload on demand. Latest messages are held in memory and oldest messages are
+ * removed once the store size is exceeded. All messages are also appended to the {@link MessageArchive} of the
+ * active project so messages of past test runs can be searched.
+ *
+ * @author Christoph Deppisch
+ */
+@Component
+public class MessageStore {
+
+    /** Logger */
+    private static Logger log = LoggerFactory.getLogger(MessageStore.class);
+
+    /** Default preview size in characters */
+    private static final int DEFAULT_PREVIEW_SIZE = 64 * 1024;
+
+    /** Default store size in megabytes */
+    private static final int DEFAULT_STORE_SIZE = 32;
+
+    /** Default archive size and archive segment size in megabytes */
+    private static final int DEFAULT_ARCHIVE_SIZE = 256;
+    private static final int DEFAULT_ARCHIVE_SEGMENT_SIZE = 16;
+
+
+    @Autowired(required = false)
+    private ProjectService projectService;
+
+    /** Message archives by project home */
+    private final Map<String, MessageArchive> archives = new HashMap<>();
+
+    /** Messages in order of arrival, guarded by this */
+    private final Map<String, ExchangedMessage> messages = new LinkedHashMap<>();
+    private long storedBytes = 0L;
+
+    private int previewSize = SystemSettings.getInt(Application.CONNECTOR_MESSAGE_PREVIEW_SIZE, Application.CONNECTOR_MESSAGE_PREVIEW_SIZE_ENV, DEFAULT_PREVIEW_SIZE);
+    private long storeSize = SystemSettings.getInt(Application.CONNECTOR_MESSAGE_STORE_SIZE, Application.CONNECTOR_MESSAGE_STORE_SIZE_ENV, DEFAULT_STORE_SIZE) * 1024L * 1024L;
+    private long archiveSize = SystemSettings.getInt(Application.MESSAGE_ARCHIVE_SIZE, Application.MESSAGE_ARCHIVE_SIZE_ENV, DEFAULT_ARCHIVE_SIZE) * 1024L * 1024L;
+    private long archiveSegmentSize = SystemSettings.getInt(Application.MESSAGE_ARCHIVE_SEGMENT_SIZE, Application.MESSAGE_ARCHIVE_SEGMENT_SIZE_ENV, DEFAULT_ARCHIVE_SEGMENT_SIZE) * 1024L * 1024L;
+
+    /** Archive root directory holding an archive per project, kept outside of project sources and build output */
+    private Path archiveDirectory = Paths.get(SystemSettings.getString(Application.MESSAGE_ARCHIVE_DIRECTORY, Application.MESSAGE_ARCHIVE_DIRECTORY_ENV,
+            Paths.get(Application.getRootDirectory(), ".citrus-admin", "messages").toString()));
+
+    /**
+     * Stores message and creates message event with payload preview. Events are marked as truncated when either
+     * the connector or the preview has cut the payload.
+     * @param processId
+     * @param testName
+     * @param direction
+     * @param messageData
+     * @param truncated payload has been truncated by the connector
+     * @param size original payload size reported by the connector
+     * @return
+     */
+    public JSONObject createEvent(String processId, String testName, MessageEvent direction, String messageData, boolean truncated, long size) {
+        String payload = messageData != null ? messageData : "";
+        long originalSize = truncated ? size : payload.getBytes(StandardCharsets.UTF_8).length;
+
+        ExchangedMessage message = add(processId, testName, direction.name(), payload, truncated, originalSize);
+        String preview = getPreview(payload);
+
+        return MessageEvent.createEvent(message.getId(), processId, direction, preview, truncated || preview.length() < payload.length(), originalSize);
+    }
+
+    /**
+     * Adds message, appends it to the archive of the active project and removes oldest messages exceeding the store size.
+     * @param processId
+     * @param testName
+     * @param direction
+     * @param payload
+     * @param truncated payload has been truncated by the connector
+     * @param size original payload size in bytes
+     * @return
+     */
+    public synchronized ExchangedMessage add(String processId, String testName, String direction, String payload, boolean truncated, long size) {
+        String id = UUID.randomUUID().toString();
+
+        Optional<MessageArchive> archive = getArchive();
+        if (archive.isPresent()) {
+            try {
+                id = String.valueOf(archive.get().append(processId, testName, direction, payload, truncated, size).getId());
+            } catch (IOException e) {
+                log.warn("Failed to archive message", e);
+            }
+        }
+
+        ExchangedMessage message = new ExchangedMessage(id, processId, direction, payload, truncated, size);
+        messages.put(message.getId(), message);
+        storedBytes += getWeight(message);
+
+        Iterator<ExchangedMessage> it = messages.values().iterator();
+        while (storedBytes > storeSize && messages.size() > 1 && it.hasNext()) {
+            storedBytes -= getWeight(it.next());
+            it.remove();
+        }
+
+        return message;
+    }
+
+    /**
+     * Gets message by id.
+     * @param id
+     * @return
+     */
+    public synchronized Optional<ExchangedMessage> getMessage(String id) {
+        return Optional.ofNullable(messages.get(id));
+    }
+
+    /**
+     * Gets message payload by id. Looks up the archive of the active project when message is not held in memory.
+     * @param id
+     * @return
+     */
+    public Optional<String> getPayload(String id) {
+        Optional<ExchangedMessage> message = getMessage(id);
+        if (message.isPresent()) {
+            return Optional.of(message.get().getPayload());
+        }
+
+        Optional<MessageArchive> archive = getArchive();
+        if (!archive.isPresent()) {
+            return Optional.empty();
+        }
+
+        try {
+            return archive.get().getPayload(Long.parseLong(id));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            log.warn(String.format("Failed to read archived message '%s'", id), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Searches archived messages of the active project.
+     * @param query
+     * @return
+     */
+    public MessagePage query(MessageQuery query) {
+        Optional<MessageArchive> archive = getArchive();
+        if (!archive.isPresent()) {
+            return new MessagePage();
+        }
+
+        try {
+            return archive.get().query(query);
+        } catch (IOException e) {
+            log.warn("Failed to query message archive", e);
+            return new MessagePage();
+        }
+    }
+
+    /**
+     * Gets message archive of the active project. Archive is opened on first access.
+     * @return
+     */
+    private synchronized Optional<MessageArchive> getArchive() {
+        Project project = projectService != null ? projectService.getActiveProject() : null;
+        if (project == null) {
+            return Optional.empty();
+        }
+
+        MessageArchive archive = archives.get(project.getProjectHome());
+        if (archive == null) {
+            try {
+                archive = new MessageArchive(archiveDirectory.resolve(getArchiveName(project)), archiveSegmentSize, archiveSize);
+                archives.put(project.getProjectHome(), archive);
+            } catch (IOException e) {
+                log.warn(String.format("Failed to open message archive of project '%s'", project.getProjectHome()), e);
+                return Optional.empty();
+            }
+        }
+
+        return Optional.of(archive);
+    }
+
+    /**
+     * Gets archive directory name of project. Project folder name is combined with a digest of the project home
+     * so projects with the same folder name get separate archives.
+     * @param project
+     * @return
+     */
+    static String getArchiveName(Project project) {
+        String projectHome = new File(project.getProjectHome()).getAbsolutePath();
+        return new File(projectHome).getName() + "-" + DigestUtils.md5DigestAsHex(projectHome.getBytes(StandardCharsets.UTF_8)).substring(0, 8);
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        for (MessageArchive archive : archives.values()) {
+            try {
+                archive.close();
+            } catch (IOException e) {
+                log.warn("Failed to close message archive", e);
+            }
+        }
+        archives.clear();
+    }
+
+    /**
+     * Gets payload preview sent to clients. Long payloads are cut at preview size.
+     * @param payload
+     * @return
+     */
+    public String getPreview(String payload) {
+        if (payload == null || payload.length() <= previewSize) {
+            return payload;
+        }
+
+        int end = previewSize;
+        if (end > 0 && Character.isHighSurrogate(payload.charAt(end - 1))) {
+            end--;
+        }
+
+        return payload.substring(0, end);
+    }
+
+    /**
+     * Approximate memory used by message payload.
+     * @param message
+     * @return
+     */
+    private static long getWeight(ExchangedMessage message) {
+        return message.getPayload() != null ? message.getPayload().length() * 2L : 0L;
+    }
+
+    /**
+     * Sets the preview size in characters.
+     *
+     * @param previewSize
+     */
+    public void setPreviewSize(int previewSize) {
+        this.previewSize = previewSize;
+    }
+
+    /**
+     * Sets the store size in bytes.
+     *
+     * @param storeSize
+     */
+    public void setStoreSize(long storeSize) {
+        this.storeSize = storeSize;
+    }
+
+    /**
+     * Sets the archive root directory.
+     *
+     * @param archiveDirectory
+     */
+    public void setArchiveDirectory(Path archiveDirectory) {
+        this.archiveDirectory = archiveDirectory;
+    }
+
+    /**
+     * Sets the projectService.
+     *
+     * @param projectService
+     */
+    public void setProjectService(ProjectService projectService) {
+        this.projectService = projectService;
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.stats;
+
+import com.consol.citrus.admin.model.ProcessStats;
+import com.consol.citrus.admin.process.stats.ProcessTreeSampler.ProcessSample;
+
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Accounts resource usage of a launched process. The process tree is sampled periodically. CPU time sums up the last
+ * seen CPU time of every process that belonged to the tree, peak RSS is the highest resident memory of the whole tree
+ * at sampling time. Child processes living shorter than the sampling interval may be missed.
+ *
+ * @author Christoph Deppisch
+ */
+public class ProcessResourceMonitor {
+
+    private final ProcessTreeSampler sampler;
+    private final long pid;
+    private final ProcessStats stats;
+
+    /** Last seen CPU time per process identified by pid and start time */
+    private final Map<String, Long> cpuTimes = new HashMap<>();
+
+    /** Periodic sampling task */
+    private ScheduledFuture<?> samplingTask;
+
+    /**
+     * Constructor using fields.
+     * @param sampler
+     * @param processId
+     * @param command
+     * @param pid
+     */
+    public ProcessResourceMonitor(ProcessTreeSampler sampler, String processId, String command, long pid) {
+        this.sampler = sampler;
+        this.pid = pid;
+
+        this.stats = new ProcessStats(processId, command);
+        this.stats.setStartTime(System.currentTimeMillis());
+        this.stats.setSupported(pid > 0 && sampler.isSupported());
+    }
+
+    /**
+     * Samples process tree and updates stats.
+     */
+    public synchronized void sample() {
+        if (stats.isComplete() || !stats.isSupported()) {
+            return;
+        }
+
+        List<ProcessSample> tree = sampler.sample(pid);
+        if (tree.isEmpty()) {
+            return;
+        }
+
+        long rss = 0L;
+        for (ProcessSample sample : tree) {
+            cpuTimes.put(sample.getPid() + ":" + sample.getStartTicks(), sample.getCpuTime());
+            rss += sample.getRss();
+        }
+
+        stats.setSamples(stats.getSamples() + 1);
+        stats.setCpuTime(cpuTimes.values().stream().mapToLong(Long::longValue).sum());
+        stats.setPeakRss(Math.max(stats.getPeakRss(), rss));
+        stats.setChildProcesses(cpuTimes.size() - 1);
+        stats.setPeakChildProcesses(Math.max(stats.getPeakChildProcesses(), tree.size() - 1));
+        stats.setWallTime(System.currentTimeMillis() - stats.getStartTime());
+    }
+
+    /**
+     * Stops sampling and marks stats as complete.
+     * @param exitCode exit code or null when process did not exit normally
+     * @return final stats
+     */
+    public synchronized ProcessStats complete(Integer exitCode) {
+        if (samplingTask != null) {
+            samplingTask.cancel(false);
+        }
+
+        if (!stats.isComplete()) {
+            stats.setEndTime(System.currentTimeMillis());
+            stats.setWallTime(stats.getEndTime() - stats.getStartTime());
+            stats.setExitCode(exitCode);
+            stats.setComplete(true);
+        }
+
+        return stats.copy();
+    }
+
+    /**
+     * Gets current stats snapshot.
+     * @return
+     */
+    public synchronized ProcessStats getStats() {
+        ProcessStats snapshot = stats.copy();
+        if (!snapshot.isComplete()) {
+            snapshot.setWallTime(System.currentTimeMillis() - snapshot.getStartTime());
+        }
+        return snapshot;
+    }
+
+    /**
+     * Sets the periodic sampling task.
+     *
+     * @param samplingTask
+     */
+    public synchronized void setSamplingTask(ScheduledFuture<?> samplingTask) {
+        this.samplingTask = samplingTask;
+
+        if (stats.isComplete()) {
+            samplingTask.cancel(false);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.stats;
+
+import com.consol.citrus.admin.Application;
+import com.consol.citrus.admin.configuration.SystemSettings;
+import com.consol.citrus.admin.model.ProcessStats;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts resource accounting for launched processes and keeps the stats of the latest processes. Process trees are
+ * sampled periodically on a single sampling thread so reading the proc file system never delays process timeouts.
+ *
+ * @author Christoph Deppisch
+ */
+@Component
+public class ProcessStatsRegistry {
+
+    /** Default resource sampling interval in milliseconds and number of process stats to keep */
+    private static final int DEFAULT_STATS_INTERVAL = 1000;
+    private static final int DEFAULT_STATS_RETENTION = 500;
+
+    private int statsInterval = SystemSettings.getInt(Application.PROCESS_STATS_INTERVAL, Application.PROCESS_STATS_INTERVAL_ENV, DEFAULT_STATS_INTERVAL);
+    private final int statsRetention = SystemSettings.getInt(Application.PROCESS_STATS_RETENTION, Application.PROCESS_STATS_RETENTION_ENV, DEFAULT_STATS_RETENTION);
+
+    private final ProcessTreeSampler treeSampler = new ProcessTreeSampler();
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    /** Resource monitors of latest processes in order of launch */
+    private final Map<String, ProcessResourceMonitor> resourceMonitors = Collections.synchronizedMap(new LinkedHashMap<String, ProcessResourceMonitor>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, ProcessResourceMonitor> eldest) {
+            return size() > statsRetention;
+        }
+    });
+
+    /**
+     * Default constructor.
+     */
+    public ProcessStatsRegistry() {
+        this.scheduler = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "process-stats");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Starts resource accounting for launched process. The process tree is sampled periodically on the sampling thread.
+     * @param processId
+     * @param process
+     * @param command
+     * @return
+     */
+    public ProcessResourceMonitor monitorResources(String processId, Process process, String command) {
+        ProcessResourceMonitor monitor = new ProcessResourceMonitor(treeSampler, processId, command, ProcessTreeSampler.getPid(process));
+        resourceMonitors.put(processId, monitor);
+
+        if (monitor.getStats().isSupported()) {
+            monitor.sample();
+            monitor.setSamplingTask(scheduler.scheduleAtFixedRate(monitor::sample, statsInterval, statsInterval, TimeUnit.MILLISECONDS));
+        }
+
+        return monitor;
+    }
+
+    /**
+     * Gets resource stats for given process.
+     * @param processId
+     * @return
+     */
+    public Optional<ProcessStats> getProcessStats(String processId) {
+        return Optional.ofNullable(resourceMonitors.get(processId)).map(ProcessResourceMonitor::getStats);
+    }
+
+    /**
+     * Stops sampling thread.
+     */
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Sets the resource sampling interval in milliseconds.
+     *
+     * @param statsInterval
+     */
+    public void setStatsInterval(int statsInterval) {
+        this.statsInterval = statsInterval;
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.stats;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads resource usage of a process tree from the Linux proc file system.
+ *
+ * @author Christoph Deppisch
+ */
+public class ProcessTreeSampler {
+
+    /** Common Linux clock ticks per second (USER_HZ) and memory page size used when system config is not readable */
+    private static final long DEFAULT_CLOCK_TICKS = 100L;
+    private static final long DEFAULT_PAGE_SIZE = 4096L;
+
+    /** Time to wait for system config query */
+    private static final long GETCONF_TIMEOUT = 5000L;
+
+    /** System clock ticks and page size, read once on first use */
+    private static long systemClockTicks;
+    private static long systemPageSize;
+
+    private final Path procRoot;
+    private final long clockTicks;
+    private final long pageSize;
+
+    /**
+     * Default constructor using proc file system root.
+     */
+    public ProcessTreeSampler() {
+        this(Paths.get("/proc"));
+    }
+
+    /**
+     * Constructor using proc root directory. Clock ticks and page size are read from system config.
+     * @param procRoot
+     */
+    public ProcessTreeSampler(Path procRoot) {
+        this(procRoot, getSystemClockTicks(), getSystemPageSize());
+    }
+
+    /**
+     * Constructor using proc root directory, clock ticks per second and memory page size in bytes.
+     * @param procRoot
+     * @param clockTicks
+     * @param pageSize
+     */
+    public ProcessTreeSampler(Path procRoot, long clockTicks, long pageSize) {
+        this.procRoot = procRoot;
+        this.clockTicks = clockTicks;
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Checks if proc file system is available on this platform.
+     * @return
+     */
+    public boolean isSupported() {
+        return Files.isDirectory(procRoot.resolve("self"));
+    }
+
+    /**
+     * Reads stats of process and all of its descendants. Processes that are gone or not readable are skipped.
+     * @param rootPid
+     * @return
+     */
+    public List<ProcessSample> sample(long rootPid) {
+        List<ProcessSample> tree = new ArrayList<>();
+        Deque<Long> pending = new ArrayDeque<>();
+        pending.add(rootPid);
+
+        Map<Long, List<Long>> children = null;
+        while (!pending.isEmpty()) {
+            long pid = pending.poll();
+            Optional<ProcessSample> sample = read(pid);
+            if (!sample.isPresent()) {
+                continue;
+            }
+
+            tree.add(sample.get());
+
+            Optional<List<Long>> direct = readChildren(pid);
+            if (direct.isPresent()) {
+                pending.addAll(direct.get());
+            } else {
+                if (children == null) {
+                    children = scanChildren();
+                }
+                pending.addAll(children.getOrDefault(pid, Collections.emptyList()));
+            }
+        }
+
+        return tree;
+    }
+
+    /**
+     * Reads single process stat file.
+     * @param pid
+     * @return
+     */
+    Optional<ProcessSample> read(long pid) {
+        try {
+            String stat = new String(Files.readAllBytes(procRoot.resolve(String.valueOf(pid)).resolve("stat")), StandardCharsets.US_ASCII);
+
+            // command name may contain spaces so fields are read after the closing bracket
+            String[] fields = stat.substring(stat.lastIndexOf(')') + 2).trim().split("\\s+");
+            char state = fields[0].charAt(0);
+            long parent = Long.parseLong(fields[1]);
+            long cpuTicks = Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+            long startTicks = Long.parseLong(fields[19]);
+            long rssPages = Long.parseLong(fields[21]);
+
+            return Optional.of(new ProcessSample(pid, parent, state, startTicks, cpuTicks * 1000L / clockTicks, rssPages * pageSize));
+        } catch (IOException | RuntimeException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Checks if sampled process is still running. Zombie processes have terminated and only wait to be reaped.
+     * A reused pid with different start time belongs to another process.
+     * @param sample
+     * @return
+     */
+    public boolean isAlive(ProcessSample sample) {
+        return read(sample.getPid())
+                .filter(current -> current.getStartTicks() == sample.getStartTicks())
+                .filter(current -> current.getState() != 'Z' && current.getState() != 'X')
+                .isPresent();
+    }
+
+    /**
+     * Reads child process ids of all threads of given process. Returns empty optional when kernel does not expose
+     * children files.
+     * @param pid
+     * @return
+     */
+    private Optional<List<Long>> readChildren(long pid) {
+        Path tasks = procRoot.resolve(String.valueOf(pid)).resolve("task");
+        List<Long> children = new ArrayList<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(tasks)) {
+            for (Path task : stream) {
+                Path childrenFile = task.resolve("children");
+                if (!Files.exists(childrenFile)) {
+                    return Optional.empty();
+                }
+
+                for (String child : new String(Files.readAllBytes(childrenFile), StandardCharsets.US_ASCII).trim().split("\\s+")) {
+                    if (!child.isEmpty()) {
+                        children.add(Long.parseLong(child));
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // process is gone or task is not readable - use whatever we have read so far
+        }
+
+        return Optional.of(children);
+    }
+
+    /**
+     * Scans all processes and maps parent process ids to child process ids.
+     * @return
+     */
+    private Map<Long, List<Long>> scanChildren() {
+        Map<Long, List<Long>> children = new HashMap<>();
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(procRoot, path -> path.getFileName().toString().chars().allMatch(Character::isDigit))) {
+            for (Path path : stream) {
+                read(Long.parseLong(path.getFileName().toString()))
+                        .ifPresent(sample -> children.computeIfAbsent(sample.getParent(), key -> new ArrayList<>()).add(sample.getPid()));
+            }
+        } catch (IOException e) {
+            // proc file system not readable
+        }
+
+        return children;
+    }
+
+    /**
+     * Gets clock ticks per second of this system.
+     * @return
+     */
+    private static synchronized long getSystemClockTicks() {
+        if (systemClockTicks == 0L) {
+            systemClockTicks = getconf("CLK_TCK", DEFAULT_CLOCK_TICKS);
+        }
+
+        return systemClockTicks;
+    }
+
+    /**
+     * Gets memory page size in bytes of this system.
+     * @return
+     */
+    private static synchronized long getSystemPageSize() {
+        if (systemPageSize == 0L) {
+            systemPageSize = getconf("PAGESIZE", DEFAULT_PAGE_SIZE);
+        }
+
+        return systemPageSize;
+    }
+
+    /**
+     * Reads numeric system configuration value using getconf. Falls back to given default value when getconf is not
+     * available or does not print a positive number.
+     * @param name
+     * @param defaultValue
+     * @return
+     */
+    private static long getconf(String name, long defaultValue) {
+        try {
+            Process getconf = new ProcessBuilder("getconf", name).redirectErrorStream(true).start();
+            String value;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(getconf.getInputStream(), StandardCharsets.US_ASCII))) {
+                value = reader.readLine();
+            }
+
+            if (!getconf.waitFor(GETCONF_TIMEOUT, TimeUnit.MILLISECONDS)) {
+                getconf.destroyForcibly();
+                return defaultValue;
+            }
+
+            long result = value != null ? Long.parseLong(value.trim()) : -1L;
+            return result > 0 ? result : defaultValue;
+        } catch (IOException | NumberFormatException e) {
+            return defaultValue;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Gets native process id of given process or -1 when not available. Java 8 does not provide public access
+     * to the process id so the private field of the platform process implementation is used then.
+     * @param process
+     * @return
+     */
+    public static long getPid(Process process) {
+        try {
+            Method pid = Process.class.getMethod("pid");
+            return (Long) pid.invoke(process);
+        } catch (ReflectiveOperationException e) {
+            try {
+                Field pid = process.getClass().getDeclaredField("pid");
+                pid.setAccessible(true);
+                return pid.getLong(process);
+            } catch (ReflectiveOperationException | RuntimeException ex) {
+                return -1L;
+            }
+        }
+    }
+
+    /**
+     * Resource usage of a single process.
+     */
+    public static final class ProcessSample {
+        private final long pid;
+        private final long parent;
+        private final char state;
+        private final long startTicks;
+        private final long cpuTime;
+        private final long rss;
+
+        ProcessSample(long pid, long parent, char state, long startTicks, long cpuTime, long rss) {
+            this.pid = pid;
+            this.parent = parent;
+            this.state = state;
+            this.startTicks = startTicks;
+            this.cpuTime = cpuTime;
+            this.rss = rss;
+        }
+
+        public long getPid() {
+            return pid;
+        }
+
+        public long getParent() {
+            return parent;
+        }
+
+        /**
+         * Gets process state as shown in proc stat file e.g. R (running), S (sleeping) or Z (zombie).
+         * @return
+         */
+        public char getState() {
+            return state;
+        }
+
+        /**
+         * Gets process start time in clock ticks since boot. Used together with pid to identify processes even if
+         * pids are reused.
+         * @return
+         */
+        public long getStartTicks() {
+            return startTicks;
+        }
+
+        /**
+         * Gets user and system CPU time in milliseconds.
+         * @return
+         */
+        public long getCpuTime() {
+            return cpuTime;
+        }
+
+        /**
+         * Gets resident set size in bytes.
+         * @return
+         */
+        public long getRss() {
+            return rss;
+        }
+    }
+}
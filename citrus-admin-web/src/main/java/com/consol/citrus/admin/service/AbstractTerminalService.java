@@ -16,7 +16,11 @@
 
 package com.consol.citrus.admin.service;
 
+import com.consol.citrus.admin.process.ProcessExecutor;
 import com.consol.citrus.admin.process.ProcessMonitor;
+import com.consol.citrus.admin.process.ProcessTreeTerminator;
+import com.consol.citrus.admin.process.event.ProcessEventExecutor;
+import com.consol.citrus.admin.process.stats.ProcessStatsRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.concurrent.atomic.AtomicInteger;
@@ -29,6 +33,18 @@ public abstract class AbstractTerminalService implements TerminalService {
     @Autowired
     private ProcessMonitor processMonitor;
 
+    @Autowired
+    private ProcessExecutor processExecutor;
+
+    @Autowired
+    private ProcessEventExecutor eventExecutor;
+
+    @Autowired
+    private ProcessStatsRegistry statsRegistry;
+
+    @Autowired
+    private ProcessTreeTerminator treeTerminator;
+
     private AtomicInteger pid = new AtomicInteger(100);
 
     @Override
@@ -64,4 +80,68 @@ public abstract class AbstractTerminalService implements TerminalService {
     public void setProcessMonitor(ProcessMonitor processMonitor) {
         this.processMonitor = processMonitor;
     }
+
+    /**
+     * Gets the processExecutor.
+     * @return
+     */
+    public ProcessExecutor getProcessExecutor() {
+        return processExecutor;
+    }
+
+    /**
+     * Sets the processExecutor.
+     * @param processExecutor
+     */
+    public void setProcessExecutor(ProcessExecutor processExecutor) {
+        this.processExecutor = processExecutor;
+    }
+
+    /**
+     * Gets the eventExecutor.
+     * @return
+     */
+    public ProcessEventExecutor getEventExecutor() {
+        return eventExecutor;
+    }
+
+    /**
+     * Sets the eventExecutor.
+     * @param eventExecutor
+     */
+    public void setEventExecutor(ProcessEventExecutor eventExecutor) {
+        this.eventExecutor = eventExecutor;
+    }
+
+    /**
+     * Gets the statsRegistry.
+     * @return
+     */
+    public ProcessStatsRegistry getStatsRegistry() {
+        return statsRegistry;
+    }
+
+    /**
+     * Sets the statsRegistry.
+     * @param statsRegistry
+     */
+    public void setStatsRegistry(ProcessStatsRegistry statsRegistry) {
+        this.statsRegistry = statsRegistry;
+    }
+
+    /**
+     * Gets the treeTerminator.
+     * @return
+     */
+    public ProcessTreeTerminator getTreeTerminator() {
+        return treeTerminator;
+    }
+
+    /**
+     * Sets the treeTerminator.
+     * @param treeTerminator
+     */
+    public void setTreeTerminator(ProcessTreeTerminator treeTerminator) {
+        this.treeTerminator = treeTerminator;
+    }
 }
@@ -0,0 +1,391 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.service;
+
+import com.consol.citrus.admin.model.Project;
+import com.consol.citrus.admin.process.listener.AbstractProcessListener;
+import com.consol.citrus.admin.process.listener.ProcessListener;
+import com.consol.citrus.admin.service.command.maven.MavenBuildContext;
+import com.consol.citrus.admin.service.command.maven.MavenBuildPlan;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Decides Maven lifecycle phases and options from fingerprints of project sources and POMs. Fingerprints of the last
+ * successful build are saved in the project build metadata. Clean and compile are skipped when sources and POMs are
+ * unchanged. When enabled in the build context Maven runs offline and quiet when the dependency set is unchanged, as
+ * SNAPSHOT dependencies are not updated and warnings are hidden in this mode.
+ *
+ * @author Christoph Deppisch
+ */
+@Service
+public class BuildAvoidanceService {
+
+    /** Logger */
+    private static Logger log = LoggerFactory.getLogger(BuildAvoidanceService.class);
+
+    /** Build metadata file relative to project home, removed with the build output on clean */
+    public static final String BUILD_METADATA_FILE = "target" + File.separator + "citrus-admin" + File.separator + "build.properties";
+
+    private static final String SOURCES = "fingerprint.sources";
+    private static final String POMS = "fingerprint.poms";
+    private static final String DEPENDENCIES = "fingerprint.dependencies";
+    private static final String FULL_BUILD_DURATION = "duration.full";
+
+    /** Source directories relative to project or module home */
+    private static final String[] SOURCE_DIRECTORIES = { "src" + File.separator + "main", "src" + File.separator + "test" };
+
+    @Autowired
+    private ProjectFileIndex projectFileIndex;
+
+    /** File content digests cached by path and valid as long as size and modification time are unchanged */
+    private final Map<Path, FileDigest> digests = new ConcurrentHashMap<>();
+
+    /**
+     * Creates build plan for project.
+     * @param project
+     * @param buildContext
+     * @return
+     */
+    public MavenBuildPlan plan(Project project, MavenBuildContext buildContext) {
+        String poms = getPomFingerprint(project);
+        MavenBuildPlan plan = new MavenBuildPlan(getSourceFingerprint(project), poms,
+                digest(poms + ":" + Optional.ofNullable(buildContext.getProfiles()).orElse("")));
+
+        plan.setClean(buildContext.isClean());
+        plan.setCompile(buildContext.isCompile());
+
+        if (!buildContext.isBuildAvoidance() || StringUtils.hasText(buildContext.getCommand())) {
+            return plan;
+        }
+
+        Properties metadata = loadMetadata(project);
+        plan.setFullBuildDuration(Long.parseLong(metadata.getProperty(FULL_BUILD_DURATION, "0")));
+
+        boolean unchanged = hasBuildOutput(project)
+                && plan.getSources().equals(metadata.getProperty(SOURCES))
+                && plan.getPoms().equals(metadata.getProperty(POMS));
+        plan.setUpToDate(unchanged);
+
+        if (unchanged && plan.isClean()) {
+            plan.setClean(false);
+            plan.skip("clean");
+        }
+
+        if (unchanged && plan.isCompile()) {
+            plan.setCompile(false);
+            plan.setSkipMainCompile(true);
+            plan.skip("compile");
+        }
+
+        if (buildContext.isOfflineBuild() && plan.getDependencies().equals(metadata.getProperty(DEPENDENCIES))) {
+            plan.setOffline(true);
+            plan.setQuiet(true);
+            plan.skip("remote repository checks");
+        }
+
+        return plan;
+    }
+
+    /**
+     * Saves fingerprints of successful build in project build metadata. Duration is saved as reference
+     * for time savings when no build steps were skipped.
+     * @param project
+     * @param plan
+     * @param duration
+     */
+    public void record(Project project, MavenBuildPlan plan, long duration) {
+        Properties metadata = loadMetadata(project);
+        metadata.setProperty(SOURCES, plan.getSources());
+        metadata.setProperty(POMS, plan.getPoms());
+        metadata.setProperty(DEPENDENCIES, plan.getDependencies());
+
+        if (plan.getSkipped().isEmpty()) {
+            metadata.setProperty(FULL_BUILD_DURATION, String.valueOf(duration));
+        }
+
+        File metadataFile = new File(project.getProjectHome(), BUILD_METADATA_FILE);
+        try {
+            Files.createDirectories(metadataFile.getParentFile().toPath());
+            try (OutputStream out = new FileOutputStream(metadataFile)) {
+                metadata.store(out, "citrus-admin build metadata");
+            }
+        } catch (IOException e) {
+            log.warn("Failed to save build metadata", e);
+        }
+    }
+
+    /**
+     * Adds listener to given process listeners that reports skipped build steps and saves fingerprints
+     * once the build has completed.
+     * @param project
+     * @param plan
+     * @param processListeners
+     * @return
+     */
+    public ProcessListener[] track(Project project, MavenBuildPlan plan, ProcessListener ... processListeners) {
+        ProcessListener[] listeners = new ProcessListener[processListeners.length + 1];
+        listeners[0] = new BuildTrackingListener(project, plan, processListeners);
+        System.arraycopy(processListeners, 0, listeners, 1, processListeners.length);
+        return listeners;
+    }
+
+    /**
+     * Checks for compiled classes from previous build in project or any of its modules.
+     * @param project
+     * @return
+     */
+    private boolean hasBuildOutput(Project project) {
+        return getModuleDirectories(project).stream().anyMatch(module ->
+                Files.isDirectory(module.resolve("target").resolve("classes")) ||
+                Files.isDirectory(module.resolve("target").resolve("test-classes")));
+    }
+
+    /**
+     * Gets project home and directories of all modules holding a POM file.
+     * @param project
+     * @return
+     */
+    private Set<Path> getModuleDirectories(Project project) {
+        Set<Path> modules = new TreeSet<>();
+        modules.add(Paths.get(project.getProjectHome()));
+
+        for (File pom : projectFileIndex.findFiles(project, "pom.xml")) {
+            modules.add(pom.toPath().getParent());
+        }
+
+        return modules;
+    }
+
+    /**
+     * Loads build metadata of project.
+     * @param project
+     * @return
+     */
+    private Properties loadMetadata(Project project) {
+        Properties metadata = new Properties();
+        File metadataFile = new File(project.getProjectHome(), BUILD_METADATA_FILE);
+
+        if (metadataFile.exists()) {
+            try (InputStream in = new FileInputStream(metadataFile)) {
+                metadata.load(in);
+            } catch (IOException e) {
+                log.warn("Failed to read build metadata", e);
+            }
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Fingerprint of all files in main and test source directories of project and its modules.
+     * @param project
+     * @return
+     */
+    String getSourceFingerprint(Project project) {
+        Path projectHome = Paths.get(project.getProjectHome());
+        Map<String, String> files = new TreeMap<>();
+
+        for (Path module : getModuleDirectories(project)) {
+            for (String sourceDirectory : SOURCE_DIRECTORIES) {
+                Path directory = module.resolve(sourceDirectory);
+                if (!Files.isDirectory(directory)) {
+                    continue;
+                }
+
+                try {
+                    Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+                        @Override
+                        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                            files.put(projectHome.relativize(file).toString(), getDigest(file, attrs));
+                            return FileVisitResult.CONTINUE;
+                        }
+
+                        @Override
+                        public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                            return FileVisitResult.CONTINUE;
+                        }
+                    });
+                } catch (IOException e) {
+                    log.warn("Failed to read project sources", e);
+                }
+            }
+        }
+
+        return digest(files);
+    }
+
+    /**
+     * Fingerprint of all POM files in project.
+     * @param project
+     * @return
+     */
+    String getPomFingerprint(Project project) {
+        Path projectHome = Paths.get(project.getProjectHome());
+        Map<String, String> files = new TreeMap<>();
+
+        for (File pom : projectFileIndex.findFiles(project, "pom.xml")) {
+            try {
+                files.put(projectHome.relativize(pom.toPath()).toString(), getDigest(pom.toPath(), Files.readAttributes(pom.toPath(), BasicFileAttributes.class)));
+            } catch (IOException e) {
+                log.warn("Failed to read POM file " + pom.getAbsolutePath(), e);
+            }
+        }
+
+        return digest(files);
+    }
+
+    /**
+     * Gets content digest of file from cache or reads file when changed.
+     * @param file
+     * @param attrs
+     * @return
+     */
+    private String getDigest(Path file, BasicFileAttributes attrs) {
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        FileDigest cached = digests.get(file);
+        if (cached != null && cached.size == attrs.size() && cached.lastModified == lastModified) {
+            return cached.digest;
+        }
+
+        try (InputStream in = Files.newInputStream(file)) {
+            FileDigest digest = new FileDigest(attrs.size(), lastModified, DigestUtils.md5DigestAsHex(in));
+            digests.put(file, digest);
+            return digest.digest;
+        } catch (IOException e) {
+            log.warn("Failed to read file " + file, e);
+            return "";
+        }
+    }
+
+    /**
+     * Combines file digests to single fingerprint.
+     * @param files
+     * @return
+     */
+    private static String digest(Map<String, String> files) {
+        StringBuilder content = new StringBuilder();
+        files.forEach((file, digest) -> content.append(file).append('=').append(digest).append('\n'));
+        return digest(content.toString());
+    }
+
+    private static String digest(String content) {
+        return DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Sets the projectFileIndex.
+     *
+     * @param projectFileIndex
+     */
+    public void setProjectFileIndex(ProjectFileIndex projectFileIndex) {
+        this.projectFileIndex = projectFileIndex;
+    }
+
+    /**
+     * Cached file digest.
+     */
+    private static class FileDigest {
+        private final long size;
+        private final long lastModified;
+        private final String digest;
+
+        FileDigest(long size, long lastModified, String digest) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.digest = digest;
+        }
+    }
+
+    /**
+     * Reports skipped build steps and saves build fingerprints on completion.
+     */
+    private class BuildTrackingListener extends AbstractProcessListener {
+        private final Project project;
+        private final MavenBuildPlan plan;
+        private final ProcessListener[] processListeners;
+
+        private long start;
+        private volatile boolean testsRun = false;
+
+        BuildTrackingListener(Project project, MavenBuildPlan plan, ProcessListener ... processListeners) {
+            this.project = project;
+            this.plan = plan;
+            this.processListeners = processListeners;
+        }
+
+        @Override
+        public void onProcessStart(String processId) {
+            start = System.currentTimeMillis();
+
+            if (!plan.getSkipped().isEmpty()) {
+                output(processId, "Build avoidance skipped " + StringUtils.collectionToDelimitedString(plan.getSkipped(), ", "));
+            }
+        }
+
+        @Override
+        public void onProcessActivity(String processId, String output) {
+            if (output.contains("Tests run:")) {
+                testsRun = true;
+            }
+        }
+
+        @Override
+        public void onProcessSuccess(String processId) {
+            completed(processId);
+        }
+
+        @Override
+        public void onProcessFail(String processId, int exitCode) {
+            // test failures fail the build but sources have been compiled successfully
+            if (testsRun) {
+                completed(processId);
+            }
+        }
+
+        /**
+         * Saves fingerprints and reports saved time compared to last full build.
+         * @param processId
+         */
+        private void completed(String processId) {
+            long duration = System.currentTimeMillis() - start;
+            record(project, plan, duration);
+
+            if (!plan.getSkipped().isEmpty() && plan.getFullBuildDuration() > 0) {
+                output(processId, String.format("Build avoidance saved %.1f s compared to last full build (%.1f s)",
+                        Math.max(0L, plan.getFullBuildDuration() - duration) / 1000D, plan.getFullBuildDuration() / 1000D));
+            }
+        }
+
+        private void output(String processId, String line) {
+            Stream.of(processListeners).forEach(listener -> listener.onProcessOutput(processId, line + System.lineSeparator()));
+        }
+    }
+}
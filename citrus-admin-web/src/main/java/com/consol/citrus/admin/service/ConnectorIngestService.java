@@ -0,0 +1,299 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.service;
+
+import com.consol.citrus.admin.Application;
+import com.consol.citrus.admin.configuration.SystemSettings;
+import com.consol.citrus.admin.model.*;
+import com.consol.citrus.admin.process.listener.SocketEventPublisher;
+import com.consol.citrus.admin.process.message.MessageStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+/**
+ * Decouples connector REST and STOMP endpoints from the message broker. Incoming connector events are added to a
+ * bounded ingest queue and published to socket clients by a dedicated dispatcher thread, so request threads return
+ * immediately even when a parallel test run sends bursts of events. Events exceeding the queue capacity are rejected
+ * and counted as dropped.
+ *
+ * @author Christoph Deppisch
+ */
+@Service
+public class ConnectorIngestService {
+
+    /** Logger */
+    private static Logger log = LoggerFactory.getLogger(ConnectorIngestService.class);
+
+    /** Default maximum number of queued events */
+    private static final int DEFAULT_CAPACITY = 10000;
+
+    @Autowired
+    private SocketEventPublisher eventPublisher;
+
+    @Autowired
+    private MessageStore messageStore;
+
+    private int capacity = SystemSettings.getInt(Application.CONNECTOR_INGEST_CAPACITY, Application.CONNECTOR_INGEST_CAPACITY_ENV, DEFAULT_CAPACITY);
+
+    /** Queued event batches and number of queued events */
+    private final BlockingQueue<IngestTask> queue = new LinkedBlockingQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder latencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    /** Dispatcher thread guarded by this */
+    private Thread dispatcher;
+    private volatile boolean running = false;
+
+    /** Set while dispatcher publishes a batch */
+    private volatile boolean busy = false;
+
+    /** Name of running test by connector process id and last started test, only accessed by the dispatcher thread */
+    private final Map<String, String> runningTests = new HashMap<>();
+    private String lastTest;
+
+    /**
+     * Adds events to the ingest queue.
+     * @param events
+     * @return false when queue capacity is exceeded and events have been dropped
+     */
+    public boolean submit(List<ConnectorEvent> events) {
+        if (events.isEmpty()) {
+            return true;
+        }
+
+        int size = events.size();
+        int current;
+        do {
+            current = depth.get();
+            if (current > 0 && current + size > capacity) {
+                dropped.add(size);
+                log.debug(String.format("Connector ingest queue full - dropping %s events", size));
+                return false;
+            }
+        } while (!depth.compareAndSet(current, current + size));
+
+        start();
+        accepted.add(size);
+        queue.add(new IngestTask(events));
+        return true;
+    }
+
+    /**
+     * Adds single event to the ingest queue.
+     * @param event
+     * @return false when queue capacity is exceeded and event has been dropped
+     */
+    public boolean submit(ConnectorEvent event) {
+        return submit(Collections.singletonList(event));
+    }
+
+    /**
+     * Waits until all queued events have been dispatched.
+     * @param timeout in milliseconds
+     * @return false when events are left after timeout
+     * @throws InterruptedException
+     */
+    public boolean awaitIdle(long timeout) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeout;
+        while (depth.get() > 0 || busy) {
+            if (System.currentTimeMillis() > deadline) {
+                return false;
+            }
+
+            Thread.sleep(5L);
+        }
+
+        return true;
+    }
+
+    /**
+     * Starts dispatcher thread if not running yet.
+     */
+    private synchronized void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        dispatcher = new Thread(this::dispatch, "connector-ingest");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Takes event batches from the queue and publishes them until the service is stopped.
+     */
+    private void dispatch() {
+        while (running) {
+            IngestTask task;
+            try {
+                task = queue.take();
+            } catch (InterruptedException e) {
+                if (!running) {
+                    break;
+                }
+                continue;
+            }
+
+            busy = true;
+            try {
+                for (ConnectorEvent event : task.events) {
+                    try {
+                        publish(event);
+                        dispatched.increment();
+                    } catch (RuntimeException e) {
+                        errors.increment();
+                        log.warn(String.format("Failed to dispatch connector event of type '%s'", event.getType()), e);
+                    }
+                }
+            } finally {
+                long latency = System.nanoTime() - task.created;
+                latencyNanos.add(latency * task.events.size());
+                maxLatencyNanos.accumulateAndGet(latency, Math::max);
+                depth.addAndGet(-task.events.size());
+                busy = false;
+            }
+        }
+    }
+
+    /**
+     * Publishes connector event to socket event topics.
+     * @param event
+     */
+    private void publish(ConnectorEvent event) {
+        if (ConnectorEvent.RESULT.equals(event.getType()) && event.getResult() != null) {
+            eventPublisher.publish(SocketEventPublisher.Topic.RESULTS, event.getResult().getProcessId(), event.getResult());
+        } else if (ConnectorEvent.TEST_EVENT.equals(event.getType()) && event.getEvent() != null) {
+            trackTest(event.getEvent());
+            eventPublisher.publish(SocketEventPublisher.Topic.EVENTS, event.getEvent().getProcessId(), event.getEvent());
+        } else if (ConnectorEvent.MESSAGE.equals(event.getType())) {
+            MessageEvent direction = MessageEvent.OUTBOUND.name().equalsIgnoreCase(event.getDirection()) ? MessageEvent.OUTBOUND : MessageEvent.INBOUND;
+            publishMessage(event.getProcessId(), direction, event.getMessage(), event.isTruncated(), event.getSize());
+        }
+    }
+
+    /**
+     * Keeps track of the test running in connector process so exchanged messages are stored with the test name.
+     * @param event
+     */
+    private void trackTest(SocketEvent event) {
+        if (SocketEvent.EventType.TEST_START.equals(event.getType()) && event.getMsg() != null) {
+            lastTest = event.getMsg();
+            if (event.getProcessId() != null) {
+                runningTests.put(event.getProcessId(), event.getMsg());
+            }
+        } else if ((SocketEvent.EventType.TEST_SUCCESS.equals(event.getType()) || SocketEvent.EventType.TEST_FAILED.equals(event.getType()))
+                && event.getProcessId() != null) {
+            runningTests.remove(event.getProcessId());
+        }
+    }
+
+    /**
+     * Stores message with name of the test running in the connector process and publishes message event with
+     * payload preview. Messages without process id belong to the last started test.
+     * @param processId
+     * @param direction
+     * @param messageData
+     * @param truncated payload has been truncated by the connector
+     * @param size original payload size reported by the connector
+     */
+    private void publishMessage(String processId, MessageEvent direction, String messageData, boolean truncated, long size) {
+        String testName = processId != null && !processId.isEmpty() ? runningTests.getOrDefault(processId, processId) : lastTest;
+        eventPublisher.publish(SocketEventPublisher.Topic.MESSAGES, processId,
+                messageStore.createEvent(processId, testName, direction, messageData, truncated, size));
+    }
+
+    /**
+     * Gets ingest queue depth, drop counts and dispatch latency.
+     * @return
+     */
+    public Map<String, Object> getMetrics() {
+        long count = dispatched.sum() + errors.sum();
+
+        Map<String, Object> metrics = new LinkedHashMap<>();
+        metrics.put("depth", depth.get());
+        metrics.put("capacity", capacity);
+        metrics.put("accepted", accepted.sum());
+        metrics.put("dropped", dropped.sum());
+        metrics.put("dispatched", dispatched.sum());
+        metrics.put("errors", errors.sum());
+        metrics.put("avgLatencyMillis", count > 0 ? TimeUnit.NANOSECONDS.toMillis(latencyNanos.sum() / count) : 0L);
+        metrics.put("maxLatencyMillis", TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()));
+        return metrics;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+            dispatcher = null;
+        }
+    }
+
+    /**
+     * Sets the maximum number of queued events.
+     *
+     * @param capacity
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Sets the eventPublisher.
+     *
+     * @param eventPublisher
+     */
+    public void setEventPublisher(SocketEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Sets the messageStore.
+     *
+     * @param messageStore
+     */
+    public void setMessageStore(MessageStore messageStore) {
+        this.messageStore = messageStore;
+    }
+
+    /**
+     * Batch of events with time of arrival.
+     */
+    private static class IngestTask {
+        private final List<ConnectorEvent> events;
+        private final long created = System.nanoTime();
+
+        IngestTask(List<ConnectorEvent> events) {
+            this.events = events;
+        }
+    }
+}
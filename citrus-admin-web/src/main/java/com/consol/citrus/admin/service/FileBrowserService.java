@@ -18,12 +18,16 @@ package com.consol.citrus.admin.service;
 
 import com.consol.citrus.Citrus;
 import com.consol.citrus.admin.exception.ApplicationRuntimeException;
+import com.consol.citrus.admin.model.DirectoryListing;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.io.*;
 import java.net.URLDecoder;
-import java.util.Arrays;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.*;
 
 /**
  * @author Christoph Deppisch, Martin Maher
@@ -34,29 +38,127 @@ public class FileBrowserService {
     private static final char UNIX_SEPARATOR = '/';
     private static final char WINDOWS_SEPARATOR = '\\';
 
+    /** Time directory listings are cached before they get validated again */
+    private static final long LISTING_CACHE_TIMEOUT = 10000L;
+
+    /** Maximum number of cached directory listings */
+    private static final int LISTING_CACHE_SIZE = 256;
+
+    /** Recently read directory listings */
+    private final Map<Path, Listing> listings = Collections.synchronizedMap(new LinkedHashMap<Path, Listing>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, Listing> eldest) {
+            return size() > LISTING_CACHE_SIZE;
+        }
+    });
+
     /**
      * Gets all sub-folder names in give directory.
      * @param directory
      * @return
      */
     public String[] getFolders(File directory) {
-        if (directory.exists()) {
-            String[] files = directory.list(new FilenameFilter() {
-                public boolean accept(File dir, String name) {
-                    return name.charAt(0) != '.' && new File(dir, name).isDirectory();
-                }
-            });
+        List<String> folders = getListing(directory).folders;
+        return folders.toArray(new String[folders.size()]);
+    }
 
+    /**
+     * Gets page of sub-folder names in given directory. Folder names are sorted case insensitive.
+     * @param directory
+     * @param offset
+     * @param limit
+     * @return
+     */
+    public DirectoryListing getFolders(File directory, int offset, int limit) {
+        List<String> folders = getListing(directory).folders;
 
-            if (files != null) {
-                Arrays.sort(files, String.CASE_INSENSITIVE_ORDER);
-                return files;
-            } else {
-                return new String[] {};
-            }
-        } else {
+        int from = Math.min(Math.max(offset, 0), folders.size());
+        int to = limit > 0 ? Math.min(from + limit, folders.size()) : folders.size();
+
+        DirectoryListing listing = new DirectoryListing();
+        listing.setDirectory(directory.getPath());
+        listing.setFolders(new ArrayList<>(folders.subList(from, to)));
+        listing.setOffset(from);
+        listing.setLimit(limit);
+        listing.setTotal(folders.size());
+        return listing;
+    }
+
+    /**
+     * Checks if directory contains a file or folder with given name.
+     * @param directory
+     * @param name
+     * @return
+     */
+    public boolean containsEntry(File directory, String name) {
+        return getListing(directory).names.contains(name);
+    }
+
+    /**
+     * Gets cached directory listing. Cached listings are reused for a short period of time as long as the directory
+     * has not been modified. Otherwise directory entries are read again.
+     * @param directory
+     * @return
+     */
+    private Listing getListing(File directory) {
+        Path path = directory.toPath().toAbsolutePath().normalize();
+
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (IOException e) {
+            listings.remove(path);
             throw new ApplicationRuntimeException("Could not open directory because it does not exist: " + directory);
         }
+
+        if (!attributes.isDirectory()) {
+            return new Listing(Collections.emptyList(), Collections.emptySet(), attributes.lastModifiedTime());
+        }
+
+        Listing listing = listings.get(path);
+        if (listing == null || listing.isExpired(attributes.lastModifiedTime())) {
+            listing = read(path, attributes.lastModifiedTime());
+            listings.put(path, listing);
+        }
+
+        return listing;
+    }
+
+    /**
+     * Reads all directory entries with their attributes in a single pass.
+     * @param directory
+     * @param lastModified
+     * @return
+     */
+    private Listing read(Path directory, FileTime lastModified) {
+        List<String> folders = new ArrayList<>();
+        Set<String> names = new HashSet<>();
+
+        try {
+            Files.walkFileTree(directory, EnumSet.noneOf(FileVisitOption.class), 1, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String name = file.getFileName().toString();
+                    names.add(name);
+
+                    if (attrs.isDirectory() && name.charAt(0) != '.') {
+                        folders.add(name);
+                    }
+
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new ApplicationRuntimeException("Could not open directory: " + directory, e);
+        }
+
+        folders.sort(String.CASE_INSENSITIVE_ORDER);
+        return new Listing(Collections.unmodifiableList(folders), names, lastModified);
     }
 
     /**
@@ -165,4 +267,29 @@ public class FileBrowserService {
     private boolean isSystemWindows() {
         return File.separatorChar == WINDOWS_SEPARATOR;
     }
+
+    /**
+     * Cached directory entries.
+     */
+    private static final class Listing {
+        private final List<String> folders;
+        private final Set<String> names;
+        private final FileTime lastModified;
+        private final long timestamp = System.currentTimeMillis();
+
+        Listing(List<String> folders, Set<String> names, FileTime lastModified) {
+            this.folders = folders;
+            this.names = names;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Checks if listing is outdated either because cache timeout has passed or directory has been modified.
+         * @param directoryLastModified
+         * @return
+         */
+        boolean isExpired(FileTime directoryLastModified) {
+            return System.currentTimeMillis() - timestamp > LISTING_CACHE_TIMEOUT || !lastModified.equals(directoryLastModified);
+        }
+    }
 }
@@ -0,0 +1,503 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.service;
+
+import com.consol.citrus.admin.Application;
+import com.consol.citrus.admin.configuration.SystemSettings;
+import com.consol.citrus.admin.model.Project;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+
+/**
+ * Index of all files in active project mapping file names to file paths. Index is built once per project and
+ * kept up to date with a file watch service so file lookups do not need to walk the project directory tree.
+ * Directories matching the configured ignore rules (e.g. target, .git, node_modules) are not indexed.
+ * Other services register change listeners to get notified about file changes in the project instead of running
+ * their own file watches.
+ *
+ * @author Christoph Deppisch
+ */
+@Service
+public class ProjectFileIndex {
+
+    /** Logger */
+    private static Logger log = LoggerFactory.getLogger(ProjectFileIndex.class);
+
+    /** Default ignore rules as comma delimited directory name glob patterns */
+    public static final String DEFAULT_IGNORE_RULES = "target,node_modules,.*";
+
+    /** Classpath resource prefixes */
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final String CLASSPATH_ALL_PREFIX = "classpath*:";
+
+    /** Classpath root directories in the order they are searched for classpath resources */
+    private static final String[] CLASSPATH_ROOTS = new String[] { "src/test/resources", "src/main/resources", "src/test/java", "src/main/java" };
+
+    /** Directory name matchers for ignored directories */
+    private List<PathMatcher> ignoreRules = parseIgnoreRules(SystemSettings.getString(Application.PROJECT_INDEX_IGNORE,
+            Application.PROJECT_INDEX_IGNORE_ENV, DEFAULT_IGNORE_RULES));
+
+    /** Current file index */
+    private volatile FileIndex fileIndex;
+
+    /** Marks index as outdated so it is rebuilt on next access */
+    private volatile boolean dirty = true;
+
+    /** Watches indexed directories for changes */
+    private WatchService watchService;
+    private Thread watchThread;
+    private final Map<WatchKey, Path> watchKeys = new ConcurrentHashMap<>();
+
+    /** Listeners notified with the path of created, modified or deleted files */
+    private final Set<Consumer<Path>> changeListeners = new CopyOnWriteArraySet<>();
+
+    /**
+     * Finds first file with given name in project. Returns null if no such file exists.
+     * @param project
+     * @param fileName
+     * @return
+     */
+    public File findFile(Project project, String fileName) {
+        return findFiles(project, fileName).stream().findFirst().orElse(null);
+    }
+
+    /**
+     * Finds file in given directory and its sub-directories. File path may be a simple file name or a relative path
+     * such as com/consol/citrus/Foo.java. Files matching the complete relative path are preferred over
+     * files that only match the file name. Returns null if no such file exists.
+     * @param project
+     * @param directory
+     * @param filePath
+     * @return
+     */
+    public File findFile(Project project, File directory, String filePath) {
+        Path root = directory.toPath().toAbsolutePath().normalize();
+        String relativePath = normalize(filePath);
+        List<Path> candidates = getPaths(project, getFileName(relativePath)).stream()
+                .filter(path -> path.startsWith(root))
+                .collect(Collectors.toList());
+
+        return candidates.stream()
+                .filter(path -> path.endsWith(relativePath))
+                .findFirst()
+                .map(Optional::of)
+                .orElseGet(() -> candidates.stream().findFirst())
+                .map(Path::toFile)
+                .orElse(null);
+    }
+
+    /**
+     * Finds all files with given name in project sorted by path.
+     * @param project
+     * @param fileName
+     * @return
+     */
+    public List<File> findFiles(Project project, String fileName) {
+        return getPaths(project, fileName).stream().map(Path::toFile).collect(Collectors.toList());
+    }
+
+    /**
+     * Finds classpath resource in project. Location may use classpath: or classpath*: prefixes. Resources in classpath
+     * root directories are preferred in the order src/test/resources, src/main/resources, src/test/java, src/main/java.
+     * Other files in project matching the resource path come next sorted by path. Returns null if no resource is found.
+     * @param project
+     * @param location
+     * @return
+     */
+    public File findClasspathResource(Project project, String location) {
+        String resourcePath = location;
+        if (resourcePath.startsWith(CLASSPATH_ALL_PREFIX)) {
+            resourcePath = resourcePath.substring(CLASSPATH_ALL_PREFIX.length());
+        } else if (resourcePath.startsWith(CLASSPATH_PREFIX)) {
+            resourcePath = resourcePath.substring(CLASSPATH_PREFIX.length());
+        }
+
+        String relativePath = normalize(resourcePath);
+        if (!StringUtils.hasText(relativePath)) {
+            return null;
+        }
+
+        Path projectHome = Paths.get(project.getProjectHome()).toAbsolutePath().normalize();
+        for (String classpathRoot : CLASSPATH_ROOTS) {
+            Path resource = projectHome.resolve(classpathRoot).resolve(relativePath).normalize();
+            if (getPaths(project, getFileName(relativePath)).contains(resource)) {
+                return resource.toFile();
+            }
+        }
+
+        return getPaths(project, getFileName(relativePath)).stream()
+                .filter(path -> path.endsWith(relativePath))
+                .findFirst()
+                .map(Path::toFile)
+                .orElse(null);
+    }
+
+    /**
+     * Marks index as outdated so it gets rebuilt on next access.
+     */
+    public void reset() {
+        dirty = true;
+    }
+
+    /**
+     * Adds listener that gets notified with the path of each created, modified or deleted file in indexed directories.
+     * Listeners receive null when watch events have been lost so they have to reload everything they depend on.
+     * @param listener
+     */
+    public void addChangeListener(Consumer<Path> listener) {
+        changeListeners.add(listener);
+    }
+
+    /**
+     * Removes change listener.
+     * @param listener
+     */
+    public void removeChangeListener(Consumer<Path> listener) {
+        changeListeners.remove(listener);
+    }
+
+    /**
+     * Checks if project files are watched for changes. Change listeners are not notified when watching is not supported.
+     * @return
+     */
+    public synchronized boolean isWatching() {
+        return watchService != null;
+    }
+
+    /**
+     * Gets all indexed paths with given file name.
+     * @param project
+     * @param fileName
+     * @return
+     */
+    private Set<Path> getPaths(Project project, String fileName) {
+        return getFileIndex(project).files.getOrDefault(fileName, Collections.emptySet());
+    }
+
+    /**
+     * Gets file index for project. Builds index if not built yet, if project has changed or if index is outdated.
+     * @param project
+     * @return
+     */
+    private FileIndex getFileIndex(Project project) {
+        Path projectHome = Paths.get(project.getProjectHome()).toAbsolutePath().normalize();
+        FileIndex current = fileIndex;
+
+        if (current == null || dirty || !current.projectHome.equals(projectHome)) {
+            synchronized (this) {
+                current = fileIndex;
+                if (current == null || dirty || !current.projectHome.equals(projectHome)) {
+                    dirty = false;
+                    current = build(projectHome);
+                    fileIndex = current;
+                }
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Builds new file index for project home directory and registers file watches on all indexed directories.
+     * @param projectHome
+     * @return
+     */
+    private FileIndex build(Path projectHome) {
+        long start = System.currentTimeMillis();
+        FileIndex index = new FileIndex(projectHome);
+
+        cancelWatches();
+        if (Files.isDirectory(projectHome)) {
+            startWatchService();
+            index(index, projectHome);
+        }
+
+        if (log.isDebugEnabled()) {
+            log.debug(String.format("Indexed %s file names in project '%s' in %s ms", index.files.size(), projectHome, System.currentTimeMillis() - start));
+        }
+
+        return index;
+    }
+
+    /**
+     * Adds all files in directory and its sub-directories to the index. Ignored directories are skipped.
+     * @param index
+     * @param directory
+     */
+    private void index(FileIndex index, Path directory) {
+        try {
+            Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(index.projectHome) && isIgnored(dir)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+
+                    watch(dir);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile()) {
+                        index.add(file);
+                    }
+
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn(String.format("Failed to index project files in directory '%s'", directory), e);
+        }
+    }
+
+    /**
+     * Checks if directory should be ignored according to ignore rules.
+     * @param directory
+     * @return
+     */
+    private boolean isIgnored(Path directory) {
+        Path name = directory.getFileName();
+        return name != null && ignoreRules.stream().anyMatch(rule -> rule.matches(name));
+    }
+
+    /**
+     * Opens watch service and starts watch thread if not already running.
+     */
+    private synchronized void startWatchService() {
+        if (watchService != null) {
+            return;
+        }
+
+        try {
+            WatchService service = FileSystems.getDefault().newWatchService();
+            watchService = service;
+            watchThread = new Thread(() -> processEvents(service), "project-file-index-watcher");
+            watchThread.setDaemon(true);
+            watchThread.start();
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("Unable to watch project files for changes - index is rebuilt on reset only", e);
+        }
+    }
+
+    /**
+     * Registers file watch on directory.
+     * @param directory
+     */
+    private synchronized void watch(Path directory) {
+        if (watchService == null) {
+            return;
+        }
+
+        try {
+            watchKeys.put(directory.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), directory);
+        } catch (IOException | ClosedWatchServiceException e) {
+            log.warn(String.format("Unable to watch project directory '%s' for changes", directory), e);
+        }
+    }
+
+    /**
+     * Cancels all file watches.
+     */
+    private synchronized void cancelWatches() {
+        watchKeys.keySet().forEach(WatchKey::cancel);
+        watchKeys.clear();
+    }
+
+    /**
+     * Notifies change listeners. Listener errors are logged and do not stop event processing.
+     * @param path
+     */
+    private void notifyListeners(Path path) {
+        for (Consumer<Path> listener : changeListeners) {
+            try {
+                listener.accept(path);
+            } catch (RuntimeException e) {
+                log.warn("Project file change listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * Processes file watch events, updates index with created and deleted files and notifies change listeners.
+     * @param service
+     */
+    private void processEvents(WatchService service) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = service.take();
+                Path directory = watchKeys.get(key);
+                FileIndex index = fileIndex;
+
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == OVERFLOW) {
+                        dirty = true;
+                        notifyListeners(null);
+                    } else if (directory != null && index != null && directory.startsWith(index.projectHome)) {
+                        Path path = directory.resolve((Path) event.context());
+                        if (event.kind() == ENTRY_CREATE) {
+                            if (Files.isDirectory(path)) {
+                                if (!isIgnored(path)) {
+                                    index(index, path);
+                                }
+                            } else {
+                                index.add(path);
+                            }
+                        } else if (event.kind() == ENTRY_DELETE) {
+                            index.remove(path);
+                        }
+
+                        notifyListeners(path);
+                    }
+                }
+
+                if (!key.reset()) {
+                    watchKeys.remove(key);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            log.debug("Stopped watching project files");
+        }
+    }
+
+    /**
+     * Stops watching project files.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        watchKeys.clear();
+
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("Failed to close project file index watch service", e);
+            }
+
+            watchService = null;
+        }
+
+        if (watchThread != null) {
+            watchThread.interrupt();
+            watchThread = null;
+        }
+
+        dirty = true;
+    }
+
+    /**
+     * Parse comma delimited ignore rules to directory name matchers.
+     * @param ignoreRules
+     * @return
+     */
+    private static List<PathMatcher> parseIgnoreRules(String ignoreRules) {
+        return Arrays.stream(StringUtils.commaDelimitedListToStringArray(ignoreRules))
+                .map(String::trim)
+                .filter(StringUtils::hasText)
+                .map(rule -> FileSystems.getDefault().getPathMatcher("glob:" + rule))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Normalizes relative file path to system path.
+     * @param filePath
+     * @return
+     */
+    private static String normalize(String filePath) {
+        String path = filePath.replace('\\', '/');
+        while (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+
+        return path.replace('/', File.separatorChar);
+    }
+
+    /**
+     * Gets file name of relative path.
+     * @param relativePath
+     * @return
+     */
+    private static String getFileName(String relativePath) {
+        return relativePath.substring(relativePath.lastIndexOf(File.separatorChar) + 1);
+    }
+
+    /**
+     * Sets the ignoreRules property as comma delimited list of directory name glob patterns.
+     *
+     * @param ignoreRules
+     */
+    public void setIgnoreRules(String ignoreRules) {
+        this.ignoreRules = parseIgnoreRules(ignoreRules);
+        reset();
+    }
+
+    /**
+     * File name to file paths index of a project.
+     */
+    private static final class FileIndex {
+        private final Path projectHome;
+        private final Map<String, Set<Path>> files = new ConcurrentHashMap<>();
+
+        FileIndex(Path projectHome) {
+            this.projectHome = projectHome;
+        }
+
+        /**
+         * Adds file to index.
+         * @param file
+         */
+        void add(Path file) {
+            files.computeIfAbsent(file.getFileName().toString(), name -> new ConcurrentSkipListSet<>()).add(file);
+        }
+
+        /**
+         * Removes file or directory with all its files from index.
+         * @param path
+         */
+        void remove(Path path) {
+            Set<Path> paths = files.get(path.getFileName().toString());
+            if (paths != null && paths.remove(path)) {
+                return;
+            }
+
+            files.values().forEach(entries -> entries.removeIf(entry -> entry.startsWith(path)));
+        }
+    }
+}
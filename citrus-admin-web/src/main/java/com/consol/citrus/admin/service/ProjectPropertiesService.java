@@ -0,0 +1,266 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.service;
+
+import com.consol.citrus.admin.model.Project;
+import com.consol.citrus.variable.VariableUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.util.PropertyPlaceholderHelper;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Loads Citrus property sources of the active project once and keeps them in memory. Property sources are located
+ * with the project file index. The service listens to file changes reported by the index so the in memory properties
+ * are reloaded only when a property file has been created, modified or deleted.
+ * Placeholder expressions are resolved from the in memory properties including nested placeholders.
+ *
+ * @author Christoph Deppisch
+ */
+@Service
+public class ProjectPropertiesService {
+
+    /** Logger */
+    private static Logger log = LoggerFactory.getLogger(ProjectPropertiesService.class);
+
+    /** Default Citrus property source file name */
+    public static final String CITRUS_PROPERTIES = "citrus.properties";
+
+    /** Preferred source directories, property sources in these directories take precedence */
+    private static final String[] SOURCE_DIRECTORIES = new String[] { "src/test/resources", "src/main/resources" };
+
+    @Autowired
+    private ProjectFileIndex projectFileIndex;
+
+    /** Resolves nested placeholders in property values */
+    private final PropertyPlaceholderHelper placeholderHelper = new PropertyPlaceholderHelper("${", "}", null, true);
+
+    /** Properties currently loaded */
+    private volatile ProjectProperties projectProperties;
+
+    /** Marks loaded properties as outdated */
+    private volatile boolean dirty = true;
+
+    /** Marks properties as outdated when property sources change */
+    private final Consumer<Path> changeListener = path -> {
+        if (path == null || path.getFileName().toString().equals(CITRUS_PROPERTIES)) {
+            dirty = true;
+        }
+    };
+
+    @PostConstruct
+    public void init() {
+        projectFileIndex.addChangeListener(changeListener);
+    }
+
+    /**
+     * Gets copy of all properties loaded from project property sources.
+     * @param project
+     * @return
+     */
+    public Properties getProperties(Project project) {
+        Properties properties = new Properties();
+        properties.putAll(getProjectProperties(project).values);
+        return properties;
+    }
+
+    /**
+     * Gets property value with all nested placeholders resolved. Returns null if property is not set.
+     * @param project
+     * @param name
+     * @return
+     */
+    public String getProperty(Project project, String name) {
+        Map<String, String> values = getProjectProperties(project).values;
+        String value = values.get(name);
+
+        if (value == null) {
+            return null;
+        }
+
+        return resolve(value, values);
+    }
+
+    /**
+     * Resolves property expression. In case expression is a variable expression (e.g. ${foo}) the property value
+     * is returned or null if property is not set. Otherwise all placeholders in expression get replaced.
+     * @param project
+     * @param expression
+     * @return
+     */
+    public String resolve(Project project, String expression) {
+        if (VariableUtils.isVariableName(expression)) {
+            return getProperty(project, VariableUtils.cutOffVariablesPrefix(expression));
+        }
+
+        return resolve(expression, getProjectProperties(project).values);
+    }
+
+    /**
+     * Replace all placeholders in expression with property values.
+     * @param expression
+     * @param values
+     * @return
+     */
+    private String resolve(String expression, Map<String, String> values) {
+        try {
+            return placeholderHelper.replacePlaceholders(expression, values::get);
+        } catch (IllegalArgumentException e) {
+            log.warn(String.format("Unable to resolve project property expression '%s'", expression), e);
+            return expression;
+        }
+    }
+
+    /**
+     * Gets loaded properties for project. Loads property sources if not loaded yet, if project has changed or
+     * property sources were modified since last load.
+     * @param project
+     * @return
+     */
+    private ProjectProperties getProjectProperties(Project project) {
+        ProjectProperties current = projectProperties;
+
+        if (current == null || dirty || !current.projectHome.equals(project.getProjectHome()) || (!projectFileIndex.isWatching() && current.isModified())) {
+            synchronized (this) {
+                current = projectProperties;
+                if (current == null || dirty || !current.projectHome.equals(project.getProjectHome()) || (!projectFileIndex.isWatching() && current.isModified())) {
+                    dirty = false;
+                    current = load(project);
+                    projectProperties = current;
+                }
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Locates and loads all property sources in project.
+     * @param project
+     * @return
+     */
+    private ProjectProperties load(Project project) {
+        Path projectHome = Paths.get(project.getProjectHome()).toAbsolutePath().normalize();
+        List<Path> sources = findPropertySources(project, projectHome);
+
+        Map<String, String> values = new HashMap<>();
+        Map<Path, Long> lastModified = new HashMap<>();
+        for (Path source : sources) {
+            try {
+                Properties properties = PropertiesLoaderUtils.loadProperties(new FileSystemResource(source.toFile()));
+                properties.stringPropertyNames().forEach(name -> values.putIfAbsent(name, properties.getProperty(name)));
+                lastModified.put(source, source.toFile().lastModified());
+            } catch (IOException e) {
+                log.warn("Unable to read default Citrus project properties from file resource", e);
+            }
+        }
+
+        return new ProjectProperties(project.getProjectHome(), Collections.unmodifiableMap(values), lastModified);
+    }
+
+    /**
+     * Finds property sources in project file index. Property sources in default source directories come first.
+     * @param project
+     * @param projectHome
+     * @return
+     */
+    private List<Path> findPropertySources(Project project, Path projectHome) {
+        return projectFileIndex.findFiles(project, CITRUS_PROPERTIES).stream()
+                .map(File::toPath)
+                .sorted(Comparator.comparingInt((Path source) -> getSourceDirectoryRank(projectHome, source)).thenComparing(Path::toString))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Ranks property source according to its source directory.
+     * @param projectHome
+     * @param source
+     * @return
+     */
+    private int getSourceDirectoryRank(Path projectHome, Path source) {
+        for (int i = 0; i < SOURCE_DIRECTORIES.length; i++) {
+            if (source.getParent().equals(projectHome.resolve(SOURCE_DIRECTORIES[i]))) {
+                return i;
+            }
+        }
+
+        return SOURCE_DIRECTORIES.length;
+    }
+
+    /**
+     * Stops listening to property source changes.
+     */
+    @PreDestroy
+    public void close() {
+        projectFileIndex.removeChangeListener(changeListener);
+    }
+
+    /**
+     * Marks loaded properties as outdated so they get reloaded on next access.
+     */
+    public void reset() {
+        dirty = true;
+    }
+
+    /**
+     * Sets the projectFileIndex property.
+     *
+     * @param projectFileIndex
+     */
+    public void setProjectFileIndex(ProjectFileIndex projectFileIndex) {
+        this.projectFileIndex = projectFileIndex;
+        init();
+    }
+
+    /**
+     * Properties loaded from project property sources.
+     */
+    private static final class ProjectProperties {
+        private final String projectHome;
+        private final Map<String, String> values;
+        private final Map<Path, Long> lastModified;
+
+        ProjectProperties(String projectHome, Map<String, String> values, Map<Path, Long> lastModified) {
+            this.projectHome = projectHome;
+            this.values = values;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Checks if property sources have been modified or removed since loaded.
+         * @return
+         */
+        boolean isModified() {
+            return lastModified.entrySet().stream()
+                    .anyMatch(entry -> entry.getKey().toFile().lastModified() != entry.getValue());
+        }
+    }
+}
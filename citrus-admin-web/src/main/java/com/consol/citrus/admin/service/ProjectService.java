@@ -48,7 +48,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.env.Environment;
 import org.springframework.core.io.FileSystemResource;
-import org.springframework.core.io.support.PropertiesLoaderUtils;
 import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
@@ -75,6 +74,12 @@ public class ProjectService {
     @Autowired
     private FileBrowserService fileBrowserService;
 
+    @Autowired
+    private ProjectPropertiesService projectPropertiesService;
+
+    @Autowired
+    private ProjectFileIndex projectFileIndex;
+
     /** Current project actively opened in Citrus admin */
     private Project project;
 
@@ -323,17 +328,7 @@ public class ProjectService {
      * @return the config file or null if no config file exists within the selected project.
      */
     public File getSpringXmlApplicationContextFile() {
-        String contextFile = project.getSettings().getSpringApplicationContext();
-
-        if (contextFile.startsWith("classpath*:")) {
-            contextFile = contextFile.substring("classpath*:".length());
-        }
-
-        if (contextFile.startsWith("classpath:")) {
-            contextFile = contextFile.substring("classpath:".length());
-        }
-
-        return fileBrowserService.findFileInPath(new File(project.getProjectHome()), contextFile, true);
+        return projectFileIndex.findClasspathResource(project, project.getSettings().getSpringApplicationContext());
     }
 
     /**
@@ -341,13 +336,8 @@ public class ProjectService {
      * @return the config file or null if no config file exists within the selected project.
      */
     public File getSpringJavaConfigFile() {
-        String contextFile = project.getSettings().getSpringJavaConfig();
-
-        if (contextFile.contains(".")) {
-            contextFile = contextFile.substring(contextFile.lastIndexOf(".") + 1);
-        }
-
-        return fileBrowserService.findFileInPath(new File(project.getJavaDirectory()), contextFile + ".java", true);
+        String contextFile = project.getSettings().getSpringJavaConfig().replace('.', '/') + ".java";
+        return projectFileIndex.findFile(project, new File(project.getJavaDirectory()), contextFile);
     }
 
     /**
@@ -393,17 +383,16 @@ public class ProjectService {
      * @return properties loaded or empty properties if nothing is found
      */
     public Properties getProjectProperties() {
-        File projectProperties = fileBrowserService.findFileInPath(new File(project.getProjectHome()), "citrus.properties", true);
-
-        try {
-            if (projectProperties != null) {
-                return PropertiesLoaderUtils.loadProperties(new FileSystemResource(projectProperties));
-            }
-        } catch (IOException e) {
-            log.warn("Unable to read default Citrus project properties from file resource", e);
-        }
+        return projectPropertiesService.getProperties(project);
+    }
 
-        return new Properties();
+    /**
+     * Gets project property value with nested placeholders resolved.
+     * @param name
+     * @return property value or null if not set
+     */
+    public String getProjectProperty(String name) {
+        return projectPropertiesService.getProperty(project, name);
     }
 
     /**
@@ -694,6 +683,24 @@ public class ProjectService {
         this.fileBrowserService = fileBrowserService;
     }
 
+    /**
+     * Sets the projectPropertiesService property.
+     *
+     * @param projectPropertiesService
+     */
+    public void setProjectPropertiesService(ProjectPropertiesService projectPropertiesService) {
+        this.projectPropertiesService = projectPropertiesService;
+    }
+
+    /**
+     * Sets the projectFileIndex property.
+     *
+     * @param projectFileIndex
+     */
+    public void setProjectFileIndex(ProjectFileIndex projectFileIndex) {
+        this.projectFileIndex = projectFileIndex;
+    }
+
     /**
      * Sets the springBeanService property.
      *
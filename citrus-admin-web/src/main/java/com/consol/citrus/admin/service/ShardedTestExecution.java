@@ -0,0 +1,511 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.service;
+
+import com.consol.citrus.admin.model.*;
+import com.consol.citrus.admin.process.listener.AbstractProcessListener;
+import com.consol.citrus.admin.process.listener.ProcessListener;
+import com.consol.citrus.admin.service.command.maven.MavenBuildContext;
+import com.consol.citrus.admin.service.command.maven.MavenBuildPlan;
+import com.consol.citrus.admin.service.command.maven.MavenCommand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs tests in parallel by distributing test classes to multiple Maven processes (shards). Test classes are compiled
+ * once before the shards start and each shard only runs the test plugin goal with its own test filter and report name
+ * suffix. Shard reports are collected in isolated report directories and merged into a single report. All shard
+ * progress is published to the process listeners using the parent process id. Shard activity is marked with the shard
+ * process id so listeners parse the output of each shard on its own.
+ *
+ * Shards are started from process completion callbacks so no thread is blocked while the shards are running.
+ *
+ * @author Christoph Deppisch
+ */
+public class ShardedTestExecution {
+
+    /** Logger */
+    private static Logger log = LoggerFactory.getLogger(ShardedTestExecution.class);
+
+    /** Report directories written by Maven test plugins */
+    private static final String[] PLUGIN_REPORT_DIRECTORIES = new String[] { "target/failsafe-reports", "target/surefire-reports" };
+
+    /** Base directory for isolated shard reports */
+    private static final String SHARD_REPORTS_DIRECTORY = "target/citrus-admin/shards";
+
+    /** File systems may store report modification times with coarse granularity */
+    private static final long REPORT_TIME_TOLERANCE = 2000L;
+
+    private final String processId;
+    private final Project project;
+    private final MavenBuildContext buildContext;
+    private final List<List<String>> shards;
+    private final TerminalService terminalService;
+    private final TestReportService testReportService;
+    private final BuildAvoidanceService buildAvoidanceService;
+    private final ProcessListener[] processListeners;
+
+    /** Process ids of running shards and the compile process */
+    private final Set<String> shardProcessIds = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger failedShards = new AtomicInteger();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private volatile boolean stopped = false;
+
+    /** Index of next shard to start and number of shards currently running, guarded by this */
+    private int nextShard = 0;
+    private int runningShards = 0;
+
+    private MavenBuildPlan plan;
+    private long start;
+
+    /**
+     * Default constructor using fields.
+     * @param processId
+     * @param project
+     * @param buildContext
+     * @param shards
+     * @param terminalService
+     * @param testReportService
+     * @param buildAvoidanceService
+     * @param processListeners
+     */
+    public ShardedTestExecution(String processId, Project project, MavenBuildContext buildContext, List<List<String>> shards,
+                                TerminalService terminalService, TestReportService testReportService,
+                                BuildAvoidanceService buildAvoidanceService, ProcessListener... processListeners) {
+        this.processId = processId;
+        this.project = project;
+        this.buildContext = buildContext;
+        this.shards = shards;
+        this.terminalService = terminalService;
+        this.testReportService = testReportService;
+        this.buildAvoidanceService = buildAvoidanceService;
+        this.processListeners = processListeners;
+    }
+
+    /**
+     * Starts the execution and returns immediately. Test classes are compiled first unless build avoidance finds them
+     * up to date. Returned future completes once all shards have completed and the merged report is available.
+     * @return
+     */
+    public CompletableFuture<Void> start() {
+        start = System.currentTimeMillis();
+
+        Stream.of(processListeners).forEach(listener -> listener.onProcessStart(processId));
+        output(String.format("Running tests in %s parallel shards", shards.size()));
+
+        try {
+            plan = buildAvoidanceService.plan(project, buildContext);
+
+            if (plan.isUpToDate() && !plan.isClean()) {
+                output("Build avoidance skipped compile - test classes are up to date");
+                startShards();
+            } else {
+                compile();
+            }
+        } catch (RuntimeException e) {
+            log.error("Parallel test execution failed", e);
+            stop();
+            fail(e);
+            completion.complete(null);
+        }
+
+        return completion;
+    }
+
+    /**
+     * Stops all running shards and skips shards not started yet.
+     */
+    public void stop() {
+        stopped = true;
+        shardProcessIds.forEach(terminalService::cancelProcess);
+    }
+
+    /**
+     * Compiles main and test classes once for all shards. Clean runs when requested and not avoided by the build plan.
+     * Shards are started when compilation has succeeded.
+     */
+    private void compile() {
+        AtomicBoolean done = new AtomicBoolean(false);
+        ShardProcessListener compileListener = new ShardProcessListener("compile", success -> {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+
+            if (success || stopped) {
+                startShards();
+            } else {
+                fail(new IllegalStateException("Failed to compile project before running test shards"));
+                completion.complete(null);
+            }
+        });
+
+        MavenCommand command = new MavenCommand(new File(project.getProjectHome()), buildContext,
+                buildAvoidanceService.track(project, plan, compileListener));
+        if (plan.isClean()) {
+            command.clean();
+        }
+        command.testCompile();
+        applyOptions(command);
+
+        try {
+            shardProcessIds.add(terminalService.execute(command));
+        } catch (RuntimeException e) {
+            log.error("Failed to compile project before running test shards", e);
+            compileListener.onProcessFail(processId, e);
+        }
+    }
+
+    /**
+     * Starts pending shards up to the maximum number of parallel shards. Completes the execution once no shard
+     * is running and no further shard is started.
+     */
+    private synchronized void startShards() {
+        int parallel = buildContext.getMaxParallelShards() > 0 ? buildContext.getMaxParallelShards() : shards.size();
+
+        while (!stopped && nextShard < shards.size() && runningShards < parallel) {
+            runningShards++;
+            startShard(nextShard++);
+        }
+
+        if (runningShards == 0 && !completion.isDone()) {
+            finish();
+        }
+    }
+
+    /**
+     * Starts shard running the test plugin goal only. Compile phases are skipped as test classes have been
+     * compiled before.
+     * @param index
+     */
+    private void startShard(int index) {
+        String shardName = getShardName(index);
+        MavenCommand command = new MavenCommand(new File(project.getProjectHome()), buildContext);
+        if (buildContext.getTestPlugin().equals("maven-failsafe")) {
+            command.failsafeIntegrationTest();
+        } else {
+            command.surefireTest();
+        }
+        command.tests(shards.get(index));
+        command.property("surefire.reportNameSuffix", shardName);
+        applyOptions(command);
+
+        long shardStart = System.currentTimeMillis();
+        AtomicBoolean done = new AtomicBoolean(false);
+        ShardProcessListener shardListener = new ShardProcessListener(shardName, success -> {
+            if (done.compareAndSet(false, true)) {
+                collectReports(shardName, shards.get(index), shardStart);
+                if (!success || hasFailures(shardName)) {
+                    failedShards.incrementAndGet();
+                }
+                shardCompleted();
+            }
+        });
+
+        try {
+            output(String.format("Starting %s with %s test classes", shardName, shards.get(index).size()));
+            String shardProcessId = terminalService.execute(command, shardListener);
+            shardProcessIds.add(shardProcessId);
+
+            if (stopped) {
+                terminalService.cancelProcess(shardProcessId);
+            }
+        } catch (RuntimeException e) {
+            log.error(String.format("Failed to start %s", shardName), e);
+            shardListener.onProcessFail(processId, e);
+        }
+    }
+
+    /**
+     * Marks shard as completed and starts next pending shard.
+     */
+    private synchronized void shardCompleted() {
+        runningShards--;
+        startShards();
+    }
+
+    /**
+     * Merges shard reports and publishes the overall result to process listeners.
+     */
+    private void finish() {
+        try {
+            TestReport report = TestReportService.merge(shardReports());
+            report.setDuration(System.currentTimeMillis() - start);
+            testReportService.setLatest(project, report);
+
+            if (stopped) {
+                fail(new CancellationException("Parallel test execution stopped"));
+            } else if (failedShards.get() > 0) {
+                Stream.of(processListeners).forEach(listener -> listener.onProcessFail(processId, failedShards.get()));
+            } else {
+                Stream.of(processListeners).forEach(listener -> listener.onProcessSuccess(processId));
+            }
+        } catch (RuntimeException e) {
+            log.error("Parallel test execution failed", e);
+            fail(e);
+        } finally {
+            completion.complete(null);
+        }
+    }
+
+    /**
+     * Adds offline and quiet options decided by build plan.
+     * @param command
+     */
+    private void applyOptions(MavenCommand command) {
+        if (plan.isOffline()) {
+            command.offline();
+        }
+
+        if (plan.isQuiet()) {
+            command.quiet();
+        }
+    }
+
+    /**
+     * Distributes test classes to given number of shards. Test classes with many test methods are distributed first
+     * always to the shard holding the least test methods so far. Test classes are given as test name patterns
+     * (e.g. com/consol/citrus/SampleIT).
+     * @param tests
+     * @param shardCount
+     * @return
+     */
+    public static List<List<String>> partition(List<Test> tests, int shardCount) {
+        Map<String, Long> testClasses = tests.stream()
+                .filter(test -> StringUtils.hasText(test.getClassName()))
+                .collect(Collectors.groupingBy(ShardedTestExecution::getTestPattern, TreeMap::new, Collectors.counting()));
+
+        int count = Math.max(1, Math.min(shardCount, testClasses.size()));
+        List<List<String>> shards = new ArrayList<>();
+        long[] weights = new long[count];
+        for (int i = 0; i < count; i++) {
+            shards.add(new ArrayList<>());
+        }
+
+        testClasses.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed().thenComparing(Map.Entry.<String, Long>comparingByKey()))
+                .forEach(entry -> {
+                    int lightest = 0;
+                    for (int i = 1; i < count; i++) {
+                        if (weights[i] < weights[lightest]) {
+                            lightest = i;
+                        }
+                    }
+
+                    shards.get(lightest).add(entry.getKey());
+                    weights[lightest] += entry.getValue();
+                });
+
+        shards.forEach(Collections::sort);
+        return shards.stream().filter(shard -> !shard.isEmpty()).collect(Collectors.toList());
+    }
+
+    /**
+     * Gets test name pattern for test class.
+     * @param test
+     * @return
+     */
+    private static String getTestPattern(Test test) {
+        if (StringUtils.hasText(test.getPackageName())) {
+            return test.getPackageName().replace('.', '/') + "/" + test.getClassName();
+        }
+
+        return test.getClassName();
+    }
+
+    /**
+     * Copies reports of given shard from Maven plugin report directories to isolated shard report directory.
+     * Shard reports are identified by the report name suffix and the test classes of the shard. Maven never removes
+     * old reports, so reports written before the shard has started are left out as they belong to earlier runs.
+     * @param shardName
+     * @param tests test name patterns of the shard
+     * @param startedAt
+     */
+    private void collectReports(String shardName, List<String> tests, long startedAt) {
+        Path shardDirectory = getReportsDirectory().toPath().resolve(shardName);
+
+        for (String pluginReportDirectory : PLUGIN_REPORT_DIRECTORIES) {
+            Path reportDirectory = Paths.get(project.getProjectHome()).resolve(pluginReportDirectory);
+            if (!Files.isDirectory(reportDirectory)) {
+                continue;
+            }
+
+            try (DirectoryStream<Path> reports = Files.newDirectoryStream(reportDirectory, "TEST-*-" + shardName + ".xml")) {
+                Files.createDirectories(shardDirectory);
+                for (Path report : reports) {
+                    if (isShardReport(report.getFileName().toString(), shardName, tests) &&
+                            Files.getLastModifiedTime(report).toMillis() >= startedAt - REPORT_TIME_TOLERANCE) {
+                        Files.copy(report, shardDirectory.resolve(report.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                    }
+                }
+            } catch (IOException e) {
+                log.warn(String.format("Failed to collect test reports of %s", shardName), e);
+            }
+        }
+    }
+
+    /**
+     * Checks if report file name (TEST-{test class}-{shard name}.xml) belongs to one of the given test classes. Test
+     * name patterns may omit the package.
+     * @param fileName
+     * @param shardName
+     * @param tests
+     * @return
+     */
+    static boolean isShardReport(String fileName, String shardName, List<String> tests) {
+        String suffix = "-" + shardName + ".xml";
+        if (!fileName.startsWith("TEST-") || !fileName.endsWith(suffix)) {
+            return false;
+        }
+
+        String testClass = fileName.substring("TEST-".length(), fileName.length() - suffix.length());
+        return tests.stream()
+                .map(test -> test.replace('/', '.'))
+                .anyMatch(test -> testClass.equals(test) || testClass.endsWith("." + test));
+    }
+
+    /**
+     * Checks collected shard reports for failed tests. Failsafe integration test goal does not fail the build
+     * on test failures.
+     * @param shardName
+     * @return
+     */
+    private boolean hasFailures(String shardName) {
+        return testReportService.getReport(project, new File(getReportsDirectory(), shardName)).getFailed() > 0;
+    }
+
+    /**
+     * Loads reports of all shards.
+     * @return
+     */
+    private List<TestReport> shardReports() {
+        List<TestReport> reports = new ArrayList<>();
+        for (int i = 0; i < shards.size(); i++) {
+            reports.add(testReportService.getReport(project, new File(getReportsDirectory(), getShardName(i))));
+        }
+        return reports;
+    }
+
+    /**
+     * Gets isolated report directory of this execution.
+     * @return
+     */
+    public File getReportsDirectory() {
+        return new File(project.getProjectHome(), SHARD_REPORTS_DIRECTORY + File.separator + processId);
+    }
+
+    /**
+     * Gets the shard name used as report name suffix.
+     * @param index
+     * @return
+     */
+    private String getShardName(int index) {
+        return "shard-" + (index + 1);
+    }
+
+    /**
+     * Publish output line to process listeners.
+     * @param line
+     */
+    private void output(String line) {
+        Stream.of(processListeners).forEach(listener -> listener.onProcessOutput(processId, line + System.lineSeparator()));
+    }
+
+    /**
+     * Publish execution failure to process listeners.
+     * @param e
+     */
+    private void fail(Throwable e) {
+        Stream.of(processListeners).forEach(listener -> listener.onProcessFail(processId, e));
+    }
+
+    /**
+     * Gets the processId.
+     *
+     * @return
+     */
+    public String getProcessId() {
+        return processId;
+    }
+
+    /**
+     * Forwards shard process events to process listeners using the parent process id. Activity and completion are
+     * forwarded as sub process events of the shard.
+     */
+    private class ShardProcessListener extends AbstractProcessListener {
+        private final String shardName;
+        private final Consumer<Boolean> completion;
+
+        ShardProcessListener(String shardName, Consumer<Boolean> completion) {
+            this.shardName = shardName;
+            this.completion = completion;
+        }
+
+        @Override
+        public void onProcessSuccess(String shardProcessId) {
+            subProcessCompleted(shardProcessId);
+            output(String.format("%s completed successfully", shardName));
+            completion.accept(true);
+        }
+
+        @Override
+        public void onProcessFail(String shardProcessId, int exitCode) {
+            subProcessCompleted(shardProcessId);
+            output(String.format("%s failed with exit code %s", shardName, exitCode));
+            completion.accept(false);
+        }
+
+        @Override
+        public void onProcessFail(String shardProcessId, Throwable e) {
+            subProcessCompleted(shardProcessId);
+            output(String.format("%s failed with exception %s", shardName, e.getLocalizedMessage()));
+            completion.accept(false);
+        }
+
+        @Override
+        public void onProcessOutput(String shardProcessId, String output) {
+            Stream.of(processListeners).forEach(listener -> listener.onProcessOutput(processId, output));
+        }
+
+        @Override
+        public void onProcessActivity(String shardProcessId, String output) {
+            Stream.of(processListeners).forEach(listener -> listener.onSubProcessActivity(processId, shardProcessId, output));
+        }
+
+        /**
+         * Informs process listeners on completed shard process. Shards failing to start report the parent process
+         * id and have no sub process state.
+         * @param shardProcessId
+         */
+        private void subProcessCompleted(String shardProcessId) {
+            if (!processId.equals(shardProcessId)) {
+                Stream.of(processListeners).forEach(listener -> listener.onSubProcessComplete(processId, shardProcessId));
+            }
+        }
+    }
+}
@@ -17,8 +17,8 @@
 package com.consol.citrus.admin.service;
 
 import com.consol.citrus.TestCase;
+import com.consol.citrus.admin.converter.ConverterRegistry;
 import com.consol.citrus.admin.converter.action.ActionConverter;
-import com.consol.citrus.admin.converter.action.TestActionConverter;
 import com.consol.citrus.admin.exception.ApplicationRuntimeException;
 import com.consol.citrus.admin.marshal.TestCaseMarshaller;
 import com.consol.citrus.admin.mock.Mocks;
@@ -58,7 +58,7 @@ public class TestCaseService {
     private static Logger log = LoggerFactory.getLogger(TestCaseService.class);
 
     @Autowired
-    private List<TestActionConverter> actionConverter;
+    private ConverterRegistry converterRegistry;
 
     @Autowired
     private List<TestProvider> testProviders;
@@ -198,13 +198,9 @@ public class TestCaseService {
 
         if (testModel.getActions() != null) {
             for (Object actionType : testModel.getActions().getActionsAndSendsAndReceives()) {
-                TestActionModel model = null;
-                for (TestActionConverter converter : actionConverter) {
-                    if (converter.getSourceModelClass().isInstance(actionType)) {
-                        model = converter.convert(actionType);
-                        break;
-                    }
-                }
+                TestActionModel model = converterRegistry.findActionConverter(actionType.getClass())
+                                                         .map(converter -> converter.convert(actionType))
+                                                         .orElse(null);
 
                 if (model == null) {
                     if (actionType.getClass().getAnnotation(XmlRootElement.class) == null) {
@@ -387,13 +383,9 @@ public class TestCaseService {
             model = action;
         }
 
-        for (TestActionConverter converter : actionConverter) {
-            if (converter.getActionModelClass().isInstance(model)) {
-                return converter.convertModel(model);
-            }
-        }
-
-        return new ActionConverter(action.getName()).convertModel(model);
+        return converterRegistry.findActionConverterForAction(model.getClass())
+                                .map(converter -> converter.convertModel(model))
+                                .orElseGet(() -> new ActionConverter(action.getName()).convertModel(model));
     }
 
 }
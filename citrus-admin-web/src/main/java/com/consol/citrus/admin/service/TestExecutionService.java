@@ -20,6 +20,7 @@ import com.consol.citrus.admin.exception.ApplicationRuntimeException;
 import com.consol.citrus.admin.model.*;
 import com.consol.citrus.admin.model.build.BuildContext;
 import com.consol.citrus.admin.service.command.maven.MavenBuildContext;
+import com.consol.citrus.admin.service.command.maven.MavenBuildPlan;
 import com.consol.citrus.admin.process.ProcessMonitor;
 import com.consol.citrus.admin.process.listener.ProcessListener;
 import com.consol.citrus.admin.service.command.maven.MavenCommand;
@@ -27,10 +28,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
 import java.io.*;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 /**
  * @author Christoph Deppisch
@@ -50,23 +56,38 @@ public class TestExecutionService {
     @Autowired
     private List<ProcessListener> processListeners;
 
+    @Autowired
+    private TestCaseService testCaseService;
+
+    @Autowired
+    private TestReportService testReportService;
+
+    @Autowired
+    private WarmTestRunnerService warmTestRunnerService;
+
+    @Autowired
+    private BuildAvoidanceService buildAvoidanceService;
+
+    /** Parallel test executions currently running */
+    private final Map<String, ShardedTestExecution> shardedExecutions = new ConcurrentHashMap<>();
+    private final AtomicInteger shardedExecutionId = new AtomicInteger();
+
     /**
      * Runs all test cases and returns result outcome (success or failure).
      * @param project
      * @return
      */
     public String execute(Project project) {
-        File projectHome = new File(project.getProjectHome());
         MavenBuildContext buildContext = getBuildContext(project);
-        MavenCommand command = new MavenCommand(projectHome, buildContext, processListeners.toArray(new ProcessListener[processListeners.size()]));
 
-        if (buildContext.isClean()) {
-            command.clean();
+        if (isSharded(buildContext)) {
+            return executeSharded(project, buildContext, testCaseService.getTestPackages(project).stream()
+                    .flatMap(group -> group.getTests().stream())
+                    .collect(Collectors.toList()));
         }
 
-        if (buildContext.isCompile()) {
-            command.compile();
-        }
+        testReportService.clearLatest(project);
+        MavenCommand command = createCommand(project, buildContext);
 
         if (StringUtils.hasText(buildContext.getCommand())) {
             command.custom(buildContext.getCommand());
@@ -91,17 +112,14 @@ public class TestExecutionService {
      * @return
      */
     public String execute(Project project, Test test) {
-        File projectHome = new File(project.getProjectHome());
         MavenBuildContext buildContext = getBuildContext(project);
-        MavenCommand command = new MavenCommand(projectHome, buildContext, processListeners.toArray(new ProcessListener[processListeners.size()]));
+        testReportService.clearLatest(project);
 
-        if (buildContext.isClean()) {
-            command.clean();
+        if (isWarmRunner(buildContext, test)) {
+            return warmTestRunnerService.execute(project, buildContext, test, processListeners.toArray(new ProcessListener[processListeners.size()]));
         }
 
-        if (buildContext.isCompile()) {
-            command.compile();
-        }
+        MavenCommand command = createCommand(project, buildContext);
 
         if (StringUtils.hasText(buildContext.getCommand())) {
             command.custom(buildContext.getCommand());
@@ -125,18 +143,23 @@ public class TestExecutionService {
      * @return
      */
     public String execute(Project project, TestGroup group) {
-        File projectHome = new File(project.getProjectHome());
         MavenBuildContext buildContext = getBuildContext(project);
-        MavenCommand command = new MavenCommand(projectHome, buildContext, processListeners.toArray(new ProcessListener[processListeners.size()]));
 
-        if (buildContext.isClean()) {
-            command.clean();
-        }
+        if (isSharded(buildContext)) {
+            List<Test> tests = group.getTests();
+            if (CollectionUtils.isEmpty(tests)) {
+                tests = testCaseService.getTestPackages(project).stream()
+                        .filter(testGroup -> testGroup.getName().equals(group.getName()))
+                        .flatMap(testGroup -> testGroup.getTests().stream())
+                        .collect(Collectors.toList());
+            }
 
-        if (buildContext.isCompile()) {
-            command.compile();
+            return executeSharded(project, buildContext, tests);
         }
 
+        testReportService.clearLatest(project);
+        MavenCommand command = createCommand(project, buildContext);
+
         if (StringUtils.hasText(buildContext.getCommand())) {
             command.custom(buildContext.getCommand());
         } else if (buildContext.getTestPlugin().equals("maven-failsafe")) {
@@ -157,7 +180,72 @@ public class TestExecutionService {
      * @param processId
      */
     public void stop(String processId) {
-        processMonitor.stop(processId);
+        ShardedTestExecution shardedExecution = shardedExecutions.get(processId);
+        if (shardedExecution != null) {
+            shardedExecution.stop();
+        } else if (!warmTestRunnerService.stop(processId)) {
+            processMonitor.stop(processId);
+        }
+    }
+
+    /**
+     * Runs tests in parallel shards each using its own Maven process. Returns the parent process id
+     * all shard progress is published with.
+     * @param project
+     * @param buildContext
+     * @param tests
+     * @return
+     */
+    private String executeSharded(Project project, MavenBuildContext buildContext, List<Test> tests) {
+        List<List<String>> shards = ShardedTestExecution.partition(tests, buildContext.getShards());
+        if (shards.isEmpty()) {
+            throw new ApplicationRuntimeException("Failed to execute tests in parallel - no tests found");
+        }
+
+        String processId = "parallel-" + shardedExecutionId.incrementAndGet();
+        ShardedTestExecution execution = new ShardedTestExecution(processId, project, buildContext, shards, terminalService,
+                testReportService, buildAvoidanceService, processListeners.toArray(new ProcessListener[processListeners.size()]));
+
+        shardedExecutions.put(processId, execution);
+        execution.start().whenComplete((result, error) -> shardedExecutions.remove(processId));
+
+        return processId;
+    }
+
+    /**
+     * Checks if tests should be distributed to multiple parallel shards. Custom build commands are not
+     * supported as test filters can not be applied to them.
+     * @param buildContext
+     * @return
+     */
+    private boolean isSharded(MavenBuildContext buildContext) {
+        return buildContext.getShards() > 1 && !StringUtils.hasText(buildContext.getCommand());
+    }
+
+    /**
+     * Creates Maven command with clean and compile phases decided by build avoidance.
+     * @param project
+     * @param buildContext
+     * @return
+     */
+    private MavenCommand createCommand(Project project, MavenBuildContext buildContext) {
+        MavenBuildPlan plan = buildAvoidanceService.plan(project, buildContext);
+        MavenCommand command = new MavenCommand(new File(project.getProjectHome()), buildContext,
+                buildAvoidanceService.track(project, plan, processListeners.toArray(new ProcessListener[processListeners.size()])));
+
+        return plan.apply(command);
+    }
+
+    /**
+     * Checks if single test should run in warm test runner. Clean builds, custom build commands and Cucumber
+     * tests always run with Maven.
+     * @param buildContext
+     * @param test
+     * @return
+     */
+    private boolean isWarmRunner(MavenBuildContext buildContext, Test test) {
+        return buildContext.isWarmRunner() && !buildContext.isClean() && !StringUtils.hasText(buildContext.getCommand())
+                && !TestType.CUCUMBER.equals(test.getType());
     }
 
     /**
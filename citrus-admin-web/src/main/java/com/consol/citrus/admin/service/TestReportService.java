@@ -23,7 +23,10 @@ import org.springframework.core.annotation.AnnotationAwareOrderComparator;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
+import java.io.File;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * @author Christoph Deppisch
@@ -34,6 +37,9 @@ public class TestReportService {
     @Autowired
     private List<TestReportLoader> testReportLoaders;
 
+    /** Latest reports merged from parallel test shards by project home */
+    private final Map<String, TestReport> mergedReports = new ConcurrentHashMap<>();
+
     @PostConstruct
     public void init() {
         testReportLoaders.sort(AnnotationAwareOrderComparator.INSTANCE);
@@ -45,6 +51,11 @@ public class TestReportService {
      */
     public TestReport getLatest(Project activeProject) {
         if (null != activeProject) {
+            TestReport mergedReport = mergedReports.get(activeProject.getProjectHome());
+            if (mergedReport != null) {
+                return mergedReport;
+            }
+
             return testReportLoaders.stream()
                     .filter(reporter -> reporter.hasTestResults(activeProject))
                     .map(reporter -> reporter.getLatest(activeProject))
@@ -73,5 +84,67 @@ public class TestReportService {
         return new TestReport();
     }
 
+    /**
+     * Loads test results from given reports directory.
+     * @param activeProject
+     * @param reportsDirectory
+     * @return
+     */
+    public TestReport getReport(Project activeProject, File reportsDirectory) {
+        return testReportLoaders.stream()
+                .map(reporter -> reporter.getReport(activeProject, reportsDirectory))
+                .filter(report -> report.getTotal() > 0)
+                .findFirst()
+                .orElse(new TestReport());
+    }
+
+    /**
+     * Saves merged report as latest report of project. Merged report is returned as latest report until
+     * it gets cleared.
+     * @param activeProject
+     * @param report
+     */
+    public void setLatest(Project activeProject, TestReport report) {
+        mergedReports.put(activeProject.getProjectHome(), report);
+    }
 
+    /**
+     * Clears merged report of project so latest report is loaded from test results again.
+     * @param activeProject
+     */
+    public void clearLatest(Project activeProject) {
+        mergedReports.remove(activeProject.getProjectHome());
+    }
+
+    /**
+     * Merges reports to a single report. Test counts, durations and results are summed up.
+     * @param reports
+     * @return
+     */
+    public static TestReport merge(List<TestReport> reports) {
+        TestReport merged = new TestReport();
+
+        for (TestReport report : reports) {
+            if (merged.getProjectName() == null) {
+                merged.setProjectName(report.getProjectName());
+            }
+
+            if (merged.getSuiteName() == null) {
+                merged.setSuiteName(report.getSuiteName());
+            }
+
+            if (report.getExecutionDate() != null && report.getExecutionDate().before(merged.getExecutionDate())) {
+                merged.setExecutionDate(report.getExecutionDate());
+            }
+
+            merged.setPassed(merged.getPassed() + report.getPassed());
+            merged.setFailed(merged.getFailed() + report.getFailed());
+            merged.setSkipped(merged.getSkipped() + report.getSkipped());
+            merged.setTotal(merged.getTotal() + report.getTotal());
+            merged.setDuration(merged.getDuration() + report.getDuration());
+            merged.getResults().addAll(report.getResults());
+        }
+
+        return merged;
+    }
 }
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.service;
+
+import com.consol.citrus.admin.connector.runner.ForkedTestRunner;
+import com.consol.citrus.admin.model.Project;
+import com.consol.citrus.admin.model.Test;
+import com.consol.citrus.admin.process.InputStreamPumper;
+import com.consol.citrus.admin.process.ProcessExecutor;
+import com.consol.citrus.admin.process.listener.ProcessListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Persistent forked JVM running single tests of a project on request. The JVM is started with the project classpath
+ * and runs {@link ForkedTestRunner} which keeps loaded classes and cached Spring application contexts between runs.
+ * Runner output is forwarded to the process listeners of the current run.
+ *
+ * @author Christoph Deppisch
+ */
+public class WarmTestRunner implements Closeable {
+
+    /** Logger */
+    private static Logger log = LoggerFactory.getLogger(WarmTestRunner.class);
+
+    /** Seconds to wait for runner JVM to get ready */
+    private static final long STARTUP_TIMEOUT = 120L;
+
+    private final Project project;
+    private final List<String> command;
+
+    /** Last modification of compiled classes and POM when runner was started */
+    private final long classesTimestamp;
+
+    private Process process;
+    private InputStreamPumper pumper;
+    private final CountDownLatch ready = new CountDownLatch(1);
+
+    /** Process id and listeners receiving runner output */
+    private volatile String processId;
+    private volatile ProcessListener[] processListeners = new ProcessListener[0];
+
+    private volatile CompletableFuture<Integer> currentRun;
+    private volatile long lastUsed = System.currentTimeMillis();
+
+    /**
+     * Default constructor using project and JVM command line.
+     * @param project
+     * @param command
+     */
+    public WarmTestRunner(Project project, List<String> command) {
+        this.project = project;
+        this.command = command;
+        this.classesTimestamp = getClassesTimestamp(project);
+    }
+
+    /**
+     * Starts runner JVM and waits for it to get ready. Startup output is forwarded to given process listeners.
+     * @param processExecutor
+     * @param processId
+     * @param processListeners
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws TimeoutException
+     */
+    public void start(ProcessExecutor processExecutor, String processId, ProcessListener ... processListeners) throws IOException, InterruptedException, TimeoutException {
+        attach(processId, processListeners);
+
+        ProcessBuilder processBuilder = new ProcessBuilder(command)
+                .directory(new File(project.getProjectHome()))
+                .redirectErrorStream(true);
+
+        log.info("Starting warm test runner: " + processBuilder.command());
+        process = processBuilder.start();
+        pumper = new InputStreamPumper(process.getInputStream()) {
+            @Override
+            public void onActivity(String line) {
+                int event = line.indexOf(ForkedTestRunner.EVENT_PREFIX);
+                if (event >= 0) {
+                    flush();
+                    onEvent(line.substring(event + ForkedTestRunner.EVENT_PREFIX.length()).trim());
+                } else {
+                    Stream.of(WarmTestRunner.this.processListeners).forEach(listener -> listener.onProcessActivity(WarmTestRunner.this.processId, line));
+                }
+            }
+
+            @Override
+            public void onOutput(String data) {
+                String output = stripEvents(data);
+                if (StringUtils.hasLength(output)) {
+                    Stream.of(WarmTestRunner.this.processListeners).forEach(listener -> listener.onProcessOutput(WarmTestRunner.this.processId, output));
+                }
+            }
+        };
+        processExecutor.pump(pumper, this::terminated);
+
+        if (!ready.await(STARTUP_TIMEOUT, TimeUnit.SECONDS)) {
+            close();
+            throw new TimeoutException(String.format("Warm test runner did not start within %s seconds", STARTUP_TIMEOUT));
+        }
+
+        if (!isAlive()) {
+            throw new IOException("Warm test runner terminated during startup");
+        }
+    }
+
+    /**
+     * Runs given test and waits for the result. Returns number of failed tests or {@link ForkedTestRunner#RUN_ERROR}
+     * when test could not be executed. Runs are executed one after another. Runner JVM is killed when the test
+     * does not finish within given timeout in seconds.
+     * @param test
+     * @param processId
+     * @param timeout
+     * @param processListeners
+     * @return
+     * @throws InterruptedException
+     */
+    public synchronized int run(Test test, String processId, long timeout, ProcessListener ... processListeners) throws InterruptedException {
+        lastUsed = System.currentTimeMillis();
+        attach(processId, processListeners);
+
+        CompletableFuture<Integer> result = new CompletableFuture<>();
+        currentRun = result;
+
+        try {
+            if (!isAlive()) {
+                return ForkedTestRunner.RUN_ERROR;
+            }
+
+            StringBuilder run = new StringBuilder(ForkedTestRunner.RUN).append(' ').append(processId)
+                    .append(' ').append(getTestClassName(test));
+            if (StringUtils.hasText(test.getMethodName())) {
+                run.append(' ').append(test.getMethodName());
+            }
+
+            OutputStream commands = process.getOutputStream();
+            commands.write((run.toString() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8));
+            commands.flush();
+
+            return result.get(timeout, TimeUnit.SECONDS);
+        } catch (IOException | ExecutionException e) {
+            log.warn("Failed to run test in warm test runner", e);
+            return ForkedTestRunner.RUN_ERROR;
+        } catch (TimeoutException e) {
+            log.warn(String.format("Test did not finish within %s seconds - closing warm test runner", timeout));
+            close();
+            return ForkedTestRunner.RUN_ERROR;
+        } finally {
+            currentRun = null;
+            lastUsed = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Handles runner event.
+     * @param event
+     */
+    private void onEvent(String event) {
+        String[] tokens = event.split("\\s+");
+
+        if (tokens[0].equals(ForkedTestRunner.READY)) {
+            ready.countDown();
+        } else if (tokens[0].equals(ForkedTestRunner.FINISHED) && tokens.length > 2) {
+            CompletableFuture<Integer> run = currentRun;
+            if (run != null && tokens[1].equals(processId)) {
+                try {
+                    run.complete(Integer.valueOf(tokens[2]));
+                } catch (NumberFormatException e) {
+                    run.complete(ForkedTestRunner.RUN_ERROR);
+                }
+            }
+        }
+    }
+
+    /**
+     * Runner JVM output has ended so the process has terminated.
+     */
+    private void terminated() {
+        ready.countDown();
+
+        CompletableFuture<Integer> run = currentRun;
+        if (run != null) {
+            run.complete(ForkedTestRunner.RUN_ERROR);
+        }
+    }
+
+    /**
+     * Sets process id and listeners receiving runner output.
+     * @param processId
+     * @param processListeners
+     */
+    private void attach(String processId, ProcessListener ... processListeners) {
+        this.processId = processId;
+        this.processListeners = processListeners;
+    }
+
+    /**
+     * Checks that compiled classes, resources and POM have not changed since runner was started. Otherwise loaded
+     * classes and cached application contexts are outdated and runner needs to be restarted.
+     * @return
+     */
+    public boolean isUpToDate() {
+        return classesTimestamp == getClassesTimestamp(project);
+    }
+
+    /**
+     * Checks that runner JVM is running.
+     * @return
+     */
+    public boolean isAlive() {
+        return process != null && process.isAlive();
+    }
+
+    /**
+     * Checks if runner is currently running a test.
+     * @return
+     */
+    public boolean isBusy() {
+        return currentRun != null;
+    }
+
+    /**
+     * Gets time of last test run.
+     * @return
+     */
+    public long getLastUsed() {
+        return lastUsed;
+    }
+
+    /**
+     * Kills runner JVM. Test currently running is reported as failed.
+     */
+    @Override
+    public void close() {
+        if (pumper != null) {
+            pumper.close();
+        }
+
+        if (process != null) {
+            process.destroyForcibly();
+        }
+
+        terminated();
+    }
+
+    /**
+     * Checks if project sources are newer than compiled classes.
+     * @param project
+     * @return
+     */
+    public static boolean isOutdated(Project project) {
+        File projectHome = new File(project.getProjectHome());
+        return getLastModified(new File(projectHome, "src/main"), new File(projectHome, "src/test")) >
+                getLastModified(new File(projectHome, "target/classes"), new File(projectHome, "target/test-classes"));
+    }
+
+    /**
+     * Gets last modification of compiled classes, resources and POM.
+     * @param project
+     * @return
+     */
+    private static long getClassesTimestamp(Project project) {
+        File projectHome = new File(project.getProjectHome());
+        return getLastModified(new File(projectHome, "target/classes"), new File(projectHome, "target/test-classes"), new File(projectHome, "pom.xml"));
+    }
+
+    /**
+     * Gets latest modification time of given files and all files and directories below.
+     * @param files
+     * @return
+     */
+    static long getLastModified(File ... files) {
+        long lastModified = 0L;
+
+        for (File file : files) {
+            if (!file.exists()) {
+                continue;
+            }
+
+            try (Stream<Path> paths = Files.walk(file.toPath())) {
+                lastModified = Math.max(lastModified, paths.mapToLong(path -> path.toFile().lastModified()).max().orElse(0L));
+            } catch (IOException | UncheckedIOException e) {
+                log.warn("Failed to read modification time of " + file.getAbsolutePath(), e);
+            }
+        }
+
+        return lastModified;
+    }
+
+    /**
+     * Removes runner event lines from output.
+     * @param output
+     * @return
+     */
+    private static String stripEvents(String output) {
+        if (!output.contains(ForkedTestRunner.EVENT_PREFIX)) {
+            return output;
+        }
+
+        return Stream.of(output.split("\\R"))
+                .filter(line -> !line.contains(ForkedTestRunner.EVENT_PREFIX))
+                .map(line -> line + System.lineSeparator())
+                .collect(Collectors.joining());
+    }
+
+    /**
+     * Gets fully qualified test class name.
+     * @param test
+     * @return
+     */
+    private static String getTestClassName(Test test) {
+        return StringUtils.hasText(test.getPackageName()) ? test.getPackageName() + "." + test.getClassName() : test.getClassName();
+    }
+}
@@ -0,0 +1,437 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.service;
+
+import com.consol.citrus.admin.Application;
+import com.consol.citrus.admin.configuration.SystemSettings;
+import com.consol.citrus.admin.connector.runner.ForkedTestRunner;
+import com.consol.citrus.admin.exception.ApplicationRuntimeException;
+import com.consol.citrus.admin.model.*;
+import com.consol.citrus.admin.process.ProcessExecutor;
+import com.consol.citrus.admin.process.listener.AbstractProcessListener;
+import com.consol.citrus.admin.process.listener.ProcessListener;
+import com.consol.citrus.admin.service.command.maven.MavenBuildContext;
+import com.consol.citrus.admin.service.command.maven.MavenCommand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Service;
+import org.springframework.util.*;
+
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.net.URL;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Runs single tests in a persistent forked runner JVM per project. This avoids Maven startup, model building and
+ * Spring context startup on each test run. Runner is restarted when compiled classes or the POM change and shut down
+ * after being idle for some time. Test runs of a project are executed one after another so compiling and restarting the
+ * runner never interferes with a test still running.
+ *
+ * @author Christoph Deppisch
+ */
+@Service
+public class WarmTestRunnerService {
+
+    /** Logger */
+    private static Logger log = LoggerFactory.getLogger(WarmTestRunnerService.class);
+
+    /** Default idle timeout and test run timeout in seconds */
+    private static final long DEFAULT_IDLE_TIMEOUT = 1800L;
+    private static final long DEFAULT_RUN_TIMEOUT = 3600L;
+
+    /** Test reports directory relative to project home */
+    private static final String RUNNER_REPORTS_DIRECTORY = "target" + File.separator + "citrus-admin" + File.separator + "runner";
+
+    @Autowired
+    private ProcessExecutor processExecutor;
+
+    @Autowired
+    private TerminalService terminalService;
+
+    @Autowired
+    private TestReportService testReportService;
+
+    /** Runners by project home */
+    private final Map<String, WarmTestRunner> runners = new ConcurrentHashMap<>();
+
+    /** Active test runs by process id including runs waiting for compilation or a previous run */
+    private final Map<String, TestRun> activeRuns = new ConcurrentHashMap<>();
+
+    /** Locks serializing test runs by project home */
+    private final Map<String, ReentrantLock> projectLocks = new ConcurrentHashMap<>();
+    private final AtomicInteger runId = new AtomicInteger();
+
+    private final long idleTimeout = SystemSettings.getLong(Application.TEST_RUNNER_IDLE_TIMEOUT, Application.TEST_RUNNER_IDLE_TIMEOUT_ENV, DEFAULT_IDLE_TIMEOUT);
+    private final long runTimeout = SystemSettings.getLong(Application.TEST_RUNNER_RUN_TIMEOUT, Application.TEST_RUNNER_RUN_TIMEOUT_ENV, DEFAULT_RUN_TIMEOUT);
+    private final List<String> jvmArgs = getJvmArgs();
+
+    /** Runner main classes extracted for the forked JVM classpath */
+    private File runnerClasses;
+
+    /** Pending idle runner check, rescheduled after each test run */
+    private final AtomicReference<ScheduledFuture<?>> idleCheck = new AtomicReference<>();
+
+    /**
+     * Runs test in warm test runner of the project and returns process id the progress is published with.
+     * @param project
+     * @param buildContext
+     * @param test
+     * @param processListeners
+     * @return
+     */
+    public String execute(Project project, MavenBuildContext buildContext, Test test, ProcessListener ... processListeners) {
+        String processId = "runner-" + runId.incrementAndGet();
+        TestRun testRun = new TestRun();
+        activeRuns.put(processId, testRun);
+
+        try {
+            processExecutor.execute(() -> run(project, buildContext, test, processId, testRun, processListeners));
+        } catch (RuntimeException e) {
+            activeRuns.remove(processId);
+            throw new ApplicationRuntimeException(String.format("Failed to execute Citrus test case '%s'", test.getName()), e);
+        }
+
+        return processId;
+    }
+
+    /**
+     * Runs test and publishes progress and result to process listeners. Changed sources are compiled first when enabled.
+     * Waits for previous test runs of the project to finish before compiling.
+     * @param project
+     * @param buildContext
+     * @param test
+     * @param processId
+     * @param testRun
+     * @param processListeners
+     */
+    private void run(Project project, MavenBuildContext buildContext, Test test, String processId, TestRun testRun, ProcessListener ... processListeners) {
+        Stream.of(processListeners).forEach(listener -> listener.onProcessStart(processId));
+
+        ReentrantLock lock = projectLocks.computeIfAbsent(project.getProjectHome(), projectHome -> new ReentrantLock());
+        boolean locked = false;
+        try {
+            if (!testRun.begin()) {
+                fail(processId, new IllegalStateException("Test run has been stopped"), processListeners);
+                return;
+            }
+
+            lock.lockInterruptibly();
+            locked = true;
+
+            if (buildContext.isCompile() && WarmTestRunner.isOutdated(project)) {
+                MavenCommand compile = new MavenCommand(new File(project.getProjectHome()), buildContext);
+                compile.testCompile();
+
+                if (!terminalService.executeAndWait(compile, new ForwardingProcessListener(processId, processListeners))) {
+                    fail(processId, new IllegalStateException("Failed to compile project before running test"), processListeners);
+                    return;
+                }
+            }
+
+            WarmTestRunner runner = getRunner(project, processId, processListeners);
+            if (!testRun.attach(runner)) {
+                fail(processId, new IllegalStateException("Test run has been stopped"), processListeners);
+                return;
+            }
+
+            int failures = runner.run(test, processId, runTimeout, processListeners);
+            loadReport(project, processId);
+
+            if (failures == 0) {
+                Stream.of(processListeners).forEach(listener -> listener.onProcessSuccess(processId));
+            } else if (failures > 0) {
+                Stream.of(processListeners).forEach(listener -> listener.onProcessFail(processId, failures));
+            } else {
+                fail(processId, new IllegalStateException(String.format("Failed to run test '%s' in warm test runner", test.getName())), processListeners);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(processId, e, processListeners);
+        } catch (Exception e) {
+            log.error("Failed to run test in warm test runner", e);
+            fail(processId, e, processListeners);
+        } finally {
+            if (locked) {
+                lock.unlock();
+            }
+
+            testRun.end();
+            activeRuns.remove(processId);
+            scheduleIdleCheck();
+        }
+    }
+
+    /**
+     * Schedules check for idle runners replacing the pending check so only one check is scheduled at a time.
+     */
+    private void scheduleIdleCheck() {
+        ScheduledFuture<?> previous = idleCheck.getAndSet(processExecutor.schedule(this::closeIdleRunners, idleTimeout, TimeUnit.SECONDS));
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    /**
+     * Stops test run with given process id by killing its runner JVM. Test runs still waiting for a previous run or
+     * compiling sources are interrupted. Returns false when there is no such test run.
+     * @param processId
+     * @return
+     */
+    public boolean stop(String processId) {
+        TestRun testRun = activeRuns.remove(processId);
+        if (testRun == null) {
+            return false;
+        }
+
+        WarmTestRunner runner = testRun.stop();
+        if (runner != null) {
+            runners.values().remove(runner);
+            runner.close();
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets running and up to date runner for project or starts a new one.
+     * @param project
+     * @param processId
+     * @param processListeners
+     * @return
+     * @throws Exception
+     */
+    private synchronized WarmTestRunner getRunner(Project project, String processId, ProcessListener ... processListeners) throws Exception {
+        WarmTestRunner runner = runners.get(project.getProjectHome());
+        if (runner != null && runner.isAlive() && runner.isUpToDate()) {
+            return runner;
+        }
+
+        if (runner != null) {
+            log.info("Restarting warm test runner for project " + project.getProjectHome());
+            runner.close();
+        }
+
+        runner = new WarmTestRunner(project, getCommand(project));
+        runners.put(project.getProjectHome(), runner);
+        runner.start(processExecutor, processId, processListeners);
+        return runner;
+    }
+
+    /**
+     * Constructs runner JVM command line with project classpath including Citrus and runner main classes.
+     * @param project
+     * @return
+     * @throws IOException
+     */
+    private List<String> getCommand(Project project) throws IOException {
+        StringJoiner classpath = new StringJoiner(File.pathSeparator);
+        classpath.add(getRunnerClasses().getAbsolutePath());
+        for (URL url : project.getClasspath(true)) {
+            classpath.add(ResourceUtils.getFile(url).getAbsolutePath());
+        }
+
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(classpath.toString());
+        command.add(ForkedTestRunner.class.getName());
+        command.add(new File(project.getProjectHome(), RUNNER_REPORTS_DIRECTORY).getAbsolutePath());
+        return command;
+    }
+
+    /**
+     * Extracts runner main classes to temporary directory as they may be nested in the application archive
+     * and therefore not accessible for the forked JVM.
+     * @return
+     * @throws IOException
+     */
+    private synchronized File getRunnerClasses() throws IOException {
+        if (runnerClasses == null) {
+            Path directory = Files.createTempDirectory("citrus-admin-runner");
+            String packagePath = ClassUtils.classPackageAsResourcePath(ForkedTestRunner.class);
+
+            for (Resource resource : new PathMatchingResourcePatternResolver().getResources("classpath*:" + packagePath + "/*.class")) {
+                Path classFile = directory.resolve(packagePath).resolve(resource.getFilename());
+                Files.createDirectories(classFile.getParent());
+                try (InputStream in = resource.getInputStream()) {
+                    Files.copy(in, classFile, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+
+            runnerClasses = directory.toFile();
+        }
+
+        return runnerClasses;
+    }
+
+    /**
+     * Loads report of test run and saves it as latest project report.
+     * @param project
+     * @param processId
+     */
+    private void loadReport(Project project, String processId) {
+        File reportsDirectory = new File(project.getProjectHome(), RUNNER_REPORTS_DIRECTORY + File.separator + processId);
+
+        TestReport report = testReportService.getReport(project, reportsDirectory);
+        if (report.getTotal() > 0) {
+            testReportService.setLatest(project, report);
+        }
+
+        FileSystemUtils.deleteRecursively(reportsDirectory);
+    }
+
+    /**
+     * Shuts down runners that have not been used within idle timeout.
+     */
+    private void closeIdleRunners() {
+        long now = System.currentTimeMillis();
+        runners.entrySet().removeIf(entry -> {
+            WarmTestRunner runner = entry.getValue();
+            if (!runner.isBusy() && now - runner.getLastUsed() >= TimeUnit.SECONDS.toMillis(idleTimeout)) {
+                log.info("Closing idle warm test runner for project " + entry.getKey());
+                runner.close();
+                return true;
+            }
+
+            return false;
+        });
+    }
+
+    /**
+     * Shuts down all runners.
+     */
+    @PreDestroy
+    public void shutdown() {
+        Optional.ofNullable(idleCheck.getAndSet(null)).ifPresent(check -> check.cancel(false));
+        runners.values().forEach(WarmTestRunner::close);
+        runners.clear();
+
+        if (runnerClasses != null) {
+            FileSystemUtils.deleteRecursively(runnerClasses);
+        }
+    }
+
+    /**
+     * Publish failure to process listeners.
+     * @param processId
+     * @param e
+     * @param processListeners
+     */
+    private void fail(String processId, Throwable e, ProcessListener ... processListeners) {
+        Stream.of(processListeners).forEach(listener -> listener.onProcessFail(processId, e));
+    }
+
+    /**
+     * Reads runner JVM options from system property or environment variable.
+     * @return
+     */
+    private static List<String> getJvmArgs() {
+        String value = SystemSettings.getString(Application.TEST_RUNNER_JVM_ARGS, Application.TEST_RUNNER_JVM_ARGS_ENV);
+        if (!StringUtils.hasText(value)) {
+            return Collections.emptyList();
+        }
+
+        return Arrays.asList(value.trim().split("\\s+"));
+    }
+
+    /**
+     * State of a single test run. Thread executing the run is interrupted when the run is stopped before the runner
+     * has been attached.
+     */
+    private static class TestRun {
+        private Thread thread;
+        private WarmTestRunner runner;
+        private boolean stopped;
+
+        /**
+         * Marks current thread as executing this run. Returns false when run has already been stopped.
+         * @return
+         */
+        synchronized boolean begin() {
+            thread = Thread.currentThread();
+            return !stopped;
+        }
+
+        /**
+         * Sets runner executing the test. Returns false when run has already been stopped.
+         * @param runner
+         * @return
+         */
+        synchronized boolean attach(WarmTestRunner runner) {
+            this.runner = runner;
+            return !stopped;
+        }
+
+        /**
+         * Marks run as finished and clears the interrupt of a stop so the pooled thread is not affected.
+         */
+        synchronized void end() {
+            thread = null;
+            if (stopped) {
+                Thread.interrupted();
+            }
+        }
+
+        /**
+         * Stops this run and returns the runner executing the test if any.
+         * @return
+         */
+        synchronized WarmTestRunner stop() {
+            stopped = true;
+            if (runner == null && thread != null) {
+                thread.interrupt();
+            }
+
+            return runner;
+        }
+    }
+
+    /**
+     * Forwards output of other processes such as compile commands to test run listeners.
+     */
+    private static class ForwardingProcessListener extends AbstractProcessListener {
+        private final String processId;
+        private final ProcessListener[] processListeners;
+
+        ForwardingProcessListener(String processId, ProcessListener ... processListeners) {
+            this.processId = processId;
+            this.processListeners = processListeners;
+        }
+
+        @Override
+        public void onProcessOutput(String otherProcessId, String output) {
+            Stream.of(processListeners).forEach(listener -> listener.onProcessOutput(processId, output));
+        }
+
+        @Override
+        public void onProcessActivity(String otherProcessId, String output) {
+            Stream.of(processListeners).forEach(listener -> listener.onProcessActivity(processId, output));
+        }
+    }
+}
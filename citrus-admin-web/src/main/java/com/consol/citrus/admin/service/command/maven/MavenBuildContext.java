@@ -31,6 +31,21 @@ public class MavenBuildContext extends AbstractBuildContext {
 
     private String profiles;
 
+    /** Number of parallel Maven processes the tests are distributed to */
+    private int shards = 1;
+
+    /** Maximum number of shards running at the same time, zero means all shards run at once */
+    private int maxParallelShards = 0;
+
+    /** Run single tests in a persistent forked runner JVM instead of a new Maven process */
+    private boolean warmRunner = false;
+
+    /** Skip clean and compile when sources and POMs are unchanged since last build */
+    private boolean buildAvoidance = true;
+
+    /** Run Maven offline and quiet when POMs and profiles are unchanged since last build */
+    private boolean offlineBuild = false;
+
     public MavenBuildContext() {
         super("maven");
     }
@@ -122,4 +137,94 @@ public class MavenBuildContext extends AbstractBuildContext {
     public String getCommand() {
         return command;
     }
+
+    /**
+     * Gets the shards property.
+     *
+     * @return
+     */
+    public int getShards() {
+        return shards;
+    }
+
+    /**
+     * Sets the shards property.
+     *
+     * @param shards
+     */
+    public void setShards(int shards) {
+        this.shards = shards;
+    }
+
+    /**
+     * Gets the maxParallelShards property.
+     *
+     * @return
+     */
+    public int getMaxParallelShards() {
+        return maxParallelShards;
+    }
+
+    /**
+     * Sets the maxParallelShards property.
+     *
+     * @param maxParallelShards
+     */
+    public void setMaxParallelShards(int maxParallelShards) {
+        this.maxParallelShards = maxParallelShards;
+    }
+
+    /**
+     * Gets the warmRunner property.
+     *
+     * @return
+     */
+    public boolean isWarmRunner() {
+        return warmRunner;
+    }
+
+    /**
+     * Sets the warmRunner property.
+     *
+     * @param warmRunner
+     */
+    public void setWarmRunner(boolean warmRunner) {
+        this.warmRunner = warmRunner;
+    }
+
+    /**
+     * Gets the buildAvoidance property.
+     *
+     * @return
+     */
+    public boolean isBuildAvoidance() {
+        return buildAvoidance;
+    }
+
+    /**
+     * Sets the buildAvoidance property.
+     *
+     * @param buildAvoidance
+     */
+    public void setBuildAvoidance(boolean buildAvoidance) {
+        this.buildAvoidance = buildAvoidance;
+    }
+
+    /**
+     * Gets the offlineBuild property.
+     *
+     * @return
+     */
+    public boolean isOfflineBuild() {
+        return offlineBuild;
+    }
+
+    /**
+     * Sets the offlineBuild property.
+     *
+     * @param offlineBuild
+     */
+    public void setOfflineBuild(boolean offlineBuild) {
+        this.offlineBuild = offlineBuild;
+    }
 }
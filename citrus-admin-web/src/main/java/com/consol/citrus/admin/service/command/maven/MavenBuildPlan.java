@@ -0,0 +1,259 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.service.command.maven;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maven lifecycle phases and options decided for a build based on source and POM fingerprints. Holds the fingerprints
+ * taken before the build so they can be saved once the build has completed.
+ *
+ * @author Christoph Deppisch
+ */
+public class MavenBuildPlan {
+
+    /** Fingerprints of sources, POMs and dependency set */
+    private final String sources;
+    private final String poms;
+    private final String dependencies;
+
+    private boolean clean;
+    private boolean compile;
+    private boolean skipMainCompile;
+    private boolean offline;
+    private boolean quiet;
+
+    /** Sources and POMs unchanged since last successful build */
+    private boolean upToDate;
+
+    /** Build steps skipped by this plan */
+    private final List<String> skipped = new ArrayList<>();
+
+    /** Duration of last build without skipped steps, zero when unknown */
+    private long fullBuildDuration;
+
+    /**
+     * Default constructor using fingerprints.
+     * @param sources
+     * @param poms
+     * @param dependencies
+     */
+    public MavenBuildPlan(String sources, String poms, String dependencies) {
+        this.sources = sources;
+        this.poms = poms;
+        this.dependencies = dependencies;
+    }
+
+    /**
+     * Adds planned lifecycle phases and options to given command.
+     * @param command
+     * @return
+     */
+    public MavenCommand apply(MavenCommand command) {
+        if (clean) {
+            command.clean();
+        }
+
+        if (compile) {
+            command.compile();
+        } else if (skipMainCompile) {
+            command.property("maven.main.skip", "true");
+        }
+
+        if (offline) {
+            command.offline();
+        }
+
+        if (quiet) {
+            command.quiet();
+        }
+
+        return command;
+    }
+
+    /**
+     * Marks build step as skipped.
+     * @param step
+     */
+    public void skip(String step) {
+        skipped.add(step);
+    }
+
+    /**
+     * Gets the skipped build steps.
+     *
+     * @return
+     */
+    public List<String> getSkipped() {
+        return skipped;
+    }
+
+    /**
+     * Gets the sources fingerprint.
+     *
+     * @return
+     */
+    public String getSources() {
+        return sources;
+    }
+
+    /**
+     * Gets the POM fingerprint.
+     *
+     * @return
+     */
+    public String getPoms() {
+        return poms;
+    }
+
+    /**
+     * Gets the dependency set fingerprint.
+     *
+     * @return
+     */
+    public String getDependencies() {
+        return dependencies;
+    }
+
+    /**
+     * Gets the clean property.
+     *
+     * @return
+     */
+    public boolean isClean() {
+        return clean;
+    }
+
+    /**
+     * Sets the clean property.
+     *
+     * @param clean
+     */
+    public void setClean(boolean clean) {
+        this.clean = clean;
+    }
+
+    /**
+     * Gets the compile property.
+     *
+     * @return
+     */
+    public boolean isCompile() {
+        return compile;
+    }
+
+    /**
+     * Sets the compile property.
+     *
+     * @param compile
+     */
+    public void setCompile(boolean compile) {
+        this.compile = compile;
+    }
+
+    /**
+     * Gets the skipMainCompile property.
+     *
+     * @return
+     */
+    public boolean isSkipMainCompile() {
+        return skipMainCompile;
+    }
+
+    /**
+     * Sets the skipMainCompile property.
+     *
+     * @param skipMainCompile
+     */
+    public void setSkipMainCompile(boolean skipMainCompile) {
+        this.skipMainCompile = skipMainCompile;
+    }
+
+    /**
+     * Gets the offline property.
+     *
+     * @return
+     */
+    public boolean isOffline() {
+        return offline;
+    }
+
+    /**
+     * Sets the offline property.
+     *
+     * @param offline
+     */
+    public void setOffline(boolean offline) {
+        this.offline = offline;
+    }
+
+    /**
+     * Gets the quiet property.
+     *
+     * @return
+     */
+    public boolean isQuiet() {
+        return quiet;
+    }
+
+    /**
+     * Sets the quiet property.
+     *
+     * @param quiet
+     */
+    public void setQuiet(boolean quiet) {
+        this.quiet = quiet;
+    }
+
+    /**
+     * Gets the upToDate property.
+     *
+     * @return
+     */
+    public boolean isUpToDate() {
+        return upToDate;
+    }
+
+    /**
+     * Sets the upToDate property.
+     *
+     * @param upToDate
+     */
+    public void setUpToDate(boolean upToDate) {
+        this.upToDate = upToDate;
+    }
+
+    /**
+     * Gets the fullBuildDuration property.
+     *
+     * @return
+     */
+    public long getFullBuildDuration() {
+        return fullBuildDuration;
+    }
+
+    /**
+     * Sets the fullBuildDuration property.
+     *
+     * @param fullBuildDuration
+     */
+    public void setFullBuildDuration(long fullBuildDuration) {
+        this.fullBuildDuration = fullBuildDuration;
+    }
+}
@@ -36,11 +36,17 @@ public class MavenCommand extends AbstractTerminalCommand {
     private static final String MVN = "mvn ";
     protected static final String CLEAN = "clean ";
     protected static final String COMPILE = "compile ";
+    protected static final String TEST_COMPILE = "test-compile ";
     protected static final String TEST = "test ";
     protected static final String PACKAGE = "package ";
     protected static final String INTEGRATION_TEST = "integration-test ";
     protected static final String INSTALL = "install ";
     protected static final String VERIFY = "verify ";
+    protected static final String SUREFIRE_TEST = "surefire:test ";
+    protected static final String FAILSAFE_INTEGRATION_TEST = "failsafe:integration-test ";
+
+    protected static final String OFFLINE = "-o ";
+    protected static final String QUIET = "-q ";
 
     /** Logger */
     private static Logger log = LoggerFactory.getLogger(MavenCommand.class);
@@ -55,6 +61,15 @@ public class MavenCommand extends AbstractTerminalCommand {
     private TestGroup group;
     private Test test;
 
+    /** Test name patterns to execute */
+    private List<String> testPatterns;
+
+    /** Additional system properties */
+    private List<Property> properties = new ArrayList<>();
+
+    /** Maven command line options */
+    private String options = "";
+
     /**
      * Constructor for executing a command.
      * @param workingDirectory
@@ -79,6 +94,7 @@ public class MavenCommand extends AbstractTerminalCommand {
         }
 
         builder.append(lifecycleCommand);
+        builder.append(options);
 
         for (Property propertyEntry: getSystemProperties()) {
             builder.append(String.format("-D%s=%s ", propertyEntry.getName(), propertyEntry.getValue()));
@@ -121,6 +137,15 @@ public class MavenCommand extends AbstractTerminalCommand {
         return this;
     }
 
+    /**
+     * Use test compile command.
+     * @return
+     */
+    public MavenCommand testCompile() {
+        lifecycleCommand += TEST_COMPILE;
+        return this;
+    }
+
     /**
      * Use test command.
      * @return
@@ -177,6 +202,24 @@ public class MavenCommand extends AbstractTerminalCommand {
         return this;
     }
 
+    /**
+     * Use Surefire test goal without running lifecycle phases before it. Test classes must be compiled already.
+     * @return
+     */
+    public MavenCommand surefireTest() {
+        lifecycleCommand += SUREFIRE_TEST;
+        return this;
+    }
+
+    /**
+     * Use Failsafe integration test goal without running lifecycle phases before it. Test classes must be compiled already.
+     * @return
+     */
+    public MavenCommand failsafeIntegrationTest() {
+        lifecycleCommand += FAILSAFE_INTEGRATION_TEST;
+        return this;
+    }
+
     /**
      * Use custom lifecycle command.
      * @param command
@@ -216,6 +259,45 @@ public class MavenCommand extends AbstractTerminalCommand {
         return this.integrationTest();
     }
 
+    /**
+     * Restricts tests to given test name patterns (e.g. com/consol/citrus/SampleIT).
+     * @param testPatterns
+     * @return
+     */
+    public MavenCommand tests(List<String> testPatterns) {
+        this.testPatterns = testPatterns;
+        return this;
+    }
+
+    /**
+     * Adds system property to command.
+     * @param name
+     * @param value
+     * @return
+     */
+    public MavenCommand property(String name, String value) {
+        properties.add(new Property<>(name, value));
+        return this;
+    }
+
+    /**
+     * Work offline without checking remote repositories.
+     * @return
+     */
+    public MavenCommand offline() {
+        options += OFFLINE;
+        return this;
+    }
+
+    /**
+     * Quiet output showing only errors.
+     * @return
+     */
+    public MavenCommand quiet() {
+        options += QUIET;
+        return this;
+    }
+
     /**
      * Gets the build system properties.
      * @return
@@ -239,9 +321,13 @@ public class MavenCommand extends AbstractTerminalCommand {
         } else if (group != null && StringUtils.hasText(group.getName())) {
             utTestNameProperty = new Property<>("test", group.getName().replaceAll("\\.", "/") + "/*");
             itTestNameProperty = new Property<>("it.test", group.getName().replaceAll("\\.", "/") + "/*");
+        } else if (!CollectionUtils.isEmpty(testPatterns)) {
+            utTestNameProperty = new Property<>("test", StringUtils.collectionToCommaDelimitedString(testPatterns));
+            itTestNameProperty = new Property<>("it.test", StringUtils.collectionToCommaDelimitedString(testPatterns));
         }
 
         systemProperties.addAll(buildContext.getProperties());
+        systemProperties.addAll(properties);
 
         if (itTestNameProperty != null && buildContext.getTestPlugin().equals("maven-failsafe")) {
             systemProperties.add(itTestNameProperty);
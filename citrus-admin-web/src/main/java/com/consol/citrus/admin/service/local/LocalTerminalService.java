@@ -49,7 +49,7 @@ public class LocalTerminalService extends AbstractTerminalService {
             ProcessLauncher processLauncher = getProcessMonitor().get(pid);
             processLauncher.attach(command, processListeners);
         } else {
-            ProcessLauncher processLauncher = new LocalProcessLauncher(getProcessMonitor(), pid);
+            ProcessLauncher processLauncher = createLauncher(pid);
             processLauncher.launchAndContinue(command, 0, processListeners);
         }
 
@@ -59,7 +59,7 @@ public class LocalTerminalService extends AbstractTerminalService {
     @Override
     public boolean executeAndWait(TerminalCommand command, ProcessListener... processListeners) {
         CompletableFuture<Boolean> result = new CompletableFuture<>();
-        ProcessLauncher processLauncher = new LocalProcessLauncher(getProcessMonitor(), String.valueOf(nextPid()));
+        ProcessLauncher processLauncher = createLauncher(String.valueOf(nextPid()));
 
         List<ProcessListener> modified = Stream.of(processListeners).collect(Collectors.toList());
         modified.add(new AbstractProcessListener() {
@@ -88,4 +88,13 @@ public class LocalTerminalService extends AbstractTerminalService {
             return false;
         }
     }
+
+    /**
+     * Creates new local process launcher.
+     * @param pid
+     * @return
+     */
+    private ProcessLauncher createLauncher(String pid) {
+        return new LocalProcessLauncher(getProcessMonitor(), getProcessExecutor(), getEventExecutor(), getStatsRegistry(), getTreeTerminator(), pid);
+    }
 }
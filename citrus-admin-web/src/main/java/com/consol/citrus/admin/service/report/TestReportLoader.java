@@ -18,6 +18,8 @@ package com.consol.citrus.admin.service.report;
 
 import com.consol.citrus.admin.model.*;
 
+import java.io.File;
+
 /**
  * @author Christoph Deppisch
  */
@@ -37,6 +39,15 @@ public interface TestReportLoader {
      */
     TestReport getLatest(Project activeProject, Test test);
 
+    /**
+     * Loads test results from given reports directory and creates report. Returns empty report when
+     * directory holds no test results supported by this loader.
+     * @param activeProject
+     * @param reportsDirectory
+     * @return
+     */
+    TestReport getReport(Project activeProject, File reportsDirectory);
+
     /**
      * Checks whether test results are available in active project.
      * @param activeProject
@@ -18,6 +18,7 @@ package com.consol.citrus.admin.service.report.junit;
 
 import com.consol.citrus.admin.model.*;
 import com.consol.citrus.admin.service.TestCaseService;
+import com.consol.citrus.admin.service.TestReportService;
 import com.consol.citrus.admin.service.report.TestReportLoader;
 import com.consol.citrus.exceptions.CitrusRuntimeException;
 import com.consol.citrus.util.FileUtils;
@@ -86,47 +87,76 @@ public class JUnit4TestReportLoader implements TestReportLoader {
 
     @Override
     public TestReport getLatest(Project activeProject) {
+        if (hasTestResults(activeProject)) {
+            return getReport(activeProject, getTestResultsAsString(activeProject));
+        }
+
+        return new TestReport();
+    }
+
+    @Override
+    public TestReport getReport(Project activeProject, File reportsDirectory) {
+        if (!reportsDirectory.isDirectory()) {
+            return new TestReport();
+        }
+
+        List<TestReport> reports = new ArrayList<>();
+        for (File testResultsFile : FileUtils.findFiles(reportsDirectory.getAbsolutePath(), Collections.singleton("/TEST-*.xml"))) {
+            try {
+                reports.add(getReport(activeProject, FileUtils.readToString(new FileSystemResource(testResultsFile))));
+            } catch (IOException e) {
+                log.error("Failed to access test results", e);
+            }
+        }
+
+        return TestReportService.merge(reports);
+    }
+
+    /**
+     * Creates report from test results content.
+     * @param activeProject
+     * @param testResultsContent
+     * @return
+     */
+    private TestReport getReport(Project activeProject, String testResultsContent) {
         TestReport report = new TestReport();
 
-        if (hasTestResults(activeProject)) {
-            String testResultsContent = getTestResultsAsString(activeProject);
-            if (StringUtils.hasText(testResultsContent)) {
-                Document testResults = XMLUtils.parseMessagePayload(testResultsContent);
-                report.setProjectName(activeProject.getName());
-                report.setSuiteName(XPathUtils.evaluateAsString(testResults, "/testsuite/@name", null));
-                report.setDuration(Math.round(Double.valueOf(XPathUtils.evaluateAsString(testResults, "/testsuite/@time", null)) * 1000));
-
-                report.setFailed(Long.valueOf(XPathUtils.evaluateAsString(testResults, "/testsuite/@failures", null)));
-                report.setSkipped(Long.valueOf(XPathUtils.evaluateAsString(testResults, "/testsuite/@skipped", null)));
-                report.setTotal(Long.valueOf(XPathUtils.evaluateAsString(testResults, "/testsuite/@tests", null)));
-                report.setPassed(report.getTotal() - report.getSkipped() - report.getFailed());
-
-                NodeList testCases = XPathUtils.evaluateAsNodeList(testResults, "/testsuite/testcase", null);
-                for (int i = 0; i < testCases.getLength(); i++) {
-                    Element testCase = (Element) testCases.item(i);
-
-                    String className = testCase.getAttribute("classname");
-                    String methodName = testCase.getAttribute("name");
-                    String packageName;
-                    if (className.indexOf(':') > 0 || className.indexOf(' ') > 0) {
-                        // Cucumber BDD test
-                        packageName = report.getSuiteName().substring(0, report.getSuiteName().lastIndexOf('.'));
-
-                        String classFileName = report.getSuiteName().substring(packageName.length() + 1);
-                        Test test = testCaseService.findTest(activeProject, packageName, classFileName);
-                        TestResult result = getResult(test, testCase);
-
-                        result.getTest().setName(className + " - " + methodName);
-
-                        report.getResults().add(result);
-                    } else if (className.indexOf('.') > 0) {
-                        packageName = className.substring(0, className.lastIndexOf('.'));
-                        className = className.substring(packageName.length() + 1);
-
-                        Test test = testCaseService.findTest(activeProject, packageName, className, methodName);
-                        TestResult result = getResult(test, testCase);
-                        report.getResults().add(result);
-                    }
+        if (StringUtils.hasText(testResultsContent)) {
+            Document testResults = XMLUtils.parseMessagePayload(testResultsContent);
+            report.setProjectName(activeProject.getName());
+            report.setSuiteName(XPathUtils.evaluateAsString(testResults, "/testsuite/@name", null));
+            report.setDuration(Math.round(Double.valueOf(XPathUtils.evaluateAsString(testResults, "/testsuite/@time", null)) * 1000));
+
+            report.setFailed(Long.valueOf(XPathUtils.evaluateAsString(testResults, "/testsuite/@failures", null)));
+            report.setSkipped(Long.valueOf(XPathUtils.evaluateAsString(testResults, "/testsuite/@skipped", null)));
+            report.setTotal(Long.valueOf(XPathUtils.evaluateAsString(testResults, "/testsuite/@tests", null)));
+            report.setPassed(report.getTotal() - report.getSkipped() - report.getFailed());
+
+            NodeList testCases = XPathUtils.evaluateAsNodeList(testResults, "/testsuite/testcase", null);
+            for (int i = 0; i < testCases.getLength(); i++) {
+                Element testCase = (Element) testCases.item(i);
+
+                String className = testCase.getAttribute("classname");
+                String methodName = testCase.getAttribute("name");
+                String packageName;
+                if (className.indexOf(':') > 0 || className.indexOf(' ') > 0) {
+                    // Cucumber BDD test
+                    packageName = report.getSuiteName().substring(0, report.getSuiteName().lastIndexOf('.'));
+
+                    String classFileName = report.getSuiteName().substring(packageName.length() + 1);
+                    Test test = testCaseService.findTest(activeProject, packageName, classFileName);
+                    TestResult result = getResult(test, testCase);
+
+                    result.getTest().setName(className + " - " + methodName);
+
+                    report.getResults().add(result);
+                } else if (className.indexOf('.') > 0) {
+                    packageName = className.substring(0, className.lastIndexOf('.'));
+                    className = className.substring(packageName.length() + 1);
+
+                    Test test = testCaseService.findTest(activeProject, packageName, className, methodName);
+                    TestResult result = getResult(test, testCase);
+                    report.getResults().add(result);
                 }
             }
         }
@@ -34,6 +34,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.util.xml.DomUtils;
 import org.w3c.dom.*;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.ParseException;
@@ -50,6 +51,9 @@ public class TestNGTestReportLoader implements TestReportLoader {
     /** Logger */
     private static Logger log = LoggerFactory.getLogger(TestNGTestReportLoader.class);
 
+    /** TestNG results file name */
+    private static final String TESTNG_RESULTS_FILE = "testng-results.xml";
+
     /** Date format */
     private SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'hh:mm:ss");
 
@@ -62,7 +66,7 @@ public class TestNGTestReportLoader implements TestReportLoader {
 
         if (hasTestResults(activeProject)) {
             try {
-                Document testResults = XMLUtils.parseMessagePayload(getTestResultsAsString(activeProject));
+                Document testResults = XMLUtils.parseMessagePayload(getTestResultsAsString(getTestResultsFile(activeProject)));
                 Node testClass = XPathUtils.evaluateAsNode(testResults, "/testng-results/suite[1]/test/class[@name = '" + test.getPackageName() + "." + test.getClassName() + "']", null);
                 Element testMethod = (Element) XPathUtils.evaluateAsNode(testClass, "test-method[@name='" + test.getMethodName() + "']", null);
 
@@ -89,11 +93,26 @@ public class TestNGTestReportLoader implements TestReportLoader {
 
     @Override
     public TestReport getLatest(Project activeProject) {
+        return getReport(activeProject, getTestResultsFile(activeProject));
+    }
+
+    @Override
+    public TestReport getReport(Project activeProject, File reportsDirectory) {
+        return getReport(activeProject, new FileSystemResource(new File(reportsDirectory, TESTNG_RESULTS_FILE)));
+    }
+
+    /**
+     * Creates report from TestNG results file.
+     * @param activeProject
+     * @param testResultsFile
+     * @return
+     */
+    private TestReport getReport(Project activeProject, Resource testResultsFile) {
         TestReport report = new TestReport();
 
-        if (hasTestResults(activeProject)) {
+        if (testResultsFile.exists()) {
             try {
-                Document testResults = XMLUtils.parseMessagePayload(getTestResultsAsString(activeProject));
+                Document testResults = XMLUtils.parseMessagePayload(getTestResultsAsString(testResultsFile));
                 report.setProjectName(activeProject.getName());
                 report.setSuiteName(XPathUtils.evaluateAsString(testResults, "/testng-results/suite[1]/@name", null));
                 report.setDuration(Long.valueOf(XPathUtils.evaluateAsString(testResults, "/testng-results/suite[1]/@duration-ms", null)));
@@ -170,11 +189,11 @@ public class TestNGTestReportLoader implements TestReportLoader {
 
     /**
      * Reads test results file content.
+     * @param fileResource
      * @return
      * @throws IOException
      */
-    private String getTestResultsAsString(Project activeProject) throws IOException {
-        Resource fileResource = getTestResultsFile(activeProject);
+    private String getTestResultsAsString(Resource fileResource) throws IOException {
         try (InputStream fileIn = fileResource.getInputStream()) {
             return FileUtils.readToString(fileIn);
         }
@@ -186,7 +205,7 @@ public class TestNGTestReportLoader implements TestReportLoader {
      * @return
      */
     private Resource getTestResultsFile(Project activeProject) {
-        return new FileSystemResource(activeProject.getProjectHome() + "/target/failsafe-reports/testng-results.xml");
+        return new FileSystemResource(activeProject.getProjectHome() + "/target/failsafe-reports/" + TESTNG_RESULTS_FILE);
     }
 
     /**
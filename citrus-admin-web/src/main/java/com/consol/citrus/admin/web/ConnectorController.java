@@ -17,12 +17,20 @@
 package com.consol.citrus.admin.web;
 
 import com.consol.citrus.admin.model.*;
+import com.consol.citrus.admin.process.message.MessageStore;
+import com.consol.citrus.admin.service.ConnectorIngestService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+import java.util.Map;
+
 /**
  * @author Christoph Deppisch
  */
@@ -31,34 +39,66 @@ import org.springframework.web.bind.annotation.*;
 public class ConnectorController {
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private ConnectorIngestService ingestService;
+
+    @Autowired
+    private MessageStore messageStore;
 
     @RequestMapping(value = "/status")
     public ResponseEntity status() {
         return ResponseEntity.ok().build();
     }
 
+    @RequestMapping(value = "/metrics", method = RequestMethod.GET)
+    @ResponseBody
+    public Map<String, Object> getMetrics() {
+        return ingestService.getMetrics();
+    }
+
     @RequestMapping(value = "/result", method = RequestMethod.POST)
     public ResponseEntity testResult(@RequestBody TestResult result) {
-        messagingTemplate.convertAndSend("/topic/results", result);
-        return ResponseEntity.ok().build();
+        return accept(ingestService.submit(ConnectorEvent.result(result)));
     }
 
     @RequestMapping(value = "/test-event", method = RequestMethod.POST)
     public ResponseEntity testResult(@RequestBody SocketEvent event) {
-        messagingTemplate.convertAndSend("/topic/test-events", event);
-        return ResponseEntity.ok().build();
+        return accept(ingestService.submit(ConnectorEvent.testEvent(event)));
     }
 
     @RequestMapping(value = "/message/inbound", method = RequestMethod.POST)
     public ResponseEntity inboundMessage(@RequestParam("processId") String processId, @RequestBody String messageData) {
-        messagingTemplate.convertAndSend("/topic/messages", MessageEvent.createEvent(processId, MessageEvent.INBOUND, messageData));
-        return ResponseEntity.ok().build();
+        return accept(ingestService.submit(ConnectorEvent.message(processId, MessageEvent.INBOUND, messageData)));
     }
 
     @RequestMapping(value = "/message/outbound", method = RequestMethod.POST)
     public ResponseEntity outboundMessage(@RequestParam("processId") String processId, @RequestBody String messageData) {
-        messagingTemplate.convertAndSend("/topic/messages", MessageEvent.createEvent(processId, MessageEvent.OUTBOUND, messageData));
-        return ResponseEntity.ok().build();
+        return accept(ingestService.submit(ConnectorEvent.message(processId, MessageEvent.OUTBOUND, messageData)));
+    }
+
+    @RequestMapping(value = "/message/{id}", method = RequestMethod.GET, produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> getMessage(@PathVariable("id") String id) {
+        return messageStore.getPayload(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @RequestMapping(value = "/batch", method = RequestMethod.POST)
+    public ResponseEntity batch(@RequestBody List<ConnectorEvent> events) {
+        return accept(ingestService.submit(events));
+    }
+
+    @MessageMapping("/connector/batch")
+    public void batchMessage(@Payload List<ConnectorEvent> events) {
+        ingestService.submit(events);
+    }
+
+    /**
+     * Creates response for queued events. Events rejected because of a full ingest queue are reported as
+     * service unavailable.
+     * @param queued
+     * @return
+     */
+    private ResponseEntity accept(boolean queued) {
+        return queued ? ResponseEntity.accepted().build() : ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
     }
 }
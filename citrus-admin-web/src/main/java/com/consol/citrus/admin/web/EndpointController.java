@@ -16,6 +16,7 @@
 
 package com.consol.citrus.admin.web;
 
+import com.consol.citrus.admin.converter.ConverterRegistry;
 import com.consol.citrus.admin.converter.endpoint.EndpointConverter;
 import com.consol.citrus.admin.exception.ApplicationRuntimeException;
 import com.consol.citrus.admin.model.EndpointModel;
@@ -48,7 +49,7 @@ public class EndpointController {
     private SpringJavaConfigService springJavaConfigService;
 
     @Autowired
-    private List<EndpointConverter> endpointConverter;
+    private ConverterRegistry converterRegistry;
 
     @RequestMapping(method = {RequestMethod.POST})
     @ResponseBody
@@ -87,20 +88,18 @@ public class EndpointController {
         List<?> models = new ArrayList<>();
 
         if (projectService.hasSpringXmlApplicationContext()) {
-            for (EndpointConverter converter : endpointConverter) {
+            for (EndpointConverter converter : converterRegistry.getEndpointConverters()) {
                 models.addAll(springBeanService.getBeanDefinitions(projectService.getSpringXmlApplicationContextFile(), projectService.getActiveProject(), converter.getSourceModelClass()));
             }
         } else if (projectService.hasSpringJavaConfig()) {
             Class<?> springJavaConfig = projectService.getActiveProject().getSpringJavaConfig();
-            for (EndpointConverter converter : endpointConverter) {
+            for (EndpointConverter converter : converterRegistry.getEndpointConverters()) {
                 models.addAll(springJavaConfigService.getBeanDefinitions(springJavaConfig, projectService.getActiveProject(), converter.getSourceModelClass()));
             }
         }
 
         for (Object endpoint : models) {
-            endpointConverter.stream()
-                                .filter(candidate -> candidate.getSourceModelClass().equals(endpoint.getClass()))
-                                .findFirst()
+            converterRegistry.findEndpointConverter(endpoint.getClass())
                                 .ifPresent(converter -> endpoints.add(converter.convert(endpoint)));
         }
 
@@ -110,7 +109,7 @@ public class EndpointController {
     @RequestMapping(value = "/{id}", method = {RequestMethod.GET})
     @ResponseBody
     public Object getEndpoint(@PathVariable("id") String id) {
-        for (EndpointConverter converter : endpointConverter) {
+        for (EndpointConverter converter : converterRegistry.getEndpointConverters()) {
             Object model = null;
             if (projectService.hasSpringXmlApplicationContext()) {
                 model = springBeanService.getBeanDefinition(projectService.getSpringXmlApplicationContextFile(), projectService.getActiveProject(), id, converter.getSourceModelClass());
@@ -129,10 +128,7 @@ public class EndpointController {
     @RequestMapping(value = "/types", method = {RequestMethod.GET})
     @ResponseBody
     public List<String> getEndpointTypes() {
-        List<String> endpointTypes = new ArrayList<>();
-        for (EndpointConverter converter : endpointConverter) {
-            endpointTypes.add(converter.getEndpointType());
-        }
+        List<String> endpointTypes = converterRegistry.getEndpointTypes();
 
         List<String> activeModuleNames = projectService.getModules().stream()
                 .filter(Module::isActive)
@@ -148,17 +144,14 @@ public class EndpointController {
     @RequestMapping(value = "/type/{type}", method = {RequestMethod.GET})
     @ResponseBody
     public EndpointModel getEndpointType(@PathVariable("type") String type) {
-        for (EndpointConverter converter : endpointConverter) {
-            if (converter.getEndpointType().equals(type)) {
-                try {
-                    return converter.convert(converter.getSourceModelClass().newInstance());
-                } catch (InstantiationException | IllegalAccessException e) {
-                    throw new ApplicationRuntimeException("Failed to create new endpoint model instance", e);
-                }
-            }
-        }
+        EndpointConverter converter = converterRegistry.findEndpointConverter(type)
+                .orElseThrow(() -> new ApplicationRuntimeException("Unable to find endpoint definition for type '" + type + "'"));
 
-        throw new ApplicationRuntimeException("Unable to find endpoint definition for type '" + type + "'");
+        try {
+            return converter.convert(converter.getSourceModelClass().newInstance());
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new ApplicationRuntimeException("Failed to create new endpoint model instance", e);
+        }
     }
 
     /**
@@ -171,12 +164,8 @@ public class EndpointController {
             throw new ApplicationRuntimeException("Missing model type in endpoint definition");
         }
 
-        for (EndpointConverter converter : endpointConverter) {
-            if (converter.getSourceModelClass().equals(endpointDefinition.getModelType())) {
-                return converter.convertBack(endpointDefinition);
-            }
-        }
-
-        throw new ApplicationRuntimeException("Unable to convert endpoint definition to proper model type");
+        return converterRegistry.findEndpointConverter(endpointDefinition.getModelType())
+                .map(converter -> converter.convertBack(endpointDefinition))
+                .orElseThrow(() -> new ApplicationRuntimeException("Unable to convert endpoint definition to proper model type"));
     }
 }
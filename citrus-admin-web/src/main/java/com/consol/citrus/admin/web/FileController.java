@@ -17,7 +17,10 @@
 package com.consol.citrus.admin.web;
 
 import com.consol.citrus.admin.Application;
+import com.consol.citrus.admin.configuration.ConfigurationProvider;
+import com.consol.citrus.admin.model.DirectoryListing;
 import com.consol.citrus.admin.model.Project;
+import com.consol.citrus.admin.model.ProjectSettings;
 import com.consol.citrus.admin.service.FileBrowserService;
 import com.consol.citrus.admin.service.ProjectService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -40,22 +43,62 @@ public class FileController {
     @Autowired
     private ProjectService projectService;
 
+    /** Default number of folders shown per directory level */
+    private static final String DEFAULT_PAGE_SIZE = "1000";
+
     @RequestMapping(value = "browse", method = RequestMethod.POST)
     @ResponseBody
-    public ModelAndView browse(@RequestParam("dir") String dir) {
+    public ModelAndView browse(@RequestParam("dir") String dir,
+                               @RequestParam(value = "offset", required = false, defaultValue = "0") int offset,
+                               @RequestParam(value = "limit", required = false, defaultValue = DEFAULT_PAGE_SIZE) int limit) {
         String directory = fileBrowserService.decodeDirectoryUrl(dir, Application.getRootDirectory());
-        String[] folders = fileBrowserService.getFolders(new File(directory));
+        DirectoryListing listing = fileBrowserService.getFolders(new File(directory), offset, limit);
 
         ModelAndView view = new ModelAndView("filetree");
+        view.addObject("first", listing.getOffset() == 0);
+        view.addObject("valid", listing.getOffset() == 0 && isValidProject(directory));
+        view.addObject("folders", listing.getFolders());
+        view.addObject("more", listing.isMore() ? listing.getTotal() - listing.getOffset() - listing.getFolders().size() : 0);
+        view.addObject("nextOffset", listing.getOffset() + listing.getFolders().size());
+        view.addObject("baseDir", fileBrowserService.separatorsToUnix(directory));
+
+        return view;
+    }
+
+    @RequestMapping(value = "folders", method = RequestMethod.GET)
+    @ResponseBody
+    public DirectoryListing getFolders(@RequestParam("dir") String dir,
+                                       @RequestParam(value = "offset", required = false, defaultValue = "0") int offset,
+                                       @RequestParam(value = "limit", required = false, defaultValue = DEFAULT_PAGE_SIZE) int limit) {
+        String directory = fileBrowserService.decodeDirectoryUrl(dir, Application.getRootDirectory());
+        DirectoryListing listing = fileBrowserService.getFolders(new File(directory), offset, limit);
+        listing.setDirectory(fileBrowserService.separatorsToUnix(directory));
+        return listing;
+    }
+
+    /**
+     * Checks if directory is a valid project home. Only directories holding a project info file or the
+     * default source directory are loaded as project and validated.
+     * @param directory
+     * @return
+     */
+    private boolean isValidProject(String directory) {
+        File directoryFile = new File(directory);
+        String sourceDirectory = fileBrowserService.separatorsToUnix(ConfigurationProvider.load(ProjectSettings.class).getJavaSrcDirectory());
+        if (sourceDirectory.contains("/")) {
+            sourceDirectory = sourceDirectory.substring(0, sourceDirectory.indexOf('/'));
+        }
+
+        if (!fileBrowserService.containsEntry(directoryFile, Project.PROJECT_INFO_FILENAME) &&
+                !fileBrowserService.containsEntry(directoryFile, sourceDirectory)) {
+            return false;
+        }
+
         Project project = new Project(fileBrowserService.separatorsToUnix(directory));
         if (project.getProjectInfoFile().exists()) {
             project.loadSettings();
         }
 
-        view.addObject("valid", projectService.validateProject(project));
-        view.addObject("folders", folders);
-        view.addObject("baseDir", fileBrowserService.separatorsToUnix(directory));
-
-        return view;
+        return projectService.validateProject(project);
     }
 }
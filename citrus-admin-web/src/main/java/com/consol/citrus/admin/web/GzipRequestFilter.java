@@ -0,0 +1,210 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.web;
+
+import com.consol.citrus.admin.Application;
+import com.consol.citrus.admin.configuration.SystemSettings;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.*;
+import javax.servlet.http.*;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Decodes gzip compressed request bodies sent by the admin connector. Requests without gzip content encoding are
+ * passed through unchanged. Compressed bodies are decompressed before the request is handled, requests exceeding the
+ * decompressed size limit are answered with 413 so small compressed payloads can not expand without bounds.
+ *
+ * @author Christoph Deppisch
+ */
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+
+    /** Default decompressed size limit, WebSocket message size limit (512 KB) times 32 */
+    private static final long DEFAULT_SIZE_LIMIT = 16 * 1024 * 1024;
+
+    private long sizeLimit = SystemSettings.getLong(Application.CONNECTOR_REQUEST_SIZE_LIMIT, Application.CONNECTOR_REQUEST_SIZE_LIMIT_ENV, DEFAULT_SIZE_LIMIT);
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String encoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+
+        if (encoding == null || !GZIP.equalsIgnoreCase(encoding.trim())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream gzip = new GZIPInputStream(request.getInputStream())) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = gzip.read(buffer)) >= 0) {
+                if (body.size() + read > sizeLimit) {
+                    response.sendError(HttpStatus.PAYLOAD_TOO_LARGE.value(), String.format("Decompressed request body exceeds %s bytes", sizeLimit));
+                    return;
+                }
+
+                body.write(buffer, 0, read);
+            }
+        } catch (ZipException | EOFException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid gzip request body");
+            return;
+        }
+
+        filterChain.doFilter(new GzipRequestWrapper(request, body.toByteArray()), response);
+    }
+
+    /**
+     * Sets the maximum decompressed request body size in bytes.
+     *
+     * @param sizeLimit
+     */
+    public void setSizeLimit(long sizeLimit) {
+        this.sizeLimit = sizeLimit;
+    }
+
+    /**
+     * Request wrapper reading the decompressed body and hiding the content encoding from request handlers.
+     */
+    private static class GzipRequestWrapper extends HttpServletRequestWrapper {
+        private final byte[] body;
+        private ServletInputStream inputStream;
+        private BufferedReader reader;
+
+        GzipRequestWrapper(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                inputStream = new GzipServletInputStream(new ByteArrayInputStream(body));
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String charset = getCharacterEncoding() != null ? getCharacterEncoding() : StandardCharsets.UTF_8.name();
+                reader = new BufferedReader(new InputStreamReader(getInputStream(), charset));
+            }
+            return reader;
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            if (isEncodingHeader(name)) {
+                return null;
+            } else if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return String.valueOf(body.length);
+            }
+            return super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (isEncodingHeader(name)) {
+                return Collections.emptyEnumeration();
+            } else if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                return Collections.enumeration(Collections.singletonList(String.valueOf(body.length)));
+            }
+            return super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = new ArrayList<>();
+            Enumeration<String> headerNames = super.getHeaderNames();
+            while (headerNames.hasMoreElements()) {
+                String name = headerNames.nextElement();
+                if (!isEncodingHeader(name)) {
+                    names.add(name);
+                }
+            }
+            return Collections.enumeration(names);
+        }
+
+        private boolean isEncodingHeader(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name);
+        }
+    }
+
+    /**
+     * Servlet input stream reading the decompressed body.
+     */
+    private static class GzipServletInputStream extends ServletInputStream {
+        private final InputStream delegate;
+        private boolean finished = false;
+
+        GzipServletInputStream(InputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            finished = b < 0;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = delegate.read(b, off, len);
+            finished = read < 0;
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("Non-blocking read not supported for gzip request body");
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
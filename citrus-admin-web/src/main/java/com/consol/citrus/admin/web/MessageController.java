@@ -0,0 +1,67 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.web;
+
+import com.consol.citrus.admin.process.message.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * @author Christoph Deppisch
+ */
+@Controller
+@RequestMapping("api/messages")
+public class MessageController {
+
+    @Autowired
+    private MessageStore messageStore;
+
+    @RequestMapping(method = { RequestMethod.GET })
+    @ResponseBody
+    public MessagePage search(@RequestParam(value = "processId", required = false) String processId,
+                              @RequestParam(value = "test", required = false) String testName,
+                              @RequestParam(value = "direction", required = false) String direction,
+                              @RequestParam(value = "root", required = false) String rootElement,
+                              @RequestParam(value = "key", required = false) String key,
+                              @RequestParam(value = "from", required = false) Long from,
+                              @RequestParam(value = "to", required = false) Long to,
+                              @RequestParam(value = "before", required = false) Long before,
+                              @RequestParam(value = "limit", required = false, defaultValue = "50") int limit) {
+        MessageQuery query = new MessageQuery();
+        query.setProcessId(processId);
+        query.setTestName(testName);
+        query.setDirection(direction);
+        query.setRootElement(rootElement);
+        query.setKey(key);
+        query.setFrom(from);
+        query.setTo(to);
+        query.setBefore(before);
+        query.setLimit(limit);
+
+        return messageStore.query(query);
+    }
+
+    @RequestMapping(value = "/{id}", method = RequestMethod.GET, produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<String> getPayload(@PathVariable("id") String id) {
+        return messageStore.getPayload(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
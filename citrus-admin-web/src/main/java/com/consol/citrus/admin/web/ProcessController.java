@@ -0,0 +1,111 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.web;
+
+import com.consol.citrus.admin.SessionBackPressureInterceptor;
+import com.consol.citrus.admin.model.ProcessEventChunk;
+import com.consol.citrus.admin.model.ProcessLogChunk;
+import com.consol.citrus.admin.model.ProcessStats;
+import com.consol.citrus.admin.process.ProcessExecutor;
+import com.consol.citrus.admin.process.ProcessMonitor;
+import com.consol.citrus.admin.process.ProcessTreeTerminator;
+import com.consol.citrus.admin.process.event.ProcessEventExecutor;
+import com.consol.citrus.admin.process.listener.SocketEventPublisher;
+import com.consol.citrus.admin.process.log.ProcessLogStore;
+import com.consol.citrus.admin.process.stats.ProcessStatsRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+/**
+ * @author Christoph Deppisch
+ */
+@Controller
+@RequestMapping("api/process")
+public class ProcessController {
+
+    /** Maximum number of bytes returned with a single log request */
+    private static final int MAX_LOG_LIMIT = 1024 * 1024;
+
+    @Autowired
+    private ProcessMonitor processMonitor;
+
+    @Autowired
+    private ProcessExecutor processExecutor;
+
+    @Autowired
+    private ProcessEventExecutor eventExecutor;
+
+    @Autowired
+    private ProcessStatsRegistry statsRegistry;
+
+    @Autowired
+    private ProcessTreeTerminator treeTerminator;
+
+    @Autowired
+    private ProcessLogStore processLogStore;
+
+    @Autowired
+    private SocketEventPublisher eventPublisher;
+
+    @Autowired
+    private SessionBackPressureInterceptor backPressureInterceptor;
+
+    @RequestMapping(method = { RequestMethod.GET })
+    @ResponseBody
+    public Set<String> list() {
+        return new TreeSet<>(processMonitor.getProcessIds());
+    }
+
+    @RequestMapping(value = "/metrics", method = { RequestMethod.GET })
+    @ResponseBody
+    public Map<String, Object> getMetrics() {
+        Map<String, Object> metrics = processExecutor.getMetrics();
+        metrics.put("events", eventExecutor.getEventMetrics().getMetrics());
+        metrics.put("termination", treeTerminator.getMetrics());
+        metrics.put("backPressure", backPressureInterceptor.getMetrics());
+        return metrics;
+    }
+
+    @RequestMapping(value = "/{id}/stats", method = { RequestMethod.GET })
+    public ResponseEntity<ProcessStats> getStats(@PathVariable("id") String processId) {
+        return statsRegistry.getProcessStats(processId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @RequestMapping(value = "/{id}/events", method = { RequestMethod.GET })
+    public ResponseEntity<ProcessEventChunk> getEvents(@PathVariable("id") String processId,
+                                                       @RequestParam(value = "topic", required = false) String topic,
+                                                       @RequestParam(value = "after", required = false, defaultValue = "0") long after) {
+        return eventPublisher.getEvents(processId, topic, after)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @RequestMapping(value = "/{id}/log", method = { RequestMethod.GET })
+    public ResponseEntity<ProcessLogChunk> getLog(@PathVariable("id") String processId,
+                                                  @RequestParam(value = "offset", required = false, defaultValue = "0") long offset,
+                                                  @RequestParam(value = "limit", required = false, defaultValue = "65536") int limit) {
+        return processLogStore.getLog(processId)
+                .map(processLog -> ResponseEntity.ok(processLog.getChunk(offset, Math.min(limit, MAX_LOG_LIMIT))))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
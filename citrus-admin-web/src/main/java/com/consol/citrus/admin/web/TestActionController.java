@@ -16,6 +16,7 @@
 
 package com.consol.citrus.admin.web;
 
+import com.consol.citrus.admin.converter.ConverterRegistry;
 import com.consol.citrus.admin.converter.action.TestActionConverter;
 import com.consol.citrus.admin.exception.ApplicationRuntimeException;
 import com.consol.citrus.admin.model.*;
@@ -27,7 +28,6 @@ import org.springframework.web.bind.annotation.*;
 
 import java.io.File;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * @author Christoph Deppisch
@@ -43,7 +43,7 @@ public class TestActionController {
     private TestActionService testActionService;
 
     @Autowired
-    private List<TestActionConverter> actionConverter;
+    private ConverterRegistry converterRegistry;
 
     @RequestMapping(method = {RequestMethod.POST})
     @ResponseBody
@@ -78,23 +78,20 @@ public class TestActionController {
     @RequestMapping(value = "/types", method = {RequestMethod.GET})
     @ResponseBody
     public List<String> getActionTypes() {
-        return actionConverter.stream().map(TestActionConverter::getActionType).collect(Collectors.toList());
+        return converterRegistry.getActionTypes();
     }
 
     @RequestMapping(value = "/type/{type}", method = {RequestMethod.GET})
     @ResponseBody
     public TestActionModel getActionType(@PathVariable("type") String type) {
-        for (TestActionConverter converter : actionConverter) {
-            if (converter.getActionType().equals(type)) {
-                try {
-                    return converter.convert(converter.getSourceModelClass().newInstance());
-                } catch (InstantiationException | IllegalAccessException e) {
-                    throw new ApplicationRuntimeException("Failed to create new test action model instance", e);
-                }
-            }
-        }
+        TestActionConverter converter = converterRegistry.findActionConverter(type)
+                .orElseThrow(() -> new ApplicationRuntimeException("Unable to find test action definition for type '" + type + "'"));
 
-        throw new ApplicationRuntimeException("Unable to find test action definition for type '" + type + "'");
+        try {
+            return converter.convert(converter.getSourceModelClass().newInstance());
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new ApplicationRuntimeException("Failed to create new test action model instance", e);
+        }
     }
 
     /**
@@ -107,13 +104,9 @@ public class TestActionController {
             throw new ApplicationRuntimeException("Missing model type in test action definition");
         }
 
-        for (TestActionConverter converter : actionConverter) {
-            if (converter.getSourceModelClass().equals(testActionModel.getModelType())) {
-                return converter.convertBack(testActionModel);
-            }
-        }
-
-        throw new ApplicationRuntimeException("Unable to convert test action definition to proper model type");
+        return converterRegistry.findActionConverter(testActionModel.getModelType())
+                .map(converter -> converter.convertBack(testActionModel))
+                .orElseThrow(() -> new ApplicationRuntimeException("Unable to convert test action definition to proper model type"));
     }
 
     /**
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin;
+
+import com.consol.citrus.admin.process.listener.SocketEventPublisher;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.web.socket.*;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class SessionBackPressureInterceptorTest {
+
+    private static final String LOG_DESTINATION = "/topic/process/1/log";
+    private static final String LOG_OUTPUT = "{\"processId\":\"1\",\"type\":\"LOG_MESSAGE\",\"msg\":\"0123456789\"}";
+
+    private SessionBackPressureInterceptor interceptor;
+    private WebSocketSession session;
+
+    @BeforeMethod
+    public void setUp() throws Exception {
+        interceptor = new SessionBackPressureInterceptor();
+        interceptor.setSessionLimit(LOG_OUTPUT.length() * 2);
+
+        WebSocketSession nativeSession = Mockito.mock(WebSocketSession.class);
+        when(nativeSession.getId()).thenReturn("s1");
+
+        WebSocketHandler handler = Mockito.mock(WebSocketHandler.class);
+        interceptor.decorate(handler).afterConnectionEstablished(nativeSession);
+
+        ArgumentCaptor<WebSocketSession> captor = ArgumentCaptor.forClass(WebSocketSession.class);
+        verify(handler).afterConnectionEstablished(captor.capture());
+        session = captor.getValue();
+    }
+
+    @Test
+    public void testTruncateSlowSession() throws Exception {
+        Assert.assertNotNull(interceptor.preSend(createMessage(LOG_DESTINATION, LOG_OUTPUT), null));
+        Assert.assertNotNull(interceptor.preSend(createMessage(LOG_DESTINATION, LOG_OUTPUT), null));
+
+        // client has fallen behind so log output is replaced by marker
+        Message<?> marker = interceptor.preSend(createMessage(LOG_DESTINATION, LOG_OUTPUT), null);
+        Assert.assertNotNull(marker);
+        String payload = new String((byte[]) marker.getPayload(), StandardCharsets.UTF_8);
+        Assert.assertTrue(payload.contains("\"processId\":\"1\""));
+        Assert.assertTrue(payload.contains("log truncated - fetch full output via api/process/1/log"));
+
+        Assert.assertNull(interceptor.preSend(createMessage(LOG_DESTINATION, LOG_OUTPUT), null));
+        Assert.assertNull(interceptor.preSend(createMessage(SocketEventPublisher.Topic.LOG.getAggregate(), LOG_OUTPUT), null));
+
+        // other events are never dropped
+        Assert.assertNotNull(interceptor.preSend(createMessage("/topic/process/1/events", LOG_OUTPUT), null));
+
+        // client catches up
+        for (int i = 0; i < 5; i++) {
+            session.sendMessage(new TextMessage(LOG_OUTPUT));
+        }
+
+        Message<?> message = interceptor.preSend(createMessage(LOG_DESTINATION, LOG_OUTPUT), null);
+        Assert.assertNotNull(message);
+        Assert.assertEquals(new String((byte[]) message.getPayload(), StandardCharsets.UTF_8), LOG_OUTPUT);
+
+        Assert.assertEquals(interceptor.getMetrics().get("truncated"), 1L);
+        Assert.assertEquals(interceptor.getMetrics().get("dropped"), 2L);
+    }
+
+    @Test
+    public void testUnknownSession() {
+        Message<byte[]> message = createMessage(LOG_DESTINATION, LOG_OUTPUT);
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId("unknown");
+
+        Message<byte[]> other = MessageBuilder.createMessage(message.getPayload(), accessor.getMessageHeaders());
+        for (int i = 0; i < 10; i++) {
+            Assert.assertSame(interceptor.preSend(other, null), other);
+        }
+    }
+
+    private Message<byte[]> createMessage(String destination, String payload) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId("s1");
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(payload.getBytes(StandardCharsets.UTF_8), accessor.getMessageHeaders());
+    }
+}
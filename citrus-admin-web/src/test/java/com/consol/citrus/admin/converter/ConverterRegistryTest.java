@@ -0,0 +1,95 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.converter;
+
+import com.consol.citrus.actions.AbstractTestAction;
+import com.consol.citrus.actions.EchoAction;
+import com.consol.citrus.actions.SleepAction;
+import com.consol.citrus.admin.converter.action.TestActionConverter;
+import com.consol.citrus.admin.converter.endpoint.EndpointConverter;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class ConverterRegistryTest {
+
+    @Test
+    public void testExactMatchPrecedence() {
+        TestActionConverter generic = actionConverter("generic", Object.class, AbstractTestAction.class);
+        TestActionConverter echo = actionConverter("echo", Integer.class, EchoAction.class);
+
+        ConverterRegistry registry = new ConverterRegistry(Arrays.asList(generic, echo), Collections.emptyList());
+
+        Assert.assertSame(registry.findActionConverter(Integer.class).get(), echo);
+        Assert.assertSame(registry.findActionConverter(Object.class).get(), generic);
+        Assert.assertSame(registry.findActionConverterForAction(EchoAction.class).get(), echo);
+        Assert.assertSame(registry.findActionConverterForAction(AbstractTestAction.class).get(), generic);
+        Assert.assertSame(registry.findActionConverter("echo").get(), echo);
+    }
+
+    @Test
+    public void testSubclassFallback() {
+        EndpointConverter number = endpointConverter("number", Number.class);
+        EndpointConverter object = endpointConverter("object", Object.class);
+        TestActionConverter generic = actionConverter("generic", Object.class, AbstractTestAction.class);
+
+        ConverterRegistry registry = new ConverterRegistry(Collections.singletonList(generic), Arrays.asList(number, object));
+
+        Assert.assertSame(registry.findEndpointConverter(Long.class).get(), number);
+        Assert.assertSame(registry.findEndpointConverter(String.class).get(), object);
+        Assert.assertSame(registry.findActionConverter(String.class).get(), generic);
+        Assert.assertSame(registry.findActionConverterForAction(SleepAction.class).get(), generic);
+    }
+
+    @Test
+    public void testUnknownTypes() {
+        TestActionConverter echo = actionConverter("echo", Integer.class, EchoAction.class);
+        EndpointConverter number = endpointConverter("number", Number.class);
+
+        ConverterRegistry registry = new ConverterRegistry(Collections.singletonList(echo), Collections.singletonList(number));
+
+        Assert.assertFalse(registry.findActionConverter(Long.class).isPresent());
+        Assert.assertFalse(registry.findActionConverterForAction(SleepAction.class).isPresent());
+        Assert.assertFalse(registry.findActionConverter("sleep").isPresent());
+        Assert.assertFalse(registry.findEndpointConverter(String.class).isPresent());
+        Assert.assertFalse(registry.findEndpointConverter("unknown").isPresent());
+
+        Assert.assertEquals(registry.getActionTypes(), Collections.singletonList("echo"));
+        Assert.assertEquals(registry.getEndpointTypes(), Collections.singletonList("number"));
+    }
+
+    private static TestActionConverter actionConverter(String actionType, Class<?> sourceModelClass, Class<?> actionModelClass) {
+        TestActionConverter converter = mock(TestActionConverter.class);
+        when(converter.getActionType()).thenReturn(actionType);
+        when(converter.getSourceModelClass()).thenReturn(sourceModelClass);
+        when(converter.getActionModelClass()).thenReturn(actionModelClass);
+        return converter;
+    }
+
+    private static EndpointConverter endpointConverter(String endpointType, Class<?> sourceModelClass) {
+        EndpointConverter converter = mock(EndpointConverter.class);
+        when(converter.getEndpointType()).thenReturn(endpointType);
+        when(converter.getSourceModelClass()).thenReturn(sourceModelClass);
+        return converter;
+    }
+}
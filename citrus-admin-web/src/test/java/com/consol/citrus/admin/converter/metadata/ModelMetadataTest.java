@@ -0,0 +1,46 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.converter.metadata;
+
+import com.consol.citrus.model.config.jms.JmsEndpointModel;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class ModelMetadataTest {
+
+    @Test
+    public void testAccessors() throws Exception {
+        ModelMetadata metadata = ModelMetadata.of(JmsEndpointModel.class);
+        Assert.assertSame(ModelMetadata.of(JmsEndpointModel.class), metadata);
+
+        Assert.assertNotNull(metadata.getField("destinationName"));
+        Assert.assertNull(metadata.getField("unknown"));
+
+        JmsEndpointModel model = (JmsEndpointModel) metadata.newInstance();
+        metadata.getSetter("setDestinationName").set(model, "JMS.Queue");
+        metadata.getSetter("setPubSubDomain").set(model, Boolean.TRUE);
+
+        Assert.assertEquals(model.getDestinationName(), "JMS.Queue");
+        Assert.assertEquals(metadata.getGetter("getDestinationName").apply(model), "JMS.Queue");
+        Assert.assertEquals(metadata.getGetter("isPubSubDomain").apply(model), Boolean.TRUE);
+        Assert.assertNull(metadata.getGetter("getUnknown"));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.process;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class InputStreamPumperTest {
+
+    @Test
+    public void testLinesAndUtf8Decoding() {
+        String text = "Hello\r\nCitrus \u00e4\u00f6\u00fc \u65e5\u672c\npartial";
+        List<String> lines = new ArrayList<>();
+        StringBuilder output = new StringBuilder();
+
+        // single byte reads split multi byte characters
+        InputStream in = new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+
+        new InputStreamPumper(in, 1024, 60000L) {
+            @Override
+            public void onActivity(String line) {
+                lines.add(line);
+            }
+
+            @Override
+            public void onOutput(String data) {
+                output.append(data);
+            }
+        }.run();
+
+        Assert.assertEquals(lines, Arrays.asList("Hello", "Citrus \u00e4\u00f6\u00fc \u65e5\u672c", "partial"));
+        Assert.assertEquals(output.toString(), text);
+    }
+
+    @Test
+    public void testByteBudget() {
+        List<String> batches = new ArrayList<>();
+        InputStream in = new ByteArrayInputStream("a\nb\nc\nd\n".getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 2));
+            }
+        };
+
+        new InputStreamPumper(in, 4, 60000L) {
+            @Override
+            public void onOutput(String data) {
+                batches.add(data);
+            }
+        }.run();
+
+        Assert.assertEquals(batches, Arrays.asList("a\nb\n", "c\nd\n"));
+    }
+
+    @Test
+    public void testFlushInterval() throws Exception {
+        PipedOutputStream out = new PipedOutputStream();
+        List<String> batches = Collections.synchronizedList(new ArrayList<>());
+
+        InputStreamPumper pumper = new InputStreamPumper(new PipedInputStream(out), 1024 * 1024, 50L) {
+            @Override
+            public void onOutput(String data) {
+                batches.add(data);
+            }
+        };
+
+        Thread thread = new Thread(pumper);
+        thread.start();
+
+        out.write("quiet build\n".getBytes(StandardCharsets.UTF_8));
+        out.flush();
+
+        long timeout = System.currentTimeMillis() + 5000L;
+        while (batches.isEmpty() && System.currentTimeMillis() < timeout) {
+            Thread.sleep(10L);
+        }
+        Assert.assertEquals(batches, Collections.singletonList("quiet build\n"));
+
+        out.write("done\n".getBytes(StandardCharsets.UTF_8));
+        out.close();
+        thread.join(5000L);
+
+        Assert.assertEquals(batches, Arrays.asList("quiet build\n", "done\n"));
+    }
+
+    @Test
+    public void testFlushIntervalWithSteadyOutput() throws Exception {
+        List<String> batches = new ArrayList<>();
+
+        // never idle stream providing a line every few milliseconds
+        InputStream in = new InputStream() {
+            private int lines = 100;
+
+            @Override
+            public int read() throws IOException {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (lines-- == 0) {
+                    return -1;
+                }
+
+                try {
+                    Thread.sleep(2L);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+
+                byte[] line = "line\n".getBytes(StandardCharsets.UTF_8);
+                System.arraycopy(line, 0, b, off, line.length);
+                return line.length;
+            }
+
+            @Override
+            public int available() {
+                return lines > 0 ? 1 : 0;
+            }
+        };
+
+        InputStreamPumper pumper = new InputStreamPumper(in, 1024 * 1024, 20L) {
+            @Override
+            public void onOutput(String data) {
+                batches.add(data);
+            }
+        };
+
+        pumper.run();
+
+        Assert.assertTrue(batches.size() > 1);
+        Assert.assertEquals(String.join("", batches).length(), 500);
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.*;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class ProcessExecutorTest {
+
+    private ProcessExecutor processExecutor = new ProcessExecutor(1, 1);
+
+    @AfterClass(alwaysRun = true)
+    public void shutdown() {
+        processExecutor.shutdown();
+    }
+
+    @Test
+    public void testPumpAndComplete() throws Exception {
+        StringBuilder output = new StringBuilder();
+        CompletableFuture<String> result = new CompletableFuture<>();
+
+        InputStreamPumper pumper = new InputStreamPumper(new ByteArrayInputStream("Hello\nCitrus\n".getBytes(StandardCharsets.UTF_8))) {
+            @Override
+            public void onOutput(String data) {
+                output.append(data);
+            }
+        };
+
+        processExecutor.pump(pumper, () -> result.complete(output.toString())).get(5, TimeUnit.SECONDS);
+
+        Assert.assertEquals(result.get(5, TimeUnit.SECONDS), "Hello\nCitrus\n");
+        Assert.assertEquals(processExecutor.getActivePumpers(), 0);
+    }
+
+    @Test
+    public void testProcessMetrics() {
+        processExecutor.started("1");
+        processExecutor.started("2");
+        Assert.assertEquals(processExecutor.getActiveProcesses(), 2);
+        Assert.assertEquals(processExecutor.getMetrics().get("activeProcesses"), 2);
+
+        processExecutor.finished("1");
+        processExecutor.finished("1");
+        processExecutor.finished("2");
+        Assert.assertEquals(processExecutor.getActiveProcesses(), 0);
+    }
+
+    @Test(expectedExceptions = ProcessLauncherException.class)
+    public void testRejectWhenQueueIsFull() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+
+        try {
+            processExecutor.execute(() -> {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            processExecutor.execute(() -> {});
+
+            Assert.assertEquals(processExecutor.getQueueDepth(), 1);
+            processExecutor.execute(() -> {});
+        } finally {
+            latch.countDown();
+        }
+    }
+}
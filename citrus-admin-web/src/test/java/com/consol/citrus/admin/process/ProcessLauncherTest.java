@@ -16,14 +16,17 @@
 
 package com.consol.citrus.admin.process;
 
+import com.consol.citrus.admin.process.event.ProcessEventExecutor;
 import com.consol.citrus.admin.process.listener.ProcessListener;
 import com.consol.citrus.admin.process.local.LocalProcessLauncher;
+import com.consol.citrus.admin.process.stats.ProcessStatsRegistry;
 import com.consol.citrus.admin.service.command.AbstractTerminalCommand;
 import com.consol.citrus.admin.service.command.TerminalCommand;
 import org.apache.commons.lang.SystemUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.testng.Assert;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
@@ -51,12 +54,23 @@ public class ProcessLauncherTest {
     private List<Boolean> callbacks = Arrays.asList(false, false, false, false);
 
     private ProcessMonitor processMonitor;
+    private ProcessExecutor processExecutor = new ProcessExecutor(10, 100);
+    private ProcessEventExecutor eventExecutor = new ProcessEventExecutor();
+    private ProcessStatsRegistry statsRegistry = new ProcessStatsRegistry();
+    private ProcessTreeTerminator treeTerminator = new ProcessTreeTerminator();
 
     @BeforeMethod
     public void setUp() throws Exception {
         processMonitor = new ProcessMonitorImpl();
     }
 
+    @AfterClass(alwaysRun = true)
+    public void shutdown() {
+        statsRegistry.shutdown();
+        eventExecutor.shutdown();
+        processExecutor.shutdown();
+    }
+
     @Test
     public void testSyncSuccess_noMaxExecutionTime() throws Exception {
         TerminalCommand command = getSleepCommand(1);
@@ -122,6 +136,9 @@ public class ProcessLauncherTest {
         // check failed
         Thread.sleep(5000);
         assertFailed(false);
+
+        // check terminated process is no longer active
+        Assert.assertEquals(processExecutor.getActiveProcesses(), 0);
     }
 
     @Test
@@ -157,7 +174,7 @@ public class ProcessLauncherTest {
 
     private ProcessLauncher launchAndWait(TerminalCommand command, String processName, int maxExecutionTime) throws InterruptedException {
         ProcessListener pli = getProcessListener(callbacks);
-        LocalProcessLauncher pla = new LocalProcessLauncher(processMonitor, processName);
+        LocalProcessLauncher pla = new LocalProcessLauncher(processMonitor, processExecutor, eventExecutor, statsRegistry, treeTerminator, processName);
         pla.launchAndWait(command, maxExecutionTime, pli);
         return pla;
     }
@@ -168,7 +185,7 @@ public class ProcessLauncherTest {
 
     private ProcessLauncher launchAndContinue(TerminalCommand command, String processName, int maxExecutionTime) throws InterruptedException {
         ProcessListener pli = getProcessListener(callbacks);
-        LocalProcessLauncher pla = new LocalProcessLauncher(processMonitor, processName);
+        LocalProcessLauncher pla = new LocalProcessLauncher(processMonitor, processExecutor, eventExecutor, statsRegistry, treeTerminator, processName);
         pla.launchAndContinue(command, maxExecutionTime, pli);
         return pla;
     }
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process;
+
+import com.consol.citrus.admin.process.stats.ProcessTreeSampler;
+import com.consol.citrus.admin.process.stats.ProcessTreeSampler.ProcessSample;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.*;
+import java.util.List;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class ProcessTreeTerminatorTest {
+
+    private ProcessTreeSampler sampler = new ProcessTreeSampler();
+
+    @BeforeMethod
+    public void checkPlatform() {
+        if (!sampler.isSupported()) {
+            throw new SkipException("Process tree termination test requires proc file system");
+        }
+    }
+
+    @Test
+    public void testTerminateProcessTree() throws Exception {
+        Process process = new ProcessBuilder("sh", "-c", "sleep 60 & sleep 60 & wait").start();
+        List<ProcessSample> tree = awaitChildren(process, 2);
+
+        ProcessTreeTerminator terminator = new ProcessTreeTerminator(sampler, 5000L);
+        Assert.assertTrue(terminator.terminate(process));
+
+        Assert.assertFalse(process.isAlive());
+        tree.forEach(sample -> Assert.assertFalse(sampler.isAlive(sample)));
+        Assert.assertEquals(terminator.getMetrics().get("terminated"), 1L);
+        Assert.assertEquals(terminator.getMetrics().get("killed"), 0L);
+    }
+
+    @Test
+    public void testKillAfterStopTimeout() throws Exception {
+        Process process = new ProcessBuilder("sh", "-c", "trap '' TERM; sleep 60 & wait").start();
+        List<ProcessSample> tree = awaitChildren(process, 1);
+
+        ProcessTreeTerminator terminator = new ProcessTreeTerminator(sampler, 500L);
+        Assert.assertTrue(terminator.terminate(process));
+
+        Assert.assertFalse(process.isAlive());
+        tree.forEach(sample -> Assert.assertFalse(sampler.isAlive(sample)));
+        Assert.assertEquals(terminator.getMetrics().get("killed"), 1L);
+    }
+
+    @Test
+    public void testTerminateFinishedProcess() throws Exception {
+        Process process = new ProcessBuilder("sh", "-c", "exit 0").start();
+        process.waitFor();
+
+        Assert.assertTrue(new ProcessTreeTerminator(sampler, 500L).terminate(process));
+    }
+
+    @Test
+    public void testIgnoreReusedPid() throws Exception {
+        Process other = new ProcessBuilder("sh", "-c", "sleep 60 & wait").start();
+        try {
+            List<ProcessSample> tree = awaitChildren(other, 1);
+
+            // reaped process reporting the pid that has been reused by another process tree
+            Process finished = new FinishedProcess(ProcessTreeSampler.getPid(other));
+            ProcessTreeTerminator terminator = new ProcessTreeTerminator(sampler, 500L);
+            Assert.assertTrue(terminator.terminate(finished));
+
+            Assert.assertTrue(other.isAlive());
+            tree.forEach(sample -> Assert.assertTrue(sampler.isAlive(sample)));
+            Assert.assertEquals(terminator.getMetrics().get("terminated"), 0L);
+        } finally {
+            new ProcessTreeTerminator(sampler, 500L).terminate(other);
+        }
+    }
+
+    private List<ProcessSample> awaitChildren(Process process, int children) throws InterruptedException {
+        long pid = ProcessTreeSampler.getPid(process);
+        for (int i = 0; i < 100; i++) {
+            List<ProcessSample> tree = sampler.sample(pid);
+            if (tree.size() > children) {
+                return tree;
+            }
+            Thread.sleep(50L);
+        }
+
+        throw new AssertionError("Child processes did not start");
+    }
+
+    /**
+     * Process that has already exited and been reaped.
+     */
+    private static class FinishedProcess extends Process {
+        private final long pid;
+
+        FinishedProcess(long pid) {
+            this.pid = pid;
+        }
+
+        public long pid() {
+            return pid;
+        }
+
+        @Override
+        public boolean isAlive() {
+            return false;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return new ByteArrayOutputStream();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public InputStream getErrorStream() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public int waitFor() {
+            return 0;
+        }
+
+        @Override
+        public int exitValue() {
+            return 0;
+        }
+
+        @Override
+        public void destroy() {
+            throw new AssertionError("Finished process must not be destroyed");
+        }
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.event;
+
+import com.consol.citrus.admin.process.listener.AbstractProcessListener;
+import com.consol.citrus.admin.process.listener.ProcessListener;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.concurrent.*;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class ProcessEventDispatcherTest {
+
+    private ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterClass(alwaysRun = true)
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testDeliverInOrder() throws Exception {
+        List<String> received = new CopyOnWriteArrayList<>();
+        ProcessEventDispatcher dispatcher = new ProcessEventDispatcher(executor, 16, OverflowPolicy.BLOCK, new ProcessEventMetrics());
+        ProcessEventDispatcher.ListenerGroup group = dispatcher.createGroup("test");
+        ProcessListener[] listeners = new ProcessListener[] { new RecordingListener(received, null) };
+
+        group.publish(ProcessEvent.start("1"), listeners);
+        for (int i = 0; i < 100; i++) {
+            group.publish(ProcessEvent.output("1", String.valueOf(i)), listeners);
+        }
+        group.publish(ProcessEvent.success("1"), listeners);
+
+        Assert.assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+        Assert.assertEquals(received.size(), 102);
+        Assert.assertEquals(received.get(0), "start");
+        Assert.assertEquals(received.get(50), "49");
+        Assert.assertEquals(received.get(101), "success");
+    }
+
+    @Test
+    public void testSlowListenerDoesNotBlockPublisher() throws Exception {
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        ProcessEventMetrics metrics = new ProcessEventMetrics();
+        ProcessEventDispatcher dispatcher = new ProcessEventDispatcher(executor, 4, OverflowPolicy.COALESCE, metrics);
+        ProcessEventDispatcher.ListenerGroup group = dispatcher.createGroup("test");
+        ProcessListener[] listeners = new ProcessListener[] { new RecordingListener(received, release) };
+
+        for (int i = 0; i < 20; i++) {
+            group.publish(ProcessEvent.output("1", String.valueOf(i)), listeners);
+        }
+
+        Assert.assertTrue(metrics.getCoalesced() > 0);
+
+        release.countDown();
+        Assert.assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+        Assert.assertEquals(String.join("", received), "012345678910111213141516171819");
+        Assert.assertEquals(metrics.getPending(), 0L);
+    }
+
+    @Test
+    public void testDropOnOverflow() throws Exception {
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        ProcessEventMetrics metrics = new ProcessEventMetrics();
+        ProcessEventDispatcher dispatcher = new ProcessEventDispatcher(executor, 2, OverflowPolicy.DROP, metrics);
+        ProcessEventDispatcher.ListenerGroup group = dispatcher.createGroup("test");
+        ProcessListener[] listeners = new ProcessListener[] { new RecordingListener(received, release) };
+
+        for (int i = 0; i < 10; i++) {
+            group.publish(ProcessEvent.output("1", String.valueOf(i)), listeners);
+        }
+
+        Assert.assertTrue(metrics.getDropped() > 0);
+
+        release.countDown();
+        group.publish(ProcessEvent.success("1"), listeners);
+        Assert.assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+        Assert.assertEquals(received.get(received.size() - 1), "success");
+        Assert.assertEquals(received.size() + metrics.getDropped(), 11L);
+    }
+
+    @Test
+    public void testCoalesceActivity() throws Exception {
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        ProcessEventMetrics metrics = new ProcessEventMetrics();
+        ProcessEventDispatcher dispatcher = new ProcessEventDispatcher(executor, 2, OverflowPolicy.COALESCE, metrics);
+        ProcessEventDispatcher.ListenerGroup group = dispatcher.createGroup("test");
+        ProcessListener[] listeners = new ProcessListener[] { new RecordingListener(received, release) };
+
+        for (int i = 0; i < 10; i++) {
+            group.publish(ProcessEvent.activity("1", String.valueOf(i)), listeners);
+        }
+
+        Assert.assertTrue(metrics.getCoalesced() > 0);
+
+        release.countDown();
+        Assert.assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+        Assert.assertEquals(String.join(",", received), "0,1,2,3,4,5,6,7,8,9");
+        Assert.assertEquals(metrics.getDropped(), 0L);
+    }
+
+    @Test
+    public void testDropActivityOnOverflow() throws Exception {
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        ProcessEventMetrics metrics = new ProcessEventMetrics();
+        ProcessEventDispatcher dispatcher = new ProcessEventDispatcher(executor, 2, OverflowPolicy.DROP, metrics);
+        ProcessEventDispatcher.ListenerGroup group = dispatcher.createGroup("test");
+        ProcessListener[] listeners = new ProcessListener[] { new RecordingListener(received, release) };
+
+        for (int i = 0; i < 10; i++) {
+            group.publish(ProcessEvent.activity("1", String.valueOf(i)), listeners);
+        }
+
+        Assert.assertTrue(metrics.getDroppedActivity() > 0);
+
+        release.countDown();
+        Assert.assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+        Assert.assertEquals(received.size() + metrics.getDroppedActivity(), 10L);
+    }
+
+    @Test
+    public void testLifecycleWaitsForBuffer() throws Exception {
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        ProcessEventMetrics metrics = new ProcessEventMetrics();
+        ProcessEventDispatcher dispatcher = new ProcessEventDispatcher(executor, 2, OverflowPolicy.DROP, metrics);
+        ProcessEventDispatcher.ListenerGroup group = dispatcher.createGroup("test");
+        ProcessListener[] listeners = new ProcessListener[] { new RecordingListener(received, release) };
+
+        group.publish(ProcessEvent.activity("1", "0"), listeners);
+        awaitConsumerBlocked(dispatcher);
+        group.publish(ProcessEvent.activity("1", "1"), listeners);
+        group.publish(ProcessEvent.activity("1", "2"), listeners);
+
+        Thread publisher = new Thread(() -> group.publish(ProcessEvent.success("1"), listeners));
+        publisher.start();
+
+        Thread.sleep(200L);
+        Assert.assertTrue(publisher.isAlive());
+
+        release.countDown();
+        publisher.join(5000L);
+        Assert.assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+        Assert.assertEquals(String.join(",", received), "0,1,2,success");
+    }
+
+    @Test
+    public void testReleaseGroup() throws Exception {
+        List<String> received = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        ProcessEventDispatcher dispatcher = new ProcessEventDispatcher(executor, 16, OverflowPolicy.BLOCK, new ProcessEventMetrics());
+        ProcessEventDispatcher.ListenerGroup group = dispatcher.createGroup("test");
+        ProcessListener[] listeners = new ProcessListener[] { new RecordingListener(received, release) };
+
+        group.publish(ProcessEvent.output("1", "foo"), listeners);
+        awaitConsumerBlocked(dispatcher);
+        group.publish(ProcessEvent.success("1"), listeners);
+        group.release();
+        Assert.assertEquals(dispatcher.getPending(), 1);
+
+        release.countDown();
+        Assert.assertTrue(dispatcher.awaitIdle(5, TimeUnit.SECONDS));
+        Assert.assertEquals(String.join(",", received), "foo,success");
+        Assert.assertEquals(dispatcher.getPending(), 0);
+    }
+
+    /**
+     * Waits until the consumer has taken the first event and waits for release.
+     * @param dispatcher
+     * @throws InterruptedException
+     */
+    private void awaitConsumerBlocked(ProcessEventDispatcher dispatcher) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000L;
+        while (dispatcher.getPending() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10L);
+        }
+    }
+
+    /**
+     * Listener recording events, optionally waiting for release before handling each event.
+     */
+    private static class RecordingListener extends AbstractProcessListener {
+        private final List<String> received;
+        private final CountDownLatch release;
+
+        RecordingListener(List<String> received, CountDownLatch release) {
+            this.received = received;
+            this.release = release;
+        }
+
+        @Override
+        public void onProcessStart(String processId) {
+            record("start");
+        }
+
+        @Override
+        public void onProcessSuccess(String processId) {
+            record("success");
+        }
+
+        @Override
+        public void onProcessOutput(String processId, String output) {
+            record(output);
+        }
+
+        @Override
+        public void onProcessActivity(String processId, String output) {
+            record(output);
+        }
+
+        private void record(String value) {
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            received.add(value);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.listener;
+
+import com.consol.citrus.admin.model.MessageEvent;
+import com.consol.citrus.admin.model.ProcessEventChunk;
+import com.consol.citrus.admin.model.SocketEvent;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class EventReplayBufferTest {
+
+    @Test
+    public void testReplay() {
+        EventReplayBuffer buffer = new EventReplayBuffer("1", 10, 1024 * 1024);
+
+        buffer.add(1L, "events", SocketEvent.createEvent("1", SocketEvent.EventType.TEST_START, "foo"));
+        buffer.add(2L, "messages", MessageEvent.createEvent("1", MessageEvent.INBOUND, "Hello"));
+        buffer.add(3L, "events", SocketEvent.createEvent("1", SocketEvent.EventType.TEST_SUCCESS, "foo"));
+
+        ProcessEventChunk chunk = buffer.getEvents(null, 0L);
+        Assert.assertEquals(chunk.getProcessId(), "1");
+        Assert.assertEquals(chunk.getSeq(), 3L);
+        Assert.assertFalse(chunk.isGap());
+        Assert.assertEquals(chunk.getEvents().size(), 3L);
+
+        chunk = buffer.getEvents("messages", 1L);
+        Assert.assertEquals(chunk.getEvents().size(), 1L);
+        Assert.assertEquals(chunk.getEvents().get(0).getSeq(), 2L);
+        Assert.assertEquals(chunk.getEvents().get(0).getTopic(), "messages");
+
+        chunk = buffer.getEvents(null, 3L);
+        Assert.assertTrue(chunk.getEvents().isEmpty());
+        Assert.assertFalse(chunk.isGap());
+    }
+
+    @Test
+    public void testEvictOldestEvents() {
+        EventReplayBuffer buffer = new EventReplayBuffer("1", 2, 1024 * 1024);
+
+        for (int i = 1; i <= 5; i++) {
+            buffer.add(i, "log", SocketEvent.createEvent("1", SocketEvent.EventType.LOG_MESSAGE, "line " + i));
+        }
+
+        ProcessEventChunk chunk = buffer.getEvents(null, 2L);
+        Assert.assertTrue(chunk.isGap());
+        Assert.assertEquals(chunk.getEvents().size(), 2L);
+        Assert.assertEquals(chunk.getEvents().get(0).getSeq(), 4L);
+
+        Assert.assertFalse(buffer.getEvents(null, 3L).isGap());
+    }
+
+    @Test
+    public void testEvictLargeEvents() {
+        EventReplayBuffer buffer = new EventReplayBuffer("1", 10, 2048);
+
+        buffer.add(1L, "log", SocketEvent.createEvent("1", SocketEvent.EventType.LOG_MESSAGE, new String(new char[512])));
+        buffer.add(2L, "log", SocketEvent.createEvent("1", SocketEvent.EventType.LOG_MESSAGE, new String(new char[512])));
+        buffer.add(3L, "log", SocketEvent.createEvent("1", SocketEvent.EventType.LOG_MESSAGE, new String(new char[512])));
+
+        Assert.assertEquals(buffer.getEvents(null, 0L).getEvents().size(), 1L);
+        Assert.assertEquals(buffer.getSeq(), 3L);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.listener;
+
+import com.consol.citrus.admin.model.SocketEvent;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.testng.Assert;
+import org.testng.annotations.*;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class LogBroadcasterTest {
+
+    private SimpMessagingTemplate messagingTemplate;
+    private LogBroadcaster broadcaster;
+
+    @BeforeMethod
+    public void setUp() {
+        messagingTemplate = Mockito.mock(SimpMessagingTemplate.class);
+        SocketEventPublisher eventPublisher = new SocketEventPublisher();
+        eventPublisher.setMessagingTemplate(messagingTemplate);
+        eventPublisher.setAggregate(false);
+
+        broadcaster = new LogBroadcaster();
+        broadcaster.setEventPublisher(eventPublisher);
+        broadcaster.setWindow(60000);
+        broadcaster.setFrameSize(16);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    public void testCoalesceOutput() {
+        broadcaster.output("1", "foo\n");
+        broadcaster.output("1", "bar\n");
+        verifyZeroInteractions(messagingTemplate);
+
+        broadcaster.send("1", SocketEvent.createEvent("1", SocketEvent.EventType.PROCESS_SUCCESS, "done"));
+
+        List<SocketEvent> events = getEvents(2);
+        Assert.assertEquals(events.get(0).getType(), SocketEvent.EventType.LOG_MESSAGE);
+        Assert.assertEquals(events.get(0).getMsg(), "foo\nbar\n");
+        Assert.assertEquals(events.get(1).getType(), SocketEvent.EventType.PROCESS_SUCCESS);
+    }
+
+    @Test
+    public void testFrameSize() {
+        broadcaster.output("1", "0123456789");
+        broadcaster.output("1", "0123456789");
+
+        List<SocketEvent> events = getEvents(2);
+        Assert.assertEquals(events.get(0).getMsg(), "0123456789012345");
+        Assert.assertEquals(events.get(1).getMsg(), "6789");
+
+        broadcaster.complete("1");
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+
+    @Test
+    public void testFrameSizeMultiByte() {
+        // seven two byte chars followed by a four byte surrogate pair that must not be split
+        broadcaster.output("1", "\u00fc\u00fc\u00fc\u00fc\u00fc\u00fc\u00fc\uD83D\uDE00");
+
+        List<SocketEvent> events = getEvents(2);
+        Assert.assertEquals(events.get(0).getMsg(), "\u00fc\u00fc\u00fc\u00fc\u00fc\u00fc\u00fc");
+        Assert.assertEquals(events.get(1).getMsg(), "\uD83D\uDE00");
+    }
+
+    @Test
+    public void testFlushAfterWindow() {
+        broadcaster.setWindow(10);
+        broadcaster.output("1", "foo\n");
+
+        verify(messagingTemplate, timeout(5000L)).convertAndSend(eq("/topic/process/1/log"), any(SocketEvent.class), anyMapOf(String.class, Object.class));
+    }
+
+    private List<SocketEvent> getEvents(int count) {
+        ArgumentCaptor<SocketEvent> captor = ArgumentCaptor.forClass(SocketEvent.class);
+        verify(messagingTemplate, times(count)).convertAndSend(eq("/topic/process/1/log"), captor.capture(), anyMapOf(String.class, Object.class));
+        return captor.getAllValues();
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.listener;
+
+import com.consol.citrus.admin.model.ProcessEventChunk;
+import com.consol.citrus.admin.model.SocketEvent;
+import com.consol.citrus.admin.process.listener.SocketEventPublisher.Topic;
+import org.mockito.Mockito;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class SocketEventPublisherTest {
+
+    private SimpMessagingTemplate messagingTemplate;
+    private SocketEventPublisher eventPublisher;
+
+    @BeforeMethod
+    public void setUp() {
+        messagingTemplate = Mockito.mock(SimpMessagingTemplate.class);
+        eventPublisher = new SocketEventPublisher();
+        eventPublisher.setMessagingTemplate(messagingTemplate);
+    }
+
+    @Test
+    public void testPublishWithAggregate() {
+        SocketEvent event = SocketEvent.createEvent("1", SocketEvent.EventType.TEST_START, "foo");
+        eventPublisher.setAggregate(true);
+        eventPublisher.publish(Topic.EVENTS, "1", event);
+
+        verify(messagingTemplate).convertAndSend("/topic/process/1/events", event, headers(1L, 0L));
+        verify(messagingTemplate).convertAndSend("/topic/test-events", event, headers(1L, 0L));
+    }
+
+    @Test
+    public void testPublishWithoutAggregate() {
+        SocketEvent event = SocketEvent.createEvent("1", SocketEvent.EventType.LOG_MESSAGE, "foo");
+        eventPublisher.setAggregate(false);
+        eventPublisher.publish(Topic.LOG, "1", event);
+        eventPublisher.publish(Topic.LOG, null, event);
+
+        verify(messagingTemplate).convertAndSend("/topic/process/1/log", event, headers(1L, 0L));
+        verify(messagingTemplate).convertAndSend("/topic/log-output", event);
+        verifyNoMoreInteractions(messagingTemplate);
+    }
+
+    @Test
+    public void testSequenceAndReplay() {
+        SocketEvent start = SocketEvent.createEvent("1", SocketEvent.EventType.TEST_START, "foo");
+        SocketEvent log = SocketEvent.createEvent("1", SocketEvent.EventType.LOG_MESSAGE, "foo");
+        SocketEvent success = SocketEvent.createEvent("1", SocketEvent.EventType.TEST_SUCCESS, "foo");
+        eventPublisher.setAggregate(false);
+        eventPublisher.publish(Topic.EVENTS, "1", start);
+        eventPublisher.publish(Topic.LOG, "1", log);
+        eventPublisher.publish(Topic.EVENTS, "1", success);
+        eventPublisher.publish(Topic.EVENTS, "2", start);
+
+        verify(messagingTemplate).convertAndSend("/topic/process/1/events", start, headers(1L, 0L));
+        verify(messagingTemplate).convertAndSend("/topic/process/1/log", log, headers(2L, 0L));
+        verify(messagingTemplate).convertAndSend("/topic/process/1/events", success, headers(3L, 1L));
+        verify(messagingTemplate).convertAndSend("/topic/process/2/events", start, headers(1L, 0L));
+
+        ProcessEventChunk chunk = eventPublisher.getEvents("1", "events", 1L).orElseThrow(AssertionError::new);
+        Assert.assertEquals(chunk.getSeq(), 3L);
+        Assert.assertFalse(chunk.isGap());
+        Assert.assertEquals(chunk.getEvents().size(), 1L);
+        Assert.assertEquals(chunk.getEvents().get(0).getSeq(), 3L);
+        Assert.assertEquals(chunk.getEvents().get(0).getPayload(), success);
+
+        Assert.assertEquals(eventPublisher.getEvents("1", null, 0L).get().getEvents().size(), 3L);
+        Assert.assertFalse(eventPublisher.getEvents("3", null, 0L).isPresent());
+    }
+
+    @Test
+    public void testSequenceSurvivesReplayEviction() {
+        SocketEvent event = SocketEvent.createEvent("1", SocketEvent.EventType.TEST_START, "foo");
+        eventPublisher.setAggregate(false);
+        eventPublisher.publish(Topic.EVENTS, "1", event);
+
+        for (int i = 0; i < 20; i++) {
+            eventPublisher.publish(Topic.EVENTS, "other-" + i, event);
+        }
+        Assert.assertFalse(eventPublisher.getEvents("1", null, 0L).isPresent());
+
+        eventPublisher.publish(Topic.EVENTS, "1", event);
+        verify(messagingTemplate).convertAndSend("/topic/process/1/events", event, headers(2L, 1L));
+
+        ProcessEventChunk chunk = eventPublisher.getEvents("1", null, 0L).orElseThrow(AssertionError::new);
+        Assert.assertEquals(chunk.getSeq(), 2L);
+        Assert.assertTrue(chunk.isGap());
+    }
+
+    @Test
+    public void testLateEventsAfterComplete() {
+        SocketEvent event = SocketEvent.createEvent("1", SocketEvent.EventType.TEST_START, "foo");
+        SocketEvent log = SocketEvent.createEvent("1", SocketEvent.EventType.LOG_MESSAGE, "foo");
+        eventPublisher.setAggregate(false);
+        eventPublisher.publish(Topic.EVENTS, "1", event);
+        eventPublisher.complete("1");
+
+        eventPublisher.publish(Topic.LOG, "1", log);
+        verify(messagingTemplate).convertAndSend("/topic/process/1/log", log, headers(2L, 0L));
+
+        ProcessEventChunk chunk = eventPublisher.getEvents("1", null, 0L).orElseThrow(AssertionError::new);
+        Assert.assertEquals(chunk.getSeq(), 2L);
+        Assert.assertEquals(chunk.getEvents().size(), 2L);
+    }
+
+    @Test
+    public void testSequenceResetOnComplete() {
+        SocketEvent event = SocketEvent.createEvent("1", SocketEvent.EventType.TEST_START, "foo");
+        eventPublisher.setAggregate(false);
+        eventPublisher.setCompletedRetention(0L);
+        eventPublisher.publish(Topic.EVENTS, "1", event);
+        eventPublisher.publish(Topic.EVENTS, "1", event);
+        eventPublisher.complete("1");
+
+        Assert.assertEquals(eventPublisher.getEvents("1", null, 0L).get().getEvents().size(), 2L);
+
+        eventPublisher.publish(Topic.EVENTS, "1", event);
+        verify(messagingTemplate, times(2)).convertAndSend("/topic/process/1/events", event, headers(1L, 0L));
+
+        ProcessEventChunk chunk = eventPublisher.getEvents("1", null, 0L).orElseThrow(AssertionError::new);
+        Assert.assertEquals(chunk.getSeq(), 1L);
+        Assert.assertEquals(chunk.getEvents().size(), 1L);
+    }
+
+    @Test
+    public void testMatches() {
+        Assert.assertTrue(Topic.LOG.matches("/topic/log-output"));
+        Assert.assertTrue(Topic.LOG.matches("/topic/process/parallel-1/log"));
+        Assert.assertFalse(Topic.LOG.matches("/topic/process/1/events"));
+        Assert.assertFalse(Topic.LOG.matches("/topic/test-events"));
+        Assert.assertFalse(Topic.LOG.matches(null));
+    }
+
+    private Map<String, Object> headers(long seq, long prev) {
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("seq", String.valueOf(seq));
+        headers.put("prev", String.valueOf(prev));
+        return headers;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.log;
+
+import com.consol.citrus.admin.process.log.LogLineClassifier.LogLine;
+import com.consol.citrus.admin.process.log.LogLineClassifier.Pattern;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class LogLineClassifierTest {
+
+    @Test
+    public void testClassifyTestEvents() {
+        LogLine line = LogLineClassifier.classify("INFO  Citrus| TEST SUCCESS MyIT (com.consol.citrus)");
+        Assert.assertTrue(line.contains(Pattern.TEST_SUCCESS));
+        Assert.assertTrue(line.contains(Pattern.SUCCESS));
+        Assert.assertTrue(line.contains(Pattern.INFO));
+        Assert.assertTrue(line.isLogOutput());
+        Assert.assertFalse(line.contains(Pattern.TEST_FAILED));
+        Assert.assertEquals(line.indexOf(Pattern.TEST_SUCCESS), 14);
+        Assert.assertEquals(line.indexOf(Pattern.SUCCESS), 19);
+        Assert.assertEquals(line.endOf(Pattern.TEST_SUCCESS), 26);
+
+        line = LogLineClassifier.classify("TEST STEP 3/5 SUCCESS");
+        Assert.assertTrue(line.contains(Pattern.TEST_STEP));
+        Assert.assertEquals(line.getLine().substring(line.endOf(Pattern.TEST_STEP), line.indexOf(Pattern.SUCCESS) - 1).trim(), "3/5");
+
+        line = LogLineClassifier.classify("SKIPPING TEST FooIT");
+        Assert.assertTrue(line.contains(Pattern.SKIPPING_TEST));
+        Assert.assertFalse(line.contains(Pattern.STARTING_TEST));
+        Assert.assertFalse(line.isLogOutput());
+    }
+
+    @Test
+    public void testFirstOccurrence() {
+        LogLine line = LogLineClassifier.classify("WARN WARN WARNING");
+        Assert.assertEquals(line.indexOf(Pattern.WARN), 0);
+
+        line = LogLineClassifier.classify("xxLogger.Message_IN: <Hello/> Logger.Message_OUT: <Bye/>");
+        Assert.assertEquals(line.indexOf(Pattern.MESSAGE_IN), 2);
+        Assert.assertEquals(line.indexOf(Pattern.MESSAGE_OUT), 30);
+    }
+
+    @Test
+    public void testNoMatch() {
+        LogLine line = LogLineClassifier.classify("<soap:Envelope>Gr\u00fc\u00dfe TEST</soap:Envelope>");
+        for (Pattern pattern : Pattern.values()) {
+            Assert.assertFalse(line.contains(pattern));
+            Assert.assertEquals(line.indexOf(pattern), -1);
+        }
+        Assert.assertFalse(LogLineClassifier.classify("").isLogOutput());
+    }
+}
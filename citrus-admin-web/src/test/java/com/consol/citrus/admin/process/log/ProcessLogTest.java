@@ -0,0 +1,158 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.process.log;
+
+import com.consol.citrus.admin.model.ProcessLogChunk;
+import org.testng.Assert;
+import org.testng.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.stream.Stream;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class ProcessLogTest {
+
+    private Path spoolDirectory;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        spoolDirectory = Files.createTempDirectory("process-log");
+    }
+
+    @AfterMethod
+    public void cleanup() throws IOException {
+        try (Stream<Path> files = Files.list(spoolDirectory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.deleteIfExists(spoolDirectory);
+    }
+
+    @Test
+    public void testReadFromRingBuffer() {
+        ProcessLog processLog = new ProcessLog("test", 16, spoolDirectory);
+        processLog.append(bytes("Hello "));
+        processLog.append(bytes("Citrus!"));
+
+        Assert.assertEquals(processLog.getTotal(), 13L);
+        Assert.assertEquals(processLog.getBuffered(), 13L);
+        Assert.assertEquals(string(processLog.read(0L, 100)), "Hello Citrus!");
+        Assert.assertEquals(string(processLog.read(6L, 3)), "Cit");
+        Assert.assertEquals(string(processLog.read(20L, 3)), "");
+        Assert.assertEquals(spoolDirectory.toFile().list().length, 0);
+    }
+
+    @Test
+    public void testSpillAndReadAcrossBoundary() {
+        ProcessLog processLog = new ProcessLog("test", 8, spoolDirectory);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            String line = "line " + i + "\n";
+            expected.append(line);
+            processLog.append(bytes(line));
+        }
+
+        Assert.assertEquals(processLog.getTotal(), expected.length());
+        Assert.assertEquals(processLog.getBuffered(), 8L);
+        Assert.assertEquals(string(processLog.read(0L, 1024)), expected.toString());
+        Assert.assertEquals(string(processLog.read(50L, 20)), expected.substring(50, 70));
+
+        for (int offset = 0; offset < expected.length(); offset += 3) {
+            Assert.assertEquals(string(processLog.read(offset, 5)), expected.substring(offset, Math.min(offset + 5, expected.length())));
+        }
+
+        processLog.close();
+        Assert.assertEquals(spoolDirectory.toFile().list().length, 0);
+    }
+
+    @Test
+    public void testAppendLargerThanCapacity() {
+        ProcessLog processLog = new ProcessLog("test", 4, spoolDirectory);
+        processLog.append(bytes("ab"));
+        processLog.append(bytes("0123456789"));
+        processLog.append(bytes("xyz"));
+
+        Assert.assertEquals(string(processLog.read(0L, 100)), "ab0123456789xyz");
+        Assert.assertEquals(string(processLog.read(9L, 4)), "789x");
+    }
+
+    @Test
+    public void testComplete() {
+        ProcessLog processLog = new ProcessLog("test", 8, spoolDirectory);
+        processLog.append(bytes("Hello Citrus!"));
+        processLog.complete();
+
+        Assert.assertTrue(processLog.isComplete());
+        Assert.assertEquals(processLog.getBuffered(), 0L);
+        Assert.assertEquals(string(processLog.read(0L, 100)), "Hello Citrus!");
+
+        processLog.append(bytes("ignored"));
+        Assert.assertEquals(processLog.getTotal(), 13L);
+    }
+
+    @Test
+    public void testSpoolFailure() throws IOException {
+        ProcessLog processLog = new ProcessLog("test", 8, Files.createFile(spoolDirectory.resolve("no-directory")));
+        processLog.append(bytes("01234567"));
+        processLog.append(bytes("89ab"));
+
+        Assert.assertEquals(processLog.getTotal(), 12L);
+        Assert.assertEquals(processLog.getLost(), 4L);
+        Assert.assertEquals(string(processLog.read(0L, 100)), "456789ab");
+
+        ProcessLogChunk chunk = processLog.getChunk(2L, 100);
+        Assert.assertEquals(chunk.getOffset(), 2L);
+        Assert.assertEquals(chunk.getSkipped(), 2L);
+        Assert.assertEquals(chunk.getData(), "456789ab");
+        Assert.assertEquals(chunk.getNextOffset(), 12L);
+
+        processLog.append(bytes("0123456789"));
+        Assert.assertEquals(processLog.getTotal(), 22L);
+        Assert.assertEquals(processLog.getLost(), 14L);
+        Assert.assertEquals(string(processLog.read(12L, 100)), "23456789");
+
+        processLog.complete();
+        chunk = processLog.getChunk(0L, 4);
+        Assert.assertTrue(chunk.isComplete());
+        Assert.assertEquals(chunk.getSkipped(), 14L);
+        Assert.assertEquals(chunk.getData(), "2345");
+        Assert.assertEquals(chunk.getNextOffset(), 18L);
+    }
+
+    @Test
+    public void testIncompleteCharacterSequence() {
+        ProcessLog processLog = new ProcessLog("test", 4, spoolDirectory);
+        processLog.append(bytes("a\u00e4\u65e5"));
+
+        Assert.assertEquals(string(processLog.read(0L, 2)), "a");
+        Assert.assertEquals(string(processLog.read(0L, 3)), "a\u00e4");
+        Assert.assertEquals(string(processLog.read(0L, 5)), "a\u00e4");
+        Assert.assertEquals(string(processLog.read(0L, 6)), "a\u00e4\u65e5");
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String string(byte[] data) {
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
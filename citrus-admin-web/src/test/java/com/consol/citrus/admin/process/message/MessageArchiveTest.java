@@ -0,0 +1,151 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.message;
+
+import org.testng.Assert;
+import org.testng.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class MessageArchiveTest {
+
+    private Path archiveDirectory;
+
+    @BeforeMethod
+    public void setup() throws IOException {
+        archiveDirectory = Files.createTempDirectory("message-archive");
+    }
+
+    @AfterMethod
+    public void cleanup() throws IOException {
+        try (Stream<Path> files = Files.list(archiveDirectory)) {
+            files.forEach(file -> file.toFile().delete());
+        }
+        Files.deleteIfExists(archiveDirectory);
+    }
+
+    @Test
+    public void testQueryPages() throws IOException {
+        try (MessageArchive archive = new MessageArchive(archiveDirectory, 1024L, 1024L * 1024L)) {
+            for (int i = 1; i <= 5; i++) {
+                archive.append("1", "MyTest", "INBOUND", "Message " + i, false, 9L);
+            }
+
+            MessageQuery query = new MessageQuery();
+            query.setLimit(2);
+
+            MessagePage page = archive.query(query);
+            Assert.assertEquals(page.getMessages().size(), 2L);
+            Assert.assertEquals(page.getMessages().get(0).getId(), 5L);
+            Assert.assertEquals(page.getMessages().get(1).getId(), 4L);
+            Assert.assertEquals(page.getNext(), Long.valueOf(4L));
+
+            query.setBefore(page.getNext());
+            page = archive.query(query);
+            Assert.assertEquals(page.getMessages().get(0).getId(), 3L);
+            Assert.assertEquals(page.getMessages().get(1).getId(), 2L);
+            Assert.assertEquals(page.getNext(), Long.valueOf(2L));
+
+            query.setBefore(page.getNext());
+            page = archive.query(query);
+            Assert.assertEquals(page.getMessages().size(), 1L);
+            Assert.assertEquals(page.getMessages().get(0).getId(), 1L);
+            Assert.assertNull(page.getNext());
+        }
+    }
+
+    @Test
+    public void testQueryFilter() throws IOException {
+        try (MessageArchive archive = new MessageArchive(archiveDirectory, 64L, 1024L * 1024L)) {
+            archive.append("1", "FooTest", "OUTBOUND", "<foo:Request xmlns:foo=\"http://citrus\">Hello</foo:Request>", false, 57L);
+            archive.append("1", "FooTest", "INBOUND", "<Response>Hello</Response>", false, 26L);
+            archive.append("2", "BarTest", "OUTBOUND", "<Request>Hi</Request>", false, 21L);
+
+            MessageQuery query = new MessageQuery();
+            query.setRootElement("Request");
+            MessagePage page = archive.query(query);
+            Assert.assertEquals(page.getMessages().size(), 2L);
+            Assert.assertEquals(page.getMessages().get(0).getTestName(), "BarTest");
+            Assert.assertEquals(page.getMessages().get(1).getTestName(), "FooTest");
+
+            query = new MessageQuery();
+            query.setTestName("FooTest");
+            query.setDirection("inbound");
+            page = archive.query(query);
+            Assert.assertEquals(page.getMessages().size(), 1L);
+            Assert.assertEquals(page.getMessages().get(0).getRootElement(), "Response");
+
+            query = new MessageQuery();
+            query.setProcessId("3");
+            Assert.assertTrue(archive.query(query).getMessages().isEmpty());
+        }
+    }
+
+    @Test
+    public void testRotation() throws IOException {
+        try (MessageArchive archive = new MessageArchive(archiveDirectory, 20L, 50L)) {
+            for (int i = 1; i <= 7; i++) {
+                archive.append("1", "MyTest", "INBOUND", "Message " + String.format("%02d", i), false, 10L);
+            }
+
+            Assert.assertEquals(archive.getSegments(), Arrays.asList(3L, 5L, 7L));
+            Assert.assertFalse(archive.getPayload(1L).isPresent());
+            Assert.assertEquals(archive.getPayload(4L).orElse(null), "Message 04");
+            Assert.assertEquals(archive.getPayload(7L).orElse(null), "Message 07");
+            Assert.assertFalse(archive.getPayload(8L).isPresent());
+            Assert.assertEquals(archive.query(new MessageQuery()).getMessages().size(), 5L);
+        }
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        try (MessageArchive archive = new MessageArchive(archiveDirectory, 1024L, 1024L * 1024L)) {
+            archive.append("1", "MyTest", "INBOUND", "Hello", false, 5L);
+            archive.append("1", "MyTest", "OUTBOUND", "Hello \u00e4\u00f6\u00fc", false, 12L);
+        }
+
+        try (MessageArchive archive = new MessageArchive(archiveDirectory, 1024L, 1024L * 1024L)) {
+            Assert.assertEquals(archive.getPayload(2L).orElse(null), "Hello \u00e4\u00f6\u00fc");
+            Assert.assertEquals(archive.append("2", "MyTest", "INBOUND", "Hi", false, 2L).getId(), 3L);
+            Assert.assertEquals(archive.getPayload(3L).orElse(null), "Hi");
+            Assert.assertEquals(archive.getSegments(), Arrays.asList(1L, 3L));
+        }
+    }
+
+    @Test
+    public void testExtractKeys() {
+        MessageRecord record = new MessageRecord();
+        MessageArchive.extractKeys(record, "DEFAULT_MESSAGE [id: 4711-abc, headers: {citrus_message_type=XML, " +
+                "X-CorrelationId=corr-1}, payload: <?xml version=\"1.0\"?><ns0:Order xmlns:ns0=\"http://citrus\"/>]");
+
+        Assert.assertEquals(record.getMessageId(), "4711-abc");
+        Assert.assertEquals(record.getCorrelationId(), "corr-1");
+        Assert.assertEquals(record.getRootElement(), "Order");
+
+        record = new MessageRecord();
+        MessageArchive.extractKeys(record, "{\"greeting\": \"Hello\"}");
+        Assert.assertNull(record.getRootElement());
+        Assert.assertNull(record.getMessageId());
+        Assert.assertNull(record.getCorrelationId());
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.message;
+
+import com.consol.citrus.admin.model.Project;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class MessageStoreTest {
+
+    private MessageStore messageStore;
+
+    @BeforeMethod
+    public void setUp() {
+        messageStore = new MessageStore();
+    }
+
+    @Test
+    public void testAddMessage() {
+        ExchangedMessage message = messageStore.add("1", "MyTest", "INBOUND", "Hello Citrus!", false, 13L);
+
+        Assert.assertTrue(messageStore.getMessage(message.getId()).isPresent());
+        Assert.assertEquals(messageStore.getMessage(message.getId()).get().getPayload(), "Hello Citrus!");
+        Assert.assertEquals(messageStore.getMessage(message.getId()).get().getProcessId(), "1");
+        Assert.assertFalse(messageStore.getMessage("unknown").isPresent());
+    }
+
+    @Test
+    public void testArchiveName() {
+        String name = MessageStore.getArchiveName(new Project("/home/citrus/a/my-project"));
+        String other = MessageStore.getArchiveName(new Project("/home/citrus/b/my-project"));
+
+        Assert.assertTrue(name.startsWith("my-project-"));
+        Assert.assertTrue(other.startsWith("my-project-"));
+        Assert.assertNotEquals(name, other);
+        Assert.assertEquals(MessageStore.getArchiveName(new Project("/home/citrus/a/my-project")), name);
+    }
+
+    @Test
+    public void testEvictOldestMessages() {
+        messageStore.setStoreSize(20L);
+
+        ExchangedMessage first = messageStore.add("1", "MyTest", "INBOUND", "0123456789", false, 10L);
+        ExchangedMessage second = messageStore.add("1", "MyTest", "OUTBOUND", "0123456789", false, 10L);
+
+        Assert.assertFalse(messageStore.getMessage(first.getId()).isPresent());
+        Assert.assertTrue(messageStore.getMessage(second.getId()).isPresent());
+
+        ExchangedMessage large = messageStore.add("1", "MyTest", "INBOUND", "01234567890123456789", false, 20L);
+        Assert.assertFalse(messageStore.getMessage(second.getId()).isPresent());
+        Assert.assertTrue(messageStore.getMessage(large.getId()).isPresent());
+    }
+
+    @Test
+    public void testPreview() {
+        messageStore.setPreviewSize(5);
+
+        Assert.assertEquals(messageStore.getPreview("Hello"), "Hello");
+        Assert.assertEquals(messageStore.getPreview("Hello Citrus!"), "Hello");
+        Assert.assertEquals(messageStore.getPreview("Hell\ud83d\ude00"), "Hell");
+        Assert.assertNull(messageStore.getPreview(null));
+    }
+}
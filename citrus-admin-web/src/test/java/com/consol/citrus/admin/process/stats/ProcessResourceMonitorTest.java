@@ -0,0 +1,104 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.process.stats;
+
+import com.consol.citrus.admin.model.ProcessStats;
+import org.springframework.util.FileSystemUtils;
+import org.testng.Assert;
+import org.testng.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class ProcessResourceMonitorTest {
+
+    private Path procRoot;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        procRoot = Files.createTempDirectory("proc");
+        Files.createDirectories(procRoot.resolve("self"));
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void cleanUp() {
+        FileSystemUtils.deleteRecursively(procRoot.toFile());
+    }
+
+    @Test
+    public void testSampleProcessTree() throws IOException {
+        writeProcess(100L, 1L, "mvn test", 150L, 50L, 1000L, "101");
+        writeProcess(101L, 100L, "java (surefire)", 300L, 100L, 2000L, "");
+        writeProcess(200L, 1L, "other", 1000L, 1000L, 5000L, "");
+
+        ProcessResourceMonitor monitor = new ProcessResourceMonitor(new ProcessTreeSampler(procRoot, 100L, 4096L), "1", "mvn test", 100L);
+        Assert.assertTrue(monitor.getStats().isSupported());
+
+        monitor.sample();
+        ProcessStats stats = monitor.getStats();
+        Assert.assertEquals(stats.getCpuTime(), 6000L);
+        Assert.assertEquals(stats.getPeakRss(), 3000L * 4096L);
+        Assert.assertEquals(stats.getChildProcesses(), 1);
+        Assert.assertEquals(stats.getPeakChildProcesses(), 1);
+
+        // child process has finished, its CPU time is still accounted
+        writeProcess(100L, 1L, "mvn test", 200L, 50L, 500L, "");
+        deleteProcess(101L);
+
+        monitor.sample();
+        stats = monitor.complete(0);
+        Assert.assertEquals(stats.getCpuTime(), 6500L);
+        Assert.assertEquals(stats.getPeakRss(), 3000L * 4096L);
+        Assert.assertEquals(stats.getChildProcesses(), 1);
+        Assert.assertEquals(stats.getSamples(), 2L);
+        Assert.assertEquals(stats.getExitCode(), Integer.valueOf(0));
+        Assert.assertTrue(stats.isComplete());
+
+        // no more samples after completion
+        monitor.sample();
+        Assert.assertEquals(monitor.getStats().getSamples(), 2L);
+    }
+
+    @Test
+    public void testUnsupportedPlatform() {
+        ProcessResourceMonitor monitor = new ProcessResourceMonitor(new ProcessTreeSampler(procRoot.resolve("missing"), 100L, 4096L), "1", "mvn test", 100L);
+        monitor.sample();
+
+        ProcessStats stats = monitor.complete(1);
+        Assert.assertFalse(stats.isSupported());
+        Assert.assertEquals(stats.getSamples(), 0L);
+        Assert.assertTrue(stats.getWallTime() >= 0L);
+    }
+
+    private void writeProcess(long pid, long parent, String name, long utime, long stime, long rss, String children) throws IOException {
+        Path process = procRoot.resolve(String.valueOf(pid));
+        Files.createDirectories(process.resolve("task").resolve(String.valueOf(pid)));
+
+        String stat = String.format("%s (%s) S %s %s 0 0 -1 0 0 0 0 0 %s %s 0 0 20 0 1 0 %s 123456 %s",
+                pid, name, parent, pid, utime, stime, pid * 10, rss);
+        Files.write(process.resolve("stat"), stat.getBytes(StandardCharsets.US_ASCII));
+        Files.write(process.resolve("task").resolve(String.valueOf(pid)).resolve("children"), children.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private void deleteProcess(long pid) {
+        FileSystemUtils.deleteRecursively(procRoot.resolve(String.valueOf(pid)).toFile());
+    }
+}
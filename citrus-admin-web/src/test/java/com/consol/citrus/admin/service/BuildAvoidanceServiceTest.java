@@ -0,0 +1,145 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.service;
+
+import com.consol.citrus.admin.model.Project;
+import com.consol.citrus.admin.service.command.maven.*;
+import org.springframework.util.FileSystemUtils;
+import org.testng.Assert;
+import org.testng.annotations.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class BuildAvoidanceServiceTest {
+
+    private BuildAvoidanceService buildAvoidanceService = new BuildAvoidanceService();
+    private ProjectFileIndex projectFileIndex = new ProjectFileIndex();
+
+    private Path projectHome;
+    private Project project;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        buildAvoidanceService.setProjectFileIndex(projectFileIndex);
+
+        projectHome = Files.createTempDirectory("citrus-admin-build");
+        write("pom.xml", "<project/>");
+        write("src/test/java/com/consol/citrus/FooIT.java", "class FooIT {}");
+        write("target/test-classes/com/consol/citrus/FooIT.class", "");
+
+        project = new Project(projectHome.toString());
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void cleanup() {
+        projectFileIndex.close();
+        FileSystemUtils.deleteRecursively(projectHome.toFile());
+    }
+
+    @Test
+    public void testBuildAvoidance() throws Exception {
+        MavenBuildContext buildContext = new MavenBuildContext();
+        buildContext.setClean(true);
+        buildContext.setOfflineBuild(true);
+
+        MavenBuildPlan plan = buildAvoidanceService.plan(project, buildContext);
+        Assert.assertTrue(plan.isClean());
+        Assert.assertTrue(plan.isCompile());
+        Assert.assertFalse(plan.isOffline());
+        Assert.assertFalse(plan.isUpToDate());
+        Assert.assertTrue(plan.getSkipped().isEmpty());
+
+        buildAvoidanceService.record(project, plan, 30000L);
+        Assert.assertTrue(new File(projectHome.toFile(), BuildAvoidanceService.BUILD_METADATA_FILE).exists());
+
+        plan = buildAvoidanceService.plan(project, buildContext);
+        Assert.assertTrue(plan.isUpToDate());
+        Assert.assertFalse(plan.isClean());
+        Assert.assertFalse(plan.isCompile());
+        Assert.assertTrue(plan.isOffline());
+        Assert.assertTrue(plan.isQuiet());
+        Assert.assertEquals(plan.getSkipped(), Arrays.asList("clean", "compile", "remote repository checks"));
+        Assert.assertEquals(plan.getFullBuildDuration(), 30000L);
+
+        String command = plan.apply(new MavenCommand(projectHome.toFile(), buildContext)).integrationTest().buildCommand();
+        Assert.assertTrue(command.contains("integration-test -o -q -Dmaven.main.skip=true"));
+        Assert.assertFalse(command.contains("clean"));
+
+        write("src/test/java/com/consol/citrus/FooIT.java", "class FooIT { int changed; }");
+        plan = buildAvoidanceService.plan(project, buildContext);
+        Assert.assertTrue(plan.isClean());
+        Assert.assertTrue(plan.isCompile());
+        Assert.assertTrue(plan.isOffline());
+        Assert.assertEquals(plan.getSkipped(), Arrays.asList("remote repository checks"));
+
+        buildContext.setOfflineBuild(false);
+        plan = buildAvoidanceService.plan(project, buildContext);
+        Assert.assertFalse(plan.isOffline());
+        Assert.assertFalse(plan.isQuiet());
+        Assert.assertTrue(plan.getSkipped().isEmpty());
+
+        buildContext.setBuildAvoidance(false);
+        plan = buildAvoidanceService.plan(project, buildContext);
+        Assert.assertTrue(plan.getSkipped().isEmpty());
+        Assert.assertFalse(plan.isOffline());
+    }
+
+    @Test
+    public void testModuleSources() throws Exception {
+        Path multiModuleHome = Files.createTempDirectory("citrus-admin-modules");
+
+        try {
+            write(multiModuleHome, "pom.xml", "<project/>");
+            write(multiModuleHome, "module-a/pom.xml", "<project/>");
+            write(multiModuleHome, "module-a/src/test/java/com/consol/citrus/BarIT.java", "class BarIT {}");
+            write(multiModuleHome, "module-a/target/test-classes/com/consol/citrus/BarIT.class", "");
+
+            Project multiModuleProject = new Project(multiModuleHome.toString());
+            MavenBuildContext buildContext = new MavenBuildContext();
+
+            buildAvoidanceService.record(multiModuleProject, buildAvoidanceService.plan(multiModuleProject, buildContext), 30000L);
+            MavenBuildPlan plan = buildAvoidanceService.plan(multiModuleProject, buildContext);
+            Assert.assertTrue(plan.isUpToDate());
+            Assert.assertFalse(plan.isCompile());
+
+            write(multiModuleHome, "module-a/src/test/java/com/consol/citrus/BarIT.java", "class BarIT { int changed; }");
+            plan = buildAvoidanceService.plan(multiModuleProject, buildContext);
+            Assert.assertFalse(plan.isUpToDate());
+            Assert.assertTrue(plan.isCompile());
+        } finally {
+            FileSystemUtils.deleteRecursively(multiModuleHome.toFile());
+        }
+    }
+
+    private void write(String path, String content) throws Exception {
+        write(projectHome, path, content);
+    }
+
+    private void write(Path projectHome, String path, String content) throws Exception {
+        Path file = projectHome.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.service;
+
+import com.consol.citrus.admin.model.*;
+import com.consol.citrus.admin.process.listener.SocketEventPublisher;
+import com.consol.citrus.admin.process.listener.SocketEventPublisher.Topic;
+import com.consol.citrus.admin.process.message.MessageStore;
+import net.minidev.json.JSONObject;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.testng.Assert;
+import org.testng.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class ConnectorIngestServiceTest {
+
+    private SocketEventPublisher eventPublisher;
+    private MessageStore messageStore;
+    private ConnectorIngestService ingestService;
+
+    @BeforeMethod
+    public void setUp() {
+        eventPublisher = Mockito.mock(SocketEventPublisher.class);
+        messageStore = new MessageStore();
+
+        ingestService = new ConnectorIngestService();
+        ingestService.setEventPublisher(eventPublisher);
+        ingestService.setMessageStore(messageStore);
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() {
+        ingestService.shutdown();
+    }
+
+    @Test
+    public void testDispatchEvents() throws Exception {
+        TestResult result = new TestResult();
+        result.setProcessId("1");
+        SocketEvent event = SocketEvent.createEvent("1", SocketEvent.EventType.TEST_START, "foo");
+
+        Assert.assertTrue(ingestService.submit(Arrays.asList(ConnectorEvent.result(result), ConnectorEvent.testEvent(event))));
+        Assert.assertTrue(ingestService.awaitIdle(5000L));
+
+        verify(eventPublisher).publish(Topic.RESULTS, "1", result);
+        verify(eventPublisher).publish(Topic.EVENTS, "1", event);
+
+        Assert.assertEquals(ingestService.getMetrics().get("accepted"), 2L);
+        Assert.assertEquals(ingestService.getMetrics().get("dispatched"), 2L);
+        Assert.assertEquals(ingestService.getMetrics().get("depth"), 0);
+    }
+
+    @Test
+    public void testDispatchMessage() throws Exception {
+        messageStore.setPreviewSize(5);
+
+        Assert.assertTrue(ingestService.submit(ConnectorEvent.message("1", MessageEvent.OUTBOUND, "Hello Citrus!")));
+        Assert.assertTrue(ingestService.awaitIdle(5000L));
+
+        ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+        verify(eventPublisher).publish(eq(Topic.MESSAGES), eq("1"), payload.capture());
+
+        JSONObject message = (JSONObject) payload.getValue();
+        Assert.assertEquals(message.get("type"), "OUTBOUND");
+        Assert.assertEquals(message.get("msg"), "Hello");
+        Assert.assertEquals(message.get("truncated"), true);
+        Assert.assertEquals(message.get("size"), 13L);
+        Assert.assertEquals(messageStore.getMessage(message.get("id").toString()).get().getPayload(), "Hello Citrus!");
+    }
+
+    @Test
+    public void testMessageTestName() throws Exception {
+        MessageStore messageStore = Mockito.spy(new MessageStore());
+        ingestService.setMessageStore(messageStore);
+
+        Assert.assertTrue(ingestService.submit(Arrays.asList(
+                ConnectorEvent.testEvent(SocketEvent.createEvent("FooIT", SocketEvent.EventType.TEST_START, "FooIT")),
+                ConnectorEvent.message("FooIT", MessageEvent.INBOUND, "Hello"),
+                ConnectorEvent.message("", MessageEvent.OUTBOUND, "Citrus"))));
+        Assert.assertTrue(ingestService.awaitIdle(5000L));
+
+        verify(messageStore).createEvent("FooIT", "FooIT", MessageEvent.INBOUND, "Hello", false, 0L);
+        verify(messageStore).createEvent("", "FooIT", MessageEvent.OUTBOUND, "Citrus", false, 0L);
+    }
+
+    @Test
+    public void testQueueCapacity() throws Exception {
+        CountDownLatch dispatching = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            dispatching.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(eventPublisher).publish(any(Topic.class), any(), any());
+
+        SocketEvent event = SocketEvent.createEvent("1", SocketEvent.EventType.TEST_START, "foo");
+        ingestService.setCapacity(2);
+
+        Assert.assertTrue(ingestService.submit(ConnectorEvent.testEvent(event)));
+        Assert.assertTrue(dispatching.await(5, TimeUnit.SECONDS));
+
+        Assert.assertTrue(ingestService.submit(ConnectorEvent.testEvent(event)));
+        Assert.assertFalse(ingestService.submit(ConnectorEvent.testEvent(event)));
+        Assert.assertEquals(ingestService.getMetrics().get("dropped"), 1L);
+        Assert.assertEquals(ingestService.getMetrics().get("depth"), 2);
+
+        release.countDown();
+        Assert.assertTrue(ingestService.awaitIdle(5000L));
+        verify(eventPublisher, times(2)).publish(Topic.EVENTS, "1", event);
+    }
+}
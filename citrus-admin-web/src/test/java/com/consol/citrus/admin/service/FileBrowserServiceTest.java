@@ -17,6 +17,7 @@
 package com.consol.citrus.admin.service;
 
 import com.consol.citrus.Citrus;
+import com.consol.citrus.admin.model.DirectoryListing;
 import org.apache.commons.lang.RandomStringUtils;
 import org.apache.tomcat.util.http.fileupload.FileUtils;
 import org.springframework.core.io.ClassPathResource;
@@ -26,6 +27,7 @@ import org.testng.annotations.*;
 import java.io.File;
 import java.io.IOException;
 import java.net.URLEncoder;
+import java.util.Arrays;
 
 /**
  * @author Christoph Deppisch
@@ -63,6 +65,38 @@ public class FileBrowserServiceTest {
         Assert.assertEquals(folders[5], "sample");
     }
 
+    @Test
+    public void testGetFoldersPaged() throws Exception {
+        DirectoryListing listing = testling.getFolders(new ClassPathResource("projects").getFile(), 1, 2);
+        Assert.assertEquals(listing.getTotal(), 6);
+        Assert.assertEquals(listing.getOffset(), 1);
+        Assert.assertEquals(listing.getFolders().size(), 2);
+        Assert.assertEquals(listing.getFolders().get(0), "cucumber");
+        Assert.assertEquals(listing.getFolders().get(1), "java-config");
+        Assert.assertTrue(listing.isMore());
+
+        listing = testling.getFolders(new ClassPathResource("projects").getFile(), 4, 10);
+        Assert.assertEquals(listing.getFolders().size(), 2);
+        Assert.assertFalse(listing.isMore());
+
+        Assert.assertTrue(testling.containsEntry(new ClassPathResource("projects/maven").getFile(), "pom.xml"));
+        Assert.assertFalse(testling.containsEntry(new ClassPathResource("projects/maven").getFile(), "build.xml"));
+    }
+
+    @Test
+    public void testGetFoldersModified() throws Exception {
+        Assert.assertEquals(testling.getFolders(tmpDir).length, 1);
+
+        File newDir = createRandomDirectory(tmpDir);
+        Assert.assertTrue(tmpDir.setLastModified(tmpDir.lastModified() + 5000L));
+
+        String[] folders = testling.getFolders(tmpDir);
+        Assert.assertEquals(folders.length, 2);
+        Assert.assertTrue(Arrays.asList(folders).contains(newDir.getName()));
+
+        Assert.assertTrue(newDir.delete());
+    }
+
     @Test
     public void testFindFileInPath() throws Exception {
         File foundFile = testling.findFileInPath(tmpDir, tmpFile.getName(), true);
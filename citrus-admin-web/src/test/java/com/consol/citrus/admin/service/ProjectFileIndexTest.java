@@ -0,0 +1,128 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.service;
+
+import com.consol.citrus.admin.model.Project;
+import org.mockito.Mockito;
+import org.springframework.util.FileSystemUtils;
+import org.testng.Assert;
+import org.testng.annotations.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class ProjectFileIndexTest {
+
+    private ProjectFileIndex projectFileIndex = new ProjectFileIndex();
+
+    private Path projectHome;
+    private Project project;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        projectHome = Files.createTempDirectory("citrus-admin-index");
+        write("src/main/resources/citrus-context.xml");
+        write("src/test/resources/citrus-context.xml");
+        write("src/test/resources/com/consol/citrus/citrus-context.xml");
+        write("src/test/java/com/consol/citrus/EndpointConfig.java");
+        write("src/test/java/foo/EndpointConfig.java");
+        write("target/test-classes/citrus-context.xml");
+        write(".git/config.xml");
+        write("node_modules/foo/config.xml");
+
+        project = new Project(projectHome.toString());
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void cleanup() {
+        projectFileIndex.close();
+        FileSystemUtils.deleteRecursively(projectHome.toFile());
+    }
+
+    @Test
+    public void testFindFiles() {
+        Assert.assertEquals(projectFileIndex.findFiles(project, "citrus-context.xml").size(), 3L);
+        Assert.assertEquals(projectFileIndex.findFiles(project, "EndpointConfig.java").size(), 2L);
+        Assert.assertTrue(projectFileIndex.findFiles(project, "config.xml").isEmpty());
+        Assert.assertNull(projectFileIndex.findFile(project, "unknown.xml"));
+    }
+
+    @Test
+    public void testFindClasspathResource() {
+        Assert.assertEquals(projectFileIndex.findClasspathResource(project, "classpath:citrus-context.xml"),
+                projectHome.resolve("src/test/resources/citrus-context.xml").toFile());
+        Assert.assertEquals(projectFileIndex.findClasspathResource(project, "classpath*:com/consol/citrus/citrus-context.xml"),
+                projectHome.resolve("src/test/resources/com/consol/citrus/citrus-context.xml").toFile());
+        Assert.assertNull(projectFileIndex.findClasspathResource(project, "classpath:org/citrus-context.xml"));
+    }
+
+    @Test
+    public void testFindClasspathResourceNonNormalizedHome() {
+        Project unnormalized = Mockito.mock(Project.class);
+        Mockito.when(unnormalized.getProjectHome()).thenReturn(projectHome.resolve("src").resolve("..").toString());
+
+        Assert.assertEquals(projectFileIndex.findClasspathResource(unnormalized, "classpath:citrus-context.xml"),
+                projectHome.resolve("src/test/resources/citrus-context.xml").toFile());
+    }
+
+    @Test
+    public void testFindFileInDirectory() {
+        File javaDirectory = projectHome.resolve("src/test/java").toFile();
+        Assert.assertEquals(projectFileIndex.findFile(project, javaDirectory, "foo/EndpointConfig.java"),
+                projectHome.resolve("src/test/java/foo/EndpointConfig.java").toFile());
+        Assert.assertEquals(projectFileIndex.findFile(project, javaDirectory, "com/consol/citrus/EndpointConfig.java"),
+                projectHome.resolve("src/test/java/com/consol/citrus/EndpointConfig.java").toFile());
+        Assert.assertNotNull(projectFileIndex.findFile(project, javaDirectory, "bar/EndpointConfig.java"));
+        Assert.assertNull(projectFileIndex.findFile(project, projectHome.resolve("src/main").toFile(), "EndpointConfig.java"));
+    }
+
+    @Test(dependsOnMethods = { "testFindFiles", "testFindClasspathResource", "testFindFileInDirectory" })
+    public void testIndexUpdate() throws Exception {
+        List<Path> changes = new CopyOnWriteArrayList<>();
+        Consumer<Path> listener = changes::add;
+        projectFileIndex.addChangeListener(listener);
+
+        write("src/test/resources/new/citrus.properties");
+
+        long timeout = System.currentTimeMillis() + 10000L;
+        Path directory = projectHome.resolve("src/test/resources/new");
+        while ((projectFileIndex.findFile(project, "citrus.properties") == null || !changes.contains(directory)) && System.currentTimeMillis() < timeout) {
+            Thread.sleep(100L);
+        }
+
+        Assert.assertNotNull(projectFileIndex.findFile(project, "citrus.properties"));
+        Assert.assertTrue(changes.contains(directory));
+        projectFileIndex.removeChangeListener(listener);
+
+        projectFileIndex.setIgnoreRules("target");
+        Assert.assertEquals(projectFileIndex.findFiles(project, "config.xml").size(), 2L);
+    }
+
+    private void write(String path) throws Exception {
+        Path file = projectHome.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, "<test/>".getBytes(StandardCharsets.UTF_8));
+    }
+}
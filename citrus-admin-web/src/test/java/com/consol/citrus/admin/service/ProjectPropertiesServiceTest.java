@@ -0,0 +1,89 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.service;
+
+import com.consol.citrus.admin.model.Project;
+import org.springframework.util.FileSystemUtils;
+import org.testng.Assert;
+import org.testng.annotations.*;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class ProjectPropertiesServiceTest {
+
+    private ProjectFileIndex projectFileIndex = new ProjectFileIndex();
+    private ProjectPropertiesService projectPropertiesService = new ProjectPropertiesService();
+
+    private Path projectHome;
+    private Project project;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        projectHome = Files.createTempDirectory("citrus-admin-properties");
+        Path resources = Files.createDirectories(projectHome.resolve("src/test/resources"));
+        Files.write(resources.resolve("citrus.properties"), ("project.name=citrus\n" +
+                "project.version=1.0\n" +
+                "project.title=${project.name}-${project.version}\n" +
+                "project.label=Project ${project.title}\n").getBytes(StandardCharsets.UTF_8));
+
+        Path target = Files.createDirectories(projectHome.resolve("target/classes"));
+        Files.write(target.resolve("citrus.properties"), "project.name=ignored\nproject.target=true\n".getBytes(StandardCharsets.UTF_8));
+
+        project = new Project(projectHome.toString());
+        projectPropertiesService.setProjectFileIndex(projectFileIndex);
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void cleanup() {
+        projectPropertiesService.close();
+        projectFileIndex.close();
+        FileSystemUtils.deleteRecursively(projectHome.toFile());
+    }
+
+    @Test
+    public void testGetProperties() {
+        Assert.assertEquals(projectPropertiesService.getProperties(project).size(), 4L);
+        Assert.assertEquals(projectPropertiesService.getProperty(project, "project.name"), "citrus");
+        Assert.assertNull(projectPropertiesService.getProperty(project, "project.target"));
+        Assert.assertNull(projectPropertiesService.getProperty(project, "unknown"));
+    }
+
+    @Test
+    public void testResolveNestedPlaceholders() {
+        Assert.assertEquals(projectPropertiesService.getProperty(project, "project.title"), "citrus-1.0");
+        Assert.assertEquals(projectPropertiesService.resolve(project, "${project.label}"), "Project citrus-1.0");
+        Assert.assertEquals(projectPropertiesService.resolve(project, "${project.name}:${unknown}"), "citrus:${unknown}");
+        Assert.assertNull(projectPropertiesService.resolve(project, "${unknown}"));
+    }
+
+    @Test(dependsOnMethods = { "testGetProperties", "testResolveNestedPlaceholders" })
+    public void testReloadOnChange() throws Exception {
+        File propertyFile = projectHome.resolve("src/test/resources/citrus.properties").toFile();
+        Files.write(propertyFile.toPath(), "project.name=changed\n".getBytes(StandardCharsets.UTF_8));
+        Assert.assertTrue(propertyFile.setLastModified(System.currentTimeMillis() + 5000L));
+
+        projectPropertiesService.reset();
+        Assert.assertEquals(projectPropertiesService.getProperty(project, "project.name"), "changed");
+    }
+}
@@ -44,19 +44,31 @@ public class ProjectServiceTest {
 
     private ProjectService projectService;
     private FileBrowserService fileBrowserService = new FileBrowserService();
+    private ProjectFileIndex projectFileIndex = new ProjectFileIndex();
+    private ProjectPropertiesService projectPropertiesService = new ProjectPropertiesService();
     private SpringBeanService springBeanService = Mockito.mock(SpringBeanService.class);
     private SpringJavaConfigService springJavaConfigService = Mockito.mock(SpringJavaConfigService.class);
     private Environment environment = Mockito.mock(Environment.class);
 
     @BeforeMethod
     public void setup() {
+        projectPropertiesService.setProjectFileIndex(projectFileIndex);
+
         projectService = new ProjectService();
         projectService.setFileBrowserService(fileBrowserService);
+        projectService.setProjectPropertiesService(projectPropertiesService);
+        projectService.setProjectFileIndex(projectFileIndex);
         projectService.setSpringBeanService(springBeanService);
         projectService.setSpringJavaConfigService(springJavaConfigService);
         projectService.setEnvironment(environment);
     }
 
+    @AfterClass(alwaysRun = true)
+    public void cleanup() {
+        projectPropertiesService.close();
+        projectFileIndex.close();
+    }
+
     @Test(dataProvider = "projectProvider")
     public void testLoadAndSaveProject(String projectHome, String description, Map<String, String> properties, boolean connectorActive) throws Exception {
         String home = new ClassPathResource(projectHome).getFile().getCanonicalPath();
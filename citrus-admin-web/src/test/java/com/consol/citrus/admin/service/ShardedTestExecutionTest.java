@@ -0,0 +1,291 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.service;
+
+import com.consol.citrus.admin.model.*;
+import com.consol.citrus.admin.process.listener.AbstractProcessListener;
+import com.consol.citrus.admin.process.listener.ProcessListener;
+import com.consol.citrus.admin.service.command.TerminalCommand;
+import com.consol.citrus.admin.service.command.maven.MavenBuildContext;
+import org.mockito.Mockito;
+import org.springframework.util.FileSystemUtils;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class ShardedTestExecutionTest {
+
+    private BuildAvoidanceService buildAvoidanceService = new BuildAvoidanceService();
+    private ProjectFileIndex projectFileIndex = new ProjectFileIndex();
+    private TestReportService testReportService = Mockito.mock(TestReportService.class);
+
+    private Path projectHome;
+    private Project project;
+
+    @BeforeClass
+    public void setup() throws Exception {
+        buildAvoidanceService.setProjectFileIndex(projectFileIndex);
+        when(testReportService.getReport(Mockito.any(Project.class), Mockito.any(File.class))).thenReturn(new TestReport());
+
+        projectHome = Files.createTempDirectory("citrus-admin-shards");
+        write("pom.xml", "<project/>");
+        write("src/test/java/com/consol/citrus/FooIT.java", "class FooIT {}");
+        Files.createDirectories(projectHome.resolve("target/test-classes"));
+
+        project = new Project(projectHome.toString());
+    }
+
+    @AfterClass(alwaysRun = true)
+    public void cleanup() {
+        projectFileIndex.close();
+        FileSystemUtils.deleteRecursively(projectHome.toFile());
+    }
+
+    @org.testng.annotations.Test
+    public void testPartition() {
+        List<Test> tests = Arrays.asList(
+                new Test("com.consol.citrus", "FooIT", "foo_1", "FooIT.foo_1", TestType.JAVA),
+                new Test("com.consol.citrus", "FooIT", "foo_2", "FooIT.foo_2", TestType.JAVA),
+                new Test("com.consol.citrus", "FooIT", "foo_3", "FooIT.foo_3", TestType.JAVA),
+                new Test("com.consol.citrus", "BarIT", "bar_1", "BarIT.bar_1", TestType.JAVA),
+                new Test("com.consol.citrus", "BarIT", "bar_2", "BarIT.bar_2", TestType.JAVA),
+                new Test("com.consol.citrus.other", "BazIT", "baz", "BazIT.baz", TestType.JAVA));
+
+        List<List<String>> shards = ShardedTestExecution.partition(tests, 2);
+        Assert.assertEquals(shards.size(), 2);
+        Assert.assertEquals(shards.get(0), Collections.singletonList("com/consol/citrus/FooIT"));
+        Assert.assertEquals(shards.get(1), Arrays.asList("com/consol/citrus/BarIT", "com/consol/citrus/other/BazIT"));
+
+        shards = ShardedTestExecution.partition(tests, 8);
+        Assert.assertEquals(shards.size(), 3);
+
+        shards = ShardedTestExecution.partition(tests, 1);
+        Assert.assertEquals(shards.size(), 1);
+        Assert.assertEquals(shards.get(0).size(), 3);
+
+        Assert.assertTrue(ShardedTestExecution.partition(Collections.emptyList(), 4).isEmpty());
+    }
+
+    @org.testng.annotations.Test
+    public void testMergeReports() {
+        TestReport shard1 = new TestReport();
+        shard1.setSuiteName("Sample test suite");
+        shard1.setPassed(3L);
+        shard1.setFailed(1L);
+        shard1.setTotal(4L);
+        shard1.setDuration(1000L);
+        shard1.getResults().add(new TestResult());
+
+        TestReport shard2 = new TestReport();
+        shard2.setPassed(2L);
+        shard2.setSkipped(1L);
+        shard2.setTotal(3L);
+        shard2.setDuration(500L);
+        shard2.getResults().add(new TestResult());
+
+        TestReport merged = TestReportService.merge(Arrays.asList(shard1, shard2));
+        Assert.assertEquals(merged.getSuiteName(), "Sample test suite");
+        Assert.assertEquals(merged.getTotal(), 7L);
+        Assert.assertEquals(merged.getPassed(), 5L);
+        Assert.assertEquals(merged.getFailed(), 1L);
+        Assert.assertEquals(merged.getSkipped(), 1L);
+        Assert.assertEquals(merged.getDuration(), 1500L);
+        Assert.assertEquals(merged.getResults().size(), 2);
+    }
+
+    @org.testng.annotations.Test
+    public void testCompileOnce() {
+        MavenBuildContext buildContext = new MavenBuildContext();
+        buildContext.setTestPlugin("maven-surefire");
+        buildContext.setMaxParallelShards(1);
+
+        List<List<String>> shards = Arrays.asList(Collections.singletonList("com/consol/citrus/FooIT"),
+                Collections.singletonList("com/consol/citrus/BarIT"));
+
+        RecordingTerminalService terminalService = new RecordingTerminalService();
+        RecordingProcessListener processListener = new RecordingProcessListener();
+        ShardedTestExecution execution = new ShardedTestExecution("parallel-1", project, buildContext, shards,
+                terminalService, testReportService, buildAvoidanceService, processListener);
+
+        Assert.assertTrue(execution.start().isDone());
+        Assert.assertEquals(processListener.result, "success");
+        Assert.assertEquals(terminalService.commands.size(), 3);
+        Assert.assertTrue(terminalService.commands.get(0).contains("test-compile"));
+
+        for (int i = 1; i < terminalService.commands.size(); i++) {
+            String command = terminalService.commands.get(i);
+            Assert.assertTrue(command.contains("surefire:test"));
+            Assert.assertFalse(command.contains("compile"));
+            Assert.assertTrue(command.contains("-Dsurefire.reportNameSuffix=shard-" + i));
+            Assert.assertTrue(command.contains("-Dtest=" + shards.get(i - 1).get(0)));
+        }
+
+        terminalService = new RecordingTerminalService();
+        processListener = new RecordingProcessListener();
+        execution = new ShardedTestExecution("parallel-2", project, buildContext, shards,
+                terminalService, testReportService, buildAvoidanceService, processListener);
+
+        Assert.assertTrue(execution.start().isDone());
+        Assert.assertEquals(processListener.result, "success");
+        Assert.assertEquals(terminalService.commands.size(), 2);
+        Assert.assertTrue(terminalService.commands.stream().allMatch(command -> command.contains("surefire:test")));
+    }
+
+    @org.testng.annotations.Test
+    public void testShardActivity() {
+        MavenBuildContext buildContext = new MavenBuildContext();
+        buildContext.setTestPlugin("maven-surefire");
+        buildContext.setMaxParallelShards(1);
+
+        List<List<String>> shards = Arrays.asList(Collections.singletonList("com/consol/citrus/FooIT"),
+                Collections.singletonList("com/consol/citrus/BarIT"));
+
+        RecordingTerminalService terminalService = new RecordingTerminalService();
+        RecordingProcessListener processListener = new RecordingProcessListener();
+        ShardedTestExecution execution = new ShardedTestExecution("parallel-4", project, buildContext, shards,
+                terminalService, testReportService, buildAvoidanceService, processListener);
+
+        Assert.assertTrue(execution.start().isDone());
+        Assert.assertTrue(processListener.activity.contains("parallel-4/2:output of 2"));
+        Assert.assertTrue(processListener.activity.contains("parallel-4/3:output of 3"));
+        Assert.assertTrue(processListener.completed.contains("parallel-4/2"));
+        Assert.assertTrue(processListener.completed.contains("parallel-4/3"));
+    }
+
+    @org.testng.annotations.Test
+    public void testShardReportName() {
+        List<String> tests = Arrays.asList("com/consol/citrus/FooIT", "BarIT");
+
+        Assert.assertTrue(ShardedTestExecution.isShardReport("TEST-com.consol.citrus.FooIT-shard-1.xml", "shard-1", tests));
+        Assert.assertTrue(ShardedTestExecution.isShardReport("TEST-com.consol.citrus.other.BarIT-shard-1.xml", "shard-1", tests));
+        Assert.assertFalse(ShardedTestExecution.isShardReport("TEST-com.consol.citrus.FooIT-shard-2.xml", "shard-1", tests));
+        Assert.assertFalse(ShardedTestExecution.isShardReport("TEST-com.consol.citrus.BazIT-shard-1.xml", "shard-1", tests));
+        Assert.assertFalse(ShardedTestExecution.isShardReport("TEST-com.consol.citrus.FooBarIT-shard-1.xml", "shard-1", tests));
+        Assert.assertFalse(ShardedTestExecution.isShardReport("com.consol.citrus.FooIT-shard-1.txt", "shard-1", tests));
+    }
+
+    @org.testng.annotations.Test
+    public void testCollectReportsOfCurrentRun() throws Exception {
+        MavenBuildContext buildContext = new MavenBuildContext();
+        buildContext.setTestPlugin("maven-surefire");
+
+        write("target/surefire-reports/TEST-com.consol.citrus.FooIT-shard-1.xml", "<testsuite/>");
+        write("target/surefire-reports/TEST-com.consol.citrus.BarIT-shard-1.xml", "<testsuite/>");
+        write("target/surefire-reports/TEST-com.consol.citrus.BazIT-shard-1.xml", "<testsuite/>");
+        long previousRun = System.currentTimeMillis() - 60000L;
+        Assert.assertTrue(projectHome.resolve("target/surefire-reports/TEST-com.consol.citrus.BarIT-shard-1.xml").toFile().setLastModified(previousRun));
+        Assert.assertTrue(projectHome.resolve("target/surefire-reports/TEST-com.consol.citrus.BazIT-shard-1.xml").toFile().setLastModified(previousRun));
+
+        List<List<String>> shards = Collections.singletonList(Arrays.asList("com/consol/citrus/FooIT", "com/consol/citrus/BarIT"));
+        RecordingTerminalService terminalService = new RecordingTerminalService();
+        ShardedTestExecution execution = new ShardedTestExecution("parallel-3", project, buildContext, shards,
+                terminalService, testReportService, buildAvoidanceService, new RecordingProcessListener());
+
+        Assert.assertTrue(execution.start().isDone());
+
+        File[] reports = new File(execution.getReportsDirectory(), "shard-1").listFiles();
+        Assert.assertNotNull(reports);
+        Assert.assertEquals(reports.length, 1);
+        Assert.assertEquals(reports[0].getName(), "TEST-com.consol.citrus.FooIT-shard-1.xml");
+    }
+
+    private void write(String path, String content) throws Exception {
+        Path file = projectHome.resolve(path);
+        Files.createDirectories(file.getParent());
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Terminal service completing each command successfully right away.
+     */
+    private static class RecordingTerminalService implements TerminalService {
+        private final List<String> commands = new ArrayList<>();
+        private final AtomicInteger pid = new AtomicInteger();
+
+        @Override
+        public String execute(TerminalCommand command, ProcessListener... processListeners) {
+            String processId = String.valueOf(pid.incrementAndGet());
+            commands.add(command.buildCommand());
+
+            List<ProcessListener> listeners = new ArrayList<>(Arrays.asList(processListeners));
+            if (command.getShellListeners() != null) {
+                listeners.addAll(Arrays.asList(command.getShellListeners()));
+            }
+
+            listeners.forEach(listener -> listener.onProcessStart(processId));
+            listeners.forEach(listener -> listener.onProcessActivity(processId, "output of " + processId));
+            listeners.forEach(listener -> listener.onProcessSuccess(processId));
+            return processId;
+        }
+
+        @Override
+        public boolean executeAndWait(TerminalCommand command, ProcessListener... processListeners) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean cancelProcess(String pid) {
+            return false;
+        }
+    }
+
+    /**
+     * Records overall result and shard activity of parallel test execution.
+     */
+    private static class RecordingProcessListener extends AbstractProcessListener {
+        private String result;
+        private final List<String> activity = new ArrayList<>();
+        private final List<String> completed = new ArrayList<>();
+
+        @Override
+        public void onSubProcessActivity(String processId, String subProcessId, String output) {
+            activity.add(processId + "/" + subProcessId + ":" + output);
+        }
+
+        @Override
+        public void onSubProcessComplete(String processId, String subProcessId) {
+            completed.add(processId + "/" + subProcessId);
+        }
+
+        @Override
+        public void onProcessSuccess(String processId) {
+            result = "success";
+        }
+
+        @Override
+        public void onProcessFail(String processId, int exitCode) {
+            result = "failed";
+        }
+
+        @Override
+        public void onProcessFail(String processId, Throwable e) {
+            result = "failed";
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.consol.citrus.admin.service;
+
+import com.consol.citrus.admin.connector.runner.ForkedTestRunner;
+import com.consol.citrus.admin.model.Project;
+import com.consol.citrus.admin.model.TestType;
+import com.consol.citrus.admin.process.ProcessExecutor;
+import org.apache.commons.lang.SystemUtils;
+import org.testng.Assert;
+import org.testng.SkipException;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class WarmTestRunnerTest {
+
+    @Test
+    public void testOutdatedClasses() throws Exception {
+        Path projectHome = Files.createTempDirectory("warm-runner");
+        Path source = Files.createDirectories(projectHome.resolve("src/test/java/com/consol/citrus")).resolve("FooIT.java");
+        Path compiled = Files.createDirectories(projectHome.resolve("target/test-classes/com/consol/citrus")).resolve("FooIT.class");
+        Project project = new Project(projectHome.toString());
+
+        Files.write(source, "class FooIT {}".getBytes());
+        setLastModified(projectHome.resolve("target").toFile(), 1000L);
+        Assert.assertTrue(WarmTestRunner.isOutdated(project));
+
+        Files.write(compiled, new byte[] { 0 });
+        setLastModified(projectHome.resolve("src").toFile(), 1000L);
+        Assert.assertFalse(WarmTestRunner.isOutdated(project));
+
+        Assert.assertTrue(new WarmTestRunner(project, Collections.emptyList()).isUpToDate());
+    }
+
+    @Test
+    public void testClassesChanged() throws Exception {
+        Path projectHome = Files.createTempDirectory("warm-runner");
+        Path compiled = Files.createDirectories(projectHome.resolve("target/classes")).resolve("beans.xml");
+        Files.write(compiled, "<beans/>".getBytes());
+        setLastModified(projectHome.toFile(), 1000L);
+
+        WarmTestRunner runner = new WarmTestRunner(new Project(projectHome.toString()), Collections.emptyList());
+        Assert.assertTrue(runner.isUpToDate());
+        Assert.assertFalse(runner.isAlive());
+        Assert.assertFalse(runner.isBusy());
+
+        Assert.assertTrue(compiled.toFile().setLastModified(2000L));
+        Assert.assertFalse(runner.isUpToDate());
+    }
+
+    @Test
+    public void testRunTimeout() throws Exception {
+        if (!SystemUtils.IS_OS_UNIX) {
+            throw new SkipException("Requires bash");
+        }
+
+        Path projectHome = Files.createTempDirectory("warm-runner");
+        ProcessExecutor processExecutor = new ProcessExecutor(1, 1);
+
+        // runner gets ready but never reports finished test runs
+        WarmTestRunner runner = new WarmTestRunner(new Project(projectHome.toString()), Arrays.asList("bash", "-c",
+                String.format("echo '%s%s'; cat > /dev/null", ForkedTestRunner.EVENT_PREFIX, ForkedTestRunner.READY)));
+        try {
+            runner.start(processExecutor, "runner-1");
+            Assert.assertTrue(runner.isAlive());
+
+            long start = System.currentTimeMillis();
+            int result = runner.run(new com.consol.citrus.admin.model.Test("com.consol.citrus", "FooIT", "foo", "FooIT.foo", TestType.JAVA), "runner-1", 1L);
+            Assert.assertEquals(result, ForkedTestRunner.RUN_ERROR);
+            Assert.assertTrue(System.currentTimeMillis() - start < 10000L);
+            Assert.assertFalse(runner.isBusy());
+
+            for (int i = 0; i < 50 && runner.isAlive(); i++) {
+                Thread.sleep(100L);
+            }
+            Assert.assertFalse(runner.isAlive());
+        } finally {
+            runner.close();
+            processExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Sets modification time of file and all files below.
+     * @param file
+     * @param lastModified
+     */
+    private void setLastModified(File file, long lastModified) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                setLastModified(child, lastModified);
+            }
+        }
+
+        Assert.assertTrue(file.setLastModified(lastModified));
+    }
+}
@@ -98,6 +98,20 @@ public class JUnit4TestReportLoaderTest {
         Assert.assertNotNull(testResult.getStackTrace());
     }
 
+    @Test
+    public void testReportFromDirectory() throws Exception {
+        TestReport report = service.getReport(project, new ClassPathResource("projects/maven/target/failsafe-reports").getFile());
+        Assert.assertEquals(report.getSuiteName(), "Sample test suite");
+        Assert.assertEquals(report.getTotal(), 16L);
+        Assert.assertEquals(report.getPassed(), 10L);
+        Assert.assertEquals(report.getFailed(), 5L);
+        Assert.assertEquals(report.getSkipped(), 1L);
+        Assert.assertEquals(report.getResults().size(), 3L);
+
+        report = service.getReport(project, new ClassPathResource("projects/sample").getFile());
+        Assert.assertEquals(report.getTotal(), 0L);
+    }
+
     @Test
     public void testResult() throws Exception {
         Assert.assertTrue(service.hasTestResults(project));
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2006-2017 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.consol.citrus.admin.web;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.*;
+import org.springframework.util.FileCopyUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * @author Christoph Deppisch
+ */
+public class GzipRequestFilterTest {
+
+    @Test
+    public void testDecompress() throws Exception {
+        MockHttpServletRequest request = createRequest(gzip("[{\"type\":\"result\"}]".getBytes(StandardCharsets.UTF_8)));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        new GzipRequestFilter().doFilter(request, response, chain);
+
+        HttpServletRequest filtered = (HttpServletRequest) chain.getRequest();
+        Assert.assertNotNull(filtered);
+        Assert.assertNull(filtered.getHeader(HttpHeaders.CONTENT_ENCODING));
+        Assert.assertEquals(filtered.getContentLength(), 19);
+        Assert.assertEquals(new String(FileCopyUtils.copyToByteArray(filtered.getInputStream()), StandardCharsets.UTF_8), "[{\"type\":\"result\"}]");
+    }
+
+    @Test
+    public void testSizeLimitExceeded() throws Exception {
+        byte[] body = new byte[64 * 1024];
+        Arrays.fill(body, (byte) 'x');
+
+        MockHttpServletRequest request = createRequest(gzip(body));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        GzipRequestFilter filter = new GzipRequestFilter();
+        filter.setSizeLimit(32 * 1024);
+        filter.doFilter(request, response, chain);
+
+        Assert.assertEquals(response.getStatus(), 413);
+        Assert.assertNull(chain.getRequest());
+    }
+
+    @Test
+    public void testInvalidBody() throws Exception {
+        MockHttpServletRequest request = createRequest("no gzip".getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain();
+
+        new GzipRequestFilter().doFilter(request, response, chain);
+
+        Assert.assertEquals(response.getStatus(), 400);
+        Assert.assertNull(chain.getRequest());
+    }
+
+    @Test
+    public void testUncompressed() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/connector/batch");
+        request.setContent("[]".getBytes(StandardCharsets.UTF_8));
+        MockFilterChain chain = new MockFilterChain();
+
+        new GzipRequestFilter().doFilter(request, new MockHttpServletResponse(), chain);
+
+        Assert.assertSame(chain.getRequest(), request);
+    }
+
+    private MockHttpServletRequest createRequest(byte[] content) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/connector/batch");
+        request.addHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        request.setContent(content);
+        return request;
+    }
+
+    private byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(data);
+        }
+        return compressed.toByteArray();
+    }
+}